@@ -18,26 +18,28 @@
 package de.cau.cs.kieler.klighd.offscreen.application;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-import org.eclipse.core.runtime.IStatus;
 import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.XMIResource;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
-import org.eclipse.swt.widgets.Display;
 
-import de.cau.cs.kieler.klighd.IOffscreenRenderer;
-import de.cau.cs.kieler.klighd.LightDiagramServices;
+import de.cau.cs.kieler.klighd.piccolo.export.BatchOffscreenRenderer;
+import de.cau.cs.kieler.klighd.piccolo.export.BatchOffscreenRenderer.Result;
 
 /**
  * An initial draft of an off-screen diagram rendering application generating SVG outputs.<br>
  * This application takes the names of the input files as arguments and optional switches like
- * "-consoleLog".<br> 
+ * "-consoleLog". The switch "-workers &lt;n&gt;" determines the number of diagrams rendered
+ * concurrently, it defaults to the number of available processors.<br>
+ * <br>
+ * The diagrams are rendered by a {@link BatchOffscreenRenderer}, which doesn't require a display.
+ * The time spent on each model as well as the overall throughput are reported on the console.<br>
  * <br>
  * <b>Note:</b> On MacOS X make sure to add "-Djava.awt.headless=true" to the vmargs!
  * Otherwise the application will freeze! 
@@ -47,7 +49,7 @@ import de.cau.cs.kieler.klighd.LightDiagramServices;
  */
 public class OffscreenDiagramRenderer implements IApplication {
 
-    private final ResourceSet set = new ResourceSetImpl();
+    private static final String WORKERS_SWITCH = "-workers";
 
     /**
      * {@inheritDoc}
@@ -56,49 +58,55 @@ public class OffscreenDiagramRenderer implements IApplication {
         final String[] appArgs =
                 (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
         
-        Display.getDefault();
-        
-        set.getLoadOptions().put(XMIResource.OPTION_RECORD_UNKNOWN_FEATURE, true);
-        
-        for (final String arg: appArgs) {
-            if (!new File(arg).exists()) {
-                continue;
+        int workers = Runtime.getRuntime().availableProcessors();
+        final List<URI> sources = new ArrayList<>();
+
+        for (int i = 0; i < appArgs.length; i++) {
+            if (WORKERS_SWITCH.equals(appArgs[i]) && i + 1 < appArgs.length) {
+                workers = Math.max(1, Integer.parseInt(appArgs[++i]));
+
+            } else if (new File(appArgs[i]).exists()) {
+                sources.add(URI.createFileURI(appArgs[i]));
             }
-            
-            this.renderDiagramOf(arg);
         }
-        
-        return IApplication.EXIT_OK;
-    }
-    
-    private void renderDiagramOf(final String fileName) throws IOException {
-        
-        final String targetFile = fileName.replaceFirst("\\p{Punct}\\w*\\z", ".svg"); 
-        new File(targetFile).delete();
 
-        // load the source model
-        final Resource res = set.getResource(URI.createFileURI(fileName), true);
-        if (res.getContents().isEmpty()) {
-            return;
+        final long start = System.nanoTime();
+        final List<Result> results;
+        try (BatchOffscreenRenderer renderer = new BatchOffscreenRenderer(workers,
+                workers * BatchOffscreenRenderer.QUEUE_CAPACITY_PER_WORKER, null,
+                OffscreenDiagramRenderer::createResourceSet)) {
+            results = renderer.renderAll(sources, OffscreenDiagramRenderer::targetFileOf);
         }
-        
-        final EObject eo = res.getContents().get(0);
-        if (eo == null) {
-            return;
-        }
-
-        // render and layout the diagram
-        final IStatus result =
-                LightDiagramServices.renderOffScreen(eo, IOffscreenRenderer.SVG, targetFile);
+        final long duration = System.nanoTime() - start;
 
-        if (result != null && result.isOK()) {
-            System.out.println("Generated file " + targetFile);
-        } else {
-            System.out.println("Generation of diagram to stored in " + targetFile + " failed.");
-            if (result != null && result.getException() != null) {
-                result.getException().printStackTrace();
+        int generated = 0;
+        for (final Result result : results) {
+            System.out.println(result);
+            if (result.isOK()) {
+                generated++;
+            } else if (result.getStatus().getException() != null) {
+                result.getStatus().getException().printStackTrace();
             }
         }
+
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(duration));
+        System.out.println("Generated " + generated + " of " + results.size() + " diagrams in "
+                + millis + " ms with " + workers + " workers, i.e. "
+                + String.format("%.1f", results.size() * 1000d / millis) + " diagrams per second.");
+
+        return IApplication.EXIT_OK;
+    }
+
+    private static ResourceSet createResourceSet() {
+        final ResourceSet set = new ResourceSetImpl();
+        set.getLoadOptions().put(XMIResource.OPTION_RECORD_UNKNOWN_FEATURE, true);
+        return set;
+    }
+
+    private static File targetFileOf(final URI source) {
+        final String targetFile = source.toFileString().replaceFirst("\\p{Punct}\\w*\\z", ".svg");
+        new File(targetFile).delete();
+        return new File(targetFile);
     }
 
     /**
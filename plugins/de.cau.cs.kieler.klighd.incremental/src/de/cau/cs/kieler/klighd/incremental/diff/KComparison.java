@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2016 by
+ * Copyright 2016-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -17,10 +17,12 @@
 package de.cau.cs.kieler.klighd.incremental.diff;
 
 import java.util.Collection;
+import java.util.Set;
 
 import com.google.common.collect.MapDifference;
 import com.google.common.collect.MapDifference.ValueDifference;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import de.cau.cs.kieler.klighd.incremental.util.UIDAdapter;
 import de.cau.cs.kieler.klighd.kgraph.KEdge;
@@ -39,6 +41,8 @@ public class KComparison {
     private UIDAdapter newAdapter;
     private MapDifference<String, KNode> nodeDifference;
     private MapDifference<String, KEdge> edgeDifference;
+    /** The added nodes for constant time membership tests, the values view of the difference is scanned linearly. */
+    private Set<KNode> addedNodes;
 
     /**
      * Create new comparison.
@@ -53,6 +57,8 @@ public class KComparison {
         this.newAdapter = newAdapter;
         nodeDifference = Maps.difference(baseAdapter.getNodeMap(), newAdapter.getNodeMap());
         edgeDifference = Maps.difference(baseAdapter.getEdgeMap(), newAdapter.getEdgeMap());
+        addedNodes = Sets.newIdentityHashSet();
+        addedNodes.addAll(getAddedNodes());
     }
 
     /**
@@ -170,6 +176,17 @@ public class KComparison {
         return nodeDifference.entriesOnlyOnRight().values();
     }
 
+    /**
+     * Check whether the given node of the new model is newly added.
+     * 
+     * @param newNode
+     *            the node of the new model.
+     * @return {@code true} if the node is not present in the base model.
+     */
+    public boolean isAddedNode(final KNode newNode) {
+        return addedNodes.contains(newNode);
+    }
+
     /**
      * Get removed nodes.
      * 
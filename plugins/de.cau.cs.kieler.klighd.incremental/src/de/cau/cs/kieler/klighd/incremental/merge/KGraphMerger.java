@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2016-2023 by
+ * Copyright 2016-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -19,7 +19,7 @@ package de.cau.cs.kieler.klighd.incremental.merge;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,15 +27,17 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.elk.graph.properties.IProperty;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.EMap;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.MapDifference.ValueDifference;
 import com.google.common.collect.Sets;
 
+import de.cau.cs.kieler.klighd.Klighd;
 import de.cau.cs.kieler.klighd.incremental.diff.KComparison;
 import de.cau.cs.kieler.klighd.kgraph.KEdge;
 import de.cau.cs.kieler.klighd.kgraph.KGraphData;
@@ -55,9 +57,9 @@ import de.cau.cs.kieler.klighd.kgraph.KShapeLayout;
  */
 public class KGraphMerger {
     
-    private static String INVALID_MOVE_MESSAGE = "Cannot move element to an out of bounds position in the reference " + 
-    "list. Check if the synthesis leaves references to elements that are not in the graph via containment or if there "+
-    "is an error in this code. The graph may not be mapped correctly now.";
+    private static final String INVALID_MOVE_MESSAGE = "Cannot move element to an out of bounds position in the "
+            + "reference list. Check if the synthesis leaves references to elements that are not in the graph via "
+            + "containment or if there is an error in this code. The graph may not be mapped correctly now.";
 
     /** The comparison to merge. */
     private KComparison comparison;
@@ -66,6 +68,12 @@ public class KGraphMerger {
     
     /** A map that gets filled with all updated elements for post-processing. */
     private Map<KGraphElement, KGraphElement> updatedElements = new HashMap<>();
+    
+    /**
+     * The positions of the elements of the new model in their reference lists, computed once per list on first use.
+     * The new model is not modified during the merge, so the positions stay valid.
+     */
+    private Map<List<?>, Map<Object, Integer>> newPositions = new IdentityHashMap<>();
 
     /**
      * Create a new merger working with the given comparison.
@@ -181,8 +189,8 @@ public class KGraphMerger {
         Stream<KNode> nodesWithoutParent = comparison.getAddedNodes().stream().filter((KNode n) -> n.getParent() == null);
         Stream<KNode> nodesWithParent    = comparison.getAddedNodes().stream().filter((KNode n) -> n.getParent() != null);
         Stream.concat(nodesWithoutParent, nodesWithParent.sorted(
-            (KNode n1, KNode n2) -> n1.getParent().getChildren().indexOf(n1)
-                                  - n2.getParent().getChildren().indexOf(n2)
+            (KNode n1, KNode n2) -> newPosition(n1, n1.getParent().getChildren())
+                                  - newPosition(n2, n2.getParent().getChildren())
         )).forEachOrdered(
             (KNode node) -> addNode(node)
         );
@@ -211,7 +219,7 @@ public class KGraphMerger {
         // Otherwise, the node has a parent, so add the node to that.
         KNode baseParent = comparison.lookupBaseNode(node.getParent());
         if (baseParent == null) {
-            if (!comparison.getAddedNodes().contains(node.getParent())) {
+            if (!comparison.isAddedNode(node.getParent())) {
                 // The new node's parent is missing in the base model as well and is not scheduled to be added
                 // otherwise. Add it and its children (including this node), but leave a warning that there might be an
                 // issue.
@@ -221,7 +229,7 @@ public class KGraphMerger {
             }
         } else {
             if (comparison.lookupBaseNode(node) == null) {
-                int oldPosition = node.getParent().getChildren().indexOf(node);
+                int oldPosition = newPosition(node, node.getParent().getChildren());
                 KNode copiedNode = EcoreUtil.copy(node);
                 // Edges from this node are handled later individually when the target is guaranteed to be added already,
                 // remove them for now.
@@ -364,7 +372,7 @@ public class KGraphMerger {
         if (baseElement != null) {
             oldLabels = new HashSet<KLabel>(baseElement.getLabels());
         }
-        for (KLabel newLabel : Lists.newLinkedList(newElement.getLabels())) {
+        for (KLabel newLabel : new ArrayList<KLabel>(newElement.getLabels())) {
             KLabel baseLabel = comparison.lookupBaseLabel(newLabel);
             if (baseLabel == null) {
                 baseLabel = EcoreUtil.copy(newLabel);
@@ -408,7 +416,7 @@ public class KGraphMerger {
         updateShapeLayout(baseLabel, newLabel);
         baseLabel.setText(newLabel.getText());
         copyInsets(newLabel.getInsets(), baseLabel.getInsets());
-        int newPosition = newLabel.getParent().getLabels().indexOf(newLabel);
+        int newPosition = newPosition(newLabel, newLabel.getParent().getLabels());
         comparison.getBaseAdapter().generateIDs(baseLabel, newPosition);
         updatedElements.put(baseLabel, newLabel);
     }
@@ -427,7 +435,7 @@ public class KGraphMerger {
         if (baseNode != null) {
             oldPorts = new HashSet<KPort>(baseNode.getPorts());
         }
-        for (KPort newPort : Lists.newLinkedList(newNode.getPorts())) {
+        for (KPort newPort : new ArrayList<KPort>(newNode.getPorts())) {
             KPort basePort = comparison.lookupBasePort(newPort);
             if (basePort == null) {
                 basePort = EcoreUtil.copy(newPort);
@@ -463,7 +471,7 @@ public class KGraphMerger {
         updateGraphElement(basePort, newPort);
         updateShapeLayout(basePort, newPort);
         copyInsets(newPort.getInsets(), basePort.getInsets());
-        int newPosition = newPort.getNode().getPorts().indexOf(newPort);
+        int newPosition = newPosition(newPort, newPort.getNode().getPorts());
         comparison.getBaseAdapter().generateIDs(basePort, newPosition);
         handleLabels(basePort, newPort);
         updatedElements.put(basePort, newPort);
@@ -487,8 +495,8 @@ public class KGraphMerger {
         baseData.addAll(newData);
         baseElement.copyProperties(newElement);
         EMap<IProperty<?>, Object> baseProperties = baseElement.getProperties();
-        LinkedList<IProperty<?>> removedProperties = Lists.newLinkedList(
-                Sets.difference(baseProperties.keySet(), newElement.getProperties().keySet()));        
+        List<IProperty<?>> removedProperties = new ArrayList<>(
+                Sets.difference(baseProperties.keySet(), newElement.getProperties().keySet()));
         
         for (IProperty<?> property : removedProperties) {
             baseProperties.removeKey(property);
@@ -497,138 +505,208 @@ public class KGraphMerger {
     
     /**
      * Updates the positions of all nodes, edges, ports and labels in their containment and reference lists to match the
-     * new model.
+     * new model. Each affected list is reordered once as a whole, moving as few elements as possible.
      */
     private void updatePositions() {
+        // The reference lists of the base model containing updated elements, mapped to their counterparts in the new
+        // model.
+        Map<EList<?>, EList<?>> lists = new IdentityHashMap<>();
         for (Entry<KGraphElement, KGraphElement> entry : updatedElements.entrySet()) {
             if (entry.getKey() instanceof KNode) {
-                updatePosition((KNode) entry.getKey(), (KNode) entry.getValue());
+                KNode baseNode = (KNode) entry.getKey();
+                KNode newNode = (KNode) entry.getValue();
+                if (baseNode.getParent() != null && newNode.getParent() != null) {
+                    lists.putIfAbsent(baseNode.getParent().getChildren(), newNode.getParent().getChildren());
+                }
             }
             if (entry.getKey() instanceof KEdge) {
-                updatePosition((KEdge) entry.getKey(), (KEdge) entry.getValue());
+                KEdge baseEdge = (KEdge) entry.getKey();
+                KEdge newEdge = (KEdge) entry.getValue();
+                if (baseEdge.getSource() != null && newEdge.getSource() != null) {
+                    lists.putIfAbsent(baseEdge.getSource().getOutgoingEdges(), newEdge.getSource().getOutgoingEdges());
+                }
+                if (baseEdge.getTarget() != null && newEdge.getTarget() != null) {
+                    lists.putIfAbsent(baseEdge.getTarget().getIncomingEdges(), newEdge.getTarget().getIncomingEdges());
+                }
+                if (baseEdge.getSourcePort() != null && newEdge.getSourcePort() != null) {
+                    lists.putIfAbsent(baseEdge.getSourcePort().getEdges(), newEdge.getSourcePort().getEdges());
+                }
+                if (baseEdge.getTargetPort() != null && newEdge.getTargetPort() != null) {
+                    lists.putIfAbsent(baseEdge.getTargetPort().getEdges(), newEdge.getTargetPort().getEdges());
+                }
             }
             if (entry.getKey() instanceof KPort) {
-                updatePosition((KPort) entry.getKey(), (KPort) entry.getValue());
+                KPort basePort = (KPort) entry.getKey();
+                KPort newPort = (KPort) entry.getValue();
+                if (basePort.getNode() != null && newPort.getNode() != null) {
+                    lists.putIfAbsent(basePort.getNode().getPorts(), newPort.getNode().getPorts());
+                }
             }
             if (entry.getKey() instanceof KLabel) {
-                updatePosition((KLabel) entry.getKey(), (KLabel) entry.getValue());
+                KLabel baseLabel = (KLabel) entry.getKey();
+                KLabel newLabel = (KLabel) entry.getValue();
+                if (baseLabel.getParent() != null && newLabel.getParent() != null) {
+                    lists.putIfAbsent(baseLabel.getParent().getLabels(), newLabel.getParent().getLabels());
+                }
             }
         }
+        for (Entry<EList<?>, EList<?>> entry : lists.entrySet()) {
+            updatePositions(entry.getKey(), entry.getValue());
+        }
         updatedElements.clear();
     }
 
     /**
-     * Updates the position of this node in the child list of its parent.
+     * Reorders the given list of the base model to match the order of the corresponding elements in the given list of
+     * the new model. Elements of the base list without counterpart in the new list keep their relative order at the end.
      * 
-     * @param baseNode the node to update to.
-     * @param newNode the node to update from.
+     * @param baseList the list to reorder.
+     * @param newList the list of the new model to take the order from.
      */
-    private void updatePosition(KNode baseNode, KNode newNode) {
-        if (baseNode.getParent() != null && newNode.getParent() != null) {
-            int newPosition = newNode.getParent().getChildren().indexOf(newNode);
-            int oldPosition = baseNode.getParent().getChildren().indexOf(baseNode);
-            if (newPosition != oldPosition) {
-                if (newPosition >= baseNode.getParent().getChildren().size()) {
-                    newPosition = baseNode.getParent().getChildren().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
-                }
-                baseNode.getParent().getChildren().move(newPosition, oldPosition);
+    private void updatePositions(final EList<?> baseList, final EList<?> newList) {
+        Set<Object> remaining = Sets.newIdentityHashSet();
+        remaining.addAll(baseList);
+        List<Object> order = new ArrayList<>(baseList.size());
+        int lastNewPosition = -1;
+        int newPosition = 0;
+        for (Object newElement : newList) {
+            KGraphElement baseElement = lookupBaseElement((KGraphElement) newElement);
+            if (baseElement != null && remaining.remove(baseElement)) {
+                order.add(baseElement);
+                lastNewPosition = newPosition;
             }
+            newPosition++;
         }
+        if (lastNewPosition >= baseList.size()) {
+            // An element would have to be moved behind the end of the base list, it is moved to the end instead.
+            Klighd.log(new Status(IStatus.WARNING, Klighd.PLUGIN_ID,
+                    this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE));
+        }
+        for (Object baseElement : baseList) {
+            if (remaining.contains(baseElement)) {
+                order.add(baseElement);
+            }
+        }
+        moveToOrder(baseList, order);
     }
 
     /**
-     * Updates the position of this port in the ports list of its parent node.
+     * Moves the elements of the given list into the given order. Only elements outside of a longest subsequence already
+     * in the right order are moved, so the number of moves and thereby the number of notifications is minimal.
      * 
-     * @param basePort the port to update to.
-     * @param newPort the port to update from.
+     * @param list the list to reorder.
+     * @param order the same elements as in the list, in the desired order.
      */
-    private void updatePosition(KPort basePort, KPort newPort) {
-        if (basePort.getNode() != null && newPort.getNode() != null) {
-            int newPosition = newPort.getNode().getPorts().indexOf(newPort);
-            int oldPosition = basePort.getNode().getPorts().indexOf(basePort);
-            if (newPosition != oldPosition) {
-                if (newPosition >= basePort.getNode().getPorts().size()) {
-                    newPosition = basePort.getNode().getPorts().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
+    private static void moveToOrder(final EList<?> list, final List<Object> order) {
+        int size = order.size();
+        Map<Object, Integer> oldPositions = new IdentityHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            oldPositions.put(list.get(i), i);
+        }
+        // Find a longest increasing subsequence of the old positions in the desired order by patience sorting.
+        int[] oldPositionsInOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            oldPositionsInOrder[i] = oldPositions.get(order.get(i));
+        }
+        int[] pileTops = new int[size];
+        int[] predecessors = new int[size];
+        int piles = 0;
+        for (int i = 0; i < size; i++) {
+            // The first pile whose top has a larger old position.
+            int low = 0;
+            int high = piles;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (oldPositionsInOrder[pileTops[middle]] < oldPositionsInOrder[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int pile = low;
+            predecessors[i] = pile > 0 ? pileTops[pile - 1] : -1;
+            pileTops[pile] = i;
+            if (pile == piles) {
+                piles++;
+            }
+        }
+        if (piles == size) {
+            // Already in order.
+            return;
+        }
+        boolean[] stable = new boolean[size];
+        for (int i = piles > 0 ? pileTops[piles - 1] : -1; i >= 0; i = predecessors[i]) {
+            stable[i] = true;
+        }
+        // Move every other element in the desired order directly in front of the next stable element, or to the end
+        // if there is none. The elements moved in front of the same stable element keep the desired relative order.
+        int[] anchors = new int[size];
+        int nextStableSlot = size;
+        for (int i = size - 1; i >= 0; i--) {
+            anchors[i] = nextStableSlot;
+            if (stable[i]) {
+                nextStableSlot = oldPositionsInOrder[i];
+            }
+        }
+        // The current position of an element is the number of elements still in their old slots before it plus the
+        // number of elements moved in front of a slot up to its own. Both are counted in logarithmic time.
+        PrefixSums remainingSlots = new PrefixSums(size + 1);
+        for (int slot = 0; slot < size; slot++) {
+            remainingSlots.add(slot, 1);
+        }
+        PrefixSums movedToSlots = new PrefixSums(size + 1);
+        for (int i = 0; i < size; i++) {
+            if (!stable[i]) {
+                int slot = oldPositionsInOrder[i];
+                int oldPosition = remainingSlots.sum(slot - 1) + movedToSlots.sum(slot);
+                remainingSlots.add(slot, -1);
+                int newPosition = remainingSlots.sum(anchors[i] - 1) + movedToSlots.sum(anchors[i]);
+                if (newPosition != oldPosition) {
+                    list.move(newPosition, oldPosition);
                 }
-                basePort.getNode().getPorts().move(newPosition, oldPosition);
+                movedToSlots.add(anchors[i], 1);
             }
         }
     }
 
     /**
-     * Updates the position of this label in the labels list of its parent node.
+     * Returns the position of the given element of the new model in the given list containing it.
      * 
-     * @param baseLabel the label to update to.
-     * @param newLabel the label to update from.
+     * @param newElement the element of the new model.
+     * @param newList the list of the new model containing the element.
+     * @return the position of the element in the list, or {@code -1} if it is not contained.
      */
-    private void updatePosition(KLabel baseLabel, KLabel newLabel) {
-        if (baseLabel.getParent() != null && newLabel.getParent() != null) {
-            int newPosition = newLabel.getParent().getLabels().indexOf(newLabel);
-            int oldPosition = baseLabel.getParent().getLabels().indexOf(baseLabel);
-            if (newPosition != oldPosition) {
-                if (newPosition >= baseLabel.getParent().getLabels().size()) {
-                    newPosition = baseLabel.getParent().getLabels().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
-                }
-                baseLabel.getParent().getLabels().move(newPosition, oldPosition);
+    private int newPosition(final Object newElement, final List<?> newList) {
+        Map<Object, Integer> positions = newPositions.get(newList);
+        if (positions == null) {
+            positions = new IdentityHashMap<>(newList.size());
+            int i = 0;
+            for (Object element : newList) {
+                positions.put(element, i++);
             }
+            newPositions.put(newList, positions);
         }
+        Integer position = positions.get(newElement);
+        return position == null ? -1 : position;
     }
 
     /**
-     * Updates the position of this edge in the outgoingEdges list of its source node. Also updates the position in the
-     * edges list of source port.
+     * Get the element from the base model with the same id as the given element of the new model.
      * 
-     * @param baseEdge the edge to update to.
-     * @param newEdge the edge to update from.
+     * @param newElement the element to get the corresponding base element to.
+     * @return the base element, or {@code null} if none found.
      */
-    private void updatePosition(KEdge baseEdge, KEdge newEdge) {
-        if (baseEdge.getSource() != null && newEdge.getSource() != null) {
-            int newPosition = newEdge.getSource().getOutgoingEdges().indexOf(newEdge);
-            int oldPosition = baseEdge.getSource().getOutgoingEdges().indexOf(baseEdge);
-            if (newPosition != oldPosition) {
-                if (newPosition >= baseEdge.getSource().getOutgoingEdges().size()) {
-                    newPosition = baseEdge.getSource().getOutgoingEdges().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
-                }
-                baseEdge.getSource().getOutgoingEdges().move(newPosition, oldPosition);
-            }
-        }
-        if (baseEdge.getTarget() != null && newEdge.getTarget() != null) {
-            int newPosition = newEdge.getTarget().getIncomingEdges().indexOf(newEdge);
-            int oldPosition = baseEdge.getTarget().getIncomingEdges().indexOf(baseEdge);
-            if (newPosition != oldPosition) {
-                if (newPosition >= baseEdge.getTarget().getIncomingEdges().size()) {
-                    newPosition = baseEdge.getTarget().getIncomingEdges().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
-                }
-                baseEdge.getTarget().getIncomingEdges().move(newPosition, oldPosition);
-            }
-        }
-        if (baseEdge.getSourcePort() != null && newEdge.getSourcePort() != null) {
-            int newPosition = newEdge.getSourcePort().getEdges().indexOf(newEdge);
-            int oldPosition = baseEdge.getSourcePort().getEdges().indexOf(baseEdge);
-            if (newPosition != oldPosition) {
-                if (newPosition >= baseEdge.getSourcePort().getEdges().size()) {
-                    newPosition = baseEdge.getSourcePort().getEdges().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
-                }
-                baseEdge.getSourcePort().getEdges().move(newPosition, oldPosition);
-            }
-        }
-        if (baseEdge.getTargetPort() != null && newEdge.getTargetPort() != null) {
-            int newPosition = newEdge.getTargetPort().getEdges().indexOf(newEdge);
-            int oldPosition = baseEdge.getTargetPort().getEdges().indexOf(baseEdge);
-            if (newPosition != oldPosition) {
-                if (newPosition >= baseEdge.getTargetPort().getEdges().size()) {
-                    newPosition = baseEdge.getTargetPort().getEdges().size() - 1;
-                    System.err.println(this.getClass().getName() + ": " + INVALID_MOVE_MESSAGE);
-                }
-                baseEdge.getTargetPort().getEdges().move(newPosition, oldPosition);
-            }
-        }
+    private KGraphElement lookupBaseElement(final KGraphElement newElement) {
+        if (newElement instanceof KNode) {
+            return comparison.lookupBaseNode((KNode) newElement);
+        } else if (newElement instanceof KEdge) {
+            return comparison.lookupBaseEdge((KEdge) newElement);
+        } else if (newElement instanceof KPort) {
+            return comparison.lookupBasePort((KPort) newElement);
+        } else if (newElement instanceof KLabel) {
+            return comparison.lookupBaseLabel((KLabel) newElement);
+        }
+        return null;
     }
 
     /**
@@ -661,4 +739,47 @@ public class KGraphMerger {
         }
     }
 
+    /**
+     * Counts per index with prefix sums in logarithmic time, a binary indexed tree.
+     */
+    private static final class PrefixSums {
+        
+        /** The partial sums, one-based. */
+        private final int[] tree;
+        
+        /**
+         * Creates counts of zero for the indices {@code 0} to {@code size - 1}.
+         * 
+         * @param size the number of indices.
+         */
+        PrefixSums(final int size) {
+            tree = new int[size + 1];
+        }
+        
+        /**
+         * Adds the given value to the count of the given index.
+         * 
+         * @param index the index.
+         * @param value the value to add.
+         */
+        void add(final int index, final int value) {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += value;
+            }
+        }
+        
+        /**
+         * Returns the sum of the counts of the indices {@code 0} to the given index, inclusive.
+         * 
+         * @param index the last index to sum up, may be {@code -1}.
+         * @return the sum.
+         */
+        int sum(final int index) {
+            int sum = 0;
+            for (int i = index + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+    }
 }
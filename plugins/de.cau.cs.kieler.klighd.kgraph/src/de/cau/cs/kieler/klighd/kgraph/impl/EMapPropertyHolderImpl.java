@@ -16,26 +16,37 @@
  */
 package de.cau.cs.kieler.klighd.kgraph.impl;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.elk.graph.properties.IProperty;
 import org.eclipse.elk.graph.properties.IPropertyHolder;
 import org.eclipse.elk.graph.properties.IPropertyValueProxy;
+import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.NotificationChain;
 
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.EMap;
 
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.InternalEObject;
 
 import org.eclipse.emf.ecore.impl.EObjectImpl;
 
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.EcoreEMap;
 import org.eclipse.emf.ecore.util.InternalEList;
@@ -44,6 +55,7 @@ import de.cau.cs.kieler.klighd.kgraph.EMapPropertyHolder;
 import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
 import de.cau.cs.kieler.klighd.kgraph.KGraphPackage;
 import de.cau.cs.kieler.klighd.kgraph.PersistentEntry;
+import de.cau.cs.kieler.klighd.kgraph.util.CompactPropertyStorage;
 
 /**
  * <!-- begin-user-doc -->
@@ -80,6 +92,34 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
      */
 	protected EList<PersistentEntry> persistentEntries;
 
+    /**
+     * The maximal number of properties stored compactly, see {@link CompactPropertyStorage}.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    public static final int MAX_COMPACT_PROPERTIES = 8;
+
+    /**
+     * The containment features of the holder classes except {@link #getProperties()}, which are
+     * the contents of holders storing their properties compactly.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private static final Map<EClass, EStructuralFeature[]> COMPACT_CONTENTS_FEATURES =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The properties as long as they are stored compactly, alternating the keys and values, or
+     * <code>null</code> if {@link #properties} holds them. Keys are added by replacing the
+     * array, so readers always see a consistent state.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private volatile Object[] compactProperties;
+
 	/**
      * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
@@ -102,15 +142,165 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
 	/**
      * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
 	public EMap<IProperty<?>, Object> getProperties() {
         if (properties == null) {
             properties = new EcoreEMap<IProperty<?>,Object>(KGraphPackage.Literals.IPROPERTY_TO_OBJECT_MAP, IPropertyToObjectMapImpl.class, this, KGraphPackage.EMAP_PROPERTY_HOLDER__PROPERTIES);
+            materializeCompactProperties();
         }
         return properties;
     }
 
+    /**
+     * Transfers the compactly stored properties, if any, to the freshly created {@link #properties}
+     * map. Adapters are not notified, as the properties didn't change. However, the
+     * {@link EContentAdapter EContentAdapters} observing this holder are attached to the new
+     * entries, as if they had been added as such, in order to observe their further changes.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private void materializeCompactProperties() {
+        final Object[] compact = compactProperties;
+        if (compact == null) {
+            return;
+        }
+        compactProperties = null;
+
+        final boolean deliver = this.eDeliver();
+        this.eSetDeliver(false);
+        for (int i = 0; i < compact.length; i += 2) {
+            properties.put((IProperty<?>) compact[i], compact[i + 1]);
+        }
+        this.eSetDeliver(deliver);
+
+        if (eBasicHasAdapters()) {
+            for (Adapter adapter : eBasicAdapters()) {
+                if (adapter instanceof EContentAdapter) {
+                    for (Object entry : properties) {
+                        ((EObject) entry).eAdapters().add(adapter);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the properties of this holder compactly, see {@link CompactPropertyStorage}, if they
+     * are few and their entries are not observed by any adapter. The properties are not
+     * modified, hence adapters of this holder are not notified.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @return <code>true</code> if the properties are stored compactly afterwards
+     * @generated NOT
+     */
+    public boolean compactProperties() {
+        if (properties == null || compactProperties != null) {
+            return true;
+        } else if (properties.size() > MAX_COMPACT_PROPERTIES) {
+            return false;
+        }
+
+        final Object[] compact = new Object[2 * properties.size()];
+        int i = 0;
+        for (Entry<IProperty<?>, Object> entry : properties) {
+            if (entry.getKey() == null || entry.getValue() == null
+                    || !((EObject) entry).eAdapters().isEmpty()) {
+                return false;
+            }
+            compact[i++] = entry.getKey();
+            compact[i++] = entry.getValue();
+        }
+
+        final boolean deliver = this.eDeliver();
+        this.eSetDeliver(false);
+        properties.clear();
+        this.eSetDeliver(deliver);
+        properties = null;
+        compactProperties = compact.length > 0 ? compact : null;
+        return true;
+    }
+
+    /**
+     * Returns the index of the given key in {@link #compactProperties}, or <code>-1</code>.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private static int indexOf(final Object[] compact, final Object key) {
+        for (int i = 0; i < compact.length; i += 2) {
+            if (compact[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < compact.length; i += 2) {
+            if (compact[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the stored value of the given key, maybe an unresolved proxy.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private Object basicGetProperty(final Object key) {
+        final Object[] compact = compactProperties;
+        if (compact != null) {
+            final int index = indexOf(compact, key);
+            return index >= 0 ? compact[index + 1] : null;
+        }
+        // reading doesn't create the property map of holders that don't have any properties,
+        //  e.g. most of the renderings
+        return properties != null && !properties.isEmpty() ? properties.get(key) : null;
+    }
+
+    /**
+     * Stores the given property compactly if possible, i.e. if the properties are stored
+     * compactly or this holder doesn't have any properties yet and shall store them compactly,
+     * if there's space left, and if no adapter is to be notified about the change.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @return <code>true</code> if the property has been stored
+     * @generated NOT
+     */
+    private boolean setCompactProperty(final IProperty<?> property, final Object value) {
+        final Object[] compact = compactProperties;
+        if (compact == null && properties == null && value == null) {
+            // there's nothing to be removed
+            return true;
+        } else if (compact == null && (properties != null
+                || !CompactPropertyStorage.isEnabled(this)) || eNotificationRequired()) {
+            return false;
+        }
+
+        final int index = compact != null ? indexOf(compact, property) : -1;
+        if (index >= 0 && value != null) {
+            compact[index + 1] = value;
+        } else if (index >= 0) {
+            final Object[] reduced = new Object[compact.length - 2];
+            System.arraycopy(compact, 0, reduced, 0, index);
+            System.arraycopy(compact, index + 2, reduced, index, compact.length - index - 2);
+            compactProperties = reduced.length > 0 ? reduced : null;
+        } else if (value == null) {
+            return true;
+        } else if (compact == null) {
+            compactProperties = new Object[] { property, value };
+        } else if (compact.length < 2 * MAX_COMPACT_PROPERTIES) {
+            final Object[] extended = Arrays.copyOf(compact, compact.length + 2);
+            extended[compact.length] = property;
+            extended[compact.length + 1] = value;
+            compactProperties = extended;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
 	/**
      * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
@@ -137,7 +327,8 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
         int i = 0;
         List<PersistentEntry> persisEntries = getPersistentEntries();
         
-        for (Entry<IProperty<?>, Object> entry : getProperties()) {
+        for (Entry<IProperty<?>, Object> entry : compactProperties != null
+                ? getAllProperties().entrySet() : getProperties()) {
             IProperty<?> key = entry.getKey();
             Object value = entry.getValue();
             if (key != null && value != null) {
@@ -175,7 +366,9 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
      * @generated NOT
      */
     public <T> IPropertyHolder setProperty(final IProperty<? super T> property, final T value) {
-        if (value == null) {
+        if (setCompactProperty(property, value)) {
+            return this;
+        } else if (value == null) {
             getProperties().removeKey(property);
         } else {
             getProperties().put(property, value);
@@ -191,11 +384,11 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
      */
     @SuppressWarnings("unchecked")
     public <T> T getProperty(IProperty<T> property) {
-        Object value = getProperties().get(property);
+        Object value = basicGetProperty(property);
         if (value instanceof IPropertyValueProxy) {
             value = ((IPropertyValueProxy) value).resolveValue(property);
             if (value != null) {
-                getProperties().put(property, value);
+                setProperty(property, (T) value);
                 return (T) value;
             }
         } else if (value != null) {
@@ -216,7 +409,11 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
      * @generated NOT
      */
     public boolean hasProperty(IProperty<?> property) {
-        return getProperties().containsKey(property);
+        final Object[] compact = compactProperties;
+        if (compact != null) {
+            return indexOf(compact, property) >= 0;
+        }
+        return properties != null && properties.containsKey(property);
     }
 
     /**
@@ -229,23 +426,11 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
             return this;
         }
 
-        if (holder instanceof EMapPropertyHolder) {
-            EMapPropertyHolder other = (EMapPropertyHolder) holder;
-            EMap<IProperty<?>, Object> ourProps = this.getProperties();
-            for (Map.Entry<IProperty<?>, Object> entry : other.getProperties()) {
-                Object value = entry.getValue();
-                if (value instanceof IPropertyValueProxy) {
-                    IPropertyValueProxy proxy = (IPropertyValueProxy) value;
-                    Object newValue = proxy.resolveValue(entry.getKey());
-                    if (newValue != null) {
-                        entry.setValue(newValue);
-                        value = newValue;
-                    }
-                }
-                ourProps.put(entry.getKey(), value);
-            }
-        } else {
-            this.getProperties().putAll(holder.getAllProperties());
+        // the EMapPropertyHolders' properties are resolved by 'getAllProperties()' as well
+        for (Map.Entry<IProperty<?>, Object> entry : holder.getAllProperties().entrySet()) {
+            @SuppressWarnings("unchecked")
+            final IProperty<Object> key = (IProperty<Object>) entry.getKey();
+            setProperty(key, entry.getValue());
         }
 
         return this;
@@ -257,6 +442,20 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
      * @generated NOT
      */
 	public Map<IProperty<?>, Object> getAllProperties() {
+        final Object[] compact = compactProperties;
+        if (compact != null || properties == null) {
+            for (int i = 0; compact != null && i < compact.length; i += 2) {
+                if (compact[i + 1] instanceof IPropertyValueProxy) {
+                    IPropertyValueProxy proxy = (IPropertyValueProxy) compact[i + 1];
+                    Object value = proxy.resolveValue((IProperty<?>) compact[i]);
+                    if (value != null) {
+                        compact[i + 1] = value;
+                    }
+                }
+            }
+            return new CompactPropertiesMap();
+        }
+
         EMap<IProperty<?>, Object> props = getProperties();
         // check for unresolved properties
         for (Map.Entry<IProperty<?>, Object> entry : props) {
@@ -347,17 +546,126 @@ public abstract class EMapPropertyHolderImpl extends EObjectImpl implements EMap
 	/**
      * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
 	@Override
 	public boolean eIsSet(int featureID) {
         switch (featureID) {
             case KGraphPackage.EMAP_PROPERTY_HOLDER__PROPERTIES:
-                return properties != null && !properties.isEmpty();
+                // compactly stored properties are materialized on reflective access
+                return compactProperties != null || properties != null && !properties.isEmpty();
             case KGraphPackage.EMAP_PROPERTY_HOLDER__PERSISTENT_ENTRIES:
                 return persistentEntries != null && !persistentEntries.isEmpty();
         }
         return super.eIsSet(featureID);
     }
 
+    /**
+     * <!-- begin-user-doc -->
+     * Omits the compactly stored properties, which are not contained as entry objects. Thus,
+     * traversing the contents of a model doesn't materialize the {@link #getProperties() EMap}.
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    @Override
+    public EList<EObject> eContents() {
+        if (compactProperties == null) {
+            return super.eContents();
+        }
+        return new EContentsEList<EObject>(this, COMPACT_CONTENTS_FEATURES.computeIfAbsent(eClass(),
+                eClass -> eClass.getEAllContainments().stream()
+                        .filter(f -> f != KGraphPackage.Literals.EMAP_PROPERTY_HOLDER__PROPERTIES)
+                        .toArray(EStructuralFeature[]::new)));
+    }
+
+    /**
+     * A live view of the properties of this holder, which doesn't require the
+     * {@link #getProperties() EMap} to be created.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private final class CompactPropertiesMap extends AbstractMap<IProperty<?>, Object> {
+
+        @Override
+        public Object get(final Object key) {
+            return basicGetProperty(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof IProperty && hasProperty((IProperty<?>) key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object put(final IProperty<?> key, final Object value) {
+            final Object previous = basicGetProperty(key);
+            setProperty((IProperty<Object>) key, value);
+            return previous;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object remove(final Object key) {
+            if (!(key instanceof IProperty)) {
+                return null;
+            }
+            final Object previous = basicGetProperty(key);
+            setProperty((IProperty<Object>) key, null);
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            final Object[] compact = compactProperties;
+            if (compact != null) {
+                return compact.length / 2;
+            }
+            return properties != null ? properties.size() : 0;
+        }
+
+        @Override
+        public Set<Entry<IProperty<?>, Object>> entrySet() {
+            final Object[] compact = compactProperties;
+            if (compact == null && properties != null) {
+                return properties.map().entrySet();
+            }
+
+            // the entries are a snapshot, as the array is replaced on structural changes
+            final Object[] entries = compact != null ? compact : new Object[0];
+            return new AbstractSet<Entry<IProperty<?>, Object>>() {
+
+                @Override
+                public int size() {
+                    return entries.length / 2;
+                }
+
+                @Override
+                public Iterator<Entry<IProperty<?>, Object>> iterator() {
+                    return new Iterator<Entry<IProperty<?>, Object>>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < entries.length;
+                        }
+
+                        @Override
+                        public Entry<IProperty<?>, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final Entry<IProperty<?>, Object> entry =
+                                    new SimpleImmutableEntry<IProperty<?>, Object>(
+                                            (IProperty<?>) entries[index], entries[index + 1]);
+                            index += 2;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
 } //EMapPropertyHolderImpl
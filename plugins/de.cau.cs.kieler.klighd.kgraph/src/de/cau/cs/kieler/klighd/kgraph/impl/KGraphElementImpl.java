@@ -16,6 +16,7 @@
  */
 package de.cau.cs.kieler.klighd.kgraph.impl;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import org.eclipse.emf.common.notify.NotificationChain;
@@ -56,6 +57,39 @@ public abstract class KGraphElementImpl extends EMapPropertyHolderImpl implement
      */
 	protected EList<KGraphData> data;
 
+    /**
+     * The maximal number of types whose data are kept in {@link #dataIndex}.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private static final int MAX_INDEXED_TYPES = 16;
+
+    /**
+     * The value kept in {@link #dataIndex} for types without data.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private static final Object NO_DATA = new Object();
+
+    /**
+     * The results of {@link #getData(Class)} per requested type. The index is replaced as a whole
+     * while being extended, and it is valid only for the {@link #dataVersion} it is tagged with.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private transient volatile DataIndex dataIndex;
+
+    /**
+     * The number of changes of {@link #data}, see {@link #getDataVersion()}.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private transient volatile int dataVersion;
+
 	/**
      * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
@@ -78,11 +112,20 @@ public abstract class KGraphElementImpl extends EMapPropertyHolderImpl implement
 	/**
      * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
 	public EList<KGraphData> getData() {
         if (data == null) {
-            data = new EObjectContainmentEList<KGraphData>(KGraphData.class, this, KGraphPackage.KGRAPH_ELEMENT__DATA);
+            data = new EObjectContainmentEList<KGraphData>(KGraphData.class, this, KGraphPackage.KGRAPH_ELEMENT__DATA) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void didChange() {
+                    // all modifications end up here, regardless of delivering notifications
+                    dataVersion++;
+                    dataIndex = null;
+                }
+            };
         }
         return data;
     }
@@ -110,15 +153,57 @@ public abstract class KGraphElementImpl extends EMapPropertyHolderImpl implement
      * <!-- end-user-doc -->
      * @generated NOT
      */
+    @SuppressWarnings("unchecked")
     public <T extends KGraphData> T getData(Class<T> type) {
-        if (type != null) {
-            for (KGraphData graphData : getData()) {
+        if (type == null) {
+            return null;
+        }
+
+        // the version is read before the data list, so results that raced with a change of the list
+        //  are tagged with an outdated version and are not used afterwards
+        final int version = dataVersion;
+        final DataIndex index = dataIndex;
+        final Object[] entries = index != null && index.version == version ? index.entries : null;
+        if (entries != null) {
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i] == type) {
+                    return entries[i + 1] == NO_DATA ? null : (T) entries[i + 1];
+                }
+            }
+        }
+
+        KGraphData result = null;
+        if (data != null) {
+            for (KGraphData graphData : data) {
                 if (type.isInstance(graphData)) {
-                    return type.cast(graphData);
+                    result = graphData;
+                    break;
                 }
             }
         }
-        return null;
+
+        // concurrent readers may drop each other's extensions, which are just recomputed then
+        final int length = entries != null ? entries.length : 0;
+        if (length < 2 * MAX_INDEXED_TYPES) {
+            final Object[] extended =
+                    entries != null ? Arrays.copyOf(entries, length + 2) : new Object[2];
+            extended[length] = type;
+            extended[length + 1] = result != null ? result : NO_DATA;
+            dataIndex = new DataIndex(version, extended);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Returns a number that changes on every modification of the {@link #getData() data} list,
+     * which allows to cache results derived from the list's contents.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @return the current version of the data list
+     * @generated NOT
+     */
+    public int getDataVersion() {
+        return dataVersion;
     }
 
 	/**
@@ -195,4 +280,24 @@ public abstract class KGraphElementImpl extends EMapPropertyHolderImpl implement
         return super.eIsSet(featureID);
     }
 
+    /**
+     * The results of {@link #getData(Class)} for one version of the data list, alternating the
+     * requested types and their first data instance or {@link #NO_DATA}.
+     * <!-- begin-user-doc -->
+     * <!-- end-user-doc -->
+     * @generated NOT
+     */
+    private static final class DataIndex {
+
+        /** The {@link KGraphElementImpl#dataVersion} the results are valid for. */
+        private final int version;
+
+        /** The requested types and their results. */
+        private final Object[] entries;
+
+        DataIndex(final int version, final Object[] entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
 } //KGraphElementImpl
@@ -0,0 +1,160 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.kgraph.util;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.EMapPropertyHolder;
+import de.cau.cs.kieler.klighd.kgraph.impl.EMapPropertyHolderImpl;
+
+/**
+ * Configures the compact storage of the properties of {@link EMapPropertyHolder
+ * EMapPropertyHolders}. Holders store up to {@link EMapPropertyHolderImpl#MAX_COMPACT_PROPERTIES}
+ * properties in a small array instead of an {@link org.eclipse.emf.common.util.EMap EMap} of entry
+ * objects, which considerably reduces the heap occupied by large graphs. The
+ * {@link EMapPropertyHolder#getProperties() EMap} is created on demand as soon as it is requested,
+ * e.g. by EMF's reflective access while saving or copying a model, or if a property is changed
+ * while adapters must be notified about that.<br>
+ * <br>
+ * The compact storage is disabled by default. It can be enabled globally, e.g. by means of the
+ * system property {@value #SYSTEM_PROPERTY}, or for the elements of a particular {@link Resource}.
+ * It applies to holders that don't have any properties yet when being configured.
+ * {@link #compact(EObject)} converts the properties of existing elements, e.g. of loaded ones.
+ */
+public final class CompactPropertyStorage {
+
+    /** The system property enabling the compact storage globally if set to <code>true</code>. */
+    public static final String SYSTEM_PROPERTY = "klighd.kgraph.compactProperties";
+
+    private static volatile boolean enabled = Boolean.getBoolean(SYSTEM_PROPERTY);
+
+    /**
+     * This class is not supposed to be instantiated.
+     */
+    private CompactPropertyStorage() {
+    }
+
+    /**
+     * Enables or disables the compact storage of properties globally.
+     *
+     * @param enable
+     *            <code>true</code> if holders shall store their properties compactly
+     */
+    public static void setEnabled(final boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Checks whether the compact storage of properties is enabled globally.
+     *
+     * @return <code>true</code> if holders store their properties compactly
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables the compact storage of properties for the elements of the given resource, and
+     * converts the properties of its current elements.
+     *
+     * @param resource
+     *            the resource
+     */
+    public static void enable(final Resource resource) {
+        if (EcoreUtil.getExistingAdapter(resource, CompactPropertyStorage.class) == null) {
+            resource.eAdapters().add(new Marker());
+        }
+        for (final EObject root : resource.getContents()) {
+            compact(root);
+        }
+    }
+
+    /**
+     * Disables the compact storage of properties for the elements of the given resource unless
+     * it is enabled globally. Properties that are stored compactly already are kept that way.
+     *
+     * @param resource
+     *            the resource
+     */
+    public static void disable(final Resource resource) {
+        resource.eAdapters().remove(
+                EcoreUtil.getExistingAdapter(resource, CompactPropertyStorage.class));
+    }
+
+    /**
+     * Checks whether the given element shall store its properties compactly.
+     *
+     * @param element
+     *            the element
+     * @return <code>true</code> if the compact storage is enabled globally or for the element's
+     *         resource
+     */
+    public static boolean isEnabled(final EObject element) {
+        if (enabled) {
+            return true;
+        }
+        final Resource resource = element.eResource();
+        return resource != null
+                && EcoreUtil.getExistingAdapter(resource, CompactPropertyStorage.class) != null;
+    }
+
+    /**
+     * Converts the properties of the given element and its contents to the compact storage as
+     * far as possible, i.e. of holders with few properties that are not observed individually.
+     *
+     * @param root
+     *            the root element
+     */
+    public static void compact(final EObject root) {
+        // collect the holders first, as the conversion modifies their contents
+        final List<EMapPropertyHolderImpl> holders = Lists.newArrayList();
+        if (root instanceof EMapPropertyHolderImpl) {
+            holders.add((EMapPropertyHolderImpl) root);
+        }
+        for (final TreeIterator<EObject> contents = root.eAllContents(); contents.hasNext();) {
+            final EObject element = contents.next();
+            if (element instanceof EMapPropertyHolderImpl) {
+                holders.add((EMapPropertyHolderImpl) element);
+            } else if (element instanceof Map.Entry) {
+                contents.prune();
+            }
+        }
+        for (final EMapPropertyHolderImpl holder : holders) {
+            holder.compactProperties();
+        }
+    }
+
+    /**
+     * Marks resources whose elements store their properties compactly.
+     */
+    private static final class Marker extends AdapterImpl {
+
+        @Override
+        public boolean isAdapterForType(final Object type) {
+            return type == CompactPropertyStorage.class;
+        }
+    }
+}
@@ -41,7 +41,6 @@ import de.cau.cs.kieler.klighd.lsp.model.SKNode
 import de.cau.cs.kieler.klighd.lsp.model.SKPort
 import de.cau.cs.kieler.klighd.lsp.utils.KGraphElementIdGenerator
 import de.cau.cs.kieler.klighd.lsp.utils.SprottyProperties
-import de.cau.cs.kieler.klighd.util.KlighdPredicates
 import de.cau.cs.kieler.klighd.util.KlighdProperties
 import de.cau.cs.kieler.klighd.util.RenderingContextData
 import java.util.ArrayList
@@ -389,37 +388,9 @@ class KGraphDiagramGenerator implements IDiagramGenerator {
             val renderings = kGraphElement.data.filter(KRendering)
             // Getting the current rendering similar to AbstractKGERenderingController#getCurrentRendering
             if (kGraphElement instanceof KNode) {
-                // in case the node to be depicted is tagged as 'populated',
-                // i.e. children are depicted in the diagram ...
-                if (RenderingContextData.get(kGraphElement).getProperty(KlighdInternalProperties.POPULATED)) {
-                    // ... look for a rendering tagged as 'expanded', ...
-                    currentRendering = renderings.findFirst [
-                        KlighdPredicates.isExpandedRendering().apply(it)
-                    ]
-
-                    // ... and if none exists ...
-                    if (currentRendering === null) {
-                        // ... take the first one that is not marked as 'collapsed' one
-                        currentRendering = renderings.findFirst [
-                            !KlighdPredicates.isCollapsedRendering().apply(it)
-                        ]
-                    }
-                } else {
-                    // in case the node to be depicted is tagged as 'not populated',
-                    // i.e. no children are visible in the diagram
-                    // look for a rendering marked as 'collapsed' one, ...
-                    currentRendering = renderings.findFirst [
-                        KlighdPredicates.isCollapsedRendering().apply(it)
-                    ]
-
-                    // ... and if none exists ...
-                    if (currentRendering === null) {
-                        // ... take the first one that is not marked as 'expanded' one
-                        currentRendering = renderings.findFirst [
-                            !KlighdPredicates.isExpandedRendering().apply(it)
-                        ]
-                    }
-                }
+                // the rendering tagged for the node's 'populated' state, i.e. whether its children are
+                // depicted in the diagram, or the first one not tagged for the other state
+                currentRendering = RenderingContextData.getCurrentRendering(kGraphElement)
                 (sModelElement as SKNode).data.add(currentRendering)
             } else {
                 // Child renderings of elements other than KNodes are always displayed.
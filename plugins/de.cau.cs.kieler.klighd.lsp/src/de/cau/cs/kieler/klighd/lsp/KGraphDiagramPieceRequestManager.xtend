@@ -17,13 +17,12 @@
 package de.cau.cs.kieler.klighd.lsp
 
 import de.cau.cs.kieler.klighd.lsp.model.RequestDiagramPieceAction
-import de.cau.cs.kieler.klighd.lsp.model.SKEdge
 import de.cau.cs.kieler.klighd.lsp.model.SKLabel
 import de.cau.cs.kieler.klighd.lsp.model.SKNode
 import de.cau.cs.kieler.klighd.lsp.model.SKPort
-import java.util.LinkedList
-import java.util.Queue
+import java.util.ArrayList
 import org.eclipse.sprotty.SModelElement
+import org.eclipse.sprotty.SShapeElement
 import org.eclipse.xtend.lib.annotations.Accessors
 
 /**
@@ -40,85 +39,89 @@ class KGraphDiagramPieceRequestManager {
     @Accessors(PUBLIC_GETTER)
     KGraphIncrementalDiagramGenerator diagramGenerator
     
-    /**
-     * Queue used for remembering which pieces have been requested until they are ready to be sent.
-     */
-    Queue<RequestDiagramPieceAction> requests
-    
     new(KGraphIncrementalDiagramGenerator diagramGenerator){
         this.diagramGenerator = diagramGenerator
-        this.requests = new LinkedList
     }
     
     /**
      * For each received request some diagram piece shall be returned.
+     * 
+     * @return The requested piece with stubs as child nodes, or {@code null} if the requested element does not exist.
      */
     def processRequest(RequestDiagramPieceAction request) {
-        this.requestDiagramPiece(request)
-        return this.nextDiagramPiece()
+        diagramGenerator.viewport = request.viewport
+        return this.nextDiagramPiece(request)
     }
     
     /**
-     * Add a request action to the internal queue for processing.
+     * Retrieves the requested diagram piece with stubs as children, generating pending pieces until it is available.
+     * The requested piece must have been generated and there must be no unprocessed children left whose parent is the
+     * one being requested, because only after they have been processed do their stubs exist and only then can the
+     * client ask for them.
      */
-    private def requestDiagramPiece(RequestDiagramPieceAction request) {
-        this.requests.add(request)
+    private def SModelElement nextDiagramPiece(RequestDiagramPieceAction request) {
+        val idToKGraphElementMap = diagramGenerator.idToKGraphElementMap
+        var prioritized = false
+        var SModelElement piece = null
+        var done = false
+        while (!done) {
+            val kGraphElement = idToKGraphElementMap.get(request.modelElementId)
+            if (kGraphElement !== null && diagramGenerator.nodeChildrenAllProcessed(kGraphElement)) {
+                piece = copyAndTrimChildren(diagramGenerator.KGraphToSModelElementMap.get(kGraphElement))
+                done = true
+            } else if (!diagramGenerator.hasPendingNodes) {
+                // The requested element will never be generated.
+                done = true
+            } else {
+                if (kGraphElement !== null && !prioritized) {
+                    // Generate the children of the requested element before anything else.
+                    diagramGenerator.prioritizeChildren(kGraphElement)
+                    prioritized = true
+                }
+                diagramGenerator.getNextDiagramPiece
+            }
+        }
+        return piece
     }
     
     /**
-     * Retrieves the next available diagram piece with stubs as children.
+     * Copies the given element for sending it as a piece to the client, replacing all child nodes by stubs. The stubs
+     * only carry the ID, type, position, size, ports and labels of the child nodes. The client requests them as
+     * separate pieces once they are needed. Ports, labels and edges are kept, as they are part of the requested piece.
+     * 
+     * @param original The generated element.
+     * @return The copy of the element with stub children.
      */
-    private def SModelElement nextDiagramPiece() {
-        val request = requests.remove()
-        // If diagram piece has previously been generated, get it
-        // additionally there must be no children left in the childrenToProcess Queue whose parent 
-        // is the one being requested, because only after they have been processed do their stubs exist
-        // and only then can the client ask for them
-        var generateNextFirst = false
-        if (diagramGenerator.idToKGraphElementMap.containsKey(request.modelElementId)) {
-            val kGraphElement = diagramGenerator.idToKGraphElementMap.get(request.modelElementId)
-            
-            if (diagramGenerator.nodeChildrenAllProcessed(kGraphElement)) {
-                val sModelElement = diagramGenerator.KGraphToSModelElementMap.get(kGraphElement)
-                return copyAndTrimChildren(sModelElement) 
-            } else {
-                generateNextFirst = true
+    private def SModelElement copyAndTrimChildren(SModelElement original) {
+        val copy = LSPUtil.shallowCopy(original)
+        copy.children = new ArrayList
+        if (original.children !== null) {
+            for (child : original.children) {
+                if (child instanceof SKNode) {
+                    copy.children.add(createStub(child))
+                } else {
+                    copy.children.add(child)
+                }
             }
-        } else {
-            generateNextFirst = true
-        } 
-        if (generateNextFirst) {
-            // put request to back of queue
-            requests.add(request)
-            // Generate another piece
-            diagramGenerator.getNextDiagramPiece
-            // Try serving next request in queue
-            return this.nextDiagramPiece()
         }
+        return copy
     }
     
     /**
-     * This method currently does nothing, but the idea behind it is to further decrease the
-     * network payload when sending diagram pieces. What can happen in theory
-     * is that a piece may only be requested after some of its children have also already been generated.
-     * This doesn't happen in the current implementation, because the client will only request pieces
-     * in a strict top-down order, however in the case in the future that the client should have some
-     * more advanced piece management capabilities including removal of pieces that are not required 
-     * at that time to save space for example in the case of very large graphs, it becomes relevant to
-     * actually only send the requested piece and not an entire graph that is dangling from it as well.
-     * The cost of this lies on the server (copying and trimming data) and remains to be analyzed and implemented.
+     * Creates a stub for the given node, containing no renderings and no child nodes. The ports and labels of the node
+     * are kept, as the edges of the piece may be attached to them.
      */
-    private def SModelElement copyAndTrimChildren(SModelElement original) {
-        // TODO: make copy and replace children with stubs
-        if (original instanceof SKEdge) {
-            // copy edge
-        } else if (original instanceof SKNode) {
-            // copy node and remove children
-        } else if (original instanceof SKPort) {
-            // copy port
-        } else if (original instanceof SKLabel) {
-            // copy label
+    private def SModelElement createStub(SKNode node) {
+        val SShapeElement stub = KGraphDiagramGenerator.configSElement(SKNode, node.id)
+        stub.position = node.position
+        stub.size = node.size
+        if (node.children !== null) {
+            for (child : node.children) {
+                if (child instanceof SKPort || child instanceof SKLabel) {
+                    stub.children.add(child)
+                }
+            }
         }
-        return original
+        return stub
     }
-}
\ No newline at end of file
+}
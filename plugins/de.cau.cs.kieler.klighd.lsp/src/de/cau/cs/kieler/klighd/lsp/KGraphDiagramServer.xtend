@@ -39,8 +39,10 @@ import de.cau.cs.kieler.klighd.lsp.model.SetDiagramPieceAction
 import de.cau.cs.kieler.klighd.lsp.model.SetSynthesisAction
 import de.cau.cs.kieler.klighd.lsp.model.StoreImagesAction
 import de.cau.cs.kieler.klighd.lsp.model.UpdateDiagramOptionsAction
+import de.cau.cs.kieler.klighd.lsp.model.UpdateModelDeltaAction
 import de.cau.cs.kieler.klighd.lsp.model.ValuedSynthesisOption
 import de.cau.cs.kieler.klighd.lsp.utils.KRenderingIdGenerator
+import de.cau.cs.kieler.klighd.lsp.utils.SModelDeltaComputer
 import java.io.FileNotFoundException
 import java.io.InputStream
 import java.util.ArrayList
@@ -78,6 +80,12 @@ import org.eclipse.xtend.lib.annotations.Accessors
  */
 class KGraphDiagramServer extends LanguageAwareDiagramServer {
     
+    /**
+     * The diagram option with which a client announces that it is able to apply {@link UpdateModelDeltaAction}s
+     * instead of full {@link UpdateModelAction}s, if set to {@code "true"}.
+     */
+    public static val String OPTION_SUPPORTS_DELTA_UPDATES = "supportsDeltaUpdates"
+    
     @Inject protected Injector injector
     
     Map<String, ISprottyActionHandler> handlers = new HashMap
@@ -107,6 +115,11 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
     @Accessors(PUBLIC_GETTER)
     protected Object modelLock = new Object
     
+    /**
+     * Computes the deltas to the model last sent to the client, if the client supports delta updates.
+     */
+    protected val SModelDeltaComputer deltaComputer = new SModelDeltaComputer
+    
     /**
      * Needed for KeithUpdateModelAction
      * 
@@ -168,7 +181,7 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
      * @param uri The URI of the model to take the options from.
      */
     def void updateDiagramOptions(String uri) {
-        synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(uri)) {
             val ViewContext viewContext = diagramState.getKGraphContext(uri)
             if (viewContext !== null) {
                 val synthesisOptions = new ArrayList<ValuedSynthesisOption>
@@ -257,22 +270,24 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
      * May cause a {@link UpdateModelAction} to be sent back to the client with an updated model.
      */
     protected def handle(PerformActionAction action) {
-        synchronized (diagramState) {
+        val sourceUri = diagramState.getURIString(clientId)
+        synchronized (diagramState.getSessionLock(sourceUri)) {
             if (currentRoot.getRevision() !== action.revision) {
                 return
             }
             
-            val sourceUri = diagramState.getURIString(clientId)
             val kGraphElement = diagramState.getIdToKGraphMap(sourceUri).get(action.KGraphElementId)
             val kRendering = KRenderingIdGenerator.findRenderingById(kGraphElement, action.KRenderingId)
             
             val klighdAction = KlighdDataManager.instance.getActionById(action.actionId)
-            val viewer = diagramState.viewer
+            val viewer = diagramState.getViewer(sourceUri)
             val actionContext = new ActionContext(viewer, null, kGraphElement, kRendering)
             val actionResult = klighdAction.execute(actionContext)
             if (actionResult.needsSynthesis) {
                 updateDiagram()
             } else if (actionResult.actionPerformed) {
+                // The action may have modified renderings in place, so they all need to be prepared again.
+                diagramState.getRenderingPreparationCache(sourceUri).invalidate
                 updateLayout()
             }
         }
@@ -284,8 +299,8 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
      * and invokes an update.
      */
     protected def handle(SetSynthesisAction action) {
-        synchronized (diagramState) {
-            val uri = diagramState.getURIString(clientId)
+        val uri = diagramState.getURIString(clientId)
+        synchronized (diagramState.getSessionLock(uri)) {
             diagramState.putSynthesisId(uri, action.id)
             this.newModel = true
             updateDiagram()
@@ -370,7 +385,7 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
     
     protected def handle(RequestDiagramPieceAction action) {  
         
-        synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(this.sourceUri)) {
             if (diagramState.getDiagramPieceRequestManager(this.sourceUri) === null) {
                 // can't handle these requests if we are using recursive generation method
                 dispatch(new RejectAction())
@@ -401,8 +416,9 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
     def void selectElements(List<EObject> toBeSelected) {
         val toBeSelectedSModelElementIDs = newArrayList
         
-        synchronized(diagramState) {
-            val map = diagramState.getKGraphToSModelElementMap(diagramState.getURIString(clientId))
+        val uri = diagramState.getURIString(clientId)
+        synchronized (diagramState.getSessionLock(uri)) {
+            val map = diagramState.getKGraphToSModelElementMap(uri)
             toBeSelected.forEach [
                 val sModelElement = map.get(it)
                 if (sModelElement instanceof SModelElement) {
@@ -425,7 +441,7 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
      * Updates the current diagram.
      */
     def updateDiagram() {
-        synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(sourceUri)) {
             val diagramUpdater = diagramLanguageServer.diagramUpdater
             if (diagramUpdater instanceof KGraphDiagramUpdater) {
                 diagramUpdater.updateDiagram(this)
@@ -439,7 +455,7 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
      * Updates the layout of the current diagram.
      */
     def updateLayout() {
-        synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(sourceUri)) {
             val diagramUpdater = diagramLanguageServer.diagramUpdater
             if (diagramUpdater instanceof KGraphDiagramUpdater) {
                 diagramUpdater.updateLayout(this)
@@ -461,6 +477,56 @@ class KGraphDiagramServer extends LanguageAwareDiagramServer {
         }
     }
     
+    /**
+     * Sends an {@link UpdateModelDeltaAction} instead of an {@link UpdateModelAction} if the client supports it and
+     * the delta is significantly smaller than the full model. Otherwise dispatches the action unchanged.
+     */
+    override void dispatch(Action action) {
+        if (supportsDeltaUpdates && (action instanceof UpdateModelAction || action instanceof SetModelAction
+            || action instanceof SetDiagramPieceAction)) {
+            // Send under the session lock, so the models reach the client in the order they are recorded and no
+            // synthesis modifies the view model while it is compared.
+            synchronized (diagramState.getSessionLock(sourceUri)) {
+                super.dispatch(recordSentModel(action))
+            }
+            return
+        }
+        super.dispatch(action)
+    }
+    
+    /**
+     * Records the model sent by the given action for computing later deltas.
+     * 
+     * @param action An {@link UpdateModelAction}, {@link SetModelAction} or {@link SetDiagramPieceAction}.
+     * @return The action to send instead, an {@link UpdateModelDeltaAction} for an {@link UpdateModelAction} if the
+     *         delta is significantly smaller than the full model, otherwise the given action.
+     */
+    protected def Action recordSentModel(Action action) {
+        val viewModel = diagramState.getKGraphContext(sourceUri)?.viewModel
+        val sources = diagramState.getKGraphToSModelElementMap(sourceUri)
+        switch (action) {
+            UpdateModelAction: {
+                val delta = deltaComputer.computeDelta(action.newRoot, viewModel, sources)
+                if (delta !== null) {
+                    delta.animate = action.animate
+                    return delta
+                }
+            }
+            SetModelAction:
+                deltaComputer.recordFullModel(action.newRoot, viewModel, sources)
+            SetDiagramPieceAction:
+                deltaComputer.recordPiece(action.diagramPiece, sources)
+        }
+        return action
+    }
+    
+    /**
+     * Indicates if the client announced that it is able to apply {@link UpdateModelDeltaAction}s.
+     */
+    def boolean supportsDeltaUpdates() {
+        return "true" == options?.get(OPTION_SUPPORTS_DELTA_UPDATES)
+    }
+    
     /** Sets or updates the {@code currentRoot} as the model. */
     protected def void setOrUpdateModel() {
         if (newModel) {
@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2018-2021 by
+ * Copyright 2018-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -26,100 +26,158 @@ import de.cau.cs.kieler.klighd.internal.ISynthesis
 import de.cau.cs.kieler.klighd.kgraph.KGraphElement
 import de.cau.cs.kieler.klighd.krendering.KImage
 import de.cau.cs.kieler.klighd.lsp.model.ImageData
-import java.net.URLDecoder
-import java.util.HashMap
-import java.util.HashSet
+import de.cau.cs.kieler.klighd.lsp.utils.RenderingPreparationCache
 import java.util.Map
 import java.util.Set
+import java.util.concurrent.ConcurrentHashMap
 import org.eclipse.elk.core.LayoutConfigurator
 import org.eclipse.sprotty.SModelElement
 
 /**
- * Singleton class to map a URI identifying a graph to their various parts needed for handling KGraph models
+ * Singleton class to map a URI identifying a graph to their various parts needed for handling KGraph models.<br>
+ * All maps are concurrent, so single accesses need no further synchronization. Work that has to see a consistent
+ * state of the data of one URI, such as synthesis, layout or tracing, synchronizes on the session lock of that URI,
+ * see {@link #getSessionLock(String)}. Diagrams of different URIs are thereby handled independently of each other.
+ * The synthesis options shared by all diagrams are guarded by the {@link #getSynthesisOptionsLock() global lock}.
  * 
  * @author nre
  */
 @Singleton
 class KGraphDiagramState {
     
+    /**
+     * The locks guarding the data of the diagram session of each URI, mapped by the same URI as all other maps.
+     */
+    Map<String, Object> sessionLocks = new ConcurrentHashMap
+    
+    /**
+     * The lock guarding the {@link #recentSynthesisOptions} and the {@link #clientOptions} shared by all diagrams.
+     */
+    val Object synthesisOptionsLock = new Object
+    
     /**
      * A map mapping the URI identifying a graph to the {@link ViewContext} containing that graph.
      */
-    Map<String, ViewContext> kGraphContexts = new HashMap
+    Map<String, ViewContext> kGraphContexts = new ConcurrentHashMap
     
     /**
      * A map that contains a key-value pair for each KGraphElement and its translated SModelElement counterpart.
      * Convenient for finding a specific key KGraphElement faster.
      * Mapped by the URI this map belongs to.
      */
-    Map<String, BiMap<KGraphElement, SModelElement>> kGraphToSModelElementMap = new HashMap
+    Map<String, BiMap<KGraphElement, SModelElement>> kGraphToSModelElementMap = new ConcurrentHashMap
     
     /**
      * A map that contains a key-value pair for each ID of a graph element and the {@link KGraphElement} it identifies.
      * Mapped by the URI this map belongs to.
      */
-    Map<String, Map<String, KGraphElement>> idToKGraphElementMap = new HashMap
+    Map<String, Map<String, KGraphElement>> idToKGraphElementMap = new ConcurrentHashMap
     
     /**
      * A set containing the image data for all {@link KImage}s from the source KGraph.
      * Mapped by the URI this map belongs to.
      */
-    Map<String, Set<ImageData>> imageData = new HashMap
+    Map<String, Set<ImageData>> imageData = new ConcurrentHashMap
     
     /**
      * Contains the model of the currently drawn snapshot for the URI of the model, if available.
      */
-    Map<String, Object> snapshotModelMapping = new HashMap
+    Map<String, Object> snapshotModelMapping = new ConcurrentHashMap
     
     /**
      * Contains the layout configurator for the URI of the model.
      */
-    Map<String, LayoutConfigurator> layoutConfigMapping = new HashMap
+    Map<String, LayoutConfigurator> layoutConfigMapping = new ConcurrentHashMap
     
     /**
      * Contains the current synthesis ID for the URI of the model.
      */
-    Map<String, String> synthesisIdMapping = new HashMap
+    Map<String, String> synthesisIdMapping = new ConcurrentHashMap
     
     /**
      * Contains the diagram piece request manager for the URI of the model.
      */
-    Map<String, KGraphDiagramPieceRequestManager> diagramPieceRequestManagerMap = new HashMap
+    Map<String, KGraphDiagramPieceRequestManager> diagramPieceRequestManagerMap = new ConcurrentHashMap
+    
+    /**
+     * Contains the cache of the rendering preparation for the URI of the model.
+     */
+    Map<String, RenderingPreparationCache> renderingPreparationCaches = new ConcurrentHashMap
 
     /**
-     * Contains the {@link IViewer} displaying diagrams.
+     * Contains the {@link IViewer} displaying the diagram for the URI of the model.
      */
-    IViewer viewer = null
+    Map<String, IViewer> viewers = new ConcurrentHashMap
     
     /**
      * Set containing the used {@link ISynthesis}.
      */
-    Set<ISynthesis> usedSyntheses = new HashSet
+    Set<ISynthesis> usedSyntheses = ConcurrentHashMap.newKeySet
     
     /**
      * Map containing all recently used {@link SynthesisOption}s and their current values.
      */
-    Map<SynthesisOption, Object> recentSynthesisOptions = new HashMap
+    Map<SynthesisOption, Object> recentSynthesisOptions = new ConcurrentHashMap
     
     /**
      * The options predefined by the client that should be used during syntheses and layout.
      */
-    JsonElement clientOptions
+    volatile JsonElement clientOptions
     
     /**
      * A map to map the Sprotty client id to the URI leading to the resource.
      */
-    Map<String, String> uriStringMap = new HashMap
+    Map<String, String> uriStringMap = new ConcurrentHashMap
     
     // ------------ Methods to access or modify the fields -------------
     
+    /**
+     * Returns the lock of the diagram session for the given URI. Synchronizing on it guards the data of this URI
+     * against concurrent modification without blocking the diagrams of other URIs. The URI must be given in the same
+     * form as used for accessing the data, as different strings denote different sessions.
+     * 
+     * @param uri The identifying URI of the graph.
+     */
+    def Object getSessionLock(String uri) {
+        return sessionLocks.computeIfAbsent(uri ?: "", [ new Object ])
+    }
+    
+    /**
+     * Returns the lock guarding the recently used synthesis options and the client options, which are shared by the
+     * diagrams of all URIs. Must not be held while acquiring a {@link #getSessionLock(String) session lock}.
+     */
+    def Object getSynthesisOptionsLock() {
+        return synthesisOptionsLock
+    }
+    
+    /**
+     * Gets the value from the given concurrent map, tolerating {@code null} keys.
+     */
+    private static def <K, V> V get(Map<K, V> map, K key) {
+        return if (key === null) null else map.get(key)
+    }
+    
+    /**
+     * Puts the value into the given concurrent map, removing the key if the value is {@code null}.
+     */
+    private static def <K, V> void put(Map<K, V> map, K key, V value) {
+        if (key === null) {
+            return
+        }
+        if (value === null) {
+            map.remove(key)
+        } else {
+            map.put(key, value)
+        }
+    }
+    
     /**
      * Getter to access the value stored in the kGraphContext map.
      * 
      * @param uri The identifying URI of the graph to access the value in the map.
      */
     def ViewContext getKGraphContext(String uri) {
-        kGraphContexts.get(uri)
+        get(kGraphContexts, uri)
     }
     
     /**
@@ -129,7 +187,7 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putKGraphContext(String uri, ViewContext value) {
-        kGraphContexts.put(uri, value)
+        put(kGraphContexts, uri, value)
     }
     
     /**
@@ -138,7 +196,7 @@ class KGraphDiagramState {
      * @param uri The identifying URI of the graph to access the value in the map.
      */
     def BiMap<KGraphElement, SModelElement> getKGraphToSModelElementMap(String uri) {
-        kGraphToSModelElementMap.get(uri)
+        get(kGraphToSModelElementMap, uri)
     }
     
     /**
@@ -148,7 +206,17 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putKGraphToSModelElementMap(String uri, BiMap<KGraphElement, SModelElement> value) {
-        kGraphToSModelElementMap.put(uri, value)
+        put(kGraphToSModelElementMap, uri, value)
+    }
+    
+    /**
+     * Returns the cache remembering the renderings already prepared for the graph,
+     * creating it on first access.
+     * 
+     * @param uri The identifying URI of the graph.
+     */
+    def RenderingPreparationCache getRenderingPreparationCache(String uri) {
+        return renderingPreparationCaches.computeIfAbsent(uri ?: "", [ new RenderingPreparationCache ])
     }
     
     /**
@@ -157,7 +225,7 @@ class KGraphDiagramState {
      * @param uri The identifying URI of the graph to access the value in the map.
      */
     def Map<String, KGraphElement> getIdToKGraphMap(String uri) {
-        idToKGraphElementMap.get(uri)
+        get(idToKGraphElementMap, uri)
     }
     
     /**
@@ -167,7 +235,7 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putIdToKGraphElementMap(String uri, Map<String, KGraphElement> value) {
-        idToKGraphElementMap.put(uri, value)
+        put(idToKGraphElementMap, uri, value)
     }
     
     /**
@@ -176,7 +244,7 @@ class KGraphDiagramState {
      * @param uri The identifying URI of the graph to access the value in the map.
      */
     def Set<ImageData> getImageData(String uri) {
-        imageData.get(uri)
+        get(imageData, uri)
     }
     
     /**
@@ -186,7 +254,7 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putImageData(String uri, Set<ImageData> value) {
-        imageData.put(uri, value)
+        put(imageData, uri, value)
     }
     
     /**
@@ -195,7 +263,7 @@ class KGraphDiagramState {
      * @param uri The identifying URI of the graph to access the value in the map.
      */
     def Object getSnapshotModel(String uri) {
-        snapshotModelMapping.get(uri)
+        get(snapshotModelMapping, uri)
     }
     
     /**
@@ -205,7 +273,7 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putSnapshotModel(String uri, Object value) {
-        snapshotModelMapping.put(uri, value)
+        put(snapshotModelMapping, uri, value)
     }
     
     /**
@@ -214,10 +282,10 @@ class KGraphDiagramState {
      * @param uri They identifying URI of the graph to access the value in the map.
      */
     def getLayoutConfig(String uri) {
-        var configurator = layoutConfigMapping.get(uri)
-        if (configurator === null) {
-            configurator = new LayoutConfigurator
-            layoutConfigMapping.put(uri, configurator)
+        var configurator = get(layoutConfigMapping, uri)
+        if (configurator === null && uri !== null) {
+            val newConfigurator = new LayoutConfigurator
+            configurator = layoutConfigMapping.putIfAbsent(uri, newConfigurator) ?: newConfigurator
         }
         return configurator
     }
@@ -229,7 +297,7 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putLayoutConfig(String uri, LayoutConfigurator value) {
-        layoutConfigMapping.put(uri, value)
+        put(layoutConfigMapping, uri, value)
     }
     
     /**
@@ -238,7 +306,7 @@ class KGraphDiagramState {
      * @param uri They identifying URI of the graph to access the value in the map.
      */
     def getSynthesisId(String uri) {
-        synthesisIdMapping.get(uri)
+        get(synthesisIdMapping, uri)
     }
     
     /**
@@ -248,7 +316,7 @@ class KGraphDiagramState {
      * @param value The value to be stored in the map.
      */
     def putSynthesisId(String uri, String value) {
-        synthesisIdMapping.put(uri, value)
+        put(synthesisIdMapping, uri, value)
     }
     
     /**
@@ -257,7 +325,7 @@ class KGraphDiagramState {
      * @param uri The identifying URI of the graph to access the value in the map.
      */
     def KGraphDiagramPieceRequestManager getDiagramPieceRequestManager(String uri) {
-        diagramPieceRequestManagerMap.get(uri)
+        get(diagramPieceRequestManagerMap, uri)
     }
     
     /**
@@ -267,7 +335,7 @@ class KGraphDiagramState {
      * @param requestManager The diagram piece request manager to be stored.
      */
     def putDiagramPieceRequestManager(String uri, KGraphDiagramPieceRequestManager requestManager) {
-        diagramPieceRequestManagerMap.put(uri, requestManager)
+        put(diagramPieceRequestManagerMap, uri, requestManager)
     }
     
     /**
@@ -276,7 +344,7 @@ class KGraphDiagramState {
      * @param clientId The clientId of the diagram view.
      */
     def String getURIString(String clientId) {
-        uriStringMap.get(clientId)
+        get(uriStringMap, clientId)
     }
     
     /**
@@ -286,30 +354,35 @@ class KGraphDiagramState {
      * @param uri The identifying URI of the graph to be stored in the map.
      */
     def putURIString(String clientId, String uri) {
-        uriStringMap.put(clientId, uri)
+        put(uriStringMap, clientId, uri)
     }
     
     /**
-     * Getter to access the used viewer.
+     * Getter to access the viewer displaying the graph.
+     * 
+     * @param uri The identifying URI of the graph to access the value in the map.
      */
-    def IViewer getViewer() {
-        return viewer
+    def IViewer getViewer(String uri) {
+        get(viewers, uri)
     }
     
     /**
-     * Set method to set a new viewer.
+     * Put method to set the viewer displaying the graph.
      * 
+     * @param uri The identifying URI of the graph to access the map.
      * @param viewer The new viewer.
      */
-    def setViewer(IViewer viewer) {
-        this.viewer = viewer
+    def putViewer(String uri, IViewer viewer) {
+        put(viewers, uri, viewer)
     }
     
     /**
      * Adds the given synthesis to the set of used syntheses.
      */
     def addUsedSynthesis(ISynthesis synthesis) {
-        usedSyntheses.add(synthesis)
+        if (synthesis !== null) {
+            usedSyntheses.add(synthesis)
+        }
     }
     
     /**
@@ -338,7 +411,7 @@ class KGraphDiagramState {
      * {@link #getRecentSynthesisOptions()}.
      */
     def addRecentSynthesisOption(SynthesisOption option, Object value) {
-        recentSynthesisOptions.put(option, value)
+        put(recentSynthesisOptions, option, value)
     }
     
     /**
@@ -356,17 +429,20 @@ class KGraphDiagramState {
      * @param clientId The client ID of the diagram server for that no map should store any data anymore.
      */
     def remove(String clientId) {
-        val uri = uriStringMap.get(clientId)
+        val uri = get(uriStringMap, clientId)
         if (uri !== null) {
-            kGraphContexts.remove(URLDecoder.decode(uri, "UTF-8"))
-            kGraphToSModelElementMap.remove(uri)
-            idToKGraphElementMap.remove(uri)
-            snapshotModelMapping.remove(uri)
-            layoutConfigMapping.remove(uri)
-            synthesisIdMapping.remove(uri)
-            diagramPieceRequestManagerMap.remove(uri)
-            viewer = null
-            uriStringMap.remove(clientId)
+            synchronized (getSessionLock(uri)) {
+                kGraphContexts.remove(uri)
+                kGraphToSModelElementMap.remove(uri)
+                idToKGraphElementMap.remove(uri)
+                snapshotModelMapping.remove(uri)
+                layoutConfigMapping.remove(uri)
+                synthesisIdMapping.remove(uri)
+                diagramPieceRequestManagerMap.remove(uri)
+                renderingPreparationCaches.remove(uri)
+                viewers.remove(uri)
+                uriStringMap.remove(clientId)
+            }
         }
     }
     
@@ -3,7 +3,7 @@
  * 
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2019-2024 by
+ * Copyright 2019-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -26,17 +26,20 @@ import de.cau.cs.kieler.klighd.SynthesisOption
 import de.cau.cs.kieler.klighd.ViewContext
 import de.cau.cs.kieler.klighd.ide.model.MessageModel
 import de.cau.cs.kieler.klighd.kgraph.KNode
-import de.cau.cs.kieler.klighd.lsp.launch.AbstractLanguageServer
 import de.cau.cs.kieler.klighd.lsp.model.RequestDiagramPieceAction
 import de.cau.cs.kieler.klighd.lsp.model.SKGraph
+import de.cau.cs.kieler.klighd.lsp.utils.DiagramUpdateScheduler
+import de.cau.cs.kieler.klighd.lsp.utils.DiagramUpdateScheduler.UpdateTicket
 import de.cau.cs.kieler.klighd.lsp.utils.KGraphMappingUtil
 import de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties
 import java.util.HashSet
 import java.util.List
 import java.util.Map
 import java.util.concurrent.CompletableFuture
+import org.eclipse.elk.core.util.IElkCancelIndicator
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.sprotty.Action
 import org.eclipse.sprotty.IDiagramServer
 import org.eclipse.sprotty.SGraph
@@ -86,6 +89,12 @@ class KGraphDiagramUpdater extends DiagramUpdater {
     @Inject
     INotificationHandler notificationHandler
     
+    /**
+     * Debounces and coalesces the updates of each diagram.
+     */
+    @Inject
+    DiagramUpdateScheduler updateScheduler
+    
     /**
      * The key of the client options under that the synthesis options are stored.
      */
@@ -115,22 +124,23 @@ class KGraphDiagramUpdater extends DiagramUpdater {
      */
     protected def CompletableFuture<Void> doUpdateLayout(KGraphDiagramServer diagramServer) {
         val uri = diagramServer.sourceUri
-        return (languageServer as KGraphLanguageServerExtension).doRead(uri) [ resource, ci |
-            // Just update the SGraph from the already existing KGraph.
-            var ViewContext viewContext = null
-            synchronized(diagramState) {
-                viewContext = diagramState.getKGraphContext(uri)
-            }
-            
-            return diagramServer -> createModel(viewContext, uri, ci)
-        ].thenAccept [
-            if (value !== null) {
-                key.prepareUpdateModel(value)
-            } else {
-                // The value is null if the layout was cancelled.
-                // null should never be saved as a model therefore nothing is done.
-            }
-            
+        return updateScheduler.scheduleLayout(uri) [ ticket |
+            (languageServer as KGraphLanguageServerExtension).doRead(uri) [ resource, ci |
+                // Just update the SGraph from the already existing KGraph.
+                val ViewContext viewContext = diagramState.getKGraphContext(uri)
+                // Let the layout and rendering preparation stop once this layout is superseded.
+                viewContext.setProperty(KlighdSynthesisProperties.CANCEL_INDICATOR, ticket.withRequest(ci))
+                
+                return diagramServer -> createModel(viewContext, uri, ticket)
+            ].thenAccept [
+                if (value !== null && !ticket.canceled) {
+                    key.prepareUpdateModel(value)
+                } else {
+                    // The value is null if the layout was cancelled.
+                    // null should never be saved as a model therefore nothing is done.
+                }
+                
+            ]
         ].exceptionally [ throwable |
             notificationHandler.sendError(Throwables.getStackTraceAsString(throwable))
             throwable.printStackTrace
@@ -154,41 +164,58 @@ class KGraphDiagramUpdater extends DiagramUpdater {
 //            LOG.error("Failed to update diagram.", exc)
             return CompletableFuture.completedFuture(null)
         }
-        return (languageServer as KGraphLanguageServerExtension).doRead(uri) [ resource, ci |
-            var Object snapshotModel = null
-            synchronized (diagramState) {
-                snapshotModel = diagramState.getSnapshotModel(uri)
-            }
-            var Object model = null
-            if (snapshotModel === null) {
-                if (resource === null || resource.contents.empty) {
-                    model = new MessageModel("No model in resource")
-                } else {
-                    model = resource.contents.head
+        return updateScheduler.scheduleSynthesis(uri) [ ticket |
+            (languageServer as KGraphLanguageServerExtension).doRead(uri) [ resource, ci |
+                ticket.withRequest(ci)
+                if (!ticket.canceled) {
+                    doUpdateDiagram(server, resource, uri, ticket)
                 }
+                return null as Void
+            ]
+        ]
+    }
+    
+    /**
+     * Synthesizes the model of the given resource or the snapshot of the given URI and triggers a layout.
+     * 
+     * @param server The diagram server to update.
+     * @param resource The resource containing the model to show.
+     * @param uri The identifying URI of the model.
+     * @param cancelIndicator Indicates if the update has been superseded or canceled.
+     */
+    protected def void doUpdateDiagram(KGraphDiagramServer server, Resource resource, String uri,
+        UpdateTicket cancelIndicator) {
+        val Object snapshotModel = diagramState.getSnapshotModel(uri)
+        var Object model = null
+        if (snapshotModel === null) {
+            if (resource === null || resource.contents.empty) {
+                model = new MessageModel("No model in resource")
             } else {
-                model = snapshotModel
-            }
-            // Check if the model has errors. If the model has errors and no diagram has been shown before, show an
-            // error message as the model. Otherwise if there are errors, ignore the diagram update and keep the old
-            // one. If there are no errors, just generate the diagram.
-            val hasErrors = model instanceof EObject && (model as EObject).eResource !== null
-                && !(model as EObject).eResource.errors.isEmpty
-            if (hasErrors) {
-                // prettify the error message to be better readable line by line
-                val errors = (model as EObject).eResource.errors.fold(
-                    new StringBuilder, [builder, error | builder.append("\n" + error)]).toString
-                model = new MessageModel("The model contains errors:\n" + errors)
+                model = resource.contents.head
             }
-            // Only update an erroneous model if there was no diagram shown before.
-            if (!hasErrors || server.currentRoot.type == "NONE") {
-                synchronized (diagramState) {
-                    prepareModel(server, model, uri)
+        } else {
+            model = snapshotModel
+        }
+        // Check if the model has errors. If the model has errors and no diagram has been shown before, show an
+        // error message as the model. Otherwise if there are errors, ignore the diagram update and keep the old
+        // one. If there are no errors, just generate the diagram.
+        val hasErrors = model instanceof EObject && (model as EObject).eResource !== null
+            && !(model as EObject).eResource.errors.isEmpty
+        if (hasErrors) {
+            // prettify the error message to be better readable line by line
+            val errors = (model as EObject).eResource.errors.fold(
+                new StringBuilder, [builder, error | builder.append("\n" + error)]).toString
+            model = new MessageModel("The model contains errors:\n" + errors)
+        }
+        // Only update an erroneous model if there was no diagram shown before.
+        if (!hasErrors || server.currentRoot.type == "NONE") {
+            synchronized (diagramState.getSessionLock(uri)) {
+                prepareModel(server, model, uri, cancelIndicator)
+                if (!cancelIndicator.canceled) {
                     updateLayout(server)
                 }
             }
-            return null as Void
-        ]
+        }
     }
 
     /**
@@ -200,86 +227,96 @@ class KGraphDiagramUpdater extends DiagramUpdater {
      * @param uri The identifying URI to access the diagram state maps.
      */
     def void prepareModel(KGraphDiagramServer server, Object model, String uri) {
-        val properties = new KlighdSynthesisProperties()
-        var SprottyViewer viewer = null
-        var String synthesisId
-        synchronized (diagramState) {
-            val iViewer = diagramState.getViewer()
+        prepareModel(server, model, uri, null)
+    }
+
+    /**
+     * Prepares the DiagramState and the diagram server to generate an SGraph for the given model the next time the 
+     * createModel is called. The synthesis does not apply its result if it has been canceled in the meantime.
+     * 
+     * @param server The diagramServer for that the diagram state should be updated.
+     * @param model The new model that should be shown for the server.
+     * @param uri The identifying URI to access the diagram state maps.
+     * @param cancelIndicator Indicates if the update has been superseded, may be {@code null}.
+     */
+    def void prepareModel(KGraphDiagramServer server, Object model, String uri, IElkCancelIndicator cancelIndicator) {
+        // The viewer and its view context are reused for subsequent models of the same URI only.
+        synchronized (diagramState.getSessionLock(uri)) {
+            val properties = new KlighdSynthesisProperties()
+            var SprottyViewer viewer = null
+            val iViewer = diagramState.getViewer(uri)
             if (iViewer instanceof SprottyViewer) {
                 viewer = iViewer
             }
+            val synthesisId = diagramState.getSynthesisId(uri)
 
-            synthesisId = diagramState.getSynthesisId(uri)
-        }
-
-        // Set properties.
-        if (synthesisId !== null) {
-            // If the synthesisId is null, KLighD will use the a default synthesis defined for this model.
-            properties.setProperty(KlighdSynthesisProperties.REQUESTED_DIAGRAM_SYNTHESIS, synthesisId)
-        }
+            // Set properties.
+            if (synthesisId !== null) {
+                // If the synthesisId is null, KLighD will use the a default synthesis defined for this model.
+                properties.setProperty(KlighdSynthesisProperties.REQUESTED_DIAGRAM_SYNTHESIS, synthesisId)
+            }
 
-        // Indicated if the model type changed against the current model
-        var modelTypeChanged = false
-        var ViewContext viewContext = null
+            // Indicated if the model type changed against the current model
+            var modelTypeChanged = false
+            var ViewContext viewContext = null
 
-        if (viewer === null || viewer.viewContext === null) {
-            // if viewer or context does not exist always init view
-            modelTypeChanged = true
-        } else {
-            viewContext = viewer.viewContext
-            if (viewContext.inputModel === null || viewContext.inputModel.class !== model.class) {
-                modelTypeChanged = true
-                // If the model is a different type of what is given in the viewContext, also reset the synthesis.
-                properties.setProperty(KlighdSynthesisProperties.REQUESTED_DIAGRAM_SYNTHESIS, null)
-            }
-            if (viewContext.getDiagramSynthesis() !== null
-                && !KlighdDataManager.instance.getSynthesisID(viewContext.getDiagramSynthesis()).equals(synthesisId)) {
-                // In case the synthesis changed the sidebar should be updated
+            if (viewer === null || viewer.viewContext === null) {
+                // if viewer or context does not exist always init view
                 modelTypeChanged = true
+            } else {
+                viewContext = viewer.viewContext
+                if (viewContext.inputModel === null || viewContext.inputModel.class !== model.class) {
+                    modelTypeChanged = true
+                    // If the model is a different type of what is given in the viewContext, also reset the synthesis.
+                    properties.setProperty(KlighdSynthesisProperties.REQUESTED_DIAGRAM_SYNTHESIS, null)
+                }
+                if (viewContext.getDiagramSynthesis() !== null && !KlighdDataManager.instance
+                    .getSynthesisID(viewContext.getDiagramSynthesis()).equals(synthesisId)) {
+                    // In case the synthesis changed the sidebar should be updated
+                    modelTypeChanged = true
+                }
             }
-        }
 
-        // If the type changed the view must be reinitialized to provide a correct ViewContext
-        // otherwise the ViewContext can be simply updated.
-        if (modelTypeChanged) {
-            // Configure the ViewContext and the KlighD synthesis to generate the KGraph model correctly.
-            // needs to be a IDiagramWorkbenchPart, as it calls the standard constructor.
-            viewContext = new ViewContext(null as IDiagramWorkbenchPart, model).configure(properties)
-            viewer = viewContext.createViewer(null, null) as SprottyViewer
-            viewer.diagramServer = server as KGraphDiagramServer
-            viewer.viewContext = viewContext
-        }
+            // If the type changed the view must be reinitialized to provide a correct ViewContext
+            // otherwise the ViewContext can be simply updated.
+            if (modelTypeChanged) {
+                // Configure the ViewContext and the KlighD synthesis to generate the KGraph model correctly.
+                // needs to be a IDiagramWorkbenchPart, as it calls the standard constructor.
+                viewContext = new ViewContext(null as IDiagramWorkbenchPart, model).configure(properties)
+                viewer = viewContext.createViewer(null, null) as SprottyViewer
+                viewer.diagramServer = server as KGraphDiagramServer
+                viewer.viewContext = viewContext
+            }
 
-        // Save recent synthesis options to restore later.
-        storeCurrentSynthesisOptions()
-        // Update the recent synthesis options with all synthesis options configured on the client.
-        configureSynthesisOptions(viewContext)
-        var Map<SynthesisOption, Object> recentSynthesisOptions = null
-        synchronized (diagramState) {
-            recentSynthesisOptions = diagramState.recentSynthesisOptions
-        }
-        properties.configureSynthesisOptionValues(recentSynthesisOptions)
-        
-        viewContext.copyProperties(properties)
-        // Manually set the options in the view context, as it already has been initially configured before.
-        if (recentSynthesisOptions !== null) {
-            for (Map.Entry<SynthesisOption, Object> entry : recentSynthesisOptions.entrySet) {
-                viewContext.configureOption(entry.key, entry.value)
+            // The recent synthesis options are shared by the diagrams of all URIs, so store and apply them for one
+            // diagram at a time.
+            synchronized (diagramState.synthesisOptionsLock) {
+                // Save recent synthesis options to restore later.
+                storeCurrentSynthesisOptions(uri)
+                // Update the recent synthesis options with all synthesis options configured on the client.
+                configureSynthesisOptions(viewContext)
+                val Map<SynthesisOption, Object> recentSynthesisOptions = diagramState.recentSynthesisOptions
+                properties.configureSynthesisOptionValues(recentSynthesisOptions)
+            
+                viewContext.copyProperties(properties)
+                // Manually set the options in the view context, as it already has been initially configured before.
+                if (recentSynthesisOptions !== null) {
+                    for (Map.Entry<SynthesisOption, Object> entry : recentSynthesisOptions.entrySet) {
+                        viewContext.configureOption(entry.key, entry.value)
+                    }
+                }
             }
-        }
         
-        val vc = viewContext
-        // Update the model and with that call the diagram synthesis.
-        AbstractLanguageServer.addToMainThreadQueue([
-            vc.update(model)
-        ])
+            viewContext.setProperty(KlighdSynthesisProperties.CANCEL_INDICATOR, cancelIndicator)
+            // Update the model and with that call the diagram synthesis. It runs on the calling thread, the session
+            // lock serializes it with any other work on the same diagram.
+            viewContext.update(model)
 
-        synchronized (diagramState) {
             diagramState.putURIString(server.clientId, uri)
             diagramState.putKGraphContext(uri, viewContext)
             diagramState.putSynthesisId(uri, KlighdDataManager.instance.getSynthesisID(viewContext.diagramSynthesis))
             if (viewer !== null) {
-                diagramState.setViewer(viewer)
+                diagramState.putViewer(uri, viewer)
             }
         }
     }
@@ -313,57 +350,52 @@ class KGraphDiagramUpdater extends DiagramUpdater {
         var diagramGenerator = incrementalDiagramGenerator
             ? incrementalDiagramGeneratorProvider.get
             : diagramGeneratorProvider.get
-        var SGraph sGraph = null;
-        synchronized (diagramState) {
-            sGraph = diagramGenerator.toSGraph(viewContext.viewModel, uri, cancelIndicator)
-        }
-        if (incrementalDiagramGenerator) {
-            val requestManager = new KGraphDiagramPieceRequestManager(diagramGenerator as KGraphIncrementalDiagramGenerator)
-            synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(uri)) {
+            val sGraph = diagramGenerator.toSGraph(viewContext.viewModel, uri, cancelIndicator)
+            if (incrementalDiagramGenerator) {
+                val requestManager = new KGraphDiagramPieceRequestManager(diagramGenerator as KGraphIncrementalDiagramGenerator)
                 diagramState.putDiagramPieceRequestManager(uri, requestManager)
             }
-        }
-        
-        synchronized (diagramState) {
+            
             diagramState.putKGraphToSModelElementMap(uri, diagramGenerator.getKGraphToSModelElementMap)
             diagramState.putIdToKGraphElementMap(uri, diagramGenerator.idToKGraphElementMap)
             diagramState.putImageData(uri, diagramGenerator.images)
+            
+            return sGraph
         }
         
-        return sGraph
-        
     }
 
     /**
-     * Stores the current synthesisOptions configured in the current {@link ViewContext}.
+     * Stores the current synthesisOptions configured in the current {@link ViewContext} of the given URI.
      * Similar to storing the options in Eclipse UI.<br>
      * <br>
      * See {@code de.cau.cs.kieler.klighd.ui.view.DiagramView#storeCurrentSynthesisOptions}
+     * 
+     * @param uri The identifying URI of the diagram whose options are stored.
      */
-    def storeCurrentSynthesisOptions() {
-        synchronized (diagramState) {
-            val viewer = diagramState.viewer
-            if (viewer !== null && viewer.viewContext !== null) {
-                val viewContext = viewer.viewContext
-                val allUsedSynthesisOptions = new HashSet<SynthesisOption>
-                val usedRootSynthesis = viewContext.diagramSynthesis
+    def storeCurrentSynthesisOptions(String uri) {
+        val viewer = diagramState.getViewer(uri)
+        if (viewer !== null && viewer.viewContext !== null) {
+            val viewContext = viewer.viewContext
+            val allUsedSynthesisOptions = new HashSet<SynthesisOption>
+            val usedRootSynthesis = viewContext.diagramSynthesis
 
-                // Save used syntheses.
-                diagramState.addUsedSynthesis(usedRootSynthesis)
+            // Save used syntheses.
+            diagramState.addUsedSynthesis(usedRootSynthesis)
 
-                // Find all available synthesis options for the currently used syntheses.
-                if (usedRootSynthesis !== null) {
-                    allUsedSynthesisOptions.addAll(usedRootSynthesis.displayedSynthesisOptions)
-                }
-                for (childVC : viewContext.getChildViewContexts(true)) {
-                    diagramState.addUsedSynthesis(childVC.diagramSynthesis)
-                    allUsedSynthesisOptions.addAll(childVC.diagramSynthesis.displayedSynthesisOptions)
-                }
+            // Find all available synthesis options for the currently used syntheses.
+            if (usedRootSynthesis !== null) {
+                allUsedSynthesisOptions.addAll(usedRootSynthesis.displayedSynthesisOptions)
+            }
+            for (childVC : viewContext.getChildViewContexts(true)) {
+                diagramState.addUsedSynthesis(childVC.diagramSynthesis)
+                allUsedSynthesisOptions.addAll(childVC.diagramSynthesis.displayedSynthesisOptions)
+            }
 
-                // Save used options.
-                for (option : allUsedSynthesisOptions) {
-                    diagramState.addRecentSynthesisOption(option, viewContext.getOptionValue(option))
-                }
+            // Save used options.
+            for (option : allUsedSynthesisOptions) {
+                diagramState.addRecentSynthesisOption(option, viewContext.getOptionValue(option))
             }
         }
     }
@@ -374,41 +406,37 @@ class KGraphDiagramUpdater extends DiagramUpdater {
      * @param viewContext The view context to compare the synthesis options against.
      */
     def void configureSynthesisOptions(ViewContext viewContext) {
-        var Map<SynthesisOption, Object> recentSynthesisOptions = null
-        synchronized (diagramState) {
-            recentSynthesisOptions = diagramState.recentSynthesisOptions
-        }
         try {
-            var JsonObject synthesisOptions
-            synchronized (diagramState) {
-                // Use an empty JSON object if the client does not specify synthesis options during initialization.
-                synthesisOptions = diagramState.clientOptions?.asJsonObject?.get(SYNTHESIS_OPTION)?.asJsonObject
-                    ?: new JsonObject
-            }
-            val List<String> configuredOptions = newArrayList
-            for (option : synthesisOptions.entrySet) {
-                val optionId = option.key
-                if (option.value.isJsonPrimitive){
-                    val optionValue = option.value.asJsonPrimitive
-                    // Search an option with the same ID in the view context and configure it with the new value.
-                    val availableOptions = viewContext.displayedSynthesisOptions
-                    val matchedOption = availableOptions.findFirst [ it.id == optionId ]
-                    if (matchedOption !== null) {
-                        val Object optionValueObject = optionValue.isBoolean ? optionValue.asBoolean
-                                                     : optionValue.isNumber  ? optionValue.asNumber
-                                                     : optionValue.isString  ? optionValue.asString
-                        KGraphLanguageServerExtension.configureOption(matchedOption, optionValueObject, viewContext)
-                        // Store the option with the new value in the recent options.
-                        recentSynthesisOptions.put(matchedOption, viewContext.getOptionValue(matchedOption))
-                        configuredOptions.add(optionId)
+            // Use an empty JSON object if the client does not specify synthesis options during initialization.
+            val JsonObject synthesisOptions = diagramState.clientOptions?.asJsonObject?.get(SYNTHESIS_OPTION)
+                ?.asJsonObject ?: new JsonObject
+            // The client options are shared by all diagrams, so configure and remove them by one diagram at a time.
+            synchronized (diagramState.synthesisOptionsLock) {
+                val List<String> configuredOptions = newArrayList
+                for (option : synthesisOptions.entrySet) {
+                    val optionId = option.key
+                    if (option.value.isJsonPrimitive){
+                        val optionValue = option.value.asJsonPrimitive
+                        // Search an option with the same ID in the view context and configure it with the new value.
+                        val availableOptions = viewContext.displayedSynthesisOptions
+                        val matchedOption = availableOptions.findFirst [ it.id == optionId ]
+                        if (matchedOption !== null) {
+                            val Object optionValueObject = optionValue.isBoolean ? optionValue.asBoolean
+                                                         : optionValue.isNumber  ? optionValue.asNumber
+                                                         : optionValue.isString  ? optionValue.asString
+                            KGraphLanguageServerExtension.configureOption(matchedOption, optionValueObject, viewContext)
+                            // Store the option with the new value in the recent options.
+                            diagramState.addRecentSynthesisOption(matchedOption, viewContext.getOptionValue(matchedOption))
+                            configuredOptions.add(optionId)
+                        }
+                    } else {
+                       println("Not a JSON Primitive: " + option.value)
                     }
-                } else {
-                   println("Not a JSON Primitive: " + option.value)
                 }
-            }
-            // These options now already have been configured here, so remove them from being configured again.
-            for (configuredOption : configuredOptions) {
-                synthesisOptions.remove(configuredOption)
+                // These options now already have been configured here, so remove them from being configured again.
+                for (configuredOption : configuredOptions) {
+                    synthesisOptions.remove(configuredOption)
+                }
             }
         } catch (Exception e) {
             println("Could not load client-side synthesis options.")
@@ -427,7 +455,7 @@ class KGraphDiagramUpdater extends DiagramUpdater {
      * Gets the next diagram piece requested by the client.
      */
     def SModelElement getNextDiagramPiece(KGraphDiagramServer server, RequestDiagramPieceAction request) {
-        synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(server.sourceUri)) {
             val requestManager = diagramState.getDiagramPieceRequestManager(server.sourceUri)
             val diagramGenerator = requestManager.diagramGenerator
             val piece = requestManager.processRequest(request)
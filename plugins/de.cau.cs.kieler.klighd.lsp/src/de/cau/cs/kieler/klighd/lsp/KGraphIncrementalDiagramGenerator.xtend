@@ -17,6 +17,7 @@
 package de.cau.cs.kieler.klighd.lsp
 
 import com.google.common.collect.HashBiMap
+import com.google.common.collect.Sets
 import de.cau.cs.kieler.klighd.LightDiagramServices
 import de.cau.cs.kieler.klighd.ViewContext
 import de.cau.cs.kieler.klighd.internal.util.KlighdInternalProperties
@@ -36,14 +37,19 @@ import de.cau.cs.kieler.klighd.lsp.model.SKNode
 import de.cau.cs.kieler.klighd.lsp.model.SKPort
 import de.cau.cs.kieler.klighd.lsp.utils.KGraphElementIdGenerator
 import de.cau.cs.kieler.klighd.lsp.utils.SprottyProperties
-import de.cau.cs.kieler.klighd.util.KlighdPredicates
 import de.cau.cs.kieler.klighd.util.KlighdProperties
 import de.cau.cs.kieler.klighd.util.RenderingContextData
+import java.util.ArrayDeque
 import java.util.ArrayList
 import java.util.HashSet
+import java.util.IdentityHashMap
 import java.util.LinkedList
 import java.util.List
+import java.util.Map
+import java.util.PriorityQueue
 import java.util.Queue
+import java.util.Set
+import org.eclipse.sprotty.Bounds
 import org.eclipse.sprotty.Dimension
 import org.eclipse.sprotty.SEdge
 import org.eclipse.sprotty.SGraph
@@ -61,9 +67,37 @@ import org.eclipse.xtext.util.CancelIndicator
 class KGraphIncrementalDiagramGenerator extends KGraphDiagramGenerator {
     
     /**
-     * Queue of remaining child {@link Knode}s to process in breadth-first traversal to construct diagram.
+     * Queue of remaining child {@link KNode}s to process, ordered by their visibility in the client's viewport first
+     * and their breadth-first traversal order second. Contains stale entries for nodes that were already processed
+     * through the {@code requestedChildren} queue, which are skipped when polling.
      */
-    Queue<KNode> childrenToProcess
+    PriorityQueue<PendingNode> childrenToProcess
+    
+    /**
+     * Queue of remaining child {@link KNode}s whose parent has been requested explicitly by the client. These are
+     * processed before any node in {@code childrenToProcess}.
+     */
+    Queue<KNode> requestedChildren
+    
+    /**
+     * All {@link KNode}s that still need to be processed.
+     */
+    Set<KNode> pendingNodes
+    
+    /**
+     * The number of children still to be processed for each parent {@link KNode}.
+     */
+    Map<KNode, Integer> pendingChildCounts
+    
+    /**
+     * Counter defining the breadth-first order of the nodes to be processed.
+     */
+    long sequence
+    
+    /**
+     * The area currently visible on the client in model coordinates, {@code null} if unknown.
+     */
+    Bounds viewport
     
     /**
      * Queue of graph elements that still need to be post processed.
@@ -114,7 +148,12 @@ class KGraphIncrementalDiagramGenerator extends KGraphDiagramGenerator {
         idGen = new KGraphElementIdGenerator
         edgesToGenerate = new LinkedList
         elementsToPostProcess = new LinkedList
-        childrenToProcess = new LinkedList
+        childrenToProcess = new PriorityQueue
+        requestedChildren = new ArrayDeque
+        pendingNodes = Sets.newIdentityHashSet
+        pendingChildCounts = new IdentityHashMap
+        sequence = 0
+        viewport = null
         // generate an SGraph root element around the translation of the parent KNode.
         diagramRoot = new SKGraph => [
             type = 'graph'
@@ -150,35 +189,154 @@ class KGraphIncrementalDiagramGenerator extends KGraphDiagramGenerator {
                diagramRoot
     }
     
-    // TODO: need mechanisms to manipulate the queue in such a way to prioritize generating requested pieces
     /**
-     * Function to request next part of the diagram. Should eventually support getting specific pieces if they are ready.
+     * Generates the next pending node, preferring children of requested nodes and nodes within the viewport.
+     * 
+     * @return The parent element the generated node has been added to, or {@code null} if no node is pending.
      */
     def SModelElement getNextDiagramPiece() {
-        if (childrenToProcess.peek() !== null) {
-            return processNextElement()
+        var KNode node = null
+        while (node === null && !requestedChildren.empty) {
+            node = requestedChildren.poll
+            if (!pendingNodes.contains(node)) {
+                node = null
+            }
+        }
+        while (node === null && !childrenToProcess.empty) {
+            node = childrenToProcess.poll.node
+            if (!pendingNodes.contains(node)) {
+                node = null
+            }
+        }
+        if (node !== null) {
+            return processNextElement(node)
         }
+        return null
+    }
+    
+    /**
+     * Indicates whether any node still needs to be generated.
+     */
+    def boolean hasPendingNodes() {
+        return !pendingNodes.empty
     }
     
+    /**
+     * Indicates whether all children of the given node have already been generated.
+     */
     def boolean nodeChildrenAllProcessed(KGraphElement node) {
-        for (child: childrenToProcess) {
-            if (child.parent.equals(node)) {
-                return false
+        return !pendingChildCounts.containsKey(node)
+    }
+    
+    /**
+     * Lets all pending children of the given node be generated before any other pending node.
+     * 
+     * @param node The node requested by the client.
+     */
+    def void prioritizeChildren(KGraphElement node) {
+        if (node instanceof KNode && pendingChildCounts.containsKey(node)) {
+            for (child : (node as KNode).children) {
+                if (pendingNodes.contains(child)) {
+                    requestedChildren.add(child)
+                }
             }
         }
-        return true
     }
     
-    private def SModelElement processNextElement() {
-        val node = childrenToProcess.remove()
+    /**
+     * Updates the area visible on the client. Pending nodes intersecting it are generated first.
+     * 
+     * @param newViewport The visible area in model coordinates, {@code null} if unknown.
+     */
+    def void setViewport(Bounds newViewport) {
+        if (newViewport === viewport
+            || newViewport !== null && viewport !== null && newViewport.x == viewport.x && newViewport.y == viewport.y
+                && newViewport.width == viewport.width && newViewport.height == viewport.height) {
+            return
+        }
+        viewport = newViewport
+        // Re-prioritize the pending nodes, dropping the stale entries on the way.
+        val entries = childrenToProcess.filter[ pendingNodes.contains(it.node) ].toList
+        childrenToProcess.clear
+        for (entry : entries) {
+            entry.inViewport = isInViewport(entry)
+            childrenToProcess.add(entry)
+        }
+    }
+    
+    private def SModelElement processNextElement(KNode node) {
+        pendingNodes.remove(node)
+        val parent = node.parent
+        val remaining = pendingChildCounts.get(parent) - 1
+        if (remaining == 0) {
+            pendingChildCounts.remove(parent)
+        } else {
+            pendingChildCounts.put(parent, remaining)
+        }
         // get parent node to add children to
-        val skNode = kGraphToSModelElementMap.get(node.parent)
+        val skNode = kGraphToSModelElementMap.get(parent)
         
         skNode.children.addAll(incrementalCreateNodesAndPrepareEdges(node, skNode))
         incrementalPostProcess()
         return skNode
     }
     
+    /**
+     * Adds the children of the given node to the pending nodes.
+     */
+    private def void enqueueChildren(KNode node) {
+        // The absolute position of the node's child area, the reference point of the children's positions.
+        var double x = node.insets.left
+        var double y = node.insets.top
+        var KNode current = node
+        while (current.parent !== null) {
+            x += current.xpos + current.parent.insets.left
+            y += current.ypos + current.parent.insets.top
+            current = current.parent
+        }
+        for (child : node.children) {
+            val entry = new PendingNode(child, sequence++, x + child.xpos, y + child.ypos)
+            entry.inViewport = isInViewport(entry)
+            childrenToProcess.add(entry)
+            pendingNodes.add(child)
+        }
+        pendingChildCounts.put(node, node.children.size)
+    }
+    
+    private def boolean isInViewport(PendingNode entry) {
+        if (viewport === null) {
+            return false
+        }
+        val node = entry.node
+        return entry.x < viewport.x + viewport.width && entry.x + node.width > viewport.x
+            && entry.y < viewport.y + viewport.height && entry.y + node.height > viewport.y
+    }
+    
+    /**
+     * A {@link KNode} waiting to be generated, with its absolute position for viewport checks.
+     */
+    static class PendingNode implements Comparable<PendingNode> {
+        public val KNode node
+        public val long sequence
+        public val double x
+        public val double y
+        public var boolean inViewport
+        
+        new(KNode node, long sequence, double x, double y) {
+            this.node = node
+            this.sequence = sequence
+            this.x = x
+            this.y = y
+        }
+        
+        override compareTo(PendingNode other) {
+            if (inViewport != other.inViewport) {
+                return if (inViewport) -1 else 1
+            }
+            return Long.compare(sequence, other.sequence)
+        }
+    }
+    
     /**
      * Translates one {@code node} and its outgoing edges to {@link SModelElement}s. Also handles
      * mapping between {@link KGraphElement}s and SModelElements.
@@ -251,8 +409,7 @@ class KGraphIncrementalDiagramGenerator extends KGraphDiagramGenerator {
         
         if ((!node.children.empty) && isExpanded) {
             renderingContextData.setProperty(KlighdInternalProperties.POPULATED, true)
-            // nodeElement.children.addAll(createNodesAndPrepareEdges(node.children, nodeElement))
-            childrenToProcess.addAll(node.children)
+            enqueueChildren(node)
         } else {
             renderingContextData.setProperty(KlighdInternalProperties.POPULATED, false)
         }
@@ -343,37 +500,9 @@ class KGraphIncrementalDiagramGenerator extends KGraphDiagramGenerator {
             val renderings = kGraphElement.data.filter(KRendering)
             // Getting the current rendering similar to AbstractKGERenderingController#getCurrentRendering
             if (kGraphElement instanceof KNode) {
-                // in case the node to be depicted is tagged as 'populated',
-                // i.e. children are depicted in the diagram ...
-                if (RenderingContextData.get(kGraphElement).getProperty(KlighdInternalProperties.POPULATED)) {
-                    // ... look for a rendering tagged as 'expanded', ...
-                    currentRendering = renderings.findFirst [
-                        KlighdPredicates.isExpandedRendering().apply(it)
-                    ]
-
-                    // ... and if none exists ...
-                    if (currentRendering === null) {
-                        // ... take the first one that is not marked as 'collapsed' one
-                        currentRendering = renderings.findFirst [
-                            !KlighdPredicates.isCollapsedRendering().apply(it)
-                        ]
-                    }
-                } else {
-                    // in case the node to be depicted is tagged as 'not populated',
-                    // i.e. no children are visible in the diagram
-                    // look for a rendering marked as 'collapsed' one, ...
-                    currentRendering = renderings.findFirst [
-                        KlighdPredicates.isCollapsedRendering().apply(it)
-                    ]
-
-                    // ... and if none exists ...
-                    if (currentRendering === null) {
-                        // ... take the first one that is not marked as 'expanded' one
-                        currentRendering = renderings.findFirst [
-                            !KlighdPredicates.isExpandedRendering().apply(it)
-                        ]
-                    }
-                }
+                // the rendering tagged for the node's 'populated' state, i.e. whether its children are
+                // depicted in the diagram, or the first one not tagged for the other state
+                currentRendering = RenderingContextData.getCurrentRendering(kGraphElement)
                 (sModelElement as SKNode).data.add(currentRendering)
             } else {
                 // Child renderings of elements other than KNodes are always displayed.
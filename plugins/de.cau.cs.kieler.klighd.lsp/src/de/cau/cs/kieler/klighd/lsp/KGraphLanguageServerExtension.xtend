@@ -25,7 +25,7 @@ import de.cau.cs.kieler.klighd.IAction.ActionContext
 import de.cau.cs.kieler.klighd.KlighdDataManager
 import de.cau.cs.kieler.klighd.SynthesisOption
 import de.cau.cs.kieler.klighd.ViewContext
-import de.cau.cs.kieler.klighd.lsp.launch.AbstractLanguageServer
+import de.cau.cs.kieler.klighd.lsp.launch.LanguageServerExecutor
 import de.cau.cs.kieler.klighd.lsp.model.PerformActionParam
 import de.cau.cs.kieler.klighd.lsp.model.SetLayoutOptionsParam
 import de.cau.cs.kieler.klighd.lsp.model.SetSynthesesAction
@@ -116,18 +116,14 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
         oldClientIds.forEach[ didClose ]
         val initializationOptions = params.initializationOptions
         if (initializationOptions instanceof JsonObject) {
-            synchronized (diagramState) {
-                diagramState.clientOptions = initializationOptions.get(CLIENT_DIAGRAM_OPTIONS_PROPERTY)
-            }
+            diagramState.clientOptions = initializationOptions.get(CLIENT_DIAGRAM_OPTIONS_PROPERTY)
         }
         return super.initialize(params)
     }
     
     override didClose(String clientId) {
         // Clear the diagramState of this client id additional to the default use of this method.
-        synchronized (diagramState) {
-            diagramState.remove(clientId)
-        }
+        diagramState.remove(clientId)
         super.didClose(clientId)
     }
     
@@ -179,25 +175,23 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
      * @return A list of the IDs and displayable names of all available syntheses.
      */
     def List<SetSynthesesActionData> getAvailableSynthesesData(Class<?> currentModelClass) {
-        synchronized (diagramState) {
-            val KlighdDataManager kdm = KlighdDataManager.instance
-            return kdm.getAvailableSyntheses(currentModelClass).map [
-                val synthesisId = kdm.getSynthesisID(it)
-                var displayedName = ""
-                if (it instanceof ReinitializingDiagramSynthesisProxy) {
-                    displayedName = it.delegate.class.simpleName
-                } else {
-                    displayedName = it.class.simpleName
-                }
-                return new SetSynthesesActionData(synthesisId, displayedName)
-            ].toList
-        }
+        val KlighdDataManager kdm = KlighdDataManager.instance
+        return kdm.getAvailableSyntheses(currentModelClass).map [
+            val synthesisId = kdm.getSynthesisID(it)
+            var displayedName = ""
+            if (it instanceof ReinitializingDiagramSynthesisProxy) {
+                displayedName = it.delegate.class.simpleName
+            } else {
+                displayedName = it.class.simpleName
+            }
+            return new SetSynthesesActionData(synthesisId, displayedName)
+        ].toList
     }
     
     override setSynthesisOptions(SetSynthesisOptionsParam param) {
         val decodedUri = URLDecoder.decode(param.uri, "UTF-8")
         doRead(decodedUri) [ resource, ci |
-            synchronized (diagramState) {
+            synchronized (diagramState.getSessionLock(decodedUri)) {
                 val ViewContext viewContext = diagramState.getKGraphContext(decodedUri)
                 if (viewContext === null) {
                     sendErrorAndThrow(new IllegalStateException("The diagram has already been closed."))
@@ -227,7 +221,7 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
                 // Update the diagram.
                 if (diagramUpdater instanceof KGraphDiagramUpdater) {
                     if (update) {
-                        AbstractLanguageServer.addToMainThreadQueue([
+                        LanguageServerExecutor.submit(decodedUri, true, [
                             (diagramUpdater as KGraphDiagramUpdater).updateDiagrams2(#[_uriExtensions.toUri(decodedUri)])
                         ])
                     } 
@@ -241,7 +235,7 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
     override setLayoutOptions(SetLayoutOptionsParam param) {
         val decodedUri = URLDecoder.decode(param.uri, "UTF-8")
         doRead(decodedUri) [ resource, ci |
-            synchronized (diagramState) {
+            synchronized (diagramState.getSessionLock(decodedUri)) {
                 val LayoutConfigurator layoutConfig = diagramState.getLayoutConfig(decodedUri)
                 if (layoutConfig === null) {
                     throw new IllegalStateException("The diagram has already been closed")
@@ -269,7 +263,7 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
                 // Update the layout of the diagram.
                 val diagramServer = this.diagramServerManager.findDiagramServersByUri(decodedUri).head
                 if (diagramUpdater instanceof KGraphDiagramUpdater && diagramServer instanceof KGraphDiagramServer) {
-                    AbstractLanguageServer.addToMainThreadQueue([
+                    LanguageServerExecutor.submit(decodedUri, false, [
                         (diagramUpdater as KGraphDiagramUpdater).updateLayout(diagramServer as KGraphDiagramServer)
                     ])
                 } else {
@@ -283,10 +277,10 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
     override performAction(PerformActionParam param) {
         val decodedUri = URLDecoder.decode(param.uri, "UTF-8")
         try {
-            synchronized (diagramState) {
+            synchronized (diagramState.getSessionLock(decodedUri)) {
                 // Find the action and execute it.
                 val klighdAction = KlighdDataManager.instance.getActionById(param.actionId)
-                val viewer = diagramState.viewer
+                val viewer = diagramState.getViewer(decodedUri)
                 val actionContext = new ActionContext(viewer, null, null, null)
                 val actionResult = klighdAction.execute(actionContext)
                 if (actionResult.needsSynthesis) {
@@ -295,7 +289,7 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
                         val diagramServer = this.diagramServerManager.findDiagramServersByUri(decodedUri)
                             .filter(KGraphDiagramServer).head
                         if (diagramServer !== null) {
-                            AbstractLanguageServer.addToMainThreadQueue([
+                            LanguageServerExecutor.submit(decodedUri, true, [
                                 diagramUpdater.updateDiagram(diagramServer)
                             ])
                         } else {
@@ -311,7 +305,10 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
                         val diagramServer = this.diagramServerManager.findDiagramServersByUri(decodedUri)
                             .filter(KGraphDiagramServer).head
                         if (diagramServer !== null) {
-                            AbstractLanguageServer.addToMainThreadQueue([
+                            // The action may have modified renderings in place, so they all need to be prepared
+                            // again.
+                            diagramState.getRenderingPreparationCache(decodedUri).invalidate
+                            LanguageServerExecutor.submit(decodedUri, false, [
                                 (diagramUpdater as KGraphDiagramUpdater).updateLayout(diagramServer)
                             ])
                         } else {
@@ -426,9 +423,7 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
         
         val diagramServer = diagramServerManager.getDiagramServer('keith-diagram', clientId)
         if (diagramServer instanceof KGraphDiagramServer) {
-            synchronized (diagramState) {
-                diagramState.putSnapshotModel(uri, model)
-            }
+            diagramState.putSnapshotModel(uri, model)
             diagramServer.initializeOptions(#{
                 DiagramOptions.OPTION_SOURCE_URI -> uri,
                 DiagramOptions.OPTION_NEEDS_CLIENT_LAYOUT -> "false",
@@ -437,9 +432,9 @@ class KGraphLanguageServerExtension extends SyncDiagramLanguageServer
             // With that new diagram server, do a similar procedure to generate a diagram as for usual diagrams (except,
             // use the 'model' as its model.
             if (diagramUpdater instanceof KGraphDiagramUpdater) {
-                synchronized (diagramState) {
+                synchronized (diagramState.getSessionLock(uri)) {
                     (diagramUpdater as KGraphDiagramUpdater).prepareModel(diagramServer, model, uri)
-                    AbstractLanguageServer.addToMainThreadQueue([
+                    LanguageServerExecutor.submit(uri, false, [
                         (diagramUpdater as KGraphDiagramUpdater).updateLayout(diagramServer)
                     ])
                 }
@@ -18,9 +18,9 @@ package de.cau.cs.kieler.klighd.lsp
 
 import com.google.inject.Inject
 import de.cau.cs.kieler.klighd.LightDiagramLayoutConfig
-import de.cau.cs.kieler.klighd.lsp.launch.AbstractLanguageServer
 import de.cau.cs.kieler.klighd.lsp.utils.KGraphMappingUtil
 import de.cau.cs.kieler.klighd.lsp.utils.RenderingPreparer
+import de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties
 import java.io.ByteArrayOutputStream
 import java.util.ArrayList
 import org.apache.log4j.Logger
@@ -50,19 +50,19 @@ class KGraphLayoutEngine extends ElkLayoutEngine {
 	
 	public static val LOG = Logger.getLogger(KGraphLayoutEngine)
 	
-	override layout(SModelRoot root, Action cause) {
-	    AbstractLanguageServer.addToMainThreadQueue([
-    	    synchronized (diagramState) {
-        	    if (root instanceof SGraph) {
-        	        // The layout is executed on the KGraph, not the SGraph. So get the KGraph belonging to this SGraph from
-        	        // the KGraphContext.
-                    onlyLayoutOnKGraph(root.id)
-    
-                    // map layouted KGraph to SGraph
-                    KGraphMappingUtil.mapLayout(diagramState.getKGraphToSModelElementMap(root.id))
-                }
+    override layout(SModelRoot root, Action cause) {
+        // The session lock serializes the layout with any other work on the same diagram. Layouts of different diagrams
+        // run in parallel on their calling threads.
+        synchronized (diagramState.getSessionLock(root.id)) {
+            if (root instanceof SGraph) {
+                // The layout is executed on the KGraph, not the SGraph. So get the KGraph belonging to this SGraph from
+                // the KGraphContext.
+                onlyLayoutOnKGraph(root.id)
+
+                // map layouted KGraph to SGraph
+                KGraphMappingUtil.mapLayout(diagramState.getKGraphToSModelElementMap(root.id))
             }
-        ])
+        }
     }
 
     /**
@@ -87,7 +87,9 @@ class KGraphLayoutEngine extends ElkLayoutEngine {
 
         synchronized (kGraphContext.viewModel) {
             lightDiagramLayoutConfig.performLayout
-            RenderingPreparer.prepareRendering(kGraphContext.viewModel, diagramState.getKGraphToSModelElementMap(uri))
+            RenderingPreparer.prepareRendering(kGraphContext.viewModel, diagramState.getKGraphToSModelElementMap(uri),
+                kGraphContext.getProperty(KlighdSynthesisProperties.CANCEL_INDICATOR),
+                diagramState.getRenderingPreparationCache(uri))
         }
     }
 
@@ -19,6 +19,8 @@ package de.cau.cs.kieler.klighd.lsp
 import com.google.common.html.HtmlEscapers
 import de.cau.cs.kieler.klighd.ViewContext
 import de.cau.cs.kieler.klighd.kgraph.KNode
+import java.lang.reflect.Modifier
+import org.eclipse.sprotty.SModelElement
 
 /**
  * Utility methods for graphs in a language server context.
@@ -36,11 +38,7 @@ class LSPUtil {
      */
     static def getRoot(KGraphDiagramState diagramState, String uri) {
 
-        var ViewContext viewContext = null
-        synchronized (diagramState) {
-            viewContext = diagramState.getKGraphContext(uri)
-        }
-
+        val ViewContext viewContext = diagramState.getKGraphContext(uri)
         return viewContext?.viewModel
     }
 
@@ -80,4 +78,27 @@ class LSPUtil {
             // Replace tabs with four spaces.
             .replace("\t", "&nbsp;&nbsp;&nbsp;&nbsp;")
     }
+    
+    /**
+     * Creates a copy of the given element sharing all field values with the original, except for its children, which
+     * are left {@code null}. Useful for sending single elements to the client without their entire subtree.
+     * 
+     * @param element The element to copy.
+     * @return The copy of the element without children.
+     */
+    static def <T extends SModelElement> T shallowCopy(T element) {
+        val copy = element.class.getConstructor().newInstance as T
+        var Class<?> clazz = element.class
+        while (clazz !== Object) {
+            for (field : clazz.declaredFields) {
+                if (!Modifier.isStatic(field.modifiers)
+                    && !(clazz === SModelElement && field.name == "children")) {
+                    field.accessible = true
+                    field.set(copy, field.get(element))
+                }
+            }
+            clazz = clazz.superclass
+        }
+        return copy
+    }
 }
@@ -43,6 +43,8 @@ import org.eclipse.emf.ecore.impl.EObjectImpl
  * Serializer that serializes any sub class of {@link EMapPropertyHolder} via reflection while ignoring fields of the
  * class EMapPropertyHolder itself and its super classes. It serializes only specific properties from
  * {@link EMapPropertyHolder#getProperties}, see {@link KGraphMappingUtil#keepProperty}.
+ * The rules defined here are applied by the streaming {@link EObjectTypeAdapterFactory}, which falls back to this
+ * serializer for classes it cannot handle identically.
  * 
  * @author nre
  */
@@ -0,0 +1,245 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.gson_utils
+
+import com.google.gson.Gson
+import com.google.gson.JsonElement
+import com.google.gson.JsonSerializationContext
+import com.google.gson.TypeAdapter
+import com.google.gson.TypeAdapterFactory
+import com.google.gson.reflect.TypeToken
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+import de.cau.cs.kieler.klighd.kgraph.impl.EMapPropertyHolderImpl
+import de.cau.cs.kieler.klighd.krendering.KRendering
+import de.cau.cs.kieler.klighd.lsp.utils.KGraphMappingUtil
+import java.io.IOException
+import java.lang.reflect.Type
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+import java.util.List
+import java.util.Map
+import java.util.concurrent.ConcurrentHashMap
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.impl.EObjectImpl
+
+/**
+ * Streaming replacement for the {@link EObjectSerializer}. Instead of walking the declared fields of every serialized
+ * object reflectively and building an intermediate {@link JsonElement} tree, a {@link SerializationPlan} is computed
+ * once per concrete {@link EObject} class on first use and applied directly to the {@link JsonWriter}. The fields'
+ * values are read by {@link FieldReader FieldReaders} created along with the plan.<br>
+ * The plan follows the exact field selection and ordering rules of the {@link EObjectSerializer}, so the produced JSON
+ * is identical. Classes for which the output may depend on runtime values (i.e. classes declaring clashing field
+ * names) are delegated to the {@link EObjectSerializer}.
+ */
+class EObjectTypeAdapterFactory implements TypeAdapterFactory {
+
+    /** The serializer defining the field selection rules, also used as fallback. */
+    package val EObjectSerializer legacySerializer = new EObjectSerializer
+
+    /** The serialization plans computed so far, keyed by the concrete class. */
+    val Map<Class<?>, SerializationPlan> plans = new ConcurrentHashMap
+
+    override <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (!EObject.isAssignableFrom(type.rawType)) {
+            return null
+        }
+        return new EObjectTypeAdapter(gson, this, type) as TypeAdapter<?> as TypeAdapter<T>
+    }
+
+    /**
+     * Returns the cached {@link SerializationPlan} for the given class, computing it if necessary.
+     *
+     * @param clazz The concrete class of the object to serialize.
+     * @return The plan for the given class.
+     */
+    def SerializationPlan getPlan(Class<?> clazz) {
+        var plan = plans.get(clazz)
+        if (plan === null) {
+            plan = plans.computeIfAbsent(clazz, [ computePlan(it as Class<? extends EObject>) ])
+        }
+        return plan
+    }
+
+    /**
+     * Computes the {@link SerializationPlan} for the given class, mirroring the iteration in
+     * {@link EObjectSerializer#serialize}.
+     *
+     * @param clazz The concrete class of the object to serialize.
+     * @return The plan for the given class.
+     */
+    private def SerializationPlan computePlan(Class<? extends EObject> clazz) {
+        val plan = new SerializationPlan
+        if (legacySerializer.shouldSkipClass(clazz)) {
+            plan.skip = true
+            return plan
+        }
+        val names = new HashSet<String>
+        var typeAdded = false
+        var Class<?> current = clazz
+        while (current !== EMapPropertyHolderImpl && current !== EObjectImpl) {
+            for (field : current.declaredFields) {
+                if (!legacySerializer.specialHandling(field) && !legacySerializer.shouldSkipField(field)) {
+                    field.accessible = true
+                    // A name clash would make the legacy serializer overwrite earlier values in place, depending on
+                    // which values are null at runtime. Leave such classes to the legacy serializer.
+                    if (!names.add(field.name)) {
+                        plan.delegate = true
+                    }
+                    plan.entries += new PlanEntry(field.name, new FieldReader(field), null)
+                }
+            }
+            if (!typeAdded && legacySerializer.needsTypeField(current as Class<? extends EObject>)) {
+                if (!names.add("type")) {
+                    plan.delegate = true
+                }
+                plan.entries += new PlanEntry("type", null, current.simpleName)
+                typeAdded = true
+            }
+            current = current.superclass
+        }
+        if (KRendering.isAssignableFrom(clazz)) {
+            plan.writeProperties = true
+            if (names.contains("properties")) {
+                plan.delegate = true
+            }
+        }
+        return plan
+    }
+
+    /**
+     * The precomputed serialization steps for one concrete {@link EObject} class.
+     */
+    static class SerializationPlan {
+        /** The object is serialized as {@code null}, see {@link EObjectSerializer#shouldSkipClass}. */
+        public var boolean skip = false
+        /** The object is serialized by the {@link EObjectSerializer} instead of this plan. */
+        public var boolean delegate = false
+        /** The filtered properties are serialized after all fields. */
+        public var boolean writeProperties = false
+        /** The fields and the type name to serialize, in order. */
+        public val List<PlanEntry> entries = new ArrayList
+    }
+
+    /**
+     * A single name/value pair of a {@link SerializationPlan}, either read from a field or a constant type name.
+     */
+    static class PlanEntry {
+        public val String name
+        public val FieldReader field
+        public val String typeName
+
+        new(String name, FieldReader field, String typeName) {
+            this.name = name
+            this.field = field
+            this.typeName = typeName
+        }
+    }
+
+    /**
+     * The type adapter applying the {@link SerializationPlan}s. Deserialization is left to Gson's default adapters.
+     */
+    static class EObjectTypeAdapter extends TypeAdapter<EObject> {
+
+        val Gson gson
+        val EObjectTypeAdapterFactory factory
+        val TypeToken<?> type
+        var TypeAdapter<?> delegate
+
+        new(Gson gson, EObjectTypeAdapterFactory factory, TypeToken<?> type) {
+            this.gson = gson
+            this.factory = factory
+            this.type = type
+        }
+
+        override write(JsonWriter out, EObject source) throws IOException {
+            if (source === null) {
+                out.nullValue
+                return
+            }
+            val plan = factory.getPlan(source.class)
+            if (plan.skip) {
+                out.nullValue
+                return
+            }
+            if (plan.delegate) {
+                val tree = factory.legacySerializer.serialize(source, source.class, new Context(gson))
+                gson.getAdapter(JsonElement).write(out, tree)
+                return
+            }
+
+            out.beginObject
+            for (entry : plan.entries) {
+                if (entry.field === null) {
+                    out.name(entry.name).value(entry.typeName)
+                } else {
+                    val content = entry.field.read(source)
+                    if (content !== null) {
+                        out.name(entry.name)
+                        writeValue(out, content)
+                    }
+                }
+            }
+            if (plan.writeProperties) {
+                val copiedPropertyMap = new HashMap<String, Object>
+                for (propertyKVPair : (source as KRendering).allProperties.entrySet) {
+                    if (KGraphMappingUtil.keepProperty(propertyKVPair.key)) {
+                        copiedPropertyMap.put(propertyKVPair.key.id, propertyKVPair.value)
+                    }
+                }
+                out.name("properties")
+                writeValue(out, copiedPropertyMap)
+            }
+            out.endObject
+        }
+
+        /**
+         * Writes the given value with the adapter of its runtime type, just as
+         * {@link JsonSerializationContext#serialize(Object)} does.
+         */
+        private def void writeValue(JsonWriter out, Object value) {
+            (gson.getAdapter(value.class) as TypeAdapter<?> as TypeAdapter<Object>).write(out, value)
+        }
+
+        override read(JsonReader in) throws IOException {
+            if (delegate === null) {
+                delegate = gson.getDelegateAdapter(factory, type)
+            }
+            return delegate.read(in) as EObject
+        }
+    }
+
+    /**
+     * Minimal {@link JsonSerializationContext} for invoking the {@link EObjectSerializer} as fallback.
+     */
+    static class Context implements JsonSerializationContext {
+        val Gson gson
+
+        new(Gson gson) {
+            this.gson = gson
+        }
+
+        override serialize(Object src) {
+            return gson.toJsonTree(src)
+        }
+
+        override serialize(Object src, Type typeOfSrc) {
+            return gson.toJsonTree(src, typeOfSrc)
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.gson_utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Reads the value of a field by means of a method handle that is created once per field. In
+ * contrast to {@link Field#get(Object)} no access checks are performed on each read.
+ */
+final class FieldReader {
+
+    /** The getter of the field, adapted to take and return {@link Object Objects}. */
+    private final MethodHandle getter;
+
+    /**
+     * Creates a reader for the given field.
+     *
+     * @param field
+     *            the field to read, must be accessible
+     * @throws IllegalAccessException
+     *             if the field is not accessible
+     */
+    FieldReader(final Field field) throws IllegalAccessException {
+        this.getter = MethodHandles.lookup().unreflectGetter(field)
+                .asType(MethodType.methodType(Object.class, Object.class));
+    }
+
+    /**
+     * Reads the value of the field.
+     *
+     * @param object
+     *            the object to read the field of
+     * @return the value of the field, primitive values are boxed
+     */
+    Object read(final Object object) {
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            // getters don't throw checked exceptions
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -29,7 +29,6 @@ import de.cau.cs.kieler.klighd.lsp.model.RequestDiagramPieceAction
 import de.cau.cs.kieler.klighd.lsp.model.SetSynthesisAction
 import java.awt.geom.Point2D
 import java.util.ServiceLoader
-import org.eclipse.emf.ecore.EObject
 import org.eclipse.sprotty.server.json.ActionTypeAdapter
 
 /**
@@ -64,7 +63,7 @@ class KGraphTypeAdapterUtil {
             ]
         )
         .registerTypeAdapter(Point2D, new Point2DTypeAdapter)
-        .registerTypeHierarchyAdapter(EObject, new EObjectSerializer)
+        .registerTypeAdapterFactory(new EObjectTypeAdapterFactory)
         .registerTypeAdapter(SynthesisOption, new SynthesisOptionSerializer)
     }
 }
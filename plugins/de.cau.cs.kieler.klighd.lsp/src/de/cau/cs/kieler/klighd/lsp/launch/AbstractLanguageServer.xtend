@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2019-2022 by
+ * Copyright 2019-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -21,11 +21,7 @@ import de.cau.cs.kieler.klighd.lsp.gson_utils.ReflectiveMessageValidatorExcludin
 import java.net.InetSocketAddress
 import java.nio.channels.AsynchronousServerSocketChannel
 import java.nio.channels.Channels
-import java.util.concurrent.BlockingQueue
 import java.util.concurrent.Executors
-import java.util.concurrent.LinkedBlockingQueue
-import java.util.function.Consumer
-import org.eclipse.elk.core.util.Maybe
 import org.eclipse.xtext.ide.server.LanguageServerImpl
 
 /**
@@ -52,11 +48,6 @@ abstract class AbstractLanguageServer implements Runnable {
     
     extension ILsCreator creator
     
-    /**
-     * Queue to execute SWT or AWT calls on the main Thread.
-     */
-    static val BlockingQueue<Consumer<Void>> mainThreadQueue = new LinkedBlockingQueue<Consumer<Void>>()
-
     /**
      * Configure this the launch of this language server with the language registration, a language server creator and
      * the instance of the calling class.
@@ -67,54 +58,7 @@ abstract class AbstractLanguageServer implements Runnable {
     def configureAndRun(ILanguageRegistration languageRegistration, ILsCreator lsCreator) {
         this.languageRegistration = languageRegistration
         this.creator = lsCreator
-        // Start LS an new Thread to use this as UI Thread.
-        new Thread([
-            run
-        ]).start()
-        while (true) {
-            synchronized (mainThreadQueue) {
-                // Wait until a new function arrives
-                while (mainThreadQueue.isNullOrEmpty) {
-                    mainThreadQueue.wait
-                }
-                // Get new element of queue and only empty after it was processed to make sure that waiting clients
-                // are not able to continue before the function is executed.
-                val f = mainThreadQueue.peek
-                if (f !== null) {
-                    f.accept(null)
-                    mainThreadQueue.poll
-                    mainThreadQueue.notify
-                }
-            }
-        }
-    }
-    
-    /**
-     * Add a new function to be executed on the main Thread.
-     * This method will wait until the function is executed.
-     */
-    static def addToMainThreadQueue(Consumer<Object> f) {
-
-        val Maybe<Throwable> maybeThrowable = new Maybe
-        synchronized (mainThreadQueue) {
-            mainThreadQueue.add([
-                // Make sure methods in the main thread queue do not throw, any throwable thrown by the given function
-                // is remembered and finally re-thrown by this method.
-                try {
-                    f.accept(null)
-                } catch (Throwable t) {
-                    maybeThrowable.set(t)
-                }
-            ])
-            // Wait to continue
-            while (!mainThreadQueue.isNullOrEmpty) {
-                mainThreadQueue.notify
-                mainThreadQueue.wait
-            }
-        }
-        if (maybeThrowable.get instanceof Throwable) {
-            throw maybeThrowable.get
-        }
+        run
     }
     
     /**
@@ -0,0 +1,237 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.launch
+
+import java.util.Map
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Executes the diagram updates requested by the language server asynchronously on a pool of worker threads.<br>
+ * Jobs are submitted under a key, usually the URI of the diagram they work on. Jobs with the same key are executed one
+ * after another in submission order, jobs with different keys run in parallel. A job submitted as superseding cancels
+ * all superseding jobs of its key that have not started yet, as their result would be replaced by its own anyway.<br>
+ * <br>
+ * The jobs take the session lock of their diagram themselves while they synthesize or lay it out. Never wait for a job
+ * while holding a session lock, as the job may need the same lock.<br>
+ * <br>
+ * The number of workers is configured by the system property {@value #WORKERS_PROPERTY} and defaults to the number of
+ * available processors. Setting the system property {@value #VIRTUAL_THREADS_PROPERTY} to {@code true} uses one
+ * virtual thread per job instead, if the running Java version supports them. Alternatively, any other
+ * {@link ExecutorService} can be set via {@link #setWorkerPool(ExecutorService)}.
+ */
+class LanguageServerExecutor {
+
+    /**
+     * The system property defining the number of worker threads.
+     */
+    public static val String WORKERS_PROPERTY = "klighd.lsp.workers"
+
+    /**
+     * The system property enabling virtual threads instead of a fixed pool of worker threads.
+     */
+    public static val String VIRTUAL_THREADS_PROPERTY = "klighd.lsp.virtualThreads"
+
+    /**
+     * The executor running all jobs.
+     */
+    static volatile ExecutorService workerPool
+
+    /**
+     * The lanes keeping the order of jobs with the same key, mapped by their key.
+     */
+    static val Map<String, Lane> lanes = new ConcurrentHashMap
+
+    /**
+     * Sets the executor running all jobs submitted afterwards.
+     *
+     * @param pool The new worker pool.
+     */
+    static def void setWorkerPool(ExecutorService pool) {
+        workerPool = pool
+    }
+
+    /**
+     * Returns the executor running all jobs, creating the default one on first use.
+     */
+    static def ExecutorService getWorkerPool() {
+        var pool = workerPool
+        if (pool === null) {
+            synchronized (LanguageServerExecutor) {
+                pool = workerPool
+                if (pool === null) {
+                    pool = createDefaultPool
+                    workerPool = pool
+                }
+            }
+        }
+        return pool
+    }
+
+    /**
+     * Creates the default worker pool as configured by the {@value #WORKERS_PROPERTY} and
+     * {@value #VIRTUAL_THREADS_PROPERTY} system properties.
+     */
+    private static def ExecutorService createDefaultPool() {
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+            try {
+                // Looked up reflectively, as virtual threads are not available on all supported Java versions.
+                return Executors.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+            } catch (ReflectiveOperationException e) {
+                // Fall back to platform threads.
+            }
+        }
+        val workers = Integer.getInteger(WORKERS_PROPERTY, Runtime.runtime.availableProcessors)
+        val threadCount = new AtomicInteger
+        return Executors.newFixedThreadPool(Math.max(1, workers), [ runnable |
+            val thread = new Thread(runnable, "klighd-lsp-worker-" + threadCount.incrementAndGet)
+            thread.daemon = true
+            return thread
+        ])
+    }
+
+    /**
+     * Submits the given job to be executed after all jobs previously submitted with the same key.
+     *
+     * @param key The key identifying the lane of the job, usually the URI of the diagram it works on. Must be given in
+     *        the same form as for the {@link de.cau.cs.kieler.klighd.lsp.KGraphDiagramState#getSessionLock(String)
+     *        session lock} of the diagram, i.e. the source URI of its diagram server.
+     * @param supersede Whether this job replaces the result of previous jobs. If so, all superseding jobs of the same key
+     *        that have not started yet are cancelled.
+     * @param job The job to execute.
+     * @return A future completed when the job has been executed, or cancelled if it was superseded.
+     */
+    static def CompletableFuture<Void> submit(String key, boolean supersede, Runnable job) {
+        val laneKey = key ?: ""
+        var CompletableFuture<Void> result = null
+        while (result === null) {
+            val lane = lanes.computeIfAbsent(laneKey, [ new Lane(it) ])
+            synchronized (lane) {
+                // A lane removed concurrently after becoming idle must not be used anymore.
+                if (!lane.removed) {
+                    result = lane.append(job, supersede)
+                }
+            }
+        }
+        return result
+    }
+
+    /**
+     * The jobs of one key, each job is started only after the previous one finished.
+     */
+    private static class Lane {
+
+        /** The key of this lane. */
+        package val String key
+
+        /** The future completed when the last appended job finished. */
+        package var CompletableFuture<Void> tail = CompletableFuture.completedFuture(null)
+
+        /** The last appended job. */
+        package var Job last
+
+        /** The jobs appended but not started yet. */
+        package var int pending
+
+        /** Whether this lane became idle and was removed from the lanes. */
+        package var boolean removed
+
+        new(String key) {
+            this.key = key
+        }
+
+        /**
+         * Appends the given job to this lane. Must be called while holding the monitor of this lane.
+         */
+        def CompletableFuture<Void> append(Runnable runnable, boolean supersede) {
+            if (supersede) {
+                var previous = last
+                while (previous !== null && !previous.started) {
+                    if (previous.supersede) {
+                        previous.cancelled = true
+                    }
+                    previous = previous.previous
+                }
+            }
+            val job = new Job(this, runnable, supersede, last)
+            last = job
+            pending++
+            tail = tail.thenRunAsync(job, LanguageServerExecutor.workerPool)
+            return job.result
+        }
+    }
+
+    /**
+     * A single job of a {@link Lane}.
+     */
+    private static class Job implements Runnable {
+
+        package val Lane lane
+        package val Runnable runnable
+        package val boolean supersede
+        package val CompletableFuture<Void> result = new CompletableFuture
+
+        /** The job appended before this one, only kept until this one starts. */
+        package var Job previous
+        package var boolean started
+        package var boolean cancelled
+
+        new(Lane lane, Runnable runnable, boolean supersede, Job previous) {
+            this.lane = lane
+            this.runnable = runnable
+            this.supersede = supersede
+            this.previous = previous
+        }
+
+        override run() {
+            synchronized (lane) {
+                started = true
+                previous = null
+                lane.pending--
+                if (cancelled) {
+                    result.cancel(false)
+                    removeIfIdle
+                    return
+                }
+            }
+            try {
+                runnable.run
+                result.complete(null)
+            } catch (Throwable t) {
+                result.completeExceptionally(t)
+            } finally {
+                synchronized (lane) {
+                    removeIfIdle
+                }
+            }
+        }
+
+        /**
+         * Removes the lane if no further jobs are appended to it. Must be called while holding the monitor of the
+         * lane.
+         */
+        private def void removeIfIdle() {
+            if (lane.pending == 0 && lane.last === this) {
+                lane.removed = true
+                LanguageServerExecutor.lanes.remove(lane.key, lane)
+            }
+        }
+    }
+}
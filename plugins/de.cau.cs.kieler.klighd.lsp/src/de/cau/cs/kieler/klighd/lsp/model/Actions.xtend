@@ -21,6 +21,7 @@ import java.util.List
 import java.util.Set
 import java.util.function.Consumer
 import org.eclipse.sprotty.Action
+import org.eclipse.sprotty.Bounds
 import org.eclipse.sprotty.RequestAction
 import org.eclipse.sprotty.ResponseAction
 import org.eclipse.sprotty.SModelElement
@@ -254,6 +255,12 @@ public class RequestDiagramPieceAction implements RequestAction<SetDiagramPieceA
     String modelElementId
     String requestId
     
+    /**
+     * The currently visible area of the diagram on the client in model coordinates, if known. Pieces within this area
+     * are generated before other pending pieces.
+     */
+    Bounds viewport
+    
     new() {}
     new(String modelElementId) {
         this.modelElementId = modelElementId
@@ -290,3 +297,58 @@ public class SetDiagramPieceAction implements ResponseAction {
 }
 
 
+
+/**
+ * Sent from the server to the client instead of an {@link UpdateModelAction} if the client announced that it supports
+ * delta updates. Contains only the elements that changed since the model with the revision {@code previousRevision}.
+ * The client first removes the elements with the {@code removed} IDs, then inserts the {@code added} elements with
+ * their entire subtrees and finally replaces the {@code changed} elements, which are sent without children, while
+ * keeping their current children.
+ */
+@Accessors
+@EqualsHashCode
+@ToString(skipNulls = true)
+class UpdateModelDeltaAction implements Action {
+    public static val KIND = 'updateModelDelta'
+    String kind = KIND
+    
+    /**
+     * The ID of the model root the delta applies to.
+     */
+    String rootId
+    
+    /**
+     * The revision of the model on the client this delta applies to.
+     */
+    int previousRevision
+    
+    /**
+     * The revision of the model after applying this delta.
+     */
+    int revision
+    
+    /**
+     * The IDs of the topmost removed elements. Their descendants are removed implicitly.
+     */
+    List<String> removed
+    
+    /**
+     * The topmost added elements including their children.
+     */
+    List<SModelElementAddition> added
+    
+    /**
+     * Copies of the changed elements without their children.
+     */
+    List<SModelElement> changed
+    
+    /**
+     * Whether the client should animate the changes, as for the {@code UpdateModelAction} this delta replaces.
+     */
+    Boolean animate
+    
+    new() {}
+    new(Consumer<UpdateModelDeltaAction> initializer) {
+        initializer.accept(this)
+    }
+}
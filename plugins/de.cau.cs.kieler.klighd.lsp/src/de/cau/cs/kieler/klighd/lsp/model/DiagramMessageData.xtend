@@ -17,6 +17,7 @@
 package de.cau.cs.kieler.klighd.lsp.model
 
 import de.cau.cs.kieler.klighd.krendering.KImage
+import org.eclipse.sprotty.SModelElement
 import org.eclipse.xtend.lib.annotations.Data
 
 /**
@@ -62,4 +63,25 @@ class ImageData {
     static def ImageData of(KImage image) {
         return new ImageData(image.bundleName, image.imagePath)
     }
-}
\ No newline at end of file
+}
+
+/**
+ * An element added to the model as part of an {@link UpdateModelDeltaAction}.
+ */
+@Data
+class SModelElementAddition {
+    /**
+     * The ID of the parent element the element is added to.
+     */
+    String parentId
+    
+    /**
+     * The index of the element within the children of its parent.
+     */
+    int index
+    
+    /**
+     * The added element, including its children.
+     */
+    SModelElement element
+}
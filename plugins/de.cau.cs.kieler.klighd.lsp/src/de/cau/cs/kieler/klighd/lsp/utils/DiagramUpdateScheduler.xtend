@@ -0,0 +1,211 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.utils
+
+import com.google.inject.Singleton
+import java.util.Map
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Function
+import org.apache.log4j.Logger
+import org.eclipse.elk.core.util.IElkCancelIndicator
+import org.eclipse.xtext.util.CancelIndicator
+
+/**
+ * Debounces and coalesces the diagram updates of each document.<br>
+ * Every scheduled update gets an {@link UpdateTicket} that is canceled as soon as a newer update for the same URI is
+ * scheduled. A new synthesis supersedes all pending syntheses and layouts of its URI, as it is followed by a layout
+ * anyway, a new layout only supersedes pending layouts. The ticket is meant to be handed down as cancel indicator into
+ * the synthesis, the layout and the rendering preparation, so superseded updates stop as early as possible.<br>
+ * Scheduled updates are started after a delay of {@value #DEBOUNCE_PROPERTY} milliseconds, so bursts of edits only
+ * start the last of their updates.
+ */
+@Singleton
+class DiagramUpdateScheduler {
+
+    /**
+     * The system property defining the delay in milliseconds before a scheduled update is started.
+     */
+    public static val String DEBOUNCE_PROPERTY = "klighd.lsp.updateDebounceMillis"
+
+    /**
+     * The default delay in milliseconds before a scheduled update is started.
+     */
+    public static val long DEFAULT_DEBOUNCE_MILLIS = 50
+
+    static val LOG = Logger.getLogger(DiagramUpdateScheduler)
+
+    /**
+     * The delay in milliseconds before a scheduled update is started.
+     */
+    val long debounceMillis = Long.getLong(DEBOUNCE_PROPERTY, DEFAULT_DEBOUNCE_MILLIS)
+
+    /**
+     * The tickets of the latest synthesis of each URI.
+     */
+    val Map<String, UpdateTicket> syntheses = new ConcurrentHashMap
+
+    /**
+     * The tickets of the latest layout of each URI.
+     */
+    val Map<String, UpdateTicket> layouts = new ConcurrentHashMap
+
+    /** The number of scheduled updates. */
+    val AtomicLong scheduledUpdates = new AtomicLong
+
+    /** The number of updates dropped as they were superseded before they finished. */
+    val AtomicLong droppedUpdates = new AtomicLong
+
+    /** The number of updates finished without having been superseded. */
+    val AtomicLong completedUpdates = new AtomicLong
+
+    /**
+     * Schedules a synthesis of the diagram of the given URI, superseding all pending syntheses and layouts of it.
+     *
+     * @param uri The URI of the diagram.
+     * @param work The update to run, given the ticket of the update. Should stop as soon as the ticket is canceled.
+     * @return The result of the work, or {@code null} if the update was superseded before it started.
+     */
+    def <T> CompletableFuture<T> scheduleSynthesis(String uri, Function<UpdateTicket, CompletableFuture<T>> work) {
+        val ticket = new UpdateTicket
+        supersede(syntheses.put(uri, ticket))
+        supersede(layouts.remove(uri))
+        return schedule(ticket, work, syntheses, uri)
+    }
+
+    /**
+     * Schedules a layout of the diagram of the given URI, superseding all pending layouts of it.
+     *
+     * @param uri The URI of the diagram.
+     * @param work The update to run, given the ticket of the update. Should stop as soon as the ticket is canceled.
+     * @return The result of the work, or {@code null} if the update was superseded before it started.
+     */
+    def <T> CompletableFuture<T> scheduleLayout(String uri, Function<UpdateTicket, CompletableFuture<T>> work) {
+        val ticket = new UpdateTicket
+        supersede(layouts.put(uri, ticket))
+        return schedule(ticket, work, layouts, uri)
+    }
+
+    private def <T> CompletableFuture<T> schedule(UpdateTicket ticket,
+        Function<UpdateTicket, CompletableFuture<T>> work, Map<String, UpdateTicket> tickets, String uri) {
+        scheduledUpdates.incrementAndGet
+        val start = if (debounceMillis > 0) {
+            CompletableFuture.runAsync([|], CompletableFuture.delayedExecutor(debounceMillis, TimeUnit.MILLISECONDS))
+        } else {
+            CompletableFuture.completedFuture(null)
+        }
+        return start.thenCompose [
+            if (ticket.canceled) {
+                return CompletableFuture.completedFuture(null)
+            }
+            return work.apply(ticket)
+        ].whenComplete [ result, throwable |
+            tickets.remove(uri, ticket)
+            if (ticket.finish) {
+                completedUpdates.incrementAndGet
+            }
+        ]
+    }
+
+    /**
+     * Cancels the given ticket, if any, and counts it as dropped if it had not finished yet.
+     */
+    private def void supersede(UpdateTicket ticket) {
+        if (ticket !== null && ticket.supersede) {
+            val dropped = droppedUpdates.incrementAndGet
+            if (LOG.isDebugEnabled) {
+                LOG.debug("Dropped superseded diagram update, " + dropped + " of " + scheduledUpdates.get
+                    + " updates dropped so far.")
+            }
+        }
+    }
+
+    /**
+     * Returns the number of updates scheduled so far.
+     */
+    def long getScheduledUpdates() {
+        return scheduledUpdates.get
+    }
+
+    /**
+     * Returns the number of updates dropped so far, as they were superseded before they finished.
+     */
+    def long getDroppedUpdates() {
+        return droppedUpdates.get
+    }
+
+    /**
+     * Returns the number of updates finished so far without having been superseded.
+     */
+    def long getCompletedUpdates() {
+        return completedUpdates.get
+    }
+
+    /**
+     * The cancel indicator of a single scheduled update. It is canceled if the update has been superseded by a newer
+     * one or if the request executing the update has been canceled.
+     */
+    static class UpdateTicket implements CancelIndicator, IElkCancelIndicator {
+
+        /** Whether a newer update superseded this one. */
+        volatile boolean superseded
+
+        /** Whether this update finished. */
+        volatile boolean finished
+
+        /** The cancel indicator of the request executing this update, if any. */
+        volatile CancelIndicator requestCancelIndicator
+
+        /**
+         * Additionally lets this ticket report cancelation if the given cancel indicator of the request executing the
+         * update does.
+         *
+         * @param cancelIndicator The cancel indicator of the request, may be {@code null}.
+         * @return This ticket.
+         */
+        def UpdateTicket withRequest(CancelIndicator cancelIndicator) {
+            requestCancelIndicator = cancelIndicator
+            return this
+        }
+
+        override isCanceled() {
+            return superseded || requestCancelIndicator !== null && requestCancelIndicator.canceled
+        }
+
+        /**
+         * Marks this update as superseded.
+         *
+         * @return {@code true} if the update had not finished yet.
+         */
+        package def synchronized boolean supersede() {
+            superseded = true
+            return !finished
+        }
+
+        /**
+         * Marks this update as finished.
+         *
+         * @return {@code true} if the update had not been superseded.
+         */
+        package def synchronized boolean finish() {
+            finished = true
+            return !superseded
+        }
+    }
+}
@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2018-2023 by
+ * Copyright 2018-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -27,6 +27,8 @@ import de.cau.cs.kieler.klighd.krendering.KPolyline
 import de.cau.cs.kieler.klighd.krendering.KRendering
 import de.cau.cs.kieler.klighd.krendering.KRenderingRef
 import java.util.HashMap
+import java.util.IdentityHashMap
+import java.util.List
 import java.util.Map
 import org.eclipse.xtend.lib.annotations.Accessors
 
@@ -51,6 +53,18 @@ class KGraphElementIdGenerator {
     @Accessors(PUBLIC_GETTER)
     Map<String, KGraphElement> idToElementMap
     
+    /**
+     * The positions of the elements in their containment lists, computed once per list on first use instead of
+     * searching the list for every element.
+     */
+    Map<List<? extends KGraphElement>, Map<KGraphElement, Integer>> positions = new IdentityHashMap
+    
+    /**
+     * The next copy counter to try for each base ID for that a copy has already been created. All smaller counters are
+     * already taken.
+     */
+    Map<String, Integer> copyCounters = new HashMap
+    
     int danglingElements = 0
     
     /**
@@ -133,19 +147,19 @@ class KGraphElementIdGenerator {
         switch (element) {
             KNode: {
                 elementSeparator = NODE_SEPARATOR
-                index = element.parent.children.indexOf(element)
+                index = positionIn(element, element.parent.children)
             }
             KEdge: {
                 elementSeparator = EDGE_SEPARATOR
-                index = element.source.outgoingEdges.indexOf(element)
+                index = positionIn(element, element.source.outgoingEdges)
             }
             KLabel: {
                 elementSeparator = LABEL_SEPARATOR
-                index = element.parent.labels.indexOf(element)
+                index = positionIn(element, element.parent.labels)
             }
             KPort: {
                 elementSeparator = PORT_SEPARATOR
-                index = element.node.ports.indexOf(element)
+                index = positionIn(element, element.node.ports)
             }
             default: {
                 throw new IllegalArgumentException("Can not generate an id for element of type " + element.class)
@@ -161,14 +175,42 @@ class KGraphElementIdGenerator {
         val baseId = parentId + ID_SEPARATOR + elementId
         // If the KIdentifier is not unique between its siblings, make the ID unique with a counter in the end.
         id = baseId
-        for (var cnt = 2; idToElementMap.containsKey(id); cnt++) {
+        if (idToElementMap.containsKey(id)) {
+            // Continue after the last copy of this base ID, as all copies before are taken.
+            var int cnt = copyCounters.getOrDefault(baseId, 2)
             id = baseId + ID_SEPARATOR + ID_SEPARATOR + "copy" + cnt
+            while (idToElementMap.containsKey(id)) {
+                cnt++
+                id = baseId + ID_SEPARATOR + ID_SEPARATOR + "copy" + cnt
+            }
+            copyCounters.put(baseId, cnt + 1)
         }
         elementToIdMap.put(element, id)
         idToElementMap.put(id, element)
         return id
     }
     
+    /**
+     * Returns the position of the element in the given containment list. The positions of all elements of the list are
+     * computed in one pass on the first call for that list.
+     * 
+     * @param element The element to find.
+     * @param list The containment list of the element.
+     * @return The index of the element in the list.
+     */
+    private def int positionIn(KGraphElement element, List<? extends KGraphElement> list) {
+        var listPositions = positions.get(list)
+        if (listPositions === null) {
+            listPositions = new IdentityHashMap(list.size)
+            var int i = 0
+            for (sibling : list) {
+                listPositions.put(sibling, i++)
+            }
+            positions.put(list, listPositions)
+        }
+        return listPositions.get(element) ?: -1
+    }
+    
 }
 
 /**
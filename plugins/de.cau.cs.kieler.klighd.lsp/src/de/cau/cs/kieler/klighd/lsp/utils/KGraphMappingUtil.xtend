@@ -153,7 +153,10 @@ class KGraphMappingUtil {
      * @param propertyList list of properties to check
      * @param id id to be searched for
      * @return true if the list contains a property with the given id, false otherwise
+     * @deprecated Use {@link #keepProperty(IProperty)} or the {@link KlighdDataManager#getPropertyFilterIndex} to
+     *             check whether a property is sent to the client, instead of searching the black- and whitelists.
      */
+    @Deprecated
     static def containsPropertyWithId(List<IProperty<?>> propertyList, String id) {
         for (IProperty<?> property : propertyList) {
             if (property.id.equals(id)) {
@@ -166,16 +169,10 @@ class KGraphMappingUtil {
     /**
      * Check white- and blacklists whether a property should be kept or not. Properties starting with
      * "de.cau.cs.kieler.klighd", "klighd" or "org.eclipse.elk" are kept by default unless forbidden by
-     * the blacklist.
+     * the blacklist. The decision is taken from the {@link KlighdDataManager#getPropertyFilterIndex}.
      */
     static def keepProperty(IProperty<?> property) {
-        var blackList = KlighdDataManager.instance.blacklistedProperties;
-        var whiteList = KlighdDataManager.instance.whitelistedProperties;
-        return !containsPropertyWithId(blackList, property.id) 
-                && (property.id.startsWith("de.cau.cs.kieler.klighd") 
-                    || property.id.startsWith("klighd")
-                    || property.id.startsWith("org.eclipse.elk")
-                    || containsPropertyWithId(whiteList, property.id));
+        return KlighdDataManager.instance.propertyFilterIndex.keep(property)
     }
     
     /**
@@ -59,7 +59,7 @@ class KeithDiagramSelectionListener extends DiagramSelectionListener {
                 // Make sure the lazy tracing has been executed for the selected elements first.
                 if (action instanceof SelectAction && traceProvider instanceof LazyTraceProvider) {
                     val index = new SModelIndex(server.model)
-                    synchronized (diagramState) {
+                    synchronized (diagramState.getSessionLock(server.model.id)) {
                         val s2k = diagramState.getKGraphToSModelElementMap(server.model.id)?.inverse
                         for (id : (action as SelectAction).selectedElementsIDs ?: #[]) {
                             val selectedElement = index.get(id)
@@ -43,7 +43,7 @@ class LazyTraceProvider extends XtextTraceProvider {
 
     override protected void doFindSModelElement(SModelElement root, Map<URI, EObject> uri2container,
         (EObject, SModelElement)=>void result) {
-        synchronized (diagramState) {
+        synchronized (diagramState.getSessionLock(root.id)) {
             val s2k = diagramState.getKGraphToSModelElementMap(root.id)?.inverse
             doFindSModelElement2(root, s2k, uri2container, result)
         }
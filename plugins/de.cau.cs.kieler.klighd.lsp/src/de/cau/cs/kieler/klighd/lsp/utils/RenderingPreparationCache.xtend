@@ -0,0 +1,82 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.utils
+
+import de.cau.cs.kieler.klighd.krendering.KRendering
+import java.util.Arrays
+import java.util.Collections
+import java.util.Map
+import java.util.Objects
+import java.util.WeakHashMap
+
+/**
+ * Remembers for which IDs and element geometries the renderings of a diagram have been prepared by the
+ * {@link RenderingPreparer}, so unchanged renderings can be skipped on the next layout of the same diagram.<br>
+ * Renderings are identified by their identity, so renderings of a new synthesis are never mistaken for prepared ones.
+ * Renderings modified in place, e.g. by an action, are not detected, call {@link #invalidate()} after such modifications.
+ */
+class RenderingPreparationCache {
+
+    /**
+     * The state each rendering has been prepared for, mapped by the top-level rendering of the element.
+     */
+    val Map<KRendering, PreparedState> preparedStates = Collections.synchronizedMap(new WeakHashMap)
+
+    /**
+     * Checks whether the given rendering has already been prepared for the given ID and geometry.
+     *
+     * @param rendering The top-level rendering or rendering reference of an element.
+     * @param id The ID the rendering was prepared for.
+     * @param geometry The geometry of the element the rendering was prepared for.
+     * @return {@code true} if the persisted bounds, decorations and IDs of the rendering are still valid.
+     */
+    package def boolean isPrepared(KRendering rendering, String id, float[] geometry) {
+        val state = preparedStates.get(rendering)
+        return state !== null && Objects.equals(state.id, id) && Arrays.equals(state.geometry, geometry)
+    }
+
+    /**
+     * Remembers that the given rendering has been prepared for the given ID and geometry.
+     *
+     * @param rendering The top-level rendering or rendering reference of an element.
+     * @param id The ID the rendering was prepared for.
+     * @param geometry The geometry of the element the rendering was prepared for.
+     */
+    package def void setPrepared(KRendering rendering, String id, float[] geometry) {
+        preparedStates.put(rendering, new PreparedState(id, geometry))
+    }
+
+    /**
+     * Forgets all prepared renderings, so all renderings are prepared again on the next layout.
+     */
+    def void invalidate() {
+        preparedStates.clear
+    }
+
+    /**
+     * The ID and element geometry a rendering has been prepared for.
+     */
+    private static class PreparedState {
+        package val String id
+        package val float[] geometry
+
+        new(String id, float[] geometry) {
+            this.id = id
+            this.geometry = geometry
+        }
+    }
+}
@@ -50,8 +50,12 @@ import de.cau.cs.kieler.klighd.util.RenderingContextData
 import java.awt.geom.Point2D
 import java.util.ArrayList
 import java.util.HashMap
+import java.util.HashSet
 import java.util.List
 import java.util.Map
+import java.util.Set
+import java.util.concurrent.ConcurrentHashMap
+import org.eclipse.elk.core.util.IElkCancelIndicator
 import org.eclipse.sprotty.SModelElement
 
 import static com.google.common.collect.Iterables.filter
@@ -64,6 +68,16 @@ import static extension de.cau.cs.kieler.klighd.lsp.utils.SprottyProperties.*
  * @author nre
  */
 final class RenderingPreparer {
+    
+    /**
+     * The system property enabling the preparation of the child nodes of a node in parallel. Off by default.
+     */
+    public static val String PARALLEL_PROPERTY = "klighd.lsp.parallelRenderingPreparation"
+    
+    /**
+     * Whether the child nodes of a node are prepared in parallel.
+     */
+    static val boolean PARALLEL = Boolean.getBoolean(PARALLEL_PROPERTY)
 
     /**
      * Prepares a KGraphElement to be rendered in an external viewer.
@@ -81,37 +95,114 @@ final class RenderingPreparer {
      * @param kGraphToSGraph A map for identifying the SGraph element for each KGraph element in this graph.
      */
     static def void prepareRendering(KGraphElement element, Map<KGraphElement, SModelElement> kGraphToSGraph) {
+        prepareRendering(element, kGraphToSGraph, null)
+    }
+    
+    /**
+     * Prepares a KGraphElement to be rendered in an external viewer, see
+     * {@link #prepareRendering(KGraphElement, Map)}. Stops descending into further child elements as soon as the given
+     * cancel indicator reports cancelation, as the prepared renderings are not needed anymore then.
+     * 
+     * @param element The parent element containing the graph to calculate all rendering bounds for.
+     * @param kGraphToSGraph A map for identifying the SGraph element for each KGraph element in this graph.
+     * @param cancelIndicator Indicates if the preparation should be stopped, may be {@code null}.
+     */
+    static def void prepareRendering(KGraphElement element, Map<KGraphElement, SModelElement> kGraphToSGraph,
+        IElkCancelIndicator cancelIndicator) {
+        prepareRendering(element, kGraphToSGraph, cancelIndicator, null)
+    }
+    
+    /**
+     * Prepares a KGraphElement to be rendered in an external viewer, see
+     * {@link #prepareRendering(KGraphElement, Map, IElkCancelIndicator)}. Renderings already prepared with the given
+     * cache for the same ID and the same size of their element, or the same route for edges, are skipped, as their
+     * persisted bounds, decorations and IDs are still valid. Renderings containing modifiable styles are always
+     * prepared again.<br>
+     * References to the same library rendering from elements of the same size share their bounds and decoration maps.
+     * 
+     * @param element The parent element containing the graph to calculate all rendering bounds for.
+     * @param kGraphToSGraph A map for identifying the SGraph element for each KGraph element in this graph.
+     * @param cancelIndicator Indicates if the preparation should be stopped, may be {@code null}.
+     * @param cache The cache remembering the renderings prepared in previous runs, may be {@code null}.
+     */
+    static def void prepareRendering(KGraphElement element, Map<KGraphElement, SModelElement> kGraphToSGraph,
+        IElkCancelIndicator cancelIndicator, RenderingPreparationCache cache) {
+        val preparation = new Preparation(kGraphToSGraph, cancelIndicator, cache)
+        if (PARALLEL) {
+            // The IDs of library renderings are read by the references to them from any subtree, so generate them
+            // before the subtrees are prepared in parallel.
+            prepareLibraries(element, preparation)
+        }
+        prepareElement(element, preparation)
+    }
+    
+    /**
+     * Prepares the rendering libraries of the given element and recursively of all its child nodes.
+     */
+    private static def void prepareLibraries(KGraphElement element, Preparation preparation) {
+        for (library : filter(element.data, KRenderingLibrary)) {
+            prepareLibrary(library, preparation)
+            preparation.preparedLibraries += library
+        }
+        if (element instanceof KNode) {
+            for (node : element.children) {
+                prepareLibraries(node, preparation)
+            }
+        }
+    }
+    
+    /**
+     * Generates the IDs of all renderings of the given library.
+     */
+    private static def void prepareLibrary(KRenderingLibrary library, Preparation preparation) {
+        // The library needs to generate ids for all later KRenderingRefs to refer to, but no own bounds,
+        // since these are generic renderings.
+        for (var int j = 0; j < library.renderings.size; j++) {
+            val rendering = library.renderings.get(j)
+            if (rendering instanceof KRendering) {
+                if (!preparation.isPrepared(rendering, "$$lib$$" + j, null)) {
+                    KRenderingIdGenerator.generateIdsRecursive(rendering, "$$lib$$", j)
+                    preparation.setPrepared(rendering, "$$lib$$" + j, null)
+                }
+            }
+        }
+    }
+    
+    /**
+     * Prepares the renderings of the given element and recursively of all its child elements.
+     */
+    private static def void prepareElement(KGraphElement element, Preparation preparation) {
+        if (preparation.canceled) {
+            return
+        }
+        val id = preparation.kGraphToSGraph.get(element)?.id
+        val geometry = geometryOf(element)
         // calculate the sizes of all renderings:
         for (var int i = 0; i < element.data.size; i++) {
             val data = element.data.get(i)
             switch(data) {
                 KRenderingLibrary: {
-                    // The library needs to generate ids for all later KRenderingRefs to refer to, but no own bounds,
-                    // since these are generic renderings.
-                    for (var int j = 0; j < data.renderings.size; j++) {
-                        val rendering = data.renderings.get(j)
-                        if (rendering instanceof KRendering) {
-                            KRenderingIdGenerator.generateIdsRecursive(rendering, "$$lib$$", j)
-                        }
+                    if (!preparation.preparedLibraries.contains(data)) {
+                        prepareLibrary(data, preparation)
                     }
                 }
                 KRenderingRef: {
-                    // all references to KRenderings need to place a map with the ids of the renderings and their 
-                    // sizes and their decoration in this case in the properties of the reference.
-                    var boundsMap = new HashMap<String, Bounds>
-                    var decorationMap = new HashMap<String, Decoration>
-                    handleKRendering(element, data.rendering, boundsMap, decorationMap)
-                    // add new Property to contain the boundsMap
-                    data.properties.put(CALCULATED_BOUNDS_MAP, boundsMap)
-                    // and the decorationMap
-                    data.properties.put(CALCULATED_DECORATION_MAP, decorationMap)
-                    // remember the id of the rendering in the reference
-                    data.renderingId = kGraphToSGraph.get(element)?.id + data.rendering.renderingId
+                    if (!preparation.isPrepared(data, id, geometry)) {
+                        preparation.guarded(data) [
+                            prepareRenderingRef(element, data, preparation)
+                            // remember the id of the rendering in the reference
+                            data.renderingId = id + data.rendering.renderingId
+                        ]
+                        preparation.setPrepared(data, id, geometry)
+                    }
                 }
                 KRendering: {
-                    // every rendering needs an ID, generate it here
-                    KRenderingIdGenerator.generateIdsRecursive(data, kGraphToSGraph.get(element)?.id + "$$", i)
-                    handleKRendering(element, data, null, null)
+                    if (!preparation.isPrepared(data, id + "$$" + i, geometry)) {
+                        // every rendering needs an ID, generate it here
+                        KRenderingIdGenerator.generateIdsRecursive(data, id + "$$", i)
+                        preparation.guarded(data) [ handleKRendering(element, data, null, null) ]
+                        preparation.setPrepared(data, id + "$$" + i, geometry)
+                    }
                 }
             }
         }
@@ -121,7 +212,7 @@ final class RenderingPreparer {
         
         if (element instanceof KLabeledGraphElement) {
             for (label : element.labels) {
-                prepareRendering(label, kGraphToSGraph)
+                prepareElement(label, preparation)
             }
         }
         if (element instanceof KNode) {
@@ -137,18 +228,25 @@ final class RenderingPreparer {
             }
             
             if (isExpanded) {
-                for (node : element.children) {
-                    prepareRendering(node, kGraphToSGraph)
+                if (PARALLEL && element.children.size > 1) {
+                    // The subtrees of the children write to their own renderings and to the shared library
+                    // renderings they reference. The latter is done under the library lock of the preparation, see
+                    // Preparation#guarded.
+                    element.children.parallelStream.forEach [ prepareElement(it, preparation) ]
+                } else {
+                    for (node : element.children) {
+                        prepareElement(node, preparation)
+                    }
                 }
             }
             for (edge : element.outgoingEdges) {
                 // not expanded => edge must not have the target node inside the non-expanded
                 if (isExpanded || !KGraphUtil.isDescendant(edge.target, element)) {
-                    prepareRendering(edge, kGraphToSGraph)
+                    prepareElement(edge, preparation)
                 }
             }
             for (port : element.ports) {
-                prepareRendering(port, kGraphToSGraph)
+                prepareElement(port, preparation)
             }
         }
         
@@ -159,30 +257,25 @@ final class RenderingPreparer {
             val data = proxyRendering.get(i)
                 switch(data) {
                     KRenderingRef: {
-                        // all references to KRenderings need to place a map with the ids of the renderings and their 
-                        // sizes and their decoration in this case in the properties of the reference.
-                        var boundsMap = new HashMap<String, Bounds>
-                        var decorationMap = new HashMap<String, Decoration>
-                        handleKRendering(element, data.rendering, boundsMap, decorationMap)
-                        // add new Property to contain the boundsMap
-                        data.properties.put(CALCULATED_BOUNDS_MAP, boundsMap)
-                        // and the decorationMap
-                        data.properties.put(CALCULATED_DECORATION_MAP, decorationMap)
-                        // remember the id of the rendering in the reference
-                    data.renderingId = kGraphToSGraph.get(element)?.id + data.rendering.renderingId
-                        
+                        preparation.guarded(data) [
+                            prepareRenderingRef(element, data, preparation)
+                            // remember the id of the rendering in the reference
+                            data.renderingId = id + data.rendering.renderingId
+                        ]
                     }
                     KRendering: {
                         // every rendering needs an ID, generate it here
-                        KRenderingIdGenerator.generateIdsRecursive(data, kGraphToSGraph.get(element)?.id + "$$", i)
+                        KRenderingIdGenerator.generateIdsRecursive(data, id + "$$", i)
                         if (data.eContainer instanceof KNode) {
                             // Calculate the size and layout of the proxy first.
                             val parent = data.eContainer as KNode
-                            val minSize = parent.getProperty(KlighdProperties.MINIMAL_NODE_SIZE)
-                            val bounds = PlacementUtil.basicEstimateSize(data, new Bounds(minSize.x, minSize.y))
-                            parent.width = bounds.width
-                            parent.height = bounds.height
-                            handleKRendering(parent, data, null, null)
+                            preparation.guarded(data) [
+                                val minSize = parent.getProperty(KlighdProperties.MINIMAL_NODE_SIZE)
+                                val bounds = PlacementUtil.basicEstimateSize(data, new Bounds(minSize.x, minSize.y))
+                                parent.width = bounds.width
+                                parent.height = bounds.height
+                                handleKRendering(parent, data, null, null)
+                            ]
                         }
                     }
                 }
@@ -190,6 +283,66 @@ final class RenderingPreparer {
         }
     }
     
+    /**
+     * Places a map with the ids of the referenced renderings and their sizes and their decorations in the properties
+     * of the given reference. References to the same rendering from elements of the same size share the same maps, as
+     * long as the referenced rendering has no modifiable styles depending on the element.
+     * 
+     * @param element The element containing the reference.
+     * @param reference The reference to prepare.
+     * @param preparation The current preparation.
+     */
+    private static def void prepareRenderingRef(KGraphElement element, KRenderingRef reference,
+        Preparation preparation) {
+        var List<Object> sharingKey = null
+        var Pair<Map<String, Bounds>, Map<String, Decoration>> maps = null
+        if (element instanceof KShapeLayout && !preparation.hasModifiableStyles(reference)) {
+            val shape = element as KShapeLayout
+            sharingKey = #[reference.rendering, shape.width, shape.height]
+            maps = preparation.sharedRefMaps.get(sharingKey)
+        }
+        if (maps === null) {
+            // all references to KRenderings need to place a map with the ids of the renderings and their 
+            // sizes and their decoration in this case in the properties of the reference.
+            val boundsMap = new HashMap<String, Bounds>
+            val decorationMap = new HashMap<String, Decoration>
+            handleKRendering(element, reference.rendering, boundsMap, decorationMap)
+            maps = boundsMap -> decorationMap
+            if (sharingKey !== null) {
+                preparation.sharedRefMaps.putIfAbsent(sharingKey, maps)
+            }
+        }
+        // add new Property to contain the boundsMap
+        reference.properties.put(CALCULATED_BOUNDS_MAP, maps.key)
+        // and the decorationMap
+        reference.properties.put(CALCULATED_DECORATION_MAP, maps.value)
+    }
+    
+    /**
+     * Returns the geometry of the given element the bounds of its renderings depend on: the size for shapes and the
+     * route and insets used for decorators for edges.
+     */
+    private static def float[] geometryOf(KGraphElement element) {
+        if (element instanceof KShapeLayout) {
+            return #[element.width, element.height]
+        }
+        val edge = element as KEdge
+        val geometry = newFloatArrayOfSize(6 + 2 * edge.bendPoints.size)
+        geometry.set(0, if (edge.sourcePoint === null) Float.NaN else edge.sourcePoint.x)
+        geometry.set(1, if (edge.sourcePoint === null) Float.NaN else edge.sourcePoint.y)
+        geometry.set(2, if (edge.targetPoint === null) Float.NaN else edge.targetPoint.x)
+        geometry.set(3, if (edge.targetPoint === null) Float.NaN else edge.targetPoint.y)
+        val insetNode = if (KGraphUtil.isDescendant(edge.target, edge.source)) edge.source else edge.source?.parent
+        geometry.set(4, insetNode?.insets?.left)
+        geometry.set(5, insetNode?.insets?.top)
+        var int i = 6
+        for (point : edge.bendPoints) {
+            geometry.set(i++, point.x)
+            geometry.set(i++, point.y)
+        }
+        return geometry
+    }
+    
     /**
      * Calculate the size and position of the parent rendering of the element and store it in the boundsMap or if the
      * boundsMap is null as a property in the rendering itself. 
@@ -520,8 +673,6 @@ final class RenderingPreparer {
                         .getStyleModifierById(style.getModifierId()) !== null;
         }
     };
-
-    static val StyleModificationContext singletonModContext = new StyleModificationContext();
     
     /**
      * See {@code de.cau.cs.kieler.klighd.piccolo.internal.controller.AbstractKGERenderingController#processModifiableStyles}
@@ -539,8 +690,132 @@ final class RenderingPreparer {
             deliver  = s.eDeliver();
             s.eSetDeliver(false);
             KlighdDataManager.getInstance().getStyleModifierById(s.getModifierId()).modify(
-                singletonModContext.configure(s, parent));
+                new StyleModificationContext().configure(s, parent));
             s.eSetDeliver(deliver);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Checks whether the given rendering or any of its child renderings is a {@link KRenderingRef}.
+     */
+    private static def boolean containsReferences(KRendering rendering) {
+        if (rendering === null) {
+            return false
+        }
+        if (rendering instanceof KRenderingRef) {
+            return true
+        }
+        if (rendering instanceof KPolyline && containsReferences((rendering as KPolyline).junctionPointRendering)) {
+            return true
+        }
+        if (rendering instanceof KImage && containsReferences((rendering as KImage).clipShape)) {
+            return true
+        }
+        if (rendering instanceof KContainerRendering) {
+            return rendering.children.exists[ containsReferences(it) ]
+        }
+        return false
+    }
+    
+    /**
+     * Checks whether the given rendering or any of its child renderings has a modifiable style.
+     */
+    private static def boolean containsModifiableStyles(KRendering rendering) {
+        if (rendering === null) {
+            return false
+        }
+        if (rendering instanceof KRenderingRef) {
+            return containsModifiableStyles(rendering.rendering)
+        }
+        if (rendering.styles.exists[ MODIFIED_STYLE_FILTER.apply(it) ]) {
+            return true
+        }
+        if (rendering instanceof KPolyline && containsModifiableStyles((rendering as KPolyline).junctionPointRendering)) {
+            return true
+        }
+        if (rendering instanceof KImage && containsModifiableStyles((rendering as KImage).clipShape)) {
+            return true
+        }
+        if (rendering instanceof KContainerRendering) {
+            return rendering.children.exists[ containsModifiableStyles(it) ]
+        }
+        return false
+    }
+    
+    /**
+     * The state of a single call of {@link #prepareRendering(KGraphElement, Map, IElkCancelIndicator,
+     * RenderingPreparationCache)}, shared by all elements prepared in it.
+     */
+    private static class Preparation {
+        
+        package val Map<KGraphElement, SModelElement> kGraphToSGraph
+        package val IElkCancelIndicator cancelIndicator
+        package val RenderingPreparationCache cache
+        
+        /** The bounds and decoration maps shared by references to the same rendering from elements of equal size. */
+        package val Map<List<Object>, Pair<Map<String, Bounds>, Map<String, Decoration>>> sharedRefMaps =
+            new ConcurrentHashMap
+        
+        /** Whether the renderings have modifiable styles, mapped by the rendering. */
+        package val Map<KRendering, Boolean> modifiableStyles = new ConcurrentHashMap
+        
+        /** Whether the renderings contain references to library renderings, mapped by the rendering. */
+        package val Map<KRendering, Boolean> references = new ConcurrentHashMap
+        
+        /** The libraries prepared before the elements, whose renderings need no further preparation. */
+        package val Set<KRenderingLibrary> preparedLibraries = new HashSet
+        
+        /**
+         * The lock guarding the library renderings. Preparing a reference writes bounds of texts, modifiable styles
+         * and the maps of nested references into the referenced rendering, which is shared by all references to it.
+         */
+        package val Object libraryLock = new Object
+        
+        new(Map<KGraphElement, SModelElement> kGraphToSGraph, IElkCancelIndicator cancelIndicator,
+            RenderingPreparationCache cache) {
+            this.kGraphToSGraph = kGraphToSGraph
+            this.cancelIndicator = cancelIndicator
+            this.cache = cache
+        }
+        
+        def boolean isCanceled() {
+            return cancelIndicator !== null && cancelIndicator.canceled
+        }
+        
+        def boolean hasModifiableStyles(KRendering rendering) {
+            return modifiableStyles.computeIfAbsent(rendering, [ RenderingPreparer.containsModifiableStyles(it) ])
+        }
+        
+        /**
+         * Prepares the given top-level rendering of an element by means of the given work, holding the library lock if
+         * the rendering references library renderings.
+         */
+        def void guarded(KRendering rendering, ()=>void work) {
+            if (references.computeIfAbsent(rendering, [ RenderingPreparer.containsReferences(it) ])) {
+                synchronized (libraryLock) {
+                    work.apply
+                }
+            } else {
+                work.apply
+            }
+        }
+        
+        /**
+         * Checks whether the given top-level rendering of an element has been prepared for the given ID and geometry
+         * in a previous run.
+         */
+        def boolean isPrepared(KRendering rendering, String id, float[] geometry) {
+            return cache !== null && cache.isPrepared(rendering, id, geometry)
+        }
+        
+        /**
+         * Remembers the given top-level rendering of an element as prepared, unless it has modifiable styles that have
+         * to be processed on every run.
+         */
+        def void setPrepared(KRendering rendering, String id, float[] geometry) {
+            if (cache !== null && !hasModifiableStyles(rendering)) {
+                cache.setPrepared(rendering, id, geometry)
+            }
+        }
+    }
+}
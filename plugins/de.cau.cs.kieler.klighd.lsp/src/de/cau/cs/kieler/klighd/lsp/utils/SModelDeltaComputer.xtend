@@ -0,0 +1,394 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.utils
+
+import com.google.common.collect.BiMap
+import de.cau.cs.kieler.klighd.kgraph.KGraphElement
+import de.cau.cs.kieler.klighd.kgraph.KGraphPackage
+import de.cau.cs.kieler.klighd.kgraph.KNode
+import de.cau.cs.kieler.klighd.lsp.LSPUtil
+import de.cau.cs.kieler.klighd.lsp.model.SModelElementAddition
+import de.cau.cs.kieler.klighd.lsp.model.UpdateModelDeltaAction
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+import java.util.List
+import java.util.Map
+import java.util.Objects
+import java.util.Set
+import java.util.concurrent.ConcurrentHashMap
+import org.eclipse.emf.common.notify.Notification
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.util.EContentAdapter
+import org.eclipse.emf.ecore.util.EcoreUtil
+import org.eclipse.sprotty.SModelElement
+import org.eclipse.sprotty.SModelRoot
+
+/**
+ * Computes {@link UpdateModelDeltaAction}s between the model last sent to a client and a new model.
+ * Elements are identified by their IDs generated by the {@link KGraphElementIdGenerator}, which are stable between
+ * syntheses of the same model.<br>
+ * <br>
+ * Nothing is serialized for that. The elements last sent are remembered together with the {@link KGraphElement}s
+ * they were generated from. If an element is generated from the same KGraph element as before, it changed only if
+ * that KGraph element was modified since, which is recorded by an adapter on the view model. Otherwise, e.g. as the
+ * KGraph was replaced by a new synthesis, the element is compared with the one last sent field by field.
+ */
+class SModelDeltaComputer {
+
+    /**
+     * The maximal ratio of added and changed elements to all elements for which a delta is sent. Above it, sending the
+     * full model is cheaper for the client.
+     */
+    public static val double MAX_DELTA_RATIO = 0.5
+
+    /**
+     * The fields of each element class compared to detect changes, i.e. all but the children and the revision.
+     */
+    static val ClassValue<List<Field>> COMPARED_FIELDS = new ClassValue<List<Field>>() {
+        override protected computeValue(Class<?> type) {
+            val fields = new ArrayList<Field>
+            var Class<?> current = type
+            while (current !== null && current !== Object) {
+                for (field : current.declaredFields) {
+                    if (!Modifier.isStatic(field.modifiers) && !Modifier.isTransient(field.modifiers)
+                        && !(current === SModelElement && field.name == "children")
+                        && !(current === SModelRoot && field.name == "revision")) {
+                        field.accessible = true
+                        fields += field
+                    }
+                }
+                current = current.superclass
+            }
+            return fields
+        }
+    }
+
+    /**
+     * Records the modifications of the view model the sent elements are generated from.
+     */
+    val ChangeRecorder recorder = new ChangeRecorder
+
+    /**
+     * The model last sent to the client, {@code null} if none was sent yet.
+     */
+    Snapshot sent
+
+    /**
+     * Remembers the given root as sent to the client in full, e.g. via a {@code SetModelAction}.
+     *
+     * @param newRoot The root sent to the client.
+     * @param viewModel The view model the root was generated from, may be {@code null}.
+     * @param sources The map from the KGraph elements to the elements generated from them, may be {@code null}.
+     */
+    def synchronized void recordFullModel(SModelRoot newRoot, KNode viewModel,
+        BiMap<KGraphElement, SModelElement> sources) {
+        recorder.observe(viewModel)
+        sent = new Snapshot(newRoot.id, newRoot.revision)
+        sent.record(newRoot, null, sources?.inverse)
+    }
+
+    /**
+     * Remembers the given diagram piece as sent to the client. The piece replaces the element with the same ID, a stub
+     * of it, including all its descendants. Pieces of elements not known as sent are ignored.
+     *
+     * @param piece The diagram piece sent to the client.
+     * @param sources The map from the KGraph elements to the elements generated from them, may be {@code null}.
+     */
+    def synchronized void recordPiece(SModelElement piece, BiMap<KGraphElement, SModelElement> sources) {
+        val replaced = sent?.elements?.get(piece.id)
+        if (replaced !== null) {
+            sent.forget(replaced)
+            sent.record(piece, sent.parents.get(piece.id), sources?.inverse)
+        }
+    }
+
+    /**
+     * Computes the delta from the model last sent to the client to the given root and remembers the given root as the
+     * model last sent.
+     *
+     * @param newRoot The new root to be sent to the client.
+     * @param viewModel The view model the root was generated from, may be {@code null}.
+     * @param sources The map from the KGraph elements to the elements generated from them, may be {@code null}.
+     * @return The delta, or {@code null} if the full model should be sent instead, as no previous model is known, the
+     *         root changed or the delta would not be significantly smaller than the full model.
+     */
+    def synchronized UpdateModelDeltaAction computeDelta(SModelRoot newRoot, KNode viewModel,
+        BiMap<KGraphElement, SModelElement> sources) {
+        val modified = recorder.observe(viewModel)
+        val previous = sent
+        sent = new Snapshot(newRoot.id, newRoot.revision)
+        sent.record(newRoot, null, sources?.inverse)
+
+        if (previous === null || previous.rootId != newRoot.id) {
+            return null
+        }
+
+        val reordered = reorderedElements(previous)
+        val added = new ArrayList<SModelElementAddition>
+        val changed = new ArrayList<SModelElement>
+        val touched = visit(newRoot, 0, false, previous, reordered, modified, added, changed)
+        if (touched > MAX_DELTA_RATIO * sent.elements.size) {
+            return null
+        }
+
+        return new UpdateModelDeltaAction [
+            it.rootId = newRoot.id
+            it.previousRevision = previous.revision
+            it.revision = newRoot.revision
+            it.removed = removedElements(previous, reordered)
+            it.added = added
+            it.changed = changed
+        ]
+    }
+
+    /**
+     * Collects the differences of the given element and its descendants to the previous model.
+     *
+     * @return the number of added or changed elements in the subtree of the given element.
+     */
+    private def int visit(SModelElement element, int index, boolean parentAdded, Snapshot previous,
+        Set<String> reordered, Set<KGraphElement> modified, List<SModelElementAddition> added,
+        List<SModelElement> changed) {
+        var touched = 0
+        var isAdded = parentAdded
+        if (!parentAdded) {
+            val parentId = sent.parents.get(element.id)
+            val previousElement = previous.elements.get(element.id)
+            if (previousElement === null || !Objects.equals(previous.parents.get(element.id), parentId)
+                || reordered.contains(element.id)) {
+                // New, moved or reordered element: (re-)send it with its entire subtree.
+                added += new SModelElementAddition(parentId, index, element)
+                isAdded = true
+            } else if (hasChanged(element, previousElement, previous, modified)) {
+                changed += LSPUtil.shallowCopy(element)
+                touched++
+            }
+        }
+        if (isAdded) {
+            touched++
+        }
+
+        if (element.children !== null) {
+            var childIndex = 0
+            for (child : element.children) {
+                touched += visit(child, childIndex, isAdded, previous, reordered, modified, added, changed)
+                childIndex++
+            }
+        }
+        return touched
+    }
+
+    /**
+     * Indicates if the given element differs from the previously sent one with the same ID, not regarding children.
+     */
+    private def boolean hasChanged(SModelElement element, SModelElement previousElement, Snapshot previous,
+        Set<KGraphElement> modified) {
+        val source = sent.sources.get(element.id)
+        if (modified !== null && source !== null && source === previous.sources.get(element.id)) {
+            return modified.contains(source)
+        }
+        if (previousElement.class !== element.class) {
+            return true
+        }
+        for (field : COMPARED_FIELDS.get(element.class)) {
+            if (!valueEquals(field.get(element), field.get(previousElement))) {
+                return true
+            }
+        }
+        return false
+    }
+
+    /**
+     * Compares two field values of elements, renderings and other EObjects by their contents.
+     */
+    private static def boolean valueEquals(Object value, Object other) {
+        if (value === other) {
+            return true
+        } else if (value === null || other === null) {
+            return false
+        } else if (value instanceof EObject && other instanceof EObject) {
+            return EcoreUtil.equals(value as EObject, other as EObject)
+        } else if (value instanceof List<?> && other instanceof List<?>) {
+            val list = value as List<?>
+            val otherList = other as List<?>
+            if (list.size != otherList.size) {
+                return false
+            }
+            for (var i = 0; i < list.size; i++) {
+                if (!valueEquals(list.get(i), otherList.get(i))) {
+                    return false
+                }
+            }
+            return true
+        } else if (value instanceof Map<?, ?> && other instanceof Map<?, ?>) {
+            val map = value as Map<?, ?>
+            val otherMap = other as Map<?, ?>
+            if (map.size != otherMap.size) {
+                return false
+            }
+            for (entry : map.entrySet) {
+                if (!otherMap.containsKey(entry.key) || !valueEquals(entry.value, otherMap.get(entry.key))) {
+                    return false
+                }
+            }
+            return true
+        }
+        return value == other
+    }
+
+    /**
+     * Returns the IDs of the elements that are kept under the same parent, but not in the same order relative to their
+     * kept siblings. As the order of the children also defines their z-order on the client, these elements are removed
+     * and re-added at their new index like moved elements. Per parent, all kept children from the first one out of
+     * order on are returned.
+     */
+    private def Set<String> reorderedElements(Snapshot previous) {
+        val reordered = new HashSet<String>
+        for (element : sent.elements.values) {
+            val previousChildren = previous.elements.get(element.id)?.children
+            if (element.children !== null && previousChildren !== null) {
+                // The children kept under this parent, in their new and in their previous order.
+                val kept = element.children.filter[ previous.parents.get(id) == element.id ].toList
+                val previouslyKept = previousChildren.filter[ sent.parents.get(id) == element.id ].toList
+                var i = 0
+                while (i < kept.size && i < previouslyKept.size && kept.get(i).id == previouslyKept.get(i).id) {
+                    i++
+                }
+                while (i < kept.size) {
+                    reordered += kept.get(i).id
+                    i++
+                }
+            }
+        }
+        return reordered
+    }
+
+    /**
+     * Returns the IDs of the topmost elements of the previous model that are no longer present at their previous
+     * position, including the reordered ones. Their descendants are removed with them on the client and re-added where
+     * still present.
+     */
+    private def List<String> removedElements(Snapshot previous, Set<String> reordered) {
+        val candidates = new HashSet<String>
+        for (entry : previous.parents.entrySet) {
+            if (!sent.elements.containsKey(entry.key) || !Objects.equals(sent.parents.get(entry.key), entry.value)
+                || reordered.contains(entry.key)) {
+                candidates += entry.key
+            }
+        }
+        val removed = new ArrayList<String>
+        for (id : candidates) {
+            var ancestor = previous.parents.get(id)
+            while (ancestor !== null && !candidates.contains(ancestor)) {
+                ancestor = previous.parents.get(ancestor)
+            }
+            if (ancestor === null) {
+                removed += id
+            }
+        }
+        return removed
+    }
+
+    /**
+     * The elements of a model sent to the client with their parents and the KGraph elements they were generated from,
+     * all mapped by their IDs.
+     */
+    private static class Snapshot {
+        package val String rootId
+        package val int revision
+        package val Map<String, SModelElement> elements = new HashMap
+        package val Map<String, String> parents = new HashMap
+        package val Map<String, KGraphElement> sources = new HashMap
+
+        new(String rootId, int revision) {
+            this.rootId = rootId
+            this.revision = revision
+        }
+
+        /**
+         * Records the given element and its descendants.
+         */
+        def void record(SModelElement element, String parentId, Map<SModelElement, KGraphElement> sourceOf) {
+            elements.put(element.id, element)
+            parents.put(element.id, parentId)
+            val source = sourceOf?.get(element)
+            if (source !== null) {
+                sources.put(element.id, source)
+            }
+            element.children?.forEach[ record(it, element.id, sourceOf) ]
+        }
+
+        /**
+         * Forgets the descendants of the given element, not the element itself.
+         */
+        def void forget(SModelElement element) {
+            element.children?.forEach [
+                elements.remove(id)
+                parents.remove(id)
+                sources.remove(id)
+                forget(it)
+            ]
+        }
+    }
+
+    /**
+     * Records the {@link KGraphElement}s of a view model whose own content was modified, e.g. their layout data,
+     * properties or renderings. Adding or removing graph elements is not recorded, as the element trees reveal it.
+     */
+    private static class ChangeRecorder extends EContentAdapter {
+        val Set<KGraphElement> modified = ConcurrentHashMap.newKeySet
+        KNode viewModel
+
+        /**
+         * Observes the given view model from now on and returns the elements modified since the last call.
+         *
+         * @return the modified elements, or {@code null} if the view model was not observed before.
+         */
+        def Set<KGraphElement> observe(KNode newViewModel) {
+            if (newViewModel !== viewModel) {
+                viewModel?.eAdapters?.remove(this)
+                viewModel = newViewModel
+                newViewModel?.eAdapters?.add(this)
+                modified.clear
+                return null
+            }
+            val result = new HashSet(modified)
+            modified.removeAll(result)
+            return result
+        }
+
+        override notifyChanged(Notification notification) {
+            super.notifyChanged(notification)
+            val feature = notification.feature
+            if (notification.touch || feature instanceof EReference && (feature as EReference).containment
+                && KGraphPackage.Literals.KGRAPH_ELEMENT.isSuperTypeOf((feature as EReference).EReferenceType)) {
+                return
+            }
+            var notifier = notification.notifier
+            while (notifier instanceof EObject && !(notifier instanceof KGraphElement)) {
+                notifier = (notifier as EObject).eContainer
+            }
+            if (notifier instanceof KGraphElement) {
+                modified += notifier
+            }
+        }
+    }
+}
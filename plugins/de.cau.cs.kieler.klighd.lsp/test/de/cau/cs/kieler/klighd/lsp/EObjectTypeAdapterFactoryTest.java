@@ -0,0 +1,171 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import org.eclipse.elk.graph.properties.Property;
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import de.cau.cs.kieler.klighd.krendering.KAreaPlacementData;
+import de.cau.cs.kieler.klighd.krendering.KBackground;
+import de.cau.cs.kieler.klighd.krendering.KColor;
+import de.cau.cs.kieler.klighd.krendering.KFontSize;
+import de.cau.cs.kieler.klighd.krendering.KLeftPosition;
+import de.cau.cs.kieler.klighd.krendering.KLineWidth;
+import de.cau.cs.kieler.klighd.krendering.KPolyline;
+import de.cau.cs.kieler.klighd.krendering.KPosition;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KRoundedRectangle;
+import de.cau.cs.kieler.klighd.krendering.KText;
+import de.cau.cs.kieler.klighd.krendering.KTopPosition;
+import de.cau.cs.kieler.klighd.lsp.gson_utils.EObjectSerializer;
+import de.cau.cs.kieler.klighd.lsp.gson_utils.EObjectTypeAdapterFactory;
+import de.cau.cs.kieler.klighd.lsp.gson_utils.Point2DTypeAdapter;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+import de.cau.cs.kieler.klighd.util.KlighdProperties;
+
+/**
+ * Checks that the {@link EObjectTypeAdapterFactory} produces exactly the JSON of the
+ * {@link EObjectSerializer} it replaces.
+ */
+public class EObjectTypeAdapterFactoryTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final KRenderingFactory FACTORY = KRenderingFactory.eINSTANCE;
+
+    @BeforeClass
+    public static void initialize() {
+        KlighdStandaloneSetup.initialize();
+    }
+
+    private static Gson legacyGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(Point2D.class, new Point2DTypeAdapter())
+                .registerTypeHierarchyAdapter(EObject.class, new EObjectSerializer())
+                .create();
+    }
+
+    private static Gson streamingGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(Point2D.class, new Point2DTypeAdapter())
+                .registerTypeAdapterFactory(new EObjectTypeAdapterFactory())
+                .create();
+    }
+
+    private static KColor color(final int red, final int green, final int blue) {
+        final KColor color = FACTORY.createKColor();
+        color.setRed(red);
+        color.setGreen(green);
+        color.setBlue(blue);
+        return color;
+    }
+
+    private static KPosition position(final float x, final float y) {
+        final KLeftPosition left = FACTORY.createKLeftPosition();
+        left.setAbsolute(x);
+        left.setRelative(x / 100);
+        final KTopPosition top = FACTORY.createKTopPosition();
+        top.setAbsolute(y);
+        final KPosition position = FACTORY.createKPosition();
+        position.setX(left);
+        position.setY(top);
+        return position;
+    }
+
+    /**
+     * Creates a rendering using containers, placement data, styles with nested objects, unset
+     * references and primitive fields, as well as kept and dropped properties.
+     */
+    public static KRendering createRendering(final int index) {
+        final KRoundedRectangle rectangle = FACTORY.createKRoundedRectangle();
+        rectangle.setCornerWidth(index % 7);
+        rectangle.setCornerHeight(2.5f);
+        rectangle.setId("rectangle" + index);
+        final KBackground background = FACTORY.createKBackground();
+        background.setColor(color(index % 256, 128, 255));
+        background.setTargetColor(color(0, 0, 0));
+        background.setAlpha(200);
+        rectangle.getStyles().add(background);
+        final KLineWidth lineWidth = FACTORY.createKLineWidth();
+        lineWidth.setLineWidth(1.5f);
+        rectangle.getStyles().add(lineWidth);
+        rectangle.setProperty(KlighdProperties.TOOLTIP, "tooltip of " + index);
+        rectangle.setProperty(new Property<String>("foo.dropped"), "dropped");
+
+        final KText text = FACTORY.createKText();
+        text.setText("node \"" + index + "\"\n");
+        final KFontSize fontSize = FACTORY.createKFontSize();
+        fontSize.setSize(11);
+        text.getStyles().add(fontSize);
+        final KAreaPlacementData placement = FACTORY.createKAreaPlacementData();
+        placement.setTopLeft(position(2, 3));
+        placement.setBottomRight(position(-2, -3));
+        text.setPlacementData(placement);
+        text.setProperty(KlighdProperties.IS_NODE_TITLE, true);
+        rectangle.getChildren().add(text);
+
+        final KPolyline polyline = FACTORY.createKPolyline();
+        for (int i = 0; i < 3; i++) {
+            polyline.getPoints().add(position(i * 10, index));
+        }
+        rectangle.getChildren().add(polyline);
+        return rectangle;
+    }
+
+    @Test
+    public void singleRenderingsAreSerializedIdentically() {
+        final Gson legacy = legacyGson();
+        final Gson streaming = streamingGson();
+        for (int i = 0; i < 10; i++) {
+            final KRendering rendering = createRendering(i);
+            Assert.assertEquals(legacy.toJson(rendering), streaming.toJson(rendering));
+        }
+    }
+
+    @Test
+    public void listsOfDataAreSerializedIdentically() {
+        final List<Object> data = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            data.add(createRendering(i));
+        }
+        data.add(null);
+        data.add(FACTORY.createKRectangle());
+
+        Assert.assertEquals(legacyGson().toJson(data), streamingGson().toJson(data));
+    }
+
+    @Test
+    public void repeatedSerializationsUseTheSamePlans() {
+        final Gson streaming = streamingGson();
+        final KRendering rendering = createRendering(1);
+        final String first = streaming.toJson(rendering);
+
+        Assert.assertEquals(first, streaming.toJson(rendering));
+        Assert.assertEquals(legacyGson().toJson(rendering), streaming.toJson(createRendering(1)));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.sprotty.SModelElement;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KGraphElement;
+import de.cau.cs.kieler.klighd.kgraph.KLabel;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.KPort;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.lsp.model.RequestDiagramPieceAction;
+import de.cau.cs.kieler.klighd.lsp.model.SKEdge;
+import de.cau.cs.kieler.klighd.lsp.model.SKLabel;
+import de.cau.cs.kieler.klighd.lsp.model.SKNode;
+import de.cau.cs.kieler.klighd.lsp.model.SKPort;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+
+/**
+ * Tests the diagram pieces returned by the {@link KGraphDiagramPieceRequestManager}.
+ */
+public class KGraphDiagramPieceRequestManagerTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private KGraphIncrementalDiagramGenerator generator;
+
+    private KGraphDiagramPieceRequestManager manager;
+
+    private KNode parent;
+
+    private KNode target;
+
+    private KNode source;
+
+    private KPort targetPort;
+
+    private KLabel targetLabel;
+
+    private KNode grandchild;
+
+    private KEdge edge;
+
+    @BeforeClass
+    public static void initialize() {
+        KlighdStandaloneSetup.initialize();
+    }
+
+    /*
+     * root
+     *   parent
+     *     target (port targetPort, label targetLabel)
+     *       grandchild
+     *     source
+     *       edge (-> target:targetPort)
+     */
+    @Before
+    public void createDiagram() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        parent = child(root);
+        target = child(parent);
+        source = child(parent);
+        grandchild = child(target);
+        targetPort = KGraphUtil.createInitializedPort();
+        targetPort.setNode(target);
+        targetLabel = KGraphUtil.createInitializedLabel(target);
+        targetLabel.setText("target");
+        edge = KGraphUtil.createInitializedEdge();
+        edge.setSource(source);
+        edge.setTarget(target);
+        edge.setTargetPort(targetPort);
+
+        generator = new KGraphIncrementalDiagramGenerator();
+        generator.toSGraph(root, "file:///piece.kgt", CancelIndicator.NullImpl);
+        manager = new KGraphDiagramPieceRequestManager(generator);
+    }
+
+    private static KNode child(final KNode parent) {
+        final KNode node = KGraphUtil.createInitializedNode();
+        parent.getChildren().add(node);
+        return node;
+    }
+
+    private String idOf(final KGraphElement element) {
+        return generator.getIdToKGraphElementMap().entrySet().stream()
+                .filter(entry -> entry.getValue() == element).map(Map.Entry::getKey)
+                .findFirst().orElse(null);
+    }
+
+    private SModelElement request(final KGraphElement element) {
+        return manager.processRequest(new RequestDiagramPieceAction(idOf(element)));
+    }
+
+    private static SModelElement childWithId(final SModelElement element, final String id) {
+        return element.getChildren().stream().filter(child -> id.equals(child.getId()))
+                .findFirst().orElse(null);
+    }
+
+    @Test
+    public void stubsKeepTheirPortsAndLabels() {
+        final SModelElement piece = request(parent);
+
+        final SModelElement stub = childWithId(piece, idOf(target));
+        Assert.assertTrue(stub instanceof SKNode);
+        final List<SModelElement> stubChildren = stub.getChildren();
+        Assert.assertEquals(2, stubChildren.size());
+        Assert.assertTrue(childWithId(stub, idOf(targetPort)) instanceof SKPort);
+        Assert.assertTrue(childWithId(stub, idOf(targetLabel)) instanceof SKLabel);
+        // the child nodes are left to the piece of the stub itself
+        Assert.assertFalse(stubChildren.stream().anyMatch(child -> child instanceof SKNode));
+        Assert.assertNull(((SKNode) stub).getData());
+    }
+
+    @Test
+    public void edgesOfThePieceFindTheirEnds() {
+        final SModelElement piece = request(parent);
+
+        final SKEdge edgeElement = (SKEdge) childWithId(piece, idOf(edge));
+        Assert.assertNotNull(edgeElement);
+        Assert.assertNotNull(childWithId(piece, edgeElement.getSourceId()));
+        final SModelElement targetStub = childWithId(piece, edgeElement.getTargetId());
+        Assert.assertNotNull(targetStub);
+        Assert.assertNotNull(childWithId(targetStub, idOf(targetPort)));
+    }
+
+    @Test
+    public void piecesOfStubsContainTheirChildren() {
+        request(parent);
+        final SModelElement piece = request(target);
+
+        final List<String> ids = piece.getChildren().stream().map(SModelElement::getId)
+                .collect(Collectors.toList());
+        Assert.assertTrue(ids.contains(idOf(grandchild)));
+        Assert.assertTrue(ids.contains(idOf(targetPort)));
+        Assert.assertTrue(ids.contains(idOf(targetLabel)));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.xtext.ide.server.ILanguageServerExtension;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import de.cau.cs.kieler.klighd.IViewer;
+import de.cau.cs.kieler.klighd.KlighdDataManager;
+import de.cau.cs.kieler.klighd.ViewContext;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.lsp.launch.AbstractLsCreator;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+
+/**
+ * Updates the diagrams of many URIs concurrently and checks that each diagram keeps its own
+ * viewer and {@link ViewContext} showing its own model.
+ */
+public class KGraphDiagramUpdaterStressTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int URIS = 8;
+
+    private static final int UPDATES = 25;
+
+    private static Injector injector;
+
+    private static ExecutorService pool;
+
+    @BeforeClass
+    public static void createInjector() {
+        KlighdStandaloneSetup.initialize();
+        KlighdDataManager.getInstance().registerViewer(
+                SprottyViewer.Provider.ID, new SprottyViewer.Provider());
+
+        final AbstractLsCreator creator = new AbstractLsCreator() {
+            @Override
+            public List<ILanguageServerExtension> getLanguageServerExtensions() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public Class<? extends KGraphLanguageClient> getRemoteInterface() {
+                return KGraphLanguageClient.class;
+            }
+        };
+        injector = Guice.createInjector(creator.createLSModules(true));
+        pool = Executors.newFixedThreadPool(URIS);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    private static String uriOf(final int index) {
+        // the decoded form, as used for the source URIs of the diagram servers
+        return "file:///stress/model " + index + ".kgt";
+    }
+
+    private static KNode createModel(final int nodes) {
+        final KNode root = KGraphUtil.createInitializedNode();
+        for (int i = 0; i < nodes; i++) {
+            root.getChildren().add(KGraphUtil.createInitializedNode());
+        }
+        return root;
+    }
+
+    @Test
+    public void concurrentUpdatesOfDifferentUrisDoNotInterfere() throws Exception {
+        final KGraphDiagramUpdater updater = injector.getInstance(KGraphDiagramUpdater.class);
+        final KGraphDiagramState state = injector.getInstance(KGraphDiagramState.class);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Future<KNode>> results = Lists.newArrayList();
+        for (int i = 0; i < URIS; i++) {
+            final int index = i;
+            final String uri = uriOf(index);
+            results.add(pool.submit(() -> {
+                final KGraphDiagramServer server = injector.getInstance(KGraphDiagramServer.class);
+                server.setClientId("stress-" + index);
+                start.await();
+
+                KNode model = null;
+                for (int update = 0; update < UPDATES; update++) {
+                    model = createModel(index + 1);
+                    updater.prepareModel(server, model, uri);
+
+                    // the diagram of this URI shows the model just given, not one of another URI
+                    final ViewContext viewContext = state.getKGraphContext(uri);
+                    Assert.assertSame(model, viewContext.getInputModel());
+                    Assert.assertNotNull(viewContext.getViewModel());
+                }
+                return model;
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < URIS; i++) {
+            final KNode model = get(results.get(i));
+            final ViewContext viewContext = state.getKGraphContext(uriOf(i));
+            final IViewer viewer = state.getViewer(uriOf(i));
+
+            Assert.assertSame(model, viewContext.getInputModel());
+            Assert.assertSame(viewContext, viewer.getViewContext());
+            for (int j = 0; j < i; j++) {
+                Assert.assertNotSame(viewContext, state.getKGraphContext(uriOf(j)));
+            }
+        }
+    }
+
+    @Test
+    public void sessionLocksUseTheUriAsGiven() {
+        final KGraphDiagramState state = injector.getInstance(KGraphDiagramState.class);
+
+        Assert.assertSame(state.getSessionLock(uriOf(0)), state.getSessionLock(uriOf(0)));
+        Assert.assertNotSame(state.getSessionLock(uriOf(0)), state.getSessionLock(uriOf(1)));
+        // the lock of a URI is the one of the key its data are stored with, no other form of it
+        Assert.assertNotSame(state.getSessionLock(uriOf(0)),
+                state.getSessionLock(uriOf(0).replace(" ", "%20")));
+    }
+
+    private static <T> T get(final Future<T> future) throws Exception {
+        try {
+            return future.get(1, TimeUnit.MINUTES);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
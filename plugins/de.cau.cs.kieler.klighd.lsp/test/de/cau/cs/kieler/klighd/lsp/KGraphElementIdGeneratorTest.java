@@ -0,0 +1,128 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KGraphElement;
+import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
+import de.cau.cs.kieler.klighd.kgraph.KIdentifier;
+import de.cau.cs.kieler.klighd.kgraph.KLabel;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.KPort;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.lsp.utils.KGraphElementIdGenerator;
+
+/**
+ * Checks that the {@link KGraphElementIdGenerator} generates the IDs of the established scheme,
+ * regardless of the order the IDs are requested in.
+ */
+public class KGraphElementIdGeneratorTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private KGraphElementIdGenerator generator;
+
+    private KNode root;
+
+    @Before
+    public void createGenerator() {
+        generator = new KGraphElementIdGenerator();
+        root = KGraphUtil.createInitializedNode();
+    }
+
+    private static <T extends KGraphElement> T identified(final T element, final String id) {
+        final KIdentifier identifier = KGraphFactory.eINSTANCE.createKIdentifier();
+        identifier.setId(id);
+        element.getData().add(identifier);
+        return element;
+    }
+
+    private KNode node(final KNode parent) {
+        final KNode node = KGraphUtil.createInitializedNode();
+        parent.getChildren().add(node);
+        return node;
+    }
+
+    @Test
+    public void positionalIdsFollowTheHierarchy() {
+        final KNode first = node(root);
+        final KNode second = node(root);
+        final KNode nested = node(second);
+        final KPort port = KGraphUtil.createInitializedPort();
+        port.setNode(second);
+        final KLabel label = KGraphUtil.createInitializedLabel(second);
+        final KEdge edge = KGraphUtil.createInitializedEdge();
+        edge.setSource(second);
+        edge.setTarget(first);
+
+        // ask for the deepest elements first, the IDs must not depend on the order
+        Assert.assertEquals("$root$$N1$$N0", generator.getId(nested));
+        Assert.assertEquals("$root$$N1$$E0", generator.getId(edge));
+        Assert.assertEquals("$root$$N1$$P0", generator.getId(port));
+        Assert.assertEquals("$root$$N1$$L0", generator.getId(label));
+        Assert.assertEquals("$root$$N0", generator.getId(first));
+        Assert.assertEquals("$root", generator.getId(root));
+        Assert.assertSame(nested, generator.getIdToElementMap().get("$root$$N1$$N0"));
+    }
+
+    @Test
+    public void identifiersReplaceThePositions() {
+        final KNode node = identified(node(root), "a");
+        final KNode child = identified(node(node), "b");
+
+        Assert.assertEquals("$root$Na$Nb", generator.getId(child));
+        Assert.assertEquals("$root$Na", generator.getId(node));
+    }
+
+    @Test
+    public void duplicateIdentifiersGetCopySuffixes() {
+        final KNode first = identified(node(root), "a");
+        final KNode second = identified(node(root), "a");
+        final KNode third = identified(node(root), "a");
+        final KNode other = identified(node(root), "a$$copy3");
+
+        // an element whose identifier looks like a copy takes that ID, later copies skip it
+        Assert.assertEquals("$root$Na$$copy3", generator.getId(other));
+        Assert.assertEquals("$root$Na", generator.getId(first));
+        Assert.assertEquals("$root$Na$$copy2", generator.getId(second));
+        Assert.assertEquals("$root$Na$$copy4", generator.getId(third));
+        Assert.assertEquals("$root$Na$$copy2", generator.getId(second));
+    }
+
+    @Test
+    public void furtherRootsAreDangling() {
+        Assert.assertEquals("$root", generator.getId(root));
+        Assert.assertEquals("$dangling0", generator.getId(KGraphUtil.createInitializedNode()));
+        Assert.assertEquals("$dangling1", generator.getId(KGraphUtil.createInitializedNode()));
+        Assert.assertEquals("", generator.getId(null));
+    }
+
+    @Test
+    public void wideNodesGetAllPositions() {
+        final int children = 1000;
+        for (int i = 0; i < children; i++) {
+            node(root);
+        }
+        for (int i = children - 1; i >= 0; i--) {
+            Assert.assertEquals("$root$$N" + i, generator.getId(root.getChildren().get(i)));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.sprotty.SModelElement;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.IAction;
+import de.cau.cs.kieler.klighd.IAction.ActionContext;
+import de.cau.cs.kieler.klighd.IAction.ActionResult;
+import de.cau.cs.kieler.klighd.kgraph.KGraphElement;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRectangle;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.lsp.model.SKNode;
+import de.cau.cs.kieler.klighd.lsp.utils.RenderingPreparationCache;
+import de.cau.cs.kieler.klighd.lsp.utils.RenderingPreparer;
+import de.cau.cs.kieler.klighd.lsp.utils.SprottyProperties;
+import de.cau.cs.kieler.klighd.microlayout.Bounds;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+
+/**
+ * Tests that renderings modified in place by an action are prepared again once the
+ * {@link RenderingPreparationCache} is invalidated, as done for actions only needing a new layout.
+ */
+public class RenderingPreparationCacheTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final float WIDTH = 80;
+
+    private static final float HEIGHT = 30;
+
+    /** An action adding a child rendering to the rendering it is invoked on. */
+    private static final IAction ADD_CHILD = context -> {
+        ((KRectangle) context.getKRendering()).getChildren().add(
+                KRenderingFactory.eINSTANCE.createKRectangle());
+        return ActionResult.createResult(true);
+    };
+
+    private RenderingPreparationCache cache;
+
+    private KNode node;
+
+    private KRectangle rendering;
+
+    private Map<KGraphElement, SModelElement> kGraphToSGraph;
+
+    @BeforeClass
+    public static void initialize() {
+        KlighdStandaloneSetup.initialize();
+    }
+
+    @Before
+    public void createDiagram() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        node = KGraphUtil.createInitializedNode();
+        node.setSize(WIDTH, HEIGHT);
+        rendering = KRenderingFactory.eINSTANCE.createKRectangle();
+        node.getData().add(rendering);
+        root.getChildren().add(node);
+
+        kGraphToSGraph = new HashMap<>();
+        kGraphToSGraph.put(root, element("$root"));
+        kGraphToSGraph.put(node, element("$root$$N0"));
+        cache = new RenderingPreparationCache();
+    }
+
+    private static SModelElement element(final String id) {
+        final SKNode element = new SKNode();
+        element.setId(id);
+        return element;
+    }
+
+    private void prepare() {
+        RenderingPreparer.prepareRendering(node.getParent(), kGraphToSGraph, null, cache);
+    }
+
+    private void performAction() {
+        ADD_CHILD.execute(new ActionContext(null, null, node, rendering));
+    }
+
+    @Test
+    public void renderingsChangedByAnActionArePreparedAfterInvalidation() {
+        prepare();
+        performAction();
+        cache.invalidate();
+        prepare();
+
+        final KRendering child = rendering.getChildren().get(0);
+        final String id = SprottyProperties.getRenderingId(child);
+        Assert.assertNotNull(id);
+        Assert.assertTrue(id.startsWith(SprottyProperties.getRenderingId(rendering)));
+        final Bounds bounds = child.getProperty(SprottyProperties.CALCULATED_BOUNDS);
+        Assert.assertNotNull(bounds);
+        Assert.assertEquals(WIDTH, bounds.getWidth(), 0);
+        Assert.assertEquals(HEIGHT, bounds.getHeight(), 0);
+    }
+
+    @Test
+    public void renderingsChangedInPlaceAreNotDetectedWithoutInvalidation() {
+        prepare();
+        performAction();
+        prepare();
+
+        // the reason why actions invalidate the cache
+        final KRendering child = rendering.getChildren().get(0);
+        Assert.assertNull(SprottyProperties.getRenderingId(child));
+        Assert.assertNull(child.getProperty(SprottyProperties.CALCULATED_BOUNDS));
+    }
+
+    @Test
+    public void resizedElementsArePreparedWithoutInvalidation() {
+        prepare();
+        node.setSize(2 * WIDTH, HEIGHT);
+        prepare();
+
+        final Bounds bounds = rendering.getProperty(SprottyProperties.CALCULATED_BOUNDS);
+        Assert.assertEquals(2 * WIDTH, bounds.getWidth(), 0);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.sprotty.Dimension;
+import org.eclipse.sprotty.SGraph;
+import org.eclipse.sprotty.SModelElement;
+import org.eclipse.sprotty.SNode;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+
+import de.cau.cs.kieler.klighd.kgraph.KGraphElement;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.lsp.model.SModelElementAddition;
+import de.cau.cs.kieler.klighd.lsp.model.UpdateModelDeltaAction;
+import de.cau.cs.kieler.klighd.lsp.utils.SModelDeltaComputer;
+
+/**
+ * Tests the {@link SModelDeltaComputer}.
+ */
+public class SModelDeltaComputerTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int UNCHANGED_NODES = 10;
+
+    private SModelDeltaComputer computer;
+
+    private KNode viewModel;
+
+    private BiMap<KGraphElement, SModelElement> sources;
+
+    @Before
+    public void createComputer() {
+        computer = new SModelDeltaComputer();
+        viewModel = KGraphUtil.createInitializedNode();
+        sources = HashBiMap.create();
+    }
+
+    private static SGraph graph(final SModelElement... children) {
+        final SGraph graph = new SGraph();
+        graph.setId("graph");
+        graph.setType("graph");
+        graph.setChildren(new ArrayList<>());
+        for (int i = 0; i < UNCHANGED_NODES; i++) {
+            graph.getChildren().add(node("unchanged" + i));
+        }
+        Collections.addAll(graph.getChildren(), children);
+        return graph;
+    }
+
+    private static SNode node(final String id, final SModelElement... children) {
+        final SNode node = new SNode();
+        node.setId(id);
+        node.setType("node");
+        node.setSize(new Dimension(10, 10));
+        node.setChildren(new ArrayList<>());
+        Collections.addAll(node.getChildren(), children);
+        return node;
+    }
+
+    private SNode sourcedNode(final KNode source, final String id) {
+        final SNode node = node(id);
+        node.setSize(new Dimension(source.getWidth(), source.getHeight()));
+        sources.forcePut(source, node);
+        return node;
+    }
+
+    @Test
+    public void movedElementIsRemovedWithoutItsDescendants() {
+        computer.recordFullModel(graph(node("a", node("c", node("d"))), node("b")), viewModel,
+                sources);
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(node("a"), node("b", node("c", node("d")))), viewModel, sources);
+
+        Assert.assertEquals(Collections.singletonList("c"), delta.getRemoved());
+        Assert.assertEquals(1, delta.getAdded().size());
+        final SModelElementAddition addition = delta.getAdded().get(0);
+        Assert.assertEquals("b", addition.getParentId());
+        Assert.assertEquals("c", addition.getElement().getId());
+        Assert.assertTrue(delta.getChanged().isEmpty());
+    }
+
+    @Test
+    public void elementMovedOutOfRemovedElementIsRemovedWithIt() {
+        computer.recordFullModel(graph(node("a", node("c")), node("b")), viewModel, sources);
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(node("b", node("c"))), viewModel, sources);
+
+        Assert.assertEquals(Collections.singletonList("a"), delta.getRemoved());
+        Assert.assertEquals(1, delta.getAdded().size());
+        Assert.assertEquals("c", delta.getAdded().get(0).getElement().getId());
+    }
+
+    @Test
+    public void reorderedSiblingsAreSentAgainAtTheirNewIndex() {
+        computer.recordFullModel(graph(node("a", node("c")), node("b")), viewModel, sources);
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(node("b"), node("a", node("c"))), viewModel, sources);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b")),
+                new HashSet<>(delta.getRemoved()));
+        Assert.assertEquals(2, delta.getAdded().size());
+        final SModelElementAddition first = delta.getAdded().get(0);
+        Assert.assertEquals("b", first.getElement().getId());
+        Assert.assertEquals("graph", first.getParentId());
+        Assert.assertEquals(UNCHANGED_NODES, first.getIndex());
+        final SModelElementAddition second = delta.getAdded().get(1);
+        Assert.assertEquals("a", second.getElement().getId());
+        Assert.assertEquals(UNCHANGED_NODES + 1, second.getIndex());
+        Assert.assertEquals("c", second.getElement().getChildren().get(0).getId());
+    }
+
+    @Test
+    public void insertedSiblingsDoNotReorderTheOthers() {
+        computer.recordFullModel(graph(node("a"), node("b")), viewModel, sources);
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(node("a"), node("x"), node("b")), viewModel, sources);
+
+        Assert.assertTrue(delta.getRemoved().isEmpty());
+        Assert.assertEquals(1, delta.getAdded().size());
+        Assert.assertEquals("x", delta.getAdded().get(0).getElement().getId());
+        Assert.assertEquals(UNCHANGED_NODES + 1, delta.getAdded().get(0).getIndex());
+    }
+
+    @Test
+    public void elementsOfUnmodifiedSourcesAreNotSentAgain() {
+        final KNode source = KGraphUtil.createInitializedNode();
+        viewModel.getChildren().add(source);
+        computer.recordFullModel(graph(sourcedNode(source, "n")), viewModel, sources);
+
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(sourcedNode(source, "n")), viewModel, sources);
+        Assert.assertTrue(delta.getChanged().isEmpty());
+        Assert.assertTrue(delta.getAdded().isEmpty());
+        Assert.assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void elementsOfModifiedSourcesAreSentAgain() {
+        final KNode source = KGraphUtil.createInitializedNode();
+        viewModel.getChildren().add(source);
+        computer.recordFullModel(graph(sourcedNode(source, "n")), viewModel, sources);
+
+        source.setWidth(42);
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(sourcedNode(source, "n")), viewModel, sources);
+        Assert.assertEquals(1, delta.getChanged().size());
+        Assert.assertEquals(42, ((SNode) delta.getChanged().get(0)).getSize().getWidth(), 0);
+        Assert.assertNull(delta.getChanged().get(0).getChildren());
+    }
+
+    @Test
+    public void elementsOfReplacedSourcesAreCompared() {
+        final KNode source = KGraphUtil.createInitializedNode();
+        viewModel.getChildren().add(source);
+        computer.recordFullModel(graph(sourcedNode(source, "n"), sourcedNode(source, "m")),
+                viewModel, sources);
+
+        // a new synthesis replaces the view model's contents
+        final KNode sameSource = KGraphUtil.createInitializedNode();
+        final KNode widerSource = KGraphUtil.createInitializedNode();
+        widerSource.setWidth(42);
+        viewModel.getChildren().clear();
+        viewModel.getChildren().add(sameSource);
+        viewModel.getChildren().add(widerSource);
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(sourcedNode(sameSource, "n"), sourcedNode(widerSource, "m")), viewModel,
+                sources);
+
+        Assert.assertEquals(1, delta.getChanged().size());
+        Assert.assertEquals("m", delta.getChanged().get(0).getId());
+    }
+
+    @Test
+    public void diagramPiecesReplaceTheirStubs() {
+        computer.recordFullModel(graph(node("stub")), viewModel, sources);
+        computer.recordPiece(node("stub", node("child")), sources);
+
+        final UpdateModelDeltaAction delta = computer.computeDelta(
+                graph(node("stub", node("child"))), viewModel, sources);
+        Assert.assertTrue(delta.getAdded().isEmpty());
+        Assert.assertTrue(delta.getRemoved().isEmpty());
+        Assert.assertTrue(delta.getChanged().isEmpty());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+import de.cau.cs.kieler.klighd.lsp.EObjectTypeAdapterFactoryTest;
+import de.cau.cs.kieler.klighd.lsp.gson_utils.EObjectSerializer;
+import de.cau.cs.kieler.klighd.lsp.gson_utils.EObjectTypeAdapterFactory;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+
+/**
+ * Measures the serialization of many renderings by the {@link EObjectSerializer} and by the
+ * {@link EObjectTypeAdapterFactory}. This is no test and is not run by the build, run its
+ * {@link #main(String[])} method as a Java application to get the median time of each variant.
+ */
+public final class EObjectSerializationBenchmark {
+
+    private static final int RENDERINGS = 20000;
+
+    private static final int WARMUP_RUNS = 5;
+
+    private static final int RUNS = 11;
+
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private EObjectSerializationBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     * @throws IOException
+     *             not thrown, as the JSON is discarded
+     */
+    public static void main(final String[] args) throws IOException {
+        KlighdStandaloneSetup.initialize();
+        final List<KRendering> renderings = Lists.newArrayListWithCapacity(RENDERINGS);
+        for (int i = 0; i < RENDERINGS; i++) {
+            renderings.add(EObjectTypeAdapterFactoryTest.createRendering(i));
+        }
+
+        run("EObjectSerializer", new GsonBuilder()
+                .registerTypeHierarchyAdapter(EObject.class, new EObjectSerializer()).create(),
+                renderings);
+        run("EObjectTypeAdapterFactory", new GsonBuilder()
+                .registerTypeAdapterFactory(new EObjectTypeAdapterFactory()).create(),
+                renderings);
+    }
+
+    private static void run(final String variant, final Gson gson,
+            final List<KRendering> renderings) throws IOException {
+        final long[] times = new long[RUNS];
+        final CountingWriter writer = new CountingWriter();
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            writer.count = 0;
+            final long start = System.nanoTime();
+            gson.toJson(renderings, writer);
+            if (run >= 0) {
+                times[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-26s %d renderings, %d characters: %8.2f ms", variant,
+                renderings.size(), writer.count, (double) times[RUNS / 2] / NANOS_PER_MILLI));
+    }
+
+    /**
+     * Discards the JSON, counting its characters only.
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
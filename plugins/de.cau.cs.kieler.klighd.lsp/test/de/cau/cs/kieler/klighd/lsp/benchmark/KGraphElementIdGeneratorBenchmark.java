@@ -0,0 +1,104 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.lsp.benchmark;
+
+import java.util.Arrays;
+
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
+import de.cau.cs.kieler.klighd.kgraph.KIdentifier;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.lsp.utils.KGraphElementIdGenerator;
+
+/**
+ * Measures the ID generation of the {@link KGraphElementIdGenerator} for flat graphs with 50000
+ * children connected by a chain of edges, once with positional IDs and once with identifiers
+ * being shared by 10 nodes each. This is no test and is not run by the build, run its
+ * {@link #main(String[])} method as a Java application to get the median time of each graph.
+ */
+public final class KGraphElementIdGeneratorBenchmark {
+
+    private static final int CHILDREN = 50000;
+
+    private static final int NODES_PER_IDENTIFIER = 10;
+
+    private static final int WARMUP_RUNS = 3;
+
+    private static final int RUNS = 7;
+
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private KGraphElementIdGeneratorBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(final String[] args) {
+        run("positional IDs", createGraph(false));
+        run("shared identifiers", createGraph(true));
+    }
+
+    private static void run(final String graph, final KNode root) {
+        final long[] times = new long[RUNS];
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            // in the order of the diagram generation, the edges are translated after the nodes
+            final KGraphElementIdGenerator generator = new KGraphElementIdGenerator();
+            generator.getId(root);
+            for (final KNode child : root.getChildren()) {
+                generator.getId(child);
+            }
+            for (final KNode child : root.getChildren()) {
+                for (final KEdge edge : child.getOutgoingEdges()) {
+                    generator.getId(edge);
+                }
+            }
+            if (run >= 0) {
+                times[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-18s %d children: %8.2f ms", graph, CHILDREN,
+                (double) times[RUNS / 2] / NANOS_PER_MILLI));
+    }
+
+    private static KNode createGraph(final boolean identified) {
+        final KNode root = KGraphUtil.createInitializedNode();
+        KNode previous = null;
+        for (int i = 0; i < CHILDREN; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            if (identified) {
+                final KIdentifier identifier = KGraphFactory.eINSTANCE.createKIdentifier();
+                identifier.setId("node" + i / NODES_PER_IDENTIFIER);
+                node.getData().add(identifier);
+            }
+            root.getChildren().add(node);
+            if (previous != null) {
+                final KEdge edge = KGraphUtil.createInitializedEdge();
+                edge.setSource(previous);
+                edge.setTarget(node);
+            }
+            previous = node;
+        }
+        return root;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.freehep;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A {@link PrintWriter} encoding the written characters into an {@link OutputStream} by means of
+ * its own buffers. In contrast to a {@link PrintWriter} wrapping an
+ * {@link java.io.OutputStreamWriter OutputStreamWriter}, it doesn't synchronize any access and
+ * never flushes the stream on its own accord except for when its buffers are full. It's used by
+ * the {@link SemanticSVGGraphics2D} writing the SVG document element by element, in particular
+ * directly into the export's target stream.<br>
+ * <br>
+ * Like any {@link PrintWriter} it doesn't throw {@link IOException IOExceptions} but records them,
+ * see {@link #checkError()}.
+ */
+final class SVGWriter extends PrintWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final OutputStream output;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes;
+
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param output
+     *            the {@link OutputStream} to write the encoded characters into
+     * @param charset
+     *            the {@link Charset} to encode the characters with
+     */
+    SVGWriter(final OutputStream output, final Charset charset) {
+        // the writer given to the super class is never used
+        super(Writer.nullWriter(), false);
+        this.output = output;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate((int) Math.ceil(BUFFER_SIZE * encoder.maxBytesPerChar()));
+    }
+
+    @Override
+    public void write(final int c) {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put((char) c);
+    }
+
+    @Override
+    public void write(final char[] buf, final int off, final int len) {
+        int offset = off;
+        final int end = off + len;
+        while (offset < end) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            final int count = Math.min(end - offset, chars.remaining());
+            chars.put(buf, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void write(final char[] buf) {
+        write(buf, 0, buf.length);
+    }
+
+    @Override
+    public void write(final String s, final int off, final int len) {
+        append(s, off, off + len);
+    }
+
+    @Override
+    public void write(final String s) {
+        append(s, 0, s.length());
+    }
+
+    @Override
+    public SVGWriter append(final CharSequence csq) {
+        if (csq == null) {
+            write("null");
+        } else {
+            append(csq, 0, csq.length());
+        }
+        return this;
+    }
+
+    @Override
+    public SVGWriter append(final CharSequence csq, final int start, final int end) {
+        if (csq == null) {
+            return append("null", start, end);
+        }
+        int offset = start;
+        while (offset < end) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            final int count = Math.min(end - offset, chars.remaining());
+            chars.append(csq, offset, offset + count);
+            offset += count;
+        }
+        return this;
+    }
+
+    @Override
+    public void println() {
+        write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            return;
+        }
+        encode(false);
+        try {
+            output.flush();
+        } catch (final IOException e) {
+            setError();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        encode(true);
+        closed = true;
+        try {
+            output.close();
+        } catch (final IOException e) {
+            setError();
+        }
+    }
+
+    /**
+     * Encodes the buffered characters and writes the resulting bytes into the output stream.
+     * Characters that cannot be encoded yet, like the first half of a surrogate pair, are kept.
+     */
+    private void encode(final boolean endOfInput) {
+        chars.flip();
+        try {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            while (result.isOverflow()) {
+                drain();
+                result = encoder.encode(chars, bytes, endOfInput);
+            }
+            if (endOfInput) {
+                while (encoder.flush(bytes).isOverflow()) {
+                    drain();
+                }
+            }
+            drain();
+        } catch (final IOException e) {
+            setError();
+        } finally {
+            chars.compact();
+        }
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        if (bytes.hasRemaining() && !closed) {
+            output.write(bytes.array(), 0, bytes.limit());
+        }
+        bytes.clear();
+    }
+}
@@ -39,6 +39,7 @@ import de.cau.cs.kieler.klighd.util.KlighdSemanticDiagramData;
 public class SemanticFreeHEPSVGGraphics extends KlighdAbstractSVGGraphics {
 
     private ByteArrayOutputStream baos;
+    private OutputStream target;
     private SemanticSVGGraphics2D graphicsDelegate;
 
     private Rectangle2D bounds;
@@ -47,6 +48,7 @@ public class SemanticFreeHEPSVGGraphics extends KlighdAbstractSVGGraphics {
     private String description;
     private String css;
     private String additionalRootData;
+    private boolean deduplicate = false;
 
     /**
      * @param bounds
@@ -77,10 +79,16 @@ public class SemanticFreeHEPSVGGraphics extends KlighdAbstractSVGGraphics {
     }
 
     private void init() {
-        baos = new ByteArrayOutputStream();
+        init(null);
+    }
+
+    private void init(final OutputStream output) {
+        // write into the given stream if any, buffer the data otherwise
+        baos = output == null ? new ByteArrayOutputStream() : null;
+        target = output;
 
         // create graphics object
-        graphicsDelegate = new SemanticSVGGraphics2D(baos, new Dimension(
+        graphicsDelegate = new SemanticSVGGraphics2D(output == null ? baos : output, new Dimension(
                 (int) Math.round(bounds.getWidth()), (int) Math.round(bounds.getHeight())));
 
         // some settings
@@ -96,6 +104,8 @@ public class SemanticFreeHEPSVGGraphics extends KlighdAbstractSVGGraphics {
         if (additionalRootData != null) {
             props.setProperty(SemanticSVGGraphics2D.ADDITIONAL_ROOT_DATA, additionalRootData);
         }
+        props.setProperty(SemanticSVGGraphics2D.STYLE_CLASSES, deduplicate);
+        props.setProperty(SemanticSVGGraphics2D.REUSE_PATHS, deduplicate);
         
         graphicsDelegate.setProperties(props);
 
@@ -110,6 +120,10 @@ public class SemanticFreeHEPSVGGraphics extends KlighdAbstractSVGGraphics {
      */
     @Override
     public String getSVG() {
+        if (target != null) {
+            throw new IllegalStateException(
+                    "The SVG data have been written into the output stream while drawing.");
+        }
         try {
             // end stream and retrieve svg from stream
             graphicsDelegate.endExport();
@@ -133,12 +147,46 @@ public class SemanticFreeHEPSVGGraphics extends KlighdAbstractSVGGraphics {
         init();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean startStreaming(final OutputStream output) {
+        init(output);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setDeduplicating(final boolean theDeduplicate) {
+        this.deduplicate = theDeduplicate;
+
+        final UserProperties props = new UserProperties();
+        props.setProperty(SemanticSVGGraphics2D.STYLE_CLASSES, deduplicate);
+        props.setProperty(SemanticSVGGraphics2D.REUSE_PATHS, deduplicate);
+        graphicsDelegate.setProperties(props);
+        return true;
+    }
+
     @Override
     public void stream(final OutputStream out) throws IOException {
+        if (target != null && target != out) {
+            throw new IllegalArgumentException(
+                    "The SVG data are being written into another output stream.");
+        }
+
         // finish the data 
         graphicsDelegate.endExport();
 
-        baos.writeTo(out);
+        if (target == null) {
+            baos.writeTo(out);
+
+        } else if (graphicsDelegate.getOutputStream().checkError()) {
+            // the graphics don't throw IOExceptions while drawing but record them
+            throw new IOException("Writing the SVG data into the output stream failed.");
+        }
     }
     
     /**
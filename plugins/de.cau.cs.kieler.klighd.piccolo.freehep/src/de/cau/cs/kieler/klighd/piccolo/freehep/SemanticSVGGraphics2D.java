@@ -17,27 +17,27 @@ import java.awt.Stroke;
 import java.awt.TexturePaint;
 import java.awt.font.TextAttribute;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.RenderedImage;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.text.AttributedCharacterIterator.Attribute;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -66,12 +66,13 @@ import org.freehep.util.io.Base64OutputStream;
 import org.freehep.util.io.WriterOutputStream;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import de.cau.cs.kieler.klighd.Klighd;
 import de.cau.cs.kieler.klighd.KlighdConstants;
 import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
-import de.cau.cs.kieler.klighd.piccolo.export.KlighdAbstractSVGGraphics.KlighdGradientPaint;
+import de.cau.cs.kieler.klighd.piccolo.export.KlighdAbstractAWTGraphics.KlighdGradientPaint;
 import de.cau.cs.kieler.klighd.util.KlighdSemanticDiagramData;
 
 /**
@@ -115,6 +116,21 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
      */
     public static final String STYLABLE = rootKey + ".Stylable";
 
+    /**
+     * use class="ks0" instead of repeating the style properties for each element,
+     * the distinct property sets are written into a style sheet at the end of the document,
+     * see {@link #style(java.util.Properties)} for details;
+     * not applied if a {@link #CSS} style sheet is given, as the class rules would take
+     * precedence over its element selectors in contrast to presentation attributes
+     */
+    public static final String STYLE_CLASSES = rootKey + ".StyleClasses";
+
+    /**
+     * write the geometry of paths being drawn repeatedly only once,
+     * e.g. of identical node renderings, and refer to it by means of use elements
+     */
+    public static final String REUSE_PATHS = rootKey + ".ReusePaths";
+
     public static final String IMAGE_SIZE = rootKey + "."
             + ImageConstants.IMAGE_SIZE;
 
@@ -156,6 +172,8 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
         defaultProperties.setProperty(COMPRESS, false);
 
         defaultProperties.setProperty(STYLABLE, false);
+        defaultProperties.setProperty(STYLE_CLASSES, false);
+        defaultProperties.setProperty(REUSE_PATHS, false);
 
         defaultProperties.setProperty(IMAGE_SIZE, new Dimension(0, 0)); // ImageSize
 
@@ -196,7 +214,7 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
     // The private writer used for this file.
     private OutputStream ros;
 
-    private PrintWriter os;
+    private SVGWriter os;
 
     // table for gradients
     Hashtable<GradientPaint, String> gradients = new Hashtable<GradientPaint, String>();
@@ -206,6 +224,22 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
 
     private Stack<String> closeTags = new Stack<String>();
 
+    // table of the style classes' names, key is the style declaration
+    private Map<String, String> styleClasses = Maps.newLinkedHashMap();
+
+    // table of the ids of paths being reused, key is the path content
+    private Map<String, String> pathIds = Maps.newHashMap();
+
+    private static final String STYLE_CLASS_PREFIX = "ks";
+
+    private static final String PATH_ID_PREFIX = "kp";
+
+    // shorter paths are not worth being reused
+    private static final int MIN_REUSED_PATH_LENGTH = 40;
+
+    // bounds the memory occupied by 'pathIds'
+    private static final int MAX_REUSED_PATHS = 10000;
+
     private int imageNumber = 0;
 
     private Value clipNumber;
@@ -298,6 +332,8 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
         textures = graphics.textures;
         clipNumber = graphics.clipNumber;
         fontTable = graphics.fontTable;
+        styleClasses = graphics.styleClasses;
+        pathIds = graphics.pathIds;
     }
     
     /**
@@ -359,12 +395,14 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
      * Write out the header of this SVG file.
      */
     public void writeHeader() throws IOException {
-        ros = new BufferedOutputStream(ros);
+        // the SVGWriter buffers the output itself and doesn't flush it after each line,
+        //  the document is written into 'ros' chunk by chunk while drawing
+        OutputStream target = ros;
         if (isProperty(COMPRESS)) {
-            ros = new GZIPOutputStream(ros);
+            target = new GZIPOutputStream(target);
         }
 
-        os = new PrintWriter(ros, true);
+        os = new SVGWriter(target, Charset.defaultCharset());
         fontTable = new SVGFontTable();
 
         // Do the bounding box calculation.
@@ -477,6 +515,23 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
      * @throws IOException
      */
     public void writeTrailer() throws IOException {
+        // write style classes,
+        //  CSS rules apply to the whole document regardless of their position
+        if (!styleClasses.isEmpty()) {
+            os.println("<defs>");
+            os.println("<style type=\"text/css\"><![CDATA[");
+            for (Entry<String, String> styleClass : styleClasses.entrySet()) {
+                os.print(".");
+                os.print(styleClass.getValue());
+                os.print(" {");
+                os.print(styleClass.getKey());
+                os.println("}");
+            }
+            os.println("]]></style>");
+            os.println("</defs>");
+            writeComment("style classes");
+        }
+
         // write font definition
         if (isProperty(EMBED_FONTS)) {
             os.println("<defs>");
@@ -491,6 +546,9 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
 
     public void closeStream() throws IOException {
         os.close();
+        if (os.checkError()) {
+            throw new IOException("Writing the SVG document failed.");
+        }
     }
 
     /*
@@ -619,56 +677,54 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
     }
 
     /**
-     * writes a path using {@link #getPath(java.awt.geom.PathIterator)}
-     * and the given style
+     * writes a path like {@link #getPath(java.awt.geom.PathIterator)}
+     * in the given style directly into the output stream
      *
      * @param pi PathIterator
      * @param style Properties for <g> tag
      */
     private void writePathIterator(PathIterator pi, Properties style) {
-        StringBuffer result = new StringBuffer();
+        // the attributes must be determined first, as they consume the semantic data
+        final String attributes = attributes(true);
+        final AffineTransform t = getTransform();
+        final boolean transformed = t != null && !t.isIdentity();
+
+        // write in a transformed context
+        if (transformed) {
+            os.print("<g transform=\"matrix(");
+            writeMatrix(t);
+            os.print(")\">\n");
+        }
 
         // write style
-        result.append("<g ");
-        result.append(style(style));
-        result.append(">\n  ");
+        os.print("<g ");
+        os.print(style(style));
+        os.print(">\n  ");
 
         // draw shape
-        result.append(getPath(pi));
+        if (attributes.isEmpty() && isProperty(REUSE_PATHS)
+                && VERSION_1_1.equals(getProperty(VERSION))) {
+            writeReusablePath(pi);
+        } else {
+            os.print("<path ");
+            os.print(attributes);
+            appendPathContent(os, pi);
+            os.print("/>");
+        }
 
         // close style
-        result.append("\n</g>");
+        os.print("\n</g>");
         if (writeComments) {
-           result.append(" <!-- drawing style -->"); 
-        }
-
-        boolean drawClipped = false;
-
-        // test if clip intersects pi
-        if (getClip() != null) {
-            GeneralPath gp = new GeneralPath();
-            gp.append(pi, true);
-            // create the stroked shape
-            Stroke stroke = getStroke() == null? defaultStroke : getStroke();
-            Rectangle2D bounds = stroke.createStrokedShape(gp).getBounds();
-            // clip should intersect the path
-            // if clip contains the bounds completely, clipping is not needed
-            drawClipped = getClip().intersects(bounds) && !getClip().contains(bounds);
+            os.print(" <!-- drawing style -->");
         }
 
-        if (drawClipped) {
-            // write in a transformed and clipped context
-            os.println(
-                getTransformedString(
-                    getTransform(),
-                    getClippedString(result.toString())));
-        } else {
-            // write in a transformed context
-            os.println(
-                getTransformedString(
-                    getTransform(),
-                    result.toString()));
+        if (transformed) {
+            os.print("\n</g>");
+            if (writeComments) {
+                os.print(" <!-- transform -->");
+            }
         }
+        os.println();
     }
 
     /* 5.2. Images */
@@ -680,14 +736,8 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
     protected void writeImage(RenderedImage image, AffineTransform xform,
             Color bkg) throws IOException {
 
-        StringBuffer result = new StringBuffer();
-
-        result.append("<image x=\"0\" y=\"0\" " + "width=\"");
-        result.append(image.getWidth());
-        result.append("\" " + "height=\"");
-        result.append(image.getHeight());
-        result.append("\" " + attributes(true));
-        result.append(" xlink:href=\"");
+        // the attributes must be determined first, as they consume the semantic data
+        final String attributes = attributes(true);
 
         String writeAs = getProperty(WRITE_IMAGES_AS);
         boolean isTransparent = image.getColorModel().hasAlpha()
@@ -725,6 +775,7 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             }
         }
 
+        String imageName = null;
         if (isProperty(EXPORT_IMAGES)) {
             imageNumber++;
 
@@ -736,39 +787,56 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             }
             int pos = filename.lastIndexOf(File.separatorChar);
             String dirName = (pos < 0) ? "" : filename.substring(0, pos + 1);
-            String imageName = (pos < 0) ? filename : filename
+            imageName = (pos < 0) ? filename : filename
                     .substring(pos + 1);
             imageName += "." + getProperty(EXPORT_SUFFIX) + "-" + imageNumber
                     + "." + encode;
 
-            result.append(imageName);
-
             // write the image separately
             FileOutputStream imageStream = new FileOutputStream(dirName
                     + imageName);
 
             imageStream.write(imageBytes);
             imageStream.close();
+        }
+
+        // write the image element directly into the output stream
+        final boolean transformed = writeTransformedStart(getTransform(), null);
+        final boolean clipped = writeClippedStart();
+        final boolean imageTransformed = writeTransformedStart(xform, null);
+
+        os.print("<image x=\"0\" y=\"0\" " + "width=\"");
+        os.print(image.getWidth());
+        os.print("\" " + "height=\"");
+        os.print(image.getHeight());
+        os.print("\" " + attributes);
+        os.print(" xlink:href=\"");
+
+        if (imageName != null) {
+            os.print(imageName);
         } else {
-            result.append("data:image/");
-            result.append(encode);
-            result.append(";base64,");
-
-            StringWriter writer = new StringWriter();
-            @SuppressWarnings("resource") // closing a StringWriter has no effect
-            Base64OutputStream b64 = new Base64OutputStream(
-                    new WriterOutputStream(writer));
+            os.print("data:image/");
+            os.print(encode);
+            os.print(";base64,");
+
+            // encode the image data directly into the output stream, too,
+            //  flushing it is up to the writer of the document
+            @SuppressWarnings("resource") // the output stream must not be closed here
+            Base64OutputStream b64 = new Base64OutputStream(new WriterOutputStream(os) {
+                @Override
+                public void flush() {
+                }
+            });
             b64.write(imageBytes);
             b64.finish();
-
-            result.append(writer.toString());
         }
 
-        result.append("\"/>");
+        os.print("\"/>");
 
-        os.println(getTransformedString(getTransform(),
-            getClippedString(getTransformedString(xform, result
-                .toString()))));
+        writeTransformedEnd(imageTransformed);
+        writeClippedEnd(clipped);
+        writeTransformedEnd(transformed);
+        os.println();
     }
 
     private Double nextTextLength = null;
@@ -862,45 +930,37 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
         textOffset.concatenate(getTransform());
         final String[] lines = str.split("\\r?\\n|\\r");
         final boolean isSingleLine = lines.length <= 1;
-        os.println(
-            isSingleLine
-                ? getTransformedString(
-                    // general transformation + text offset
-                    textOffset,
-                    getTransformedString(
-                        // font transformation and text
-                        getFont().getTransform(),
-                        getTextsString(
-                            lines, style,
-                            // indentation
-                            textOffset.isIdentity() ? "" : "  "
-                        )
-                     )
-                ) : getTransformedString(
-                    // general transformation + text offset
-                    textOffset,
-                    // style
-                    style(style)
-                    // semantic data
-                    + attributes(false),
-                    getTransformedString(
-                        // font transformation and text
-                        getFont().getTransform(),
-                        getTextsString(
-                            lines, null /* properties are added to the group */,
-                            // indentation
-                            "  "
-                        )
-                    )
-                )
+
+        // write the texts directly into the output stream
+        final boolean offset = writeTransformedStart(
+            // general transformation + text offset
+            textOffset,
+            // style and semantic data of multi-line texts are added to the group
+            isSingleLine ? null : style(style) + attributes(false)
+        );
+        // font transformation
+        final boolean fontTransformed = writeTransformedStart(getFont().getTransform(), null);
+
+        writeTexts(
+            lines,
+            // the properties of multi-line texts are added to the group
+            isSingleLine ? style : null,
+            // indentation
+            isSingleLine && textOffset.isIdentity() ? "" : "  "
         );
 
+        writeTransformedEnd(fontTransformed);
+        writeTransformedEnd(offset);
+        os.println();
+
         resetSemanticData();
     }
 
-    private String getTextsString(String[] lines, Properties style, String indentation) {
+    /**
+     * Writes the text elements of the given lines directly into the output stream.
+     */
+    private void writeTexts(String[] lines, Properties style, String indentation) {
         final boolean isSingleLine = lines.length <= 1;
-        final StringBuffer content = new StringBuffer();
 
         // in case of a single line text
         //  clone the styles object in order to achieve identical order while iterating over the entries
@@ -945,10 +1005,13 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             
             float y = firstLineHeight;
             for (final String line : lines) {
-                content.append("\n" + indentation);
-                content.append("<text x=\"0\" y=\"").append(y).append("\"");
+                // no line break before the first line
+                os.print(i > 0 ? "\n" + indentation : indentation);
+                os.print("<text x=\"0\" y=\"");
+                os.print(y);
+                os.print("\"");
                 // style
-                content.append(" " + style(textLineStyle));
+                os.print(" " + style(textLineStyle));
                 
                 final Double nextLineLength = noTextLengthPerLineCalcRequired ? nextLength :
                     // need to box the result here as the type of the ternary operation would be 'double' otherwise
@@ -956,13 +1019,13 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
                     Double.valueOf(PlacementUtil.estimateTextSize(fontData, line).getWidth());
                 
                 // text length
-                content.append(textLength(nextLineLength));
+                os.print(textLength(nextLineLength));
                 // semantic data
-                content.append(isSingleLine ? attributes(false) : "");
-                content.append(textLineAttributes(line, i++));
-                content.append(">");
-                content.append(line);
-                content.append("</text>");
+                os.print(isSingleLine ? attributes(false) : "");
+                os.print(textLineAttributes(line, i++));
+                os.print(">");
+                os.print(line);
+                os.print("</text>");
                 
                 y += lineHeight;
             }
@@ -982,8 +1045,11 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             final FontData fontData = noTextLengthPerLineCalcRequired ? null : getFontData(getFont());
             
             for (final String line : lines) {
-                content.append("\n" + indentation);
-                content.append("<text x=\"0\" y=\"").append(y).append("\"");
+                // no line break before the first line
+                os.print(i > 0 ? "\n" + indentation : indentation);
+                os.print("<text x=\"0\" y=\"");
+                os.print(y);
+                os.print("\"");
                 
                 final Double nextLineLength = noTextLengthPerLineCalcRequired ? nextLength :
                     // need to box the result here as the type of the ternary operation would be 'double' otherwise
@@ -991,18 +1057,18 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
                     Double.valueOf(PlacementUtil.estimateTextSize(fontData, line).getWidth());
                 
                 // text length
-                content.append(textLength(nextLineLength));
+                os.print(textLength(nextLineLength));
                 // semantic data
-                content.append(isSingleLine ? " "
+                os.print(isSingleLine ? " "
                     // style
                     + style(style)
                     // semantic data
                     + attributes(false) : ""
                 );
-                content.append(textLineAttributes(line, i++));
-                content.append(">");
-                content.append(line);
-                content.append("</text>");
+                os.print(textLineAttributes(line, i++));
+                os.print(">");
+                os.print(line);
+                os.print("</text>");
             }
         } else {
             // without a display just use the pt size as line height for multiline text
@@ -1010,25 +1076,23 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             final int fontSize = getFont().getSize();
             float y = fontSize;
             for (final String line : lines) {
-                content.append("\n" + indentation);
-                content.append("<text x=\"0\" y=\"").append(y).append("\"");
-                content.append(" "
+                // no line break before the first line
+                os.print(i > 0 ? "\n" + indentation : indentation);
+                os.print("<text x=\"0\" y=\"");
+                os.print(y);
+                os.print("\"");
+                os.print(" "
                     // style
                     + style(style)
                     // semantic data
                     + (isSingleLine ? " " + attributes(false) : "")
                 );
-                content.append(textLineAttributes(line, i++));
-                content.append(">");
-                content.append(line);
-                content.append("</text>");
+                os.print(textLineAttributes(line, i++));
+                os.print(">");
+                os.print(line);
+                os.print("</text>");
             }
         }
-
-        if (content.length() == 0)
-            return "";
-        else
-            return content.toString().substring(1); // trim the leading line break
     }
 
     protected float getAdjustedFontHeight(int height, int ascent, int descent, boolean firstLine) {
@@ -1249,7 +1313,7 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
                         .getDashArray())) {
             if (stroke.getDashArray() != null
                     && stroke.getDashArray().length > 0) {
-                StringBuffer array = new StringBuffer();
+                StringBuilder array = new StringBuilder();
                 for (int i = 0; i < stroke.getDashArray().length; i++) {
                     if (i > 0) {
                         array.append(",");
@@ -1414,105 +1478,97 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
      */
 
     /**
-     * Encapsulates a SVG-Tag by the given transformation matrix
-     *
-     * @param t
-     *            Transformation
-     * @param s
-     *            SVG-Tag
-     */
-    private String getTransformedString(AffineTransform t, String s) {
-        return getTransformedString(t,  null, s);
-    }
-    
-    /**
-     * Encapsulates a SVG-Tag by the given transformation matrix
+     * Writes the opening of a group applying the given transformation matrix and additional
+     * properties directly into the output stream, if required.
      *
      * @param t
      *            Transformation
      * @param additionalProperties
-     *            additional properties to be set on the element
-     * @param s
-     *            SVG-Tag
+     *            additional properties to be set on the group, may be <code>null</code>
+     * @return <code>true</code> if a group has been opened, which must be closed by
+     *         {@link #writeTransformedEnd(boolean)}
      */
-    private String getTransformedString(AffineTransform t, String additionalProperties, String s) {
-        StringBuffer result = new StringBuffer();
-
-        if (t != null && !t.isIdentity()) {
-            result.append("<g transform=\"matrix(");
-            result.append(fixedPrecision(t.getScaleX()));
-            result.append(", ");
-            result.append(fixedPrecision(t.getShearY()));
-            result.append(", ");
-            result.append(fixedPrecision(t.getShearX()));
-            result.append(", ");
-            result.append(fixedPrecision(t.getScaleY()));
-            result.append(", ");
-            result.append(fixedPrecision(t.getTranslateX()));
-            result.append(", ");
-            result.append(fixedPrecision(t.getTranslateY()));
-            result.append(")\"");
-            if (additionalProperties != null)
-                result.append(" ").append(additionalProperties);
-            result.append(">\n");
-            
+    private boolean writeTransformedStart(AffineTransform t, String additionalProperties) {
+        final boolean transformed = t != null && !t.isIdentity();
+        if (transformed) {
+            os.print("<g transform=\"matrix(");
+            writeMatrix(t);
+            os.print(")\"");
+            if (additionalProperties != null) {
+                os.print(" ");
+                os.print(additionalProperties);
+            }
+            os.print(">\n");
+
         } else if (additionalProperties != null) {
-            result.append("<g ").append(additionalProperties).append(">\n");
+            os.print("<g ");
+            os.print(additionalProperties);
+            os.print(">\n");
         }
 
-        result.append(s);
+        return transformed || additionalProperties != null;
+    }
 
-        if (t != null && !t.isIdentity() || additionalProperties != null) {
-            result.append("\n</g>");
+    /**
+     * Writes the closing of a group opened by {@link #writeTransformedStart(AffineTransform,
+     * String)}.
+     *
+     * @param opened
+     *            whether a group has actually been opened
+     */
+    private void writeTransformedEnd(boolean opened) {
+        if (opened) {
+            os.print("\n</g>");
             if (writeComments) {
-                result.append(" <!-- transform -->");
+                os.print(" <!-- transform -->");
             }
         }
-
-        return result.toString();
     }
 
     /**
-     * Encapsulates a SVG-Tag by the current clipping area matrix
+     * Writes the definition of the current clipping area and the opening of a group using it
+     * directly into the output stream, if required.
      *
-     * @param s SVG-Tag
-     * @return SVG Tag encapsulated by the current clip
+     * @return <code>true</code> if a group has been opened, which must be closed by
+     *         {@link #writeClippedEnd(boolean)}
      */
-    private String getClippedString(String s) {
-        StringBuffer result = new StringBuffer();
-
-        // clipping
-        if (isProperty(CLIP) && getClip() != null) {
-            // SVG uses unique lip numbers, don't reset allways increment them
-            clipNumber.set(clipNumber.getInt() + 1);
+    private boolean writeClippedStart() {
+        if (!isProperty(CLIP) || getClip() == null) {
+            return false;
+        }
 
-            // define clip
-            result.append("<clipPath id=\"clip");
-            result.append(clipNumber.getInt());
-            result.append("\">\n  ");
-            result.append(getPath(getClip().getPathIterator(null)));
-            result.append("\n</clipPath>\n");
+        // SVG uses unique lip numbers, don't reset allways increment them
+        clipNumber.set(clipNumber.getInt() + 1);
 
-            // use clip
-            result.append("<g clip-path=\"url(#clip");
-            result.append(clipNumber.getInt());
-            result.append(")\">\n");
-        }
+        // define clip
+        os.print("<clipPath id=\"clip");
+        os.print(clipNumber.getInt());
+        os.print("\">\n  ");
+        os.print(getPath(getClip().getPathIterator(null)));
+        os.print("\n</clipPath>\n");
 
-        // append the string
-        result.append(s);
+        // use clip
+        os.print("<g clip-path=\"url(#clip");
+        os.print(clipNumber.getInt());
+        os.print(")\">\n");
+        return true;
+    }
 
-        // close clipping
-        if (isProperty(CLIP) && getClip() != null) {
-            result.append("\n</g>");
+    /**
+     * Writes the closing of a group opened by {@link #writeClippedStart()}.
+     *
+     * @param opened
+     *            whether a group has actually been opened
+     */
+    private void writeClippedEnd(boolean opened) {
+        if (opened) {
+            os.print("\n</g>");
             if (writeComments) {
-                result.append("<!-- clip");
-                result.append(clipNumber.getInt());
-                result.append(" -->");
+                os.print("<!-- clip");
+                os.print(clipNumber.getInt());
+                os.print(" -->");
             }
         }
-
-        return result.toString();
     }
 
     private float alphaColor(Paint p) {
@@ -1563,70 +1619,122 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
     }
 
     protected static String getPathContent(PathIterator path) {
-        StringBuffer result = new StringBuffer();
+        return appendPathContent(new StringBuilder(), path).toString();
+    }
 
-        double[] coords = new double[6];
-        result.append("d=\"");
-        while (!path.isDone()) {
-            int segType = path.currentSegment(coords);
+    /**
+     * Appends the 'd' attribute describing the given path to the given {@link Appendable}.
+     *
+     * @param result the {@link Appendable} to append to, no {@link IOException IOExceptions}
+     *          are expected to be thrown by it
+     * @param path the path to describe
+     * @return <code>result</code>
+     */
+    private static <T extends Appendable> T appendPathContent(T result, PathIterator path) {
+        final StringBuilder number = new StringBuilder(NUMBER_CAPACITY);
+        try {
+            double[] coords = new double[6];
+            result.append("d=\"");
+            while (!path.isDone()) {
+                int segType = path.currentSegment(coords);
+
+                switch (segType) {
+                    case PathIterator.SEG_MOVETO:
+                        result.append("M ");
+                        appendCoordinates(result, number, coords, 2);
+                        break;
+                    case PathIterator.SEG_LINETO:
+                        result.append("L ");
+                        appendCoordinates(result, number, coords, 2);
+                        break;
+                    case PathIterator.SEG_CUBICTO:
+                        result.append("C ");
+                        appendCoordinates(result, number, coords, 6);
+                        break;
+                    case PathIterator.SEG_QUADTO:
+                        result.append("Q ");
+                        appendCoordinates(result, number, coords, 4);
+                        break;
+                    case PathIterator.SEG_CLOSE:
+                        result.append("z");
+                        break;
+                }
 
-            switch (segType) {
-                case PathIterator.SEG_MOVETO:
-                    result.append("M ");
-                    result.append(fixedPrecision(coords[0]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[1]));
-                    break;
-                case PathIterator.SEG_LINETO:
-                    result.append("L ");
-                    result.append(fixedPrecision(coords[0]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[1]));
-                    break;
-                case PathIterator.SEG_CUBICTO:
-                    result.append("C ");
-                    result.append(fixedPrecision(coords[0]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[1]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[2]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[3]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[4]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[5]));
-                    break;
-                case PathIterator.SEG_QUADTO:
-                    result.append("Q ");
-                    result.append(fixedPrecision(coords[0]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[1]));
-                    result.append(" ");
-                    result.append(fixedPrecision(coords[2]));
+                // Move to the next segment.
+                path.next();
+
+                // Not needed but makes the output readable
+                if (!path.isDone()) {
                     result.append(" ");
-                    result.append(fixedPrecision(coords[3]));
-                    break;
-                case PathIterator.SEG_CLOSE:
-                    result.append("z");
-                    break;
+                }
             }
+            result.append("\"");
+        } catch (IOException e) {
+            // doesn't happen with StringBuilders and PrintWriters
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
 
-            // Move to the next segment.
-            path.next();
-
-            // Not needed but makes the output readable
-            if (!path.isDone()) {
+    private static void appendCoordinates(Appendable result, StringBuilder number,
+            double[] coords, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
                 result.append(" ");
             }
+            number.setLength(0);
+            result.append(appendFixedPrecision(number, coords[i]));
         }
-        result.append("\"");
+    }
 
-        return result.toString();
+    /**
+     * Writes the given path without any semantic data directly into the output stream. Its first
+     * occurrence gets an id, further occurrences refer to the first one by means of a use
+     * element. The styles are inherited from the use element's context in that case.
+     */
+    private void writeReusablePath(PathIterator path) {
+        final String content = appendPathContent(new StringBuilder(), path).toString();
+
+        String id = content.length() < MIN_REUSED_PATH_LENGTH ? null : pathIds.get(content);
+        if (id != null) {
+            os.print("<use xlink:href=\"#");
+            os.print(id);
+            os.print("\"/>");
+            return;
+        }
+
+        os.print("<path ");
+        if (content.length() >= MIN_REUSED_PATH_LENGTH && pathIds.size() < MAX_REUSED_PATHS) {
+            id = PATH_ID_PREFIX + Integer.toString(pathIds.size(), Character.MAX_RADIX);
+            pathIds.put(content, id);
+            os.print("id=\"");
+            os.print(id);
+            os.print("\" ");
+        }
+        os.print(content);
+        os.print("/>");
+    }
+
+    /**
+     * Writes the components of the given transformation matrix separated by commas directly into
+     * the output stream.
+     */
+    private void writeMatrix(AffineTransform t) {
+        final StringBuilder number = new StringBuilder(NUMBER_CAPACITY);
+        os.append(appendMatrix(number, t));
+    }
+
+    private static StringBuilder appendMatrix(StringBuilder result, AffineTransform t) {
+        appendFixedPrecision(result, t.getScaleX()).append(", ");
+        appendFixedPrecision(result, t.getShearY()).append(", ");
+        appendFixedPrecision(result, t.getShearX()).append(", ");
+        appendFixedPrecision(result, t.getScaleY()).append(", ");
+        appendFixedPrecision(result, t.getTranslateX()).append(", ");
+        return appendFixedPrecision(result, t.getTranslateY());
     }
 
     protected String getPath(PathIterator path) {
-        StringBuffer result = new StringBuffer();
+        StringBuilder result = new StringBuilder();
 
         result.append("<path ");
         result.append(attributes(true));
@@ -1646,7 +1754,7 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             return "";
         }
 
-        final StringBuffer sb = new StringBuffer();
+        final StringBuilder sb = new StringBuilder();
 
         for (final Entry<String, String> e : semanticData) {
 
@@ -1676,7 +1784,7 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             return "";
         }
 
-        final StringBuffer sb = new StringBuffer();
+        final StringBuilder sb = new StringBuilder();
 
         for (final Entry<String, String> e : semanticData.textLineIterable(textLine, noOfLine)) {
 
@@ -1728,7 +1836,9 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
      * method creates
      * style="key1:value1;key2:value2;" or
      * key2="value2" key2="value2" depending on
-     * {@link #STYLABLE}.
+     * {@link #STYLABLE}, or class="ks0" if {@link #STYLE_CLASSES}
+     * is set, unless the semantic data to be attached provide a class
+     * that would conflict with that or a {@link #CSS} style sheet is given.
      *
      * @param style properties to convert
      * @return String
@@ -1738,7 +1848,12 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
             return "";
         }
 
-        StringBuffer result = new StringBuffer();
+        // the rules of a given style sheet must still override the presentation attributes
+        if (isProperty(STYLE_CLASSES) && getProperty(CSS).isEmpty() && !hasSemanticClass()) {
+            return "class=\"" + styleClass(style) + "\"";
+        }
+
+        StringBuilder result = new StringBuilder();
         boolean styleable = isProperty(STYLABLE);
 
         // embed everything in a "style" attribute
@@ -1775,7 +1890,66 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
         return result.toString();
     }
 
-    
+    /**
+     * Determines the name of the style class containing the given style properties,
+     * and registers a new one if required.
+     *
+     * @param style properties to convert
+     * @return the class name
+     */
+    private String styleClass(Properties style) {
+        // sort the properties, as the order of equal tables' entries may differ
+        final List<String> keys = Lists.newArrayListWithCapacity(style.size());
+        for (Object key : style.keySet()) {
+            keys.add((String) key);
+        }
+        Collections.sort(keys);
+
+        final StringBuilder declaration = new StringBuilder();
+        for (String key : keys) {
+            String value = style.getProperty(key);
+            if (key.equals("style")) {
+                // declarations given in terms of a style attribute, see #writeTexts
+                declaration.append(value);
+            } else {
+                declaration.append(key);
+                declaration.append(":");
+                declaration.append(key.equals("font-family") ? cssFontFamily(value) : value);
+            }
+            declaration.append(";");
+        }
+
+        final String key = declaration.toString();
+        String name = styleClasses.get(key);
+        if (name == null) {
+            name = STYLE_CLASS_PREFIX + Integer.toString(styleClasses.size(), Character.MAX_RADIX);
+            styleClasses.put(key, name);
+        }
+        return name;
+    }
+
+    /**
+     * Quotes the given font family name if required in CSS, e.g. if it contains digits.
+     */
+    private static String cssFontFamily(String family) {
+        if (family == null || family.matches("[A-Za-z][A-Za-z -]*|.*['\",].*")) {
+            return family;
+        }
+        return "'" + family + "'";
+    }
+
+    private boolean hasSemanticClass() {
+        if (semanticData == null) {
+            return false;
+        }
+        for (final Entry<String, String> e : semanticData) {
+            if (e.getKey().equals(KlighdConstants.SEMANTIC_DATA_CLASS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Builds up a AWT {@link Path2D} according to a given SWT Geometry {@link PathData}.
      * 
@@ -1850,11 +2024,25 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
     
     /**
      * for fixedPrecision(double d), SVG does not understand "1E-7"
-     * we have to use ".0000007" instead
+     * we have to use ".0000007" instead;
+     * {@link DecimalFormat DecimalFormats} are not thread-safe, hence one per thread
      */
-    private static DecimalFormat scientific = new DecimalFormat(
-        "#.####################",
-        new DecimalFormatSymbols(Locale.US));
+    private static final ThreadLocal<DecimalFormat> SCIENTIFIC = ThreadLocal.withInitial(
+        () -> new DecimalFormat("#.####################", new DecimalFormatSymbols(Locale.US)));
+
+    /** the scale factors of the decimal places being formatted without a {@link DecimalFormat}. */
+    private static final double[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000 };
+
+    /** the bound of the absolute values being formatted without a {@link DecimalFormat}. */
+    private static final double FAST_LIMIT = 1e7;
+
+    /** the bound of the absolute values being formatted by means of {@link Double#toString()}. */
+    private static final double PLAIN_LOWER_LIMIT = 1e-3;
+
+    private static final long NEGATIVE_ZERO = Double.doubleToRawLongBits(-0d);
+
+    /** the initial capacity of buffers taking a single number. */
+    private static final int NUMBER_CAPACITY = 24;
 
     /**
      * converts the double value to a representing string
@@ -1863,7 +2051,50 @@ public class SemanticSVGGraphics2D extends AbstractVectorGraphicsIO {
      * @return same as string
      */
     public static String fixedPrecision(double d) {
-        return scientific.format(d);
+        return appendFixedPrecision(new StringBuilder(NUMBER_CAPACITY), d).toString();
+    }
+
+    /**
+     * Appends the representation of the given double value to the given {@link StringBuilder},
+     * which is equal to that of {@link #fixedPrecision(double)}. Values having at most 4 decimal
+     * places, i.e. the vast majority of coordinates, and values whose shortest representation
+     * doesn't require an exponent are formatted without a {@link DecimalFormat}.
+     *
+     * @param sb the {@link StringBuilder} to append to
+     * @param d double value to convert
+     * @return <code>sb</code>
+     */
+    static StringBuilder appendFixedPrecision(StringBuilder sb, double d) {
+        if (Math.abs(d) < FAST_LIMIT && Double.doubleToRawLongBits(d) != NEGATIVE_ZERO) {
+            for (int digits = 0; digits < POWERS_OF_TEN.length; digits++) {
+                final long scaled = Math.round(d * POWERS_OF_TEN[digits]);
+                if (scaled / POWERS_OF_TEN[digits] == d) {
+                    if (scaled < 0) {
+                        sb.append('-');
+                    }
+                    final long abs = Math.abs(scaled);
+                    final long divisor = (long) POWERS_OF_TEN[digits];
+                    sb.append(abs / divisor);
+                    if (digits > 0) {
+                        final long fraction = abs % divisor;
+                        sb.append('.');
+                        for (long f = divisor / 10; f > fraction && f > 1; f /= 10) {
+                            sb.append('0');
+                        }
+                        sb.append(fraction);
+                    }
+                    return sb;
+                }
+            }
+        }
+
+        final double abs = Math.abs(d);
+        if (abs >= PLAIN_LOWER_LIMIT && abs < FAST_LIMIT) {
+            // Double.toString uses the plain notation in this range
+            //  and provides the same digits as the DecimalFormat
+            return sb.append(d);
+        }
+        return sb.append(SCIENTIFIC.get().format(d));
     }
 
     protected PrintWriter getOutputStream() {
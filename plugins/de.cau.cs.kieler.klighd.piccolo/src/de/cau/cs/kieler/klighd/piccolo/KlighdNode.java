@@ -693,6 +693,11 @@ public abstract class KlighdNode extends PNode implements IKlighdNode {
                 return;
             }
 
+            // skip figures that are too small in the requested level of detail
+            if (kpc.isBelowMinimumSize(getFullBoundsReference())) {
+                return;
+            }
+
             if (getVisible() && fullIntersects(paintContext.getLocalClip())) {
 
                 final PAffineTransform transform = getTransformReference(false);
@@ -78,7 +78,7 @@ public abstract class AbstractDiagramExporter {
             final DiagramExportConfig exportConfig) {
         return KlighdPaintContext.createExportDiagramPaintContext(graphics,
                 exportConfig.applyCameraZoomLevel, exportConfig.exportSemanticData,
-                exportConfig.setTextLengths);
+                exportConfig.setTextLengths, exportConfig.minimumFigureSize);
     }
 
 
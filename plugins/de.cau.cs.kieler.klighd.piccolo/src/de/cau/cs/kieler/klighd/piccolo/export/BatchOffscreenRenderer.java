@@ -0,0 +1,380 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.elk.graph.properties.IPropertyHolder;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.LightDiagramServices;
+import de.cau.cs.kieler.klighd.ViewContext;
+import de.cau.cs.kieler.klighd.piccolo.KlighdPiccolo;
+
+/**
+ * Renders the diagrams of many models into SVG files concurrently by means of the
+ * {@link SVGOffscreenRenderer}, e.g. for regenerating the diagrams of a large model collection.<br>
+ * <br>
+ * Each worker thread loads the models into its own {@link ResourceSet} and translates each model
+ * into a {@link ViewContext} of its own, so the workers don't share any model state. As the SVG
+ * generation doesn't rely on SWT, no display is required. Models are submitted into a work queue of
+ * bounded capacity; {@link #submit(URI, File)} blocks while the queue is full, which limits the
+ * number of models in memory regardless of the size of the batch. The outcome and the time spent
+ * in each phase are reported per model by means of a {@link Result}; failures don't interrupt the
+ * processing of other models.
+ */
+public class BatchOffscreenRenderer implements AutoCloseable {
+
+    /** The number of pending models per worker the work queue accepts by default. */
+    public static final int QUEUE_CAPACITY_PER_WORKER = 4;
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /**
+     * Lets the submitting thread wait until the work queue has capacity for the rejected task.
+     */
+    private static final RejectedExecutionHandler WAIT_FOR_CAPACITY = (task, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException(
+                    "KLighD batch offscreen rendering: The renderer has been closed.");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+
+        // the renderer might have been closed while waiting, in that case the task would never
+        //  be executed and its future never be completed, unless a worker grabbed it already
+        if (executor.isShutdown() && executor.remove(task)) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+            throw new RejectedExecutionException(
+                    "KLighD batch offscreen rendering: The renderer has been closed.");
+        }
+    };
+
+    private final ThreadPoolExecutor executor;
+
+    private final ThreadLocal<ResourceSet> resourceSets;
+
+    private final IPropertyHolder properties;
+
+    /**
+     * Creates a batch renderer with the given number of workers that load the models into plain
+     * {@link ResourceSetImpl ResourceSets}.
+     *
+     * @param workers
+     *            the number of models to be rendered concurrently
+     * @param properties
+     *            an {@link IPropertyHolder} configuring the diagram syntheses and the SVG
+     *            generation in terms of the properties defined in
+     *            {@link de.cau.cs.kieler.klighd.IOffscreenRenderer IOffscreenRenderer}, may be
+     *            <code>null</code>
+     */
+    public BatchOffscreenRenderer(final int workers, final IPropertyHolder properties) {
+        this(workers, workers * QUEUE_CAPACITY_PER_WORKER, properties, ResourceSetImpl::new);
+    }
+
+    /**
+     * Creates a batch renderer.
+     *
+     * @param workers
+     *            the number of models to be rendered concurrently
+     * @param queueCapacity
+     *            the number of submitted models waiting for a free worker
+     * @param properties
+     *            an {@link IPropertyHolder} configuring the diagram syntheses and the SVG
+     *            generation in terms of the properties defined in
+     *            {@link de.cau.cs.kieler.klighd.IOffscreenRenderer IOffscreenRenderer}, may be
+     *            <code>null</code>
+     * @param resourceSetFactory
+     *            creates the {@link ResourceSet} of each worker, e.g. with particular load options
+     *            or resource factories
+     */
+    public BatchOffscreenRenderer(final int workers, final int queueCapacity,
+            final IPropertyHolder properties, final Supplier<ResourceSet> resourceSetFactory) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("KLighD batch offscreen rendering: "
+                    + "The number of workers and the queue capacity must be positive.");
+        }
+
+        final int instance = INSTANCES.incrementAndGet();
+        final AtomicInteger threads = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "KLighD batch renderer " + instance + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory, WAIT_FOR_CAPACITY);
+        this.resourceSets = ThreadLocal.withInitial(resourceSetFactory);
+        this.properties = properties;
+    }
+
+    /**
+     * Submits the model stored at <code>source</code> for being rendered into <code>target</code>.
+     * Blocks while the work queue is full.<br>
+     * <b>Caution:</b> If the target file already exists it is likely to be overwritten!
+     *
+     * @param source
+     *            the {@link URI} of the resource containing the model as its first root element
+     * @param target
+     *            the file to write the diagram to
+     * @return a {@link Future} providing the {@link Result} once the model has been processed
+     * @throws RejectedExecutionException
+     *             if the renderer has been closed or the submitting thread has been interrupted
+     */
+    public Future<Result> submit(final URI source, final File target) {
+        return executor.submit(() -> render(source, target));
+    }
+
+    /**
+     * Renders the models stored at the given <code>sources</code> and waits for their completion.
+     *
+     * @param sources
+     *            the {@link URI URIs} of the resources containing the models
+     * @param targets
+     *            determines the file to write the diagram of a model to by its source
+     * @return the {@link Result Results} in the order of <code>sources</code>
+     * @throws InterruptedException
+     *             if the calling thread has been interrupted while waiting
+     */
+    public List<Result> renderAll(final Iterable<URI> sources,
+            final Function<? super URI, File> targets) throws InterruptedException {
+        final List<Future<Result>> futures = Lists.newArrayList();
+        try {
+            for (final URI source : sources) {
+                futures.add(submit(source, targets.apply(source)));
+            }
+        } catch (final RejectedExecutionException e) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            throw e;
+        }
+
+        final List<Result> results = Lists.newArrayListWithCapacity(futures.size());
+        for (final Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (final ExecutionException e) {
+                // 'render' reports all failures by means of its result
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Completes the processing of the submitted models and stops the workers. Further submissions
+     * are rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Result render(final URI source, final File target) {
+        final ResourceSet resourceSet = resourceSets.get();
+        final long start = System.nanoTime();
+        long loaded = start;
+        long translated = start;
+        IStatus status;
+
+        try {
+            final Resource resource = resourceSet.getResource(source, true);
+            final EObject model =
+                    resource.getContents().isEmpty() ? null : resource.getContents().get(0);
+            loaded = System.nanoTime();
+            translated = loaded;
+
+            if (model == null) {
+                status = new Status(IStatus.WARNING, KlighdPiccolo.PLUGIN_ID,
+                        "Resource " + source + " doesn't contain a model.");
+            } else {
+                final ViewContext viewContext = properties == null
+                        ? LightDiagramServices.translateModel2(model, null)
+                        : LightDiagramServices.translateModel2(model, null, properties);
+                translated = System.nanoTime();
+
+                if (viewContext.getViewModel() == null
+                        || viewContext.getViewModel().getChildren().isEmpty()) {
+                    status = new Status(IStatus.WARNING, KlighdPiccolo.PLUGIN_ID,
+                            "Input model couldn't be translated, got an empty view model.");
+                } else {
+                    status = write(viewContext, target);
+                }
+            }
+        } catch (final Throwable t) {
+            status = new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                    "Rendering the diagram of " + source + " failed, see attached trace.", t);
+        } finally {
+            // don't let the worker's resource set accumulate the models
+            for (final Resource resource : resourceSet.getResources()) {
+                resource.unload();
+            }
+            resourceSet.getResources().clear();
+        }
+
+        final long end = System.nanoTime();
+        return new Result(source, target, status, loaded - start, translated - loaded,
+                end - translated);
+    }
+
+    private IStatus write(final ViewContext viewContext, final File target) {
+        IStatus status;
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(target))) {
+            status = new SVGOffscreenRenderer().render(viewContext, output, properties);
+        } catch (final IOException e) {
+            status = new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                    "Target file " + target + " cannot be written.", e);
+        }
+
+        if (status.getSeverity() == IStatus.ERROR) {
+            target.delete();
+        }
+        return status;
+    }
+
+    /**
+     * The outcome of rendering a single model including the time spent in the particular phases.
+     */
+    public static final class Result {
+
+        private final URI source;
+        private final File target;
+        private final IStatus status;
+        private final long loadTime;
+        private final long translationTime;
+        private final long renderingTime;
+
+        private Result(final URI source, final File target, final IStatus status,
+                final long loadTime, final long translationTime, final long renderingTime) {
+            this.source = source;
+            this.target = target;
+            this.status = status;
+            this.loadTime = loadTime;
+            this.translationTime = translationTime;
+            this.renderingTime = renderingTime;
+        }
+
+        /**
+         * @return the {@link URI} of the rendered model's resource
+         */
+        public URI getSource() {
+            return source;
+        }
+
+        /**
+         * @return the file the diagram has been written to
+         */
+        public File getTarget() {
+            return target;
+        }
+
+        /**
+         * @return the {@link IStatus} indicating success or failure, in case of a failure it
+         *         contains detailed information
+         */
+        public IStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * @return <code>true</code> if the diagram has been written successfully
+         */
+        public boolean isOK() {
+            return status.isOK();
+        }
+
+        /**
+         * @return the time spent loading the model in nanoseconds
+         */
+        public long getLoadTime() {
+            return loadTime;
+        }
+
+        /**
+         * @return the time spent translating the model into a diagram in nanoseconds
+         */
+        public long getTranslationTime() {
+            return translationTime;
+        }
+
+        /**
+         * @return the time spent laying out the diagram and generating the SVG in nanoseconds
+         */
+        public long getRenderingTime() {
+            return renderingTime;
+        }
+
+        /**
+         * @return the total time spent processing the model in nanoseconds
+         */
+        public long getTotalTime() {
+            return loadTime + translationTime + renderingTime;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return (status.isOK() ? "Generated " + target : "Failed to generate " + target)
+                    + " in " + TimeUnit.NANOSECONDS.toMillis(getTotalTime()) + " ms (load "
+                    + TimeUnit.NANOSECONDS.toMillis(loadTime) + " ms, translation "
+                    + TimeUnit.NANOSECONDS.toMillis(translationTime) + " ms, rendering "
+                    + TimeUnit.NANOSECONDS.toMillis(renderingTime) + " ms)"
+                    + (status.isOK() ? "" : ": " + status.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.export;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * A {@link KlighdAbstractAWTGraphics} drawing into a {@link BufferedImage} by means of the image's
+ * AWT {@link Graphics2D}. In contrast to the
+ * {@link de.cau.cs.kieler.klighd.piccolo.internal.KlighdSWTGraphicsImpl KlighdSWTGraphicsImpl}
+ * it doesn't rely on any SWT resources and, hence, requires neither a display nor the UI thread.
+ * It's used by the {@link DeepZoomOffscreenRenderer} rendering many image tiles concurrently.
+ */
+final class BufferedImageGraphics extends KlighdAbstractAWTGraphics {
+
+    private final BufferedImage image;
+
+    /**
+     * Constructor.
+     *
+     * @param image
+     *            the {@link BufferedImage} to draw into
+     */
+    BufferedImageGraphics(final BufferedImage image) {
+        super(createDelegate(image));
+        this.image = image;
+    }
+
+    private static Graphics2D createDelegate(final BufferedImage image) {
+        final Graphics2D graphics = image.createGraphics();
+        // the super class ignores rendering hints, so configure them on the delegate directly
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+                RenderingHints.VALUE_STROKE_PURE);
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        return graphics;
+    }
+
+    /**
+     * Resets all pixels of the image to transparent.
+     */
+    @Override
+    public void clear() {
+        final Graphics2D graphics = getGraphicsDelegate();
+        final Composite composite = graphics.getComposite();
+        final AffineTransform transform = graphics.getTransform();
+        final Shape clip = graphics.getClip();
+
+        graphics.setComposite(AlphaComposite.Clear);
+        graphics.setTransform(new AffineTransform());
+        graphics.setClip(null);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+
+        graphics.setComposite(composite);
+        graphics.setTransform(transform);
+        graphics.setClip(clip);
+    }
+
+    @Override
+    public void dispose() {
+        getGraphicsDelegate().dispose();
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.export;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.IPropertyHolder;
+import org.eclipse.elk.graph.properties.Property;
+import org.eclipse.swt.graphics.RGB;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.DiagramExportConfig;
+import de.cau.cs.kieler.klighd.IExportBranding.Trim;
+import de.cau.cs.kieler.klighd.ViewContext;
+import de.cau.cs.kieler.klighd.piccolo.KlighdPiccolo;
+import de.cau.cs.kieler.klighd.piccolo.internal.nodes.KlighdMainCamera;
+import edu.umd.cs.piccolo.PRoot;
+
+/**
+ * An implementation of {@link de.cau.cs.kieler.klighd.IOffscreenRenderer IOffscreenRenderer}
+ * producing an image pyramid in the Deep Zoom Image (DZI) format, which web viewers like
+ * OpenSeadragon display by loading just the visible tiles of the required zoom level. Hence,
+ * diagrams that are far too large for a single bitmap can be published.<br>
+ * <br>
+ * The pyramid consists of a manifest <code>&lt;name&gt;.dzi</code> and square PNG tiles
+ * <code>&lt;name&gt;_files/&lt;level&gt;/&lt;column&gt;_&lt;row&gt;.png</code> of
+ * {@link #TILE_SIZE} pixels, except for those at the right and bottom border. The highest level
+ * shows the diagram scaled by {@link #IMAGE_SCALE}, each lower one halves the previous level's
+ * size down to a single pixel. Each tile is drawn directly from the diagram figures at the
+ * level's scale rather than by downsampling the level above, so
+ * {@link #MINIMUM_FIGURE_SIZE} may be used to omit the figures being illegible in the lower
+ * levels.<br>
+ * <br>
+ * The tiles are drawn into AWT {@link BufferedImage BufferedImages} by means of a
+ * {@link BufferedImageGraphics}, so no display is required. {@link #WORKERS} threads draw the
+ * tiles concurrently on the same diagram figures. The figures compute and cache their bounds
+ * lazily, so these bounds are validated once before the workers start and are only read while
+ * drawing. Each worker re-uses a single image, so the memory consumption is bounded by the
+ * number of workers and the tile size regardless of the diagram size. Diagram export brandings
+ * are not applied.<br>
+ * <br>
+ * {@link #render(ViewContext, OutputStream, IPropertyHolder)} writes the pyramid as a ZIP archive,
+ * {@link #render(ViewContext, File, IPropertyHolder)} writes it into a folder.
+ */
+public class DeepZoomOffscreenRenderer extends AbstractOffscreenRenderer {
+
+    /** The id used at registration of the offscreen renderer. */
+    public static final String ID =
+            "de.cau.cs.kieler.klighd.piccolo.export.DeepZoomOffscreenRenderer";
+
+    /** Property definition for the width and height of the tiles in pixels. */
+    public static final IProperty<Integer> TILE_SIZE = new Property<Integer>(
+            "de.cau.cs.kieler.klighd.piccolo.deepZoom.tileSize", 256);
+
+    /**
+     * Property definition for the number of tiles to be drawn concurrently, the number of
+     * available processors by default.
+     */
+    public static final IProperty<Integer> WORKERS = new Property<Integer>(
+            "de.cau.cs.kieler.klighd.piccolo.deepZoom.workers",
+            Runtime.getRuntime().availableProcessors());
+
+    /** Property definition for the base name of the manifest and the tile folder. */
+    public static final IProperty<String> NAME = new Property<String>(
+            "de.cau.cs.kieler.klighd.piccolo.deepZoom.name", "diagram");
+
+    private static final String ERROR_MSG_PREFIX = "KLighD deep zoom export: ";
+
+    private static final String FORMAT = "png";
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /**
+     * Renders the diagram into an image pyramid and writes it as a ZIP archive into
+     * <code>output</code>, which is closed afterwards.
+     *
+     * {@inheritDoc}
+     */
+    public IStatus render(final ViewContext viewContext, final OutputStream output,
+            final IPropertyHolder properties) {
+        final ZipOutputStream zip = new ZipOutputStream(output);
+        IStatus status = renderPyramid(viewContext, (path, data) -> {
+            synchronized (zip) {
+                zip.putNextEntry(new ZipEntry(path));
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }, properties);
+
+        try {
+            zip.close();
+        } catch (final IOException e) {
+            if (status.isOK()) {
+                status = new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                        ERROR_MSG_PREFIX + "Failed to complete the ZIP archive.", e);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Renders the diagram into an image pyramid and writes it into the given folder.<br>
+     * <b>Caution:</b> Existing files of the same name are overwritten!
+     *
+     * @param viewContext
+     *            the view context describing the diagram to be rendered
+     * @param folder
+     *            the folder to write the manifest and the tiles into, is created if necessary
+     * @param properties
+     *            an {@link IPropertyHolder} configuring the diagram syntheses and the pyramid,
+     *            may be <code>null</code>
+     * @return {@link Status#OK_STATUS} if the pyramid has been written completely, an
+     *         {@link IStatus} providing information on the failure otherwise
+     */
+    public IStatus render(final ViewContext viewContext, final File folder,
+            final IPropertyHolder properties) {
+        return renderPyramid(viewContext, (path, data) -> {
+            final File file = new File(folder, path);
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), data);
+        }, properties);
+    }
+
+    private IStatus renderPyramid(final ViewContext viewContext, final TileSink sink,
+            final IPropertyHolder properties) {
+
+        final int imageScale = properties != null
+                ? properties.getProperty(IMAGE_SCALE) : IMAGE_SCALE.getDefault();
+        final boolean transparentBackground = properties != null
+                ? properties.getProperty(TRANSPARENT_BACKGROUND)
+                : TRANSPARENT_BACKGROUND.getDefault();
+        final RGB backgroundColor;
+        if (transparentBackground) {
+            backgroundColor = null;
+        } else {
+            backgroundColor = properties != null
+                    ? properties.getProperty(BACKGROUND_COLOR) : BACKGROUND_COLOR.getDefault();
+        }
+        final double minimumFigureSize = properties != null
+                ? properties.getProperty(MINIMUM_FIGURE_SIZE) : MINIMUM_FIGURE_SIZE.getDefault();
+        final int tileSize = properties != null
+                ? properties.getProperty(TILE_SIZE) : TILE_SIZE.getDefault();
+        final int workers = properties != null
+                ? properties.getProperty(WORKERS) : WORKERS.getDefault();
+        final String name = properties != null ? properties.getProperty(NAME) : NAME.getDefault();
+
+        if (imageScale < 1 || tileSize < 1 || workers < 1) {
+            return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID, ERROR_MSG_PREFIX
+                    + "The image scale, the tile size, and the number of workers must be "
+                    + "positive.");
+        }
+
+        // Construct a KLighD main camera ...
+        //  (the basic PRoot is sufficient here, as this canvas doesn't rely on any SWT stuff)
+        final KlighdMainCamera camera = new KlighdMainCamera(new PRoot());
+
+        try {
+            // build up the diagram, i.e. apply the necessary diagram syntheses, etc.
+            this.buildUpDiagram(viewContext, camera, properties);
+
+        } catch (final RuntimeException e) {
+            return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                    BUILDING_UP_FIGURES_FAILURE_MSG, e);
+        }
+
+        final Rectangle2D bounds = getExportedBounds(camera, false);
+        if (bounds.isEmpty()) {
+            return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                    ERROR_MSG_PREFIX + "The diagram is empty.");
+        }
+
+        // validate the (lazily computed and cached) full bounds of all figures while there's just
+        //  this thread, drawing and the minimum size check just read them afterwards instead of
+        //  computing and storing them concurrently in the workers
+        camera.getDisplayedKNodeNode().getFullBoundsReference();
+
+        final Pyramid pyramid = new Pyramid(viewContext, bounds, imageScale, tileSize,
+                minimumFigureSize);
+        final String tilesFolder = name + "_files/";
+
+        final AtomicInteger threads = new AtomicInteger();
+        final int instance = INSTANCES.incrementAndGet();
+        final ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "KLighD deep zoom renderer " + instance + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // the workers fetch the tiles one by one instead of having them queued up front,
+        //  the first failure stops all of them
+        final AtomicLong nextTile = new AtomicLong();
+        final List<Future<Void>> results = Lists.newArrayListWithCapacity(workers);
+        for (int i = 0; i < workers; i++) {
+            results.add(executor.submit(() -> {
+                final BufferedImage image =
+                        new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+                try {
+                    for (long tile = nextTile.getAndIncrement(); tile < pyramid.tiles;
+                            tile = nextTile.getAndIncrement()) {
+                        final Level level = pyramid.levelOf(tile);
+                        final int index = (int) (tile - level.firstTile);
+                        final int column = index % level.columns;
+                        final int row = index / level.columns;
+
+                        final Rectangle tileClip = new Rectangle(0, 0,
+                                Math.min(tileSize, level.width - column * tileSize),
+                                Math.min(tileSize, level.height - row * tileSize));
+                        drawTile(level, column, row, tileClip, image, camera, backgroundColor);
+
+                        buffer.reset();
+                        if (!ImageIO.write(image.getSubimage(0, 0, tileClip.width,
+                                tileClip.height), FORMAT, buffer)) {
+                            throw new IOException("No image writer available for " + FORMAT);
+                        }
+                        sink.write(tilesFolder + level.number + "/" + column + "_" + row + "."
+                                + FORMAT, buffer.toByteArray());
+                    }
+                } catch (final Exception | Error e) {
+                    // let the other workers stop early
+                    nextTile.set(pyramid.tiles);
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        try {
+            for (final Future<Void> result : results) {
+                result.get();
+            }
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            final String msg = cause instanceof IOException
+                    ? ERROR_MSG_PREFIX + "Failed to write the tiles." : EXPORT_DIAGRAM_FAILURE_MSG;
+            return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID, msg, cause);
+
+        } catch (final InterruptedException e) {
+            nextTile.set(pyramid.tiles);
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            return new Status(IStatus.CANCEL, KlighdPiccolo.PLUGIN_ID,
+                    ERROR_MSG_PREFIX + "Interrupted while drawing the tiles.", e);
+        }
+
+        // write the manifest after all tiles, so a viewer never refers to missing tiles
+        try {
+            sink.write(name + ".dzi", pyramid.getManifest().getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                    ERROR_MSG_PREFIX + "Failed to write the manifest.", e);
+        }
+
+        return Status.OK_STATUS;
+    }
+
+    private void drawTile(final Level level, final int column, final int row,
+            final Rectangle tileClip, final BufferedImage image, final KlighdMainCamera camera,
+            final RGB backgroundColor) {
+
+        final int tileSize = image.getWidth();
+        final BufferedImageGraphics graphics = new BufferedImageGraphics(image);
+        try {
+            graphics.clear();
+            graphics.setClip(tileClip);
+
+            if (backgroundColor != null) {
+                graphics.setFillColor(backgroundColor);
+                graphics.fill(tileClip);
+            }
+
+            // move the tile's area into the image, 'drawDiagram(...)' applies the level's scale
+            drawDiagram(level.exportConfig, graphics, camera,
+                    AffineTransform.getTranslateInstance(-column * tileSize, -row * tileSize),
+                    IDENTITY, tileClip);
+
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Writes the files of the pyramid, must be thread-safe.
+     */
+    @FunctionalInterface
+    private interface TileSink {
+
+        void write(String path, byte[] data) throws IOException;
+    }
+
+    /**
+     * The levels of a pyramid, the tiles of all levels are numbered consecutively starting with
+     * those of level 0.
+     */
+    private static final class Pyramid {
+
+        private final int width;
+        private final int height;
+        private final int tileSize;
+        private final Level[] levels;
+        private final long tiles;
+
+        private Pyramid(final ViewContext viewContext, final Rectangle2D bounds,
+                final double scale, final int tileSize, final double minimumFigureSize) {
+            this.width = (int) Math.ceil(bounds.getWidth() * scale);
+            this.height = (int) Math.ceil(bounds.getHeight() * scale);
+            this.tileSize = tileSize;
+
+            // the maximal level shows the full size, level 0 a single pixel
+            final int maxSize = Math.max(width, height);
+            final int maxLevel =
+                    maxSize <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(maxSize - 1);
+            this.levels = new Level[maxLevel + 1];
+
+            long firstTile = 0;
+            for (int number = 0; number <= maxLevel; number++) {
+                final int shift = maxLevel - number;
+                final DiagramExportConfig exportConfig = new DiagramExportConfig(viewContext,
+                        bounds, new Dimension(tileSize, tileSize), Math.scalb(scale, -shift), null,
+                        Trim.EMPTY_TRIM, 1)
+                        .setBrandingsAndTrim(Collections.emptyList(), Trim.EMPTY_TRIM,
+                                Trim.EMPTY_TRIM)
+                        .setMinimumFigureSize(minimumFigureSize);
+
+                final Level level = new Level(number, firstTile,
+                        (int) (((long) width + (1L << shift) - 1) >> shift),
+                        (int) (((long) height + (1L << shift) - 1) >> shift), tileSize,
+                        exportConfig);
+                levels[number] = level;
+                firstTile += (long) level.columns * level.rows;
+            }
+            this.tiles = firstTile;
+        }
+
+        private Level levelOf(final long tile) {
+            int number = levels.length - 1;
+            while (levels[number].firstTile > tile) {
+                number--;
+            }
+            return levels[number];
+        }
+
+        private String getManifest() {
+            return String.format(Locale.ROOT, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
+                    + "<Image xmlns=\"http://schemas.microsoft.com/deepzoom/2008\""
+                    + " Format=\"%s\" Overlap=\"0\" TileSize=\"%d\">%n"
+                    + "  <Size Width=\"%d\" Height=\"%d\"/>%n"
+                    + "</Image>%n", FORMAT, tileSize, width, height);
+        }
+    }
+
+    /**
+     * A single level of a {@link Pyramid}.
+     */
+    private static final class Level {
+
+        private final int number;
+        private final long firstTile;
+        private final int width;
+        private final int height;
+        private final int columns;
+        private final int rows;
+        private final DiagramExportConfig exportConfig;
+
+        private Level(final int number, final long firstTile, final int width, final int height,
+                final int tileSize, final DiagramExportConfig exportConfig) {
+            this.number = number;
+            this.firstTile = firstTile;
+            this.width = width;
+            this.height = height;
+            this.columns = (width + tileSize - 1) / tileSize;
+            this.rows = (height + tileSize - 1) / tileSize;
+            this.exportConfig = exportConfig;
+        }
+    }
+}
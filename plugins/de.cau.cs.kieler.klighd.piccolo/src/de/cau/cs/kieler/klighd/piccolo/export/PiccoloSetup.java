@@ -36,6 +36,8 @@ public class PiccoloSetup implements IKlighdStartupHook {
         .registerOffscreenRenderer(BitmapOffscreenRenderer.ID, new BitmapOffscreenRenderer(),
                 IOffscreenRenderer.BMP, IOffscreenRenderer.JPEG, IOffscreenRenderer.PNG)
         .registerOffscreenRenderer(SVGOffscreenRenderer.ID, new SVGOffscreenRenderer(),
-                IOffscreenRenderer.SVG);
+                IOffscreenRenderer.SVG)
+        .registerOffscreenRenderer(DeepZoomOffscreenRenderer.ID, new DeepZoomOffscreenRenderer(),
+                IOffscreenRenderer.DZI);
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ package de.cau.cs.kieler.klighd.piccolo.export;
 
 import java.awt.Dimension;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -75,6 +76,20 @@ public class SVGExporter extends KlighdCanvasExporter {
         // ... an determine the bounds of the diagram to be exported
         final PBounds bounds = this.getExportedBounds(camera, data.cameraViewport());
 
+        // ... and restrict them to the requested area, if any; elements outside of the resulting
+        //  bounds are skipped while drawing as they don't intersect the graphics' clip
+        if (data.clip() != null) {
+            final Rectangle2D clip = data.cameraViewport()
+                    ? camera.viewToLocal((Rectangle2D) data.clip().clone()) : data.clip();
+            Rectangle2D.intersect(bounds, clip, bounds);
+
+            if (bounds.isEmpty()) {
+                final String msg = "KLighD SVG export: The requested clip " + data.clip()
+                        + " doesn't intersect the diagram.";
+                return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID, msg);
+            }
+        }
+
         final Trim diagramTrim = getMaximumDiagramTrim(brandings, bounds);
         final Trim diagramTileTrim = getMaximumDiagramTileTrim(brandings);
 
@@ -89,6 +104,7 @@ public class SVGExporter extends KlighdCanvasExporter {
                         .setBrandingsAndTrim(brandings, diagramTrim, diagramTileTrim)
                         .setApplyCameraZoomLevel(data.applyCameraZoomLevel())
                         .setTextLengths(data.setTextLengths())
+                        .setMinimumFigureSize(data.minimumFigureSize())
                         .setExportSemanticData(true);
 
         // initialize a graphics object that 'collects' all the drawing instructions
@@ -103,6 +119,24 @@ public class SVGExporter extends KlighdCanvasExporter {
             return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID, msg, e);
         }
 
+        if (data.deduplicate()) {
+            graphics.setDeduplicating(true);
+        }
+
+        OutputStream stream = null;
+        if (data.streamOutput()) {
+            // open the output stream in advance and let the graphics write into it while drawing
+            //  if they support that, the graphics buffer the data and the stream is filled below
+            //  otherwise
+            try {
+                stream = data.createOutputStream();
+            } catch (final IOException e) {
+                return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID,
+                        "KLighD SVG export: Failed to open the OutputStream", e);
+            }
+            graphics.startStreaming(stream);
+        }
+
         // The global clip setting is required as (in PPaintContext) a default one will be set!
         // This however will let various browsers go crazy and don't show anything!
         //  (in case of an SVG output)
@@ -115,15 +149,23 @@ public class SVGExporter extends KlighdCanvasExporter {
             graphics.fill(extendedBounds);
         }
 
-        // do the actual diagram drawing work
-        drawDiagram(exportConfig, graphics, camera,
-                AffineTransform.getTranslateInstance(diagramTileTrim.left, diagramTileTrim.top),
-                IDENTITY, getBasicTileClip(tileBounds, diagramTileTrim));
+        try {
+            // do the actual diagram drawing work
+            drawDiagram(exportConfig, graphics, camera,
+                    AffineTransform.getTranslateInstance(diagramTileTrim.left, diagramTileTrim.top),
+                    IDENTITY, getBasicTileClip(tileBounds, diagramTileTrim));
+
+        } catch (final RuntimeException e) {
+            closeQuietly(stream);
+            throw e;
+        }
 
-        OutputStream stream = null;
         try {
             // dump out the resulting SVG description via the provided output stream
-            stream = data.createOutputStream();
+            //  or just complete it if it has been written into the stream while drawing
+            if (stream == null) {
+                stream = data.createOutputStream();
+            }
             graphics.stream(stream);
             stream.close();
             return Status.OK_STATUS;
@@ -135,7 +177,18 @@ public class SVGExporter extends KlighdCanvasExporter {
                         + stream.getClass().getCanonicalName() + Klighd.LINE_SEPARATOR
                         + " the stream instance is " + stream.toString();
             }
+            closeQuietly(stream);
             return new Status(IStatus.ERROR, KlighdPiccolo.PLUGIN_ID, msg, e);
         }
     }
+
+    private static void closeQuietly(final OutputStream stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (final IOException e) {
+                // the original failure is more relevant
+            }
+        }
+    }
 }
@@ -16,6 +16,7 @@
  */
 package de.cau.cs.kieler.klighd.piccolo.export;
 
+import java.awt.geom.Rectangle2D;
 import java.io.OutputStream;
 
 import org.eclipse.core.runtime.IStatus;
@@ -77,6 +78,14 @@ public class SVGOffscreenRenderer extends AbstractOffscreenRenderer {
                 ? properties.getProperty(ADDITIONAL_ROOT_DATA) : ADDITIONAL_ROOT_DATA.getDefault();
         final String css = properties != null
                 ? properties.getProperty(CSS) : CSS.getDefault();
+        final boolean streamOutput = properties != null
+                ? properties.getProperty(STREAM_OUTPUT) : STREAM_OUTPUT.getDefault();
+        final boolean deduplicate = properties != null
+                ? properties.getProperty(DEDUPLICATE) : DEDUPLICATE.getDefault();
+        final Rectangle2D clip = properties != null
+                ? properties.getProperty(CLIP) : CLIP.getDefault();
+        final double minimumFigureSize = properties != null
+                ? properties.getProperty(MINIMUM_FIGURE_SIZE) : MINIMUM_FIGURE_SIZE.getDefault();
 
         // Construct a KLighD main camera ...
         //  (the basic PRoot is sufficient here, as this canvas doesn't rely on any SWT stuff)
@@ -100,6 +109,10 @@ public class SVGOffscreenRenderer extends AbstractOffscreenRenderer {
                     .setTextLengths(setTextLengths)
                     .additionalRootData(additionalRootData)
                     .css(css)
+                    .streamOutput(streamOutput)
+                    .deduplicate(deduplicate)
+                    .clip(clip)
+                    .minimumFigureSize(minimumFigureSize)
                     .build();
             return new SVGExporter().export(camera, data);
         } catch (final RuntimeException e) {
@@ -19,7 +19,6 @@ package de.cau.cs.kieler.klighd.piccolo.internal.controller;
 import static com.google.common.collect.Iterables.any;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.getFirst;
 import static com.google.common.collect.Iterables.transform;
 
 import java.beans.PropertyChangeEvent;
@@ -209,38 +208,9 @@ public abstract class AbstractKGERenderingController
      */
     public KRendering getCurrentRendering() {
         if (this.element instanceof KNode) {
-            final Iterable<KRendering> renderings =
-                    filter(element.getData(), KRendering.class);
-
-            // in case the node to be depicted is tagged as 'populated',
-            //  i.e. children are depicted in the diagram ...
-            if (RenderingContextData.get(this.element).getProperty(
-                    KlighdInternalProperties.POPULATED)) {
-                // ... look for a rendering tagged as 'expanded', ...
-                currentRendering = getFirst(
-                        filter(renderings, KlighdPredicates.isExpandedRendering()), null);
-
-                // ... and if none exists ...
-                if (currentRendering == null) {
-                    // ... take the first one that is not marked as 'collapsed' one
-                    currentRendering = getFirst(filter(renderings,
-                            Predicates.not(KlighdPredicates.isCollapsedRendering())), null);
-                }
-
-            } else {
-                // in case the node to be depicted is tagged as 'not populated',
-                //  i.e. no children are visible in the diagram
-                // look for a rendering marked as 'collapsed' one, ...
-                currentRendering = getFirst(
-                        filter(renderings, KlighdPredicates.isCollapsedRendering()), null);
-
-                // ... and if none exists ...
-                if (currentRendering == null) {
-                    // ... take the first one that is not marked as 'expanded' one
-                    currentRendering = getFirst(filter(renderings,
-                            Predicates.not(KlighdPredicates.isExpandedRendering())), null);
-                }
-            }
+            // the rendering tagged for the node's 'populated' state, i.e. whether its children are
+            //  depicted in the diagram, or the first one not tagged for the other state
+            currentRendering = RenderingContextData.getCurrentRendering((KNode) this.element);
 
         } else {
             currentRendering = element.getData(KRendering.class);
@@ -217,7 +217,7 @@ public abstract class KGraphElementNode<T extends KGraphElement> extends KlighdN
     @Override
     public void fullPaint(final PPaintContext paintContext) {
         final KlighdPaintContext kpc = (KlighdPaintContext) paintContext;
-        if (isNotVisibleOn(kpc)) {
+        if (isNotVisibleOn(kpc) || kpc.isBelowMinimumSize(getFullBoundsReference())) {
             return;
         }
         super.fullPaint(paintContext);
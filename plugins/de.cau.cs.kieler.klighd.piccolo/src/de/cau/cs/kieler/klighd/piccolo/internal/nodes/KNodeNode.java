@@ -652,6 +652,11 @@ public class KNodeNode extends KNodeAbstractNode implements
             return;
         }
 
+        // skip nodes that are too small in the requested level of detail, including their content
+        if (!isRootLayer && kpc.isBelowMinimumSize(getFullBoundsReference())) {
+            return;
+        }
+
         // Unfortunately I had to copy the whole method just for
         //  introducing the filter in the loop below, since 'PNode#fullPaint(...)'
         //  accesses the child list directly rather via 'getChildrenReference()'.
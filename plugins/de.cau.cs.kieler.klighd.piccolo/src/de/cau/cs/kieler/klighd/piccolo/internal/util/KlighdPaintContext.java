@@ -18,6 +18,8 @@ package de.cau.cs.kieler.klighd.piccolo.internal.util;
 
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.util.Stack;
 
 import de.cau.cs.kieler.klighd.piccolo.KlighdSWTGraphics;
@@ -86,6 +88,38 @@ public class KlighdPaintContext extends PPaintContext {
                 addSemanticData, setTextLength);
     }
 
+    /**
+     * Factory method creating a {@link KlighdPaintContext} configured for exporting the diagram
+     * into an image, skipping figures whose drawn size is below the given threshold.
+     *
+     * @param graphics
+     *            the {@link KlighdSWTGraphics} to draw on
+     * @param applyCameraZoomLevel
+     *            if <code>true</code> the diagram zoom level determined by the
+     *            {@link KlighdMainCamera}'s view transform will be used while evaluating the
+     *            visibility of the particular diagram elements and diagram element figure parts, if
+     *            <code>false</code> a diagram zoom level of <code>1.0</code> is assumed.
+     * @param addSemanticData
+     *            flag determining whether semantic data shall be added to the diagram while
+     *            exporting an SVG based image, should be <code>false</code> in other cases (no effect)
+     * @param setTextLength
+     *            flag determining whether the expected text length shall be added to the diagram while
+     *            exporting an SVG based image, should be <code>false</code> in other cases (no effect)
+     * @param minimumFigureSize
+     *            the size in output pixels figures must reach in width or height in order to be
+     *            drawn, see {@link #isBelowMinimumSize(Rectangle2D)}; <code>0</code> draws all
+     *            figures
+     * @return the desired {@link KlighdPaintContext}
+     */
+    public static KlighdPaintContext createExportDiagramPaintContext(
+            final KlighdSWTGraphics graphics, boolean applyCameraZoomLevel, boolean addSemanticData,
+            boolean setTextLength, final double minimumFigureSize) {
+        final KlighdPaintContext context = createExportDiagramPaintContext(graphics,
+                applyCameraZoomLevel, addSemanticData, setTextLength);
+        context.minimumFigureSize = minimumFigureSize;
+        return context;
+    }
+
     /**
      * Factory method creating a {@link KlighdPaintContext} configured for printing the diagram.
      *
@@ -150,6 +184,7 @@ public class KlighdPaintContext extends PPaintContext {
     private final boolean applyCameraZoomLevel;
     private final boolean addSemanticData;
     private final boolean setTextLengths;
+    private double minimumFigureSize = 0d;
 
     private final Stack<Double> cameraScales = new Stack<Double>();
 
@@ -228,6 +263,35 @@ public class KlighdPaintContext extends PPaintContext {
         return this.setTextLengths;
     }
 
+    /**
+     * @return the size in output pixels figures must reach in width or height in order to be
+     *         drawn, <code>0</code> if all figures are drawn
+     */
+    public double getMinimumFigureSize() {
+        return minimumFigureSize;
+    }
+
+    /**
+     * Decides whether a figure is too small to be drawn in context of this paint context, i.e.
+     * whether neither its width nor its height reach the configured minimum size after applying
+     * the current transform of the employed graphics. This way the level of detail of exported
+     * images of huge diagrams can be reduced, e.g. for thumbnails or overview images.
+     *
+     * @param bounds
+     *            the (full) bounds of the figure in terms of the current coordinate system, i.e.
+     *            that of the figure's parent
+     * @return <code>true</code> if the figure shall not be drawn, <code>false</code> otherwise
+     */
+    public boolean isBelowMinimumSize(final Rectangle2D bounds) {
+        if (minimumFigureSize <= 0d) {
+            return false;
+        }
+
+        final AffineTransform transform = getGraphics().getTransform();
+        final double scale = Math.hypot(transform.getScaleX(), transform.getShearY());
+        return Math.max(bounds.getWidth(), bounds.getHeight()) * scale < minimumFigureSize;
+    }
+
     /**
      * @return the employed {@link KlighdSWTGraphics} (delegates to {@link #getGraphics()} and casts
      *         accordingly)
@@ -97,6 +97,13 @@ public class DiagramExportConfig {
      * This available for SVG exports only.
      */
     public boolean setTextLengths = false;
+
+    /**
+     * Determines the size in output pixels diagram elements and figures must reach in width or
+     * height in order to be exported, smaller ones are omitted including their children. The
+     * default <code>0</code> exports all of them.
+     */
+    public double minimumFigureSize = 0d;
     
     /** The list of {@link IExportBranding}s being enabled for the current diagram export. */
     public Iterable<IExportBranding> exportBrandings = Collections.emptyList();
@@ -260,6 +267,7 @@ public class DiagramExportConfig {
         this.applyCameraZoomLevel = original.applyCameraZoomLevel;
         this.exportSemanticData = original.exportSemanticData;
         this.setTextLengths = original.setTextLengths;
+        this.minimumFigureSize = original.minimumFigureSize;
 
         this.pages = original.pages;
         this.pageNo = original.pageNo;
@@ -352,6 +360,21 @@ public class DiagramExportConfig {
         return this;
     }
 
+    /**
+     * Instructs the exporter to omit diagram elements and figures whose width and height in the
+     * exported image are both smaller than the given size.
+     *
+     * @param minimumFigureSize
+     *            the minimum size in output pixels, <code>0</code> for exporting all elements
+     *
+     * @return this {@link DiagramExportConfig} for convenience
+     */
+    public DiagramExportConfig setMinimumFigureSize(final double minimumFigureSize) {
+        this.minimumFigureSize = minimumFigureSize;
+
+        return this;
+    }
+
     /**
      * Combined setter of information concerning the application of {@link IExportBranding
      * IExportBrandings} and their cumulated diagram and tile trim requirements.
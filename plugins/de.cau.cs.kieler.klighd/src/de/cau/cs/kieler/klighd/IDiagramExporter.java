@@ -16,6 +16,7 @@
  */
 package de.cau.cs.kieler.klighd;
 
+import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -76,6 +77,10 @@ public interface IDiagramExporter {
         private final String description;
         private final String css;
         private final String additionalRootData;
+        private final boolean isStreamOutput;
+        private final boolean isDeduplicate;
+        private final Rectangle2D clip;
+        private final double minimumFigureSize;
         private final TilingData tilingInfo;
         private final boolean transparentBackground;
         private final RGB backgroundColor;
@@ -95,6 +100,10 @@ public interface IDiagramExporter {
             this.description = builder.description;
             this.css = builder.css;
             this.additionalRootData = builder.additionalRootData;
+            this.isStreamOutput = builder.isStreamOutput;
+            this.isDeduplicate = builder.isDeduplicate;
+            this.clip = builder.clip;
+            this.minimumFigureSize = builder.minimumFigureSize;
             this.tilingInfo = builder.tilingInfo;
             this.transparentBackground = builder.transparentBackground;
             this.backgroundColor = builder.backgroundColor;
@@ -195,6 +204,39 @@ public interface IDiagramExporter {
             return additionalRootData;
         }
 
+        /**
+         * @return <code>true</code> if the exported data shall be written into the output stream
+         *         while drawing instead of being buffered completely, <code>false</code> otherwise.
+         */
+        public boolean streamOutput() {
+            return isStreamOutput;
+        }
+
+        /**
+         * @return <code>true</code> if repeated style definitions and geometry shall be written
+         *         only once, e.g. during SVG export, <code>false</code> otherwise.
+         */
+        public boolean deduplicate() {
+            return isDeduplicate;
+        }
+
+        /**
+         * @return the area of the diagram to be exported in diagram coordinates, diagram elements
+         *         outside of this area are omitted; <code>null</code> if the whole diagram (or the
+         *         camera viewport) shall be exported.
+         */
+        public Rectangle2D clip() {
+            return clip;
+        }
+
+        /**
+         * @return the size in output pixels diagram elements and figures must reach in width or
+         *         height in order to be exported, <code>0</code> if all of them shall be exported.
+         */
+        public double minimumFigureSize() {
+            return minimumFigureSize;
+        }
+
         /**
          * @return {@code TilingData} to control tiled bitmap export
          */
@@ -366,6 +408,10 @@ public interface IDiagramExporter {
         private String description = null;
         private String css = null;
         private String additionalRootData = null;
+        private boolean isStreamOutput = false;
+        private boolean isDeduplicate = false;
+        private Rectangle2D clip = null;
+        private double minimumFigureSize = 0d;
         private TilingData tilingInfo = TilingData.createNonTiledData();
         private boolean transparentBackground = false;
         private RGB backgroundColor = KlighdConstants.WHITE;
@@ -527,6 +573,71 @@ public interface IDiagramExporter {
             return this;
         }
 
+        /**
+         * Configures the export to write the data into the output stream while drawing, e.g.
+         * during SVG export, instead of buffering the complete document in memory. The output
+         * stream is opened before drawing then and receives the first bytes early. In case of a
+         * failure the stream may have received an incomplete document. Exporters not supporting
+         * that buffer the data as usual.
+         * 
+         * @param streamOutput
+         *            <code>true</code> if the data shall be written while drawing,
+         *            <code>false</code> otherwise.
+         * @return The current builder for comfortable usage
+         */
+        public ExportDataBuilder streamOutput(final boolean streamOutput) {
+            this.isStreamOutput = streamOutput;
+            return this;
+        }
+
+        /**
+         * Configures the export to write repeated definitions only once, e.g. during SVG export
+         * to collect equal style properties in style classes and to refer to equal geometry by
+         * means of use elements. Reduces the size of documents containing many similar elements.
+         * 
+         * @param deduplicate
+         *            <code>true</code> if repeated definitions shall be avoided,
+         *            <code>false</code> otherwise.
+         * @return The current builder for comfortable usage
+         */
+        public ExportDataBuilder deduplicate(final boolean deduplicate) {
+            this.isDeduplicate = deduplicate;
+            return this;
+        }
+
+        /**
+         * Restricts the export to the given area of the diagram, e.g. during SVG export. Diagram
+         * elements not intersecting that area are omitted instead of being written and hidden by
+         * the image bounds. If {@link #cameraViewport(boolean)} is set, too, the intersection of
+         * both areas is exported.
+         * 
+         * @param theClip
+         *            the area to be exported in diagram coordinates, <code>null</code> for
+         *            exporting the whole diagram
+         * @return The current builder for comfortable usage
+         */
+        public ExportDataBuilder clip(final Rectangle2D theClip) {
+            this.clip = theClip;
+            return this;
+        }
+
+        /**
+         * Configures the level of detail of the export, e.g. during SVG export. Diagram elements
+         * and figures, like texts or edge decorations, whose width and height in the exported
+         * image are both smaller than the given size are omitted including their children.
+         * 
+         * @param size
+         *            the minimum size in output pixels, <code>0</code> for exporting all elements
+         * @return The current builder for comfortable usage
+         */
+        public ExportDataBuilder minimumFigureSize(final double size) {
+            if (size < 0d) {
+                throw new IllegalArgumentException("The minimum figure size must not be negative");
+            }
+            this.minimumFigureSize = size;
+            return this;
+        }
+
         /**
          * Configuration for tiled bitmap export.
          * 
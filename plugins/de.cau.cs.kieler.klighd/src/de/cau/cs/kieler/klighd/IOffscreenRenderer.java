@@ -16,6 +16,7 @@
  */
 package de.cau.cs.kieler.klighd;
 
+import java.awt.geom.Rectangle2D;
 import java.io.OutputStream;
 import java.util.Collections;
 import java.util.List;
@@ -46,6 +47,12 @@ public interface IOffscreenRenderer {
     /** Export format id denoting the Scalable Vector Graphics (.svg) format. */
     String SVG = "svg";
 
+    /**
+     * Export format id denoting a Deep Zoom Image pyramid of PNG tiles and its (.dzi) manifest,
+     * written as a ZIP archive.
+     */
+    String DZI = "dzi";
+
     /**
      * Property definition for declaring the desired rendering format.<br>
      * Its configuration is only required if multiple formats are supported by a concrete
@@ -126,6 +133,38 @@ public interface IOffscreenRenderer {
     IProperty<String> ADDITIONAL_ROOT_DATA = new Property<String>(
             "de.cau.cs.kieler.klighd.offscreenRendering.additionalRootData", null);
 
+    /**
+     * Property definition for instructing vector image exporters to write the image into the
+     * provided output stream while drawing instead of buffering it completely, which reduces the
+     * memory consumption and the time until the first bytes are written.
+     */
+    IProperty<Boolean> STREAM_OUTPUT = new Property<Boolean>(
+            "de.cau.cs.kieler.klighd.offscreenRendering.streamOutput", false);
+
+    /**
+     * Property definition for instructing vector image exporters to write repeated definitions
+     * only once, e.g. to collect equal style properties in style classes and to refer to equal
+     * geometry instead of repeating it, which reduces the size of the output. Style classes are
+     * not used if a {@link #CSS} style sheet is given, so its rules keep their precedence.
+     */
+    IProperty<Boolean> DEDUPLICATE = new Property<Boolean>(
+            "de.cau.cs.kieler.klighd.offscreenRendering.deduplicate", false);
+
+    /**
+     * Property definition for restricting vector image exports to an area of the diagram given in
+     * diagram coordinates. Diagram elements outside of that area are omitted.
+     */
+    IProperty<Rectangle2D> CLIP = new Property<Rectangle2D>(
+            "de.cau.cs.kieler.klighd.offscreenRendering.clip", null);
+
+    /**
+     * Property definition for the level of detail of vector image exports: diagram elements and
+     * figures whose width and height in the exported image are both smaller than the given number
+     * of pixels are omitted. The default <code>0</code> exports all elements.
+     */
+    IProperty<Double> MINIMUM_FIGURE_SIZE = new Property<Double>(
+            "de.cau.cs.kieler.klighd.offscreenRendering.minimumFigureSize", 0d);
+
     /**
      * Renders the provided <code>viewModel</code> into the (standard) diagram format supported by
      * <code>this</code> {@link IOffscreenRenderer} and returns a {@link String}-based
@@ -57,6 +57,7 @@ import de.cau.cs.kieler.klighd.internal.ISynthesis;
 import de.cau.cs.kieler.klighd.syntheses.AbstractDiagramSynthesis;
 import de.cau.cs.kieler.klighd.syntheses.GuiceBasedSynthesisFactory;
 import de.cau.cs.kieler.klighd.syntheses.ReinitializingDiagramSynthesisProxy;
+import de.cau.cs.kieler.klighd.util.PropertyFilterIndex;
 
 /**
  * Singleton for accessing transformations, viewers, update strategies and layout post processors
@@ -244,6 +245,15 @@ public final class KlighdDataManager {
     /** the properties that are outside the klighd/elk namespace that are explicitly allowed to be sent to the client */
     private final List<IProperty<?>> whitelistedProperties = Lists.newArrayList();
 
+    /** the index combining the black- and whitelisted properties, rebuilt lazily after registrations */
+    private volatile PropertyFilterIndex propertyFilterIndex = null;
+
+    /** the version of the latest {@link #propertyFilterIndex} */
+    private int propertyFilterIndexVersion = 0;
+
+    /** guards the black- and whitelist registrations and the creation of the {@link #propertyFilterIndex} */
+    private final Object propertyFilterLock = new Object();
+
     /**
      * A private constructor to prevent instantiation.
      */
@@ -686,7 +696,10 @@ public final class KlighdDataManager {
      * @return KlighdDataManager
      */
     public KlighdDataManager registerBlacklistedProperty(IProperty<?> blacklistedProperty) {
-        this.blacklistedProperties.add(blacklistedProperty);
+        synchronized (this.propertyFilterLock) {
+            this.blacklistedProperties.add(blacklistedProperty);
+            this.propertyFilterIndex = null;
+        }
         return this;
     }
     
@@ -714,7 +727,10 @@ public final class KlighdDataManager {
      * @return KlighdDataManager
      */
     public KlighdDataManager registerWhitelistedProperty(IProperty<?> whitelistedProperty) {
-        this.whitelistedProperties.add(whitelistedProperty);
+        synchronized (this.propertyFilterLock) {
+            this.whitelistedProperties.add(whitelistedProperty);
+            this.propertyFilterIndex = null;
+        }
         return this;
     }
     
@@ -1215,20 +1231,53 @@ public final class KlighdDataManager {
     
     /**
      * Returns the list of registered properties that have been blacklisted from being sent from the server to the
-     * client.
+     * client. Unlike in previous versions, this is not the registered list itself, but a copy of it that cannot be
+     * modified. Adding to it throws an {@link UnsupportedOperationException}, as it would bypass the
+     * {@link #getPropertyFilterIndex() property filter index}.
      * 
-     * @return the {@link List} of blacklisted properties
+     * @return an unmodifiable snapshot of the blacklisted properties, further ones are registered via
+     *         {@link #registerBlacklistedProperty(IProperty)}
      */
     public List<IProperty<?>> getBlacklistedProperties() {
-        return this.blacklistedProperties;
+        synchronized (this.propertyFilterLock) {
+            return ImmutableList.copyOf(this.blacklistedProperties);
+        }
     }
     
     /**
-     * Returns the list of registered properties that have been whitelisted for being sent to the client.
+     * Returns the list of registered properties that have been whitelisted for being sent to the client. Unlike in
+     * previous versions, this is not the registered list itself, but a copy of it that cannot be modified. Adding to
+     * it throws an {@link UnsupportedOperationException}, as it would bypass the
+     * {@link #getPropertyFilterIndex() property filter index}.
      * 
-     * @return the {@link List} of whitelisted properties
+     * @return an unmodifiable snapshot of the whitelisted properties, further ones are registered via
+     *         {@link #registerWhitelistedProperty(IProperty)}
      */
     public List<IProperty<?>> getWhitelistedProperties() {
-        return this.whitelistedProperties;
+        synchronized (this.propertyFilterLock) {
+            return ImmutableList.copyOf(this.whitelistedProperties);
+        }
+    }
+    
+    /**
+     * Returns the index deciding which properties are sent to the client, based on the registered black- and
+     * whitelisted properties. The index is immutable and is replaced by a new one with a higher version whenever
+     * further black- or whitelisted properties are registered.
+     * 
+     * @return the current {@link PropertyFilterIndex}
+     */
+    public PropertyFilterIndex getPropertyFilterIndex() {
+        PropertyFilterIndex index = this.propertyFilterIndex;
+        if (index == null) {
+            synchronized (this.propertyFilterLock) {
+                index = this.propertyFilterIndex;
+                if (index == null) {
+                    index = new PropertyFilterIndex(this.blacklistedProperties, this.whitelistedProperties,
+                            ++this.propertyFilterIndexVersion);
+                    this.propertyFilterIndex = index;
+                }
+            }
+        }
+        return index;
     }
 }
@@ -75,6 +75,11 @@ public class LightDiagramLayoutConfig {
      */
     private Integer animationTimeFactor;
     
+    /**
+     * Flag whether the layout graph should be built and the layout applied in parallel.
+     */
+    private Boolean parallel;
+
     /**
      * The {@link ZoomStyle} to be employed.
      */
@@ -255,6 +260,22 @@ public class LightDiagramLayoutConfig {
         return this;
     }
 
+    /**
+     * Configures whether the sizes of nodes and labels are estimated in parallel before the layout
+     * graph is built, and whether the computed layout is applied to the view model in parallel.
+     * This pays off for large diagrams on multi-core machines. Elements observed by adapters, e.g.
+     * those of a displayed diagram, are still updated in the calling thread. Defaults to
+     * <code>false</code>.
+     * 
+     * @param doParallel
+     *            <code>true</code> if the layout should be prepared and applied in parallel.
+     * @return the configuration
+     */
+    public LightDiagramLayoutConfig parallel(final Boolean doParallel) {
+        this.parallel = doParallel;
+        return this;
+    }
+
     /**
      * {@link IPropertyHolder} to modify the update behaviour of this layout.
      * 
@@ -290,6 +311,15 @@ public class LightDiagramLayoutConfig {
         );
     }
 
+    /**
+     * Flag to determine the parallel preparation and application of the layout.
+     * 
+     * @return <code>true</code> if the layout should be prepared and applied in parallel.
+     */
+    boolean parallel() {
+        return this.parallel != null && this.parallel.booleanValue();
+    }
+
     /**
      * The minimal time for animations.
      * 
@@ -181,6 +181,8 @@ public final class LightDiagramServices {
                     config.focusElement());
             theViewContext.setProperty(KlighdInternalProperties.PREVIOUS_POSITION,
                     config.previousPosition());
+            theViewContext.setProperty(KlighdInternalProperties.PARALLEL_LAYOUT_CONNECTION,
+                    config.parallel());
     
             // Activate the ELK Service plug-in so all layout options are loaded
             ElkServicePlugin.getInstance();
@@ -246,15 +248,30 @@ public final class LightDiagramServices {
             final DiagramLayoutEngine engine = new KlighdLayoutSetup().getDiagramLayoutEngine();
             final IStatus status;
             
+            // the update requesting this layout might have been superseded in the meantime
+            final IElkCancelIndicator updateCancelIndicator =
+                    theViewContext.getProperty(KlighdSynthesisProperties.CANCEL_INDICATOR);
+
             if (Klighd.IS_PLATFORM_RUNNING) {
-                final IElkCancelIndicator cancelationIndicator =
+                final IElkCancelIndicator dispositionIndicator =
                         thePart != null ? new DispositionAwareCancelationHandle(thePart) : null;
+                final IElkCancelIndicator cancelationIndicator;
+                if (updateCancelIndicator == null) {
+                    cancelationIndicator = dispositionIndicator;
+                } else if (dispositionIndicator == null) {
+                    cancelationIndicator = updateCancelIndicator;
+                } else {
+                    cancelationIndicator = () -> dispositionIndicator.isCanceled()
+                            || updateCancelIndicator.isCanceled();
+                }
 
                 status = engine.layout(thePart, diagramPart, cancelationIndicator, layoutParameters)
                         .getProperty(DiagramLayoutEngine.MAPPING_STATUS);
 
             } else {
-                final IElkProgressMonitor progressMonitor = new NullElkProgressMonitor();
+                final IElkProgressMonitor progressMonitor = updateCancelIndicator == null
+                        ? new NullElkProgressMonitor()
+                        : new CancelableNullProgressMonitor(updateCancelIndicator);
 
                 status = engine.layout(thePart, diagramPart, progressMonitor, layoutParameters)
                         .getProperty(DiagramLayoutEngine.MAPPING_STATUS);
@@ -329,6 +346,34 @@ public final class LightDiagramServices {
         }
     }
 
+    /**
+     * A {@link NullElkProgressMonitor} reporting cancelation as told by the given
+     * {@link IElkCancelIndicator}, allowing layout algorithms to stop as soon as the layout run is
+     * not needed anymore.
+     */
+    private static final class CancelableNullProgressMonitor extends NullElkProgressMonitor {
+
+        private final IElkCancelIndicator cancelIndicator;
+
+        /**
+         * Constructor.
+         *
+         * @param cancelIndicator
+         *            the {@link IElkCancelIndicator} to ask for cancelation
+         */
+        private CancelableNullProgressMonitor(final IElkCancelIndicator cancelIndicator) {
+            this.cancelIndicator = cancelIndicator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isCanceled() {
+            return cancelIndicator.isCanceled();
+        }
+    }
+
     /* ---------------------------------------- */
     /*     diagram zooming API                  */
     /* ---------------------------------------- */
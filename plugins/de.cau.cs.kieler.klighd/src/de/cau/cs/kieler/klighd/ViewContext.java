@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.elk.core.util.IElkCancelIndicator;
 import org.eclipse.elk.core.util.IGraphElementVisitor;
 import org.eclipse.elk.core.util.Pair;
 import org.eclipse.elk.core.util.WrappedException;
@@ -464,6 +465,11 @@ public class ViewContext extends MapPropertyHolder {
                 return false;
             }
 
+            if (isCanceled()) {
+                // the update has been superseded, keep the current view model
+                return false;
+            }
+
         } else if (sourceModel instanceof KNode) {
             if (this.duplicator == null) {
                 this.duplicator = new DuplicatingDiagramSynthesis();
@@ -490,6 +496,16 @@ public class ViewContext extends MapPropertyHolder {
         return true;
     }
 
+    /**
+     * @return <code>true</code> if the {@link KlighdSynthesisProperties#CANCEL_INDICATOR}
+     *         configured on this view context reports the current update as canceled
+     */
+    private boolean isCanceled() {
+        final IElkCancelIndicator indicator =
+                this.getProperty(KlighdSynthesisProperties.CANCEL_INDICATOR);
+        return indicator != null && indicator.isCanceled();
+    }
+
     /**
      * @param synthesis
      *            the {@link ISynthesis} to check, must not be <code>null</code>
@@ -16,18 +16,28 @@
  */
 package de.cau.cs.kieler.klighd.internal.macrolayout;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.eclipse.elk.core.math.ElkPadding;
 import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.options.CoreOptions;
 import org.eclipse.elk.core.service.IDiagramLayoutConnector;
+import org.eclipse.elk.core.service.LayoutConfigurationManager;
 import org.eclipse.elk.core.service.LayoutMapping;
 import org.eclipse.elk.core.util.ElkUtil;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
 import org.eclipse.elk.graph.ElkBendPoint;
 import org.eclipse.elk.graph.ElkConnectableShape;
 import org.eclipse.elk.graph.ElkEdge;
@@ -44,8 +54,10 @@ import org.eclipse.elk.graph.properties.Property;
 import org.eclipse.elk.graph.util.ElkGraphSwitch;
 import org.eclipse.elk.graph.util.ElkGraphUtil;
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
 import org.eclipse.ui.IWorkbenchPart;
 
 import com.google.common.base.Predicate;
@@ -55,6 +67,8 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
 
 import de.cau.cs.kieler.klighd.IDiagramWorkbenchPart;
 import de.cau.cs.kieler.klighd.IViewer;
@@ -130,6 +144,30 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
     /** edges that have been excluded from the layout. */
     private static final IProperty<List<KEdge>> EXCLUDED_EDGES =
             new Property<>("krendering.layout.excludedEdges");
+    /** sizes of nodes and labels estimated in advance if the layout graph is built in parallel. */
+    private static final IProperty<Map<KGraphElement, Bounds>> ESTIMATED_SIZES =
+            new Property<>("krendering.layout.estimatedSizes");
+    /** whether the layout shall be applied in parallel. */
+    private static final IProperty<Boolean> PARALLEL =
+            new Property<>("krendering.layout.parallel", false);
+    /** the tracker of the view model's changes if it is laid out incrementally. */
+    private static final IProperty<LayoutChangeTracker> CHANGE_TRACKER =
+            new Property<>("krendering.layout.changeTracker");
+    /** whether the previous layout of unchanged compound nodes' children is reused. */
+    private static final IProperty<Boolean> INCREMENTAL =
+            new Property<>("krendering.layout.incremental", false);
+    /** whether the sizes of nodes and labels are estimated. */
+    private static final IProperty<Boolean> SIZE_ESTIMATION =
+            new Property<>("krendering.layout.sizeEstimation", true);
+    /** the maximal number of elements of collapsed regions to be laid out in advance. */
+    private static final IProperty<Integer> PRE_LAYOUT_BUDGET =
+            new Property<>("krendering.layout.preLayoutBudget", 0);
+    /** the collapsed compound node whose children are laid out in advance. */
+    private static final IProperty<KNode> SPECULATIVE_REGION =
+            new Property<>("krendering.layout.speculativeRegion");
+    /** the layouts of expanded nodes' children that have been computed in advance. */
+    private static final IProperty<Map<ElkNode, LayoutMapping>> PRE_LAYOUTS =
+            new Property<>("krendering.layout.preLayouts");
     /**
      * A property that is used to tell ELK about the workbench part this layout manager is
      * responsible for. Note that this property is not referred to by ELK immediately, it rather
@@ -139,6 +177,10 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
     private static final IProperty<IWorkbenchPart> WORKBENCH_PART = new Property<IWorkbenchPart>(
             "klighd.layout.workbenchPart");
 
+    /** the configuration manager applying the layout options to layout graphs built here. */
+    @Inject(optional = true)
+    private LayoutConfigurationManager configManager;
+
     /**
      * Static predicate definition avoiding the recurring creation and disposal of instances of the
      * filter predicate.
@@ -147,6 +189,21 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
             Predicates.and(
                     RenderingContextData.IS_ACTIVE,
                     KlighdPredicates.kgePropertyPredicate(CoreOptions.NO_LAYOUT, false, true));
+
+    /**
+     * Predicate predicting whether an element of a collapsed region is active once the region is
+     * expanded, which is the case if the element is to be shown.
+     */
+    private static final Predicate<KGraphElement> SPECULATIVELY_ACTIVE =
+            KlighdPredicates.kgePropertyPredicate(KlighdProperties.SHOW, true, true);
+
+    /**
+     * Counterpart of {@link #NODE_FILTER} for collapsed regions, which are laid out in advance.
+     */
+    private static final Predicate<KNode> SPECULATIVE_NODE_FILTER =
+            Predicates.and(
+                    SPECULATIVELY_ACTIVE,
+                    KlighdPredicates.kgePropertyPredicate(CoreOptions.NO_LAYOUT, false, true));
     
     
     ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -187,13 +244,25 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
 
         final boolean performSizeEstimation = viewContext == null
                 ? true : !viewContext.getProperty(KlighdSynthesisProperties.SUPPRESS_SIZE_ESTIMATION);
+        final boolean parallel = viewContext != null
+                && viewContext.getProperty(KlighdInternalProperties.PARALLEL_LAYOUT_CONNECTION);
+
+        // track the changes of the view model if only the changed parts shall be laid out
+        if (viewContext != null
+                && viewContext.getProperty(KlighdSynthesisProperties.INCREMENTAL_LAYOUT)) {
+            LayoutChangeTracker.install(viewModel);
+        } else {
+            LayoutChangeTracker.uninstall(viewModel);
+        }
 
         // create the mapping
         final LayoutMapping mapping = buildLayoutGraph(
-                viewModel, performSizeEstimation, workbenchPart);
+                viewModel, performSizeEstimation, parallel, workbenchPart);
 
         if (viewContext != null) {
             mapping.setProperty(WORKBENCH_PART, viewContext.getDiagramWorkbenchPart());
+            mapping.setProperty(PRE_LAYOUT_BUDGET,
+                    viewContext.getProperty(KlighdSynthesisProperties.PRE_LAYOUT_BUDGET));
             
             // remember the layout recorder if any
             mapping.setProperty(KlighdInternalProperties.RECORDER, viewContext.getLayoutRecorder());
@@ -215,9 +284,53 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
      */
     public LayoutMapping buildLayoutGraph(final KNode viewModel,
             final boolean performSizeEstimation, final IWorkbenchPart workbenchPart) {
+        return buildLayoutGraph(viewModel, performSizeEstimation, false, workbenchPart);
+    }
+
+    /**
+     * Builds a layout graph from the given graph. In parallel mode the sizes of nodes and labels
+     * are estimated in advance by a fork/join computation over the subtrees of the graph, while
+     * the layout graph itself is built sequentially. The computed layout is then applied in
+     * parallel, too, except for elements observed by adapters, which are updated in the calling
+     * thread.<br>
+     * <br>
+     * If the changes of <code>viewModel</code> are tracked, see
+     * {@link KlighdSynthesisProperties#INCREMENTAL_LAYOUT}, the children of compound nodes that
+     * didn't change since the previous layout are omitted, and the compound nodes are laid out as
+     * black boxes of their previous size. The children of expanded compound nodes keep the layout
+     * computed in advance while the nodes were collapsed, if any.
+     *
+     * @param viewModel
+     *            the graph to build the layout graph from
+     * @param performSizeEstimation
+     *            whether the size of nodes and labels should be automatically estimated.
+     * @param parallel
+     *            whether the sizes shall be estimated and the layout shall be applied in parallel
+     * @param workbenchPart
+     *            the workbenchPart in which the layout takes place, if any
+     * @return the layout graph mapping
+     */
+    public LayoutMapping buildLayoutGraph(final KNode viewModel,
+            final boolean performSizeEstimation, final boolean parallel,
+            final IWorkbenchPart workbenchPart) {
         
         final LayoutMapping mapping = new LayoutMapping(workbenchPart);
         mapping.setProperty(EDGES, new LinkedList<KEdge>());
+        mapping.setProperty(PARALLEL, parallel);
+        mapping.setProperty(SIZE_ESTIMATION, performSizeEstimation);
+
+        final LayoutChangeTracker changeTracker = LayoutChangeTracker.get(viewModel);
+        if (changeTracker != null) {
+            mapping.setProperty(CHANGE_TRACKER, changeTracker);
+            mapping.setProperty(INCREMENTAL, changeTracker.beginLayout());
+        }
+
+        if (parallel && performSizeEstimation) {
+            final Map<KGraphElement, Bounds> estimatedSizes = new ConcurrentHashMap<>();
+            ForkJoinPool.commonPool().invoke(new SizeEstimation(viewModel,
+                    mapping.getProperty(INCREMENTAL) ? changeTracker : null, estimatedSizes));
+            mapping.setProperty(ESTIMATED_SIZES, estimatedSizes);
+        }
 
         // set the parent element
         mapping.setParentElement(viewModel);
@@ -233,6 +346,13 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         // transform all connections in the selected area
         processConnections(mapping, performSizeEstimation);
 
+        // adopt the layouts of expanded regions computed in advance
+        final Map<ElkNode, LayoutMapping> preLayouts = mapping.getProperty(PRE_LAYOUTS);
+        if (preLayouts != null) {
+            preLayouts.forEach((layoutNode, preLayout) ->
+                    adoptPreLayout(mapping, layoutNode, preLayout));
+        }
+
         return mapping;
     }
     
@@ -255,7 +375,9 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         //  a child is active if it contains RenderingContextData and the 'true' value wrt.
         //  the property KlighdConstants.ACTIVE, see the predicate definition above
         // furthermore, all nodes that have the LAYOUT_IGNORE property set are ignored
-        for (final KNode node : Iterables.filter(viewModelParent.getChildren(), NODE_FILTER)) {
+        for (final KNode node : Iterables.filter(viewModelParent.getChildren(),
+                mapping.getProperty(SPECULATIVE_REGION) == null
+                        ? NODE_FILTER : SPECULATIVE_NODE_FILTER)) {
             createNode(mapping, node, layoutParent, performSizeEstimation);
         }
     }
@@ -298,21 +420,24 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         // this is required for applying layout to view models that aren't shown by a viewer
         //  and whose (compound) nodes are not tagged to be 'populated'. This may happen in
         //  batch tests, for example.
-        final boolean isPopulated = RenderingContextData.IS_POPULATED.apply(node);
+        final boolean isPopulated = isPopulated(mapping, node);
 
         // determine the corresponding rendering
-        final Predicate<KRendering> filter = isPopulated ? KlighdPredicates.isExpandedRendering()
-                : Predicates.not(KlighdPredicates.isExpandedRendering());
-        // apply the class-based filter, than the above defined 'filter'
-        //  if none is found, just take the first KRendering in the 'data' list
-        final KRendering displayedRendering = Iterators.find(
-                Iterators.filter(node.getData().iterator(), KRendering.class),
-                filter, node.getData(KRendering.class));
+        final KRendering displayedRendering = displayedRendering(node, isPopulated);
 
         // consider 'node' a compound node if it is populated AND has active children
         //  will be false if all children are inactive and not added to the layout graph later on
-        final boolean isCompoundNode = isPopulated
-                && Iterables.any(node.getChildren(), RenderingContextData.IS_ACTIVE);
+        final boolean isCompoundNode = isCompoundNode(node, isPopulated, isActive(mapping));
+
+        // the children of compound nodes that didn't change since the previous layout keep their
+        //  layout, the node itself is laid out as a black box then
+        final boolean isBlackBox = isCompoundNode && mapping.getProperty(INCREMENTAL)
+                && keepsLayout(mapping.getProperty(CHANGE_TRACKER), node);
+
+        // the children of an expanded node may have been laid out in advance
+        final LayoutMapping preLayout = isCompoundNode && !isBlackBox
+                && mapping.getProperty(INCREMENTAL) ? mapping.getProperty(CHANGE_TRACKER)
+                        .getSpeculativeLayouts().take(node) : null;
         
         // there is layoutData attached to the node,
         // so take that as node layout instead of the default-layout
@@ -320,21 +445,7 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
 
         // In the following the minimal width and height of the node is determined, which
         //  is used as a basis for the size estimation (necessary for grid-based micro layouts).
-
-        // We start with standard minimal bounds given in the related constant.
-        Bounds minSize = Bounds.of(KlighdConstants.MINIMAL_NODE_BOUNDS);
-        // check the definition of the minimal size property
-        final boolean minNodeSizeIsSet = node.getProperties().containsKey(
-                KlighdProperties.MINIMAL_NODE_SIZE);
-
-        if (minNodeSizeIsSet) {
-            // if the minimal node size is given in terms of the dedicated property, use its values
-            minSize = Bounds.of(node.getProperty(KlighdProperties.MINIMAL_NODE_SIZE));
-        } else if (!isCompoundNode || node.getProperty(INITIAL_NODE_SIZE)) {
-            // otherwise, if the node is a non-compound one or the size is not yet modified by ELK
-            //  take the component-wise maximum of the standard bounds and 'nodelayout's values
-            minSize = Bounds.max(minSize, Bounds.of(node.getWidth(), node.getHeight()));
-        }
+        final Bounds minSize = minimalNodeSize(node, isCompoundNode);
 
         // explicitly store the determined minimal node size in the layout data of the node
         //  note that this information will be removed or overwritten by the update strategies
@@ -352,7 +463,10 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         if (displayedRendering != null) {
             // ... calculate the minimal required size based on the determined 'minSize' bounds
             final Bounds size;
-            if (performSizeEstimation) {
+            final Bounds estimatedSize = estimatedSize(mapping, node);
+            if (estimatedSize != null) {
+                size = estimatedSize;
+            } else if (performSizeEstimation) {
                 size = Bounds.max(minSize, PlacementUtil.estimateSize(displayedRendering, minSize));
             } else {
                 size = minSize;
@@ -407,30 +521,281 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
 
         layoutParent.getChildren().add(layoutNode);
         mapping.getGraphMap().put(layoutNode, node);
+        if (isBlackBox) {
+            layoutNode.setProperty(KlighdGraphLayoutEngine.BLACK_BOX, true);
+        } else if (preLayout != null) {
+            Map<ElkNode, LayoutMapping> preLayouts = mapping.getProperty(PRE_LAYOUTS);
+            if (preLayouts == null) {
+                preLayouts = new LinkedHashMap<>();
+                mapping.setProperty(PRE_LAYOUTS, preLayouts);
+            }
+            preLayouts.put(layoutNode, preLayout);
+        }
 
         // process ports
-        for (final KPort port
-                : Iterables.filter(node.getPorts(), RenderingContextData.IS_ACTIVE)) {
-            
+        for (final KPort port : Iterables.filter(node.getPorts(), isActive(mapping))) {
             createPort(mapping, port, layoutNode, performSizeEstimation);
         }
 
         // process labels
-        for (final KLabel label
-                : Iterables.filter(node.getLabels(), RenderingContextData.IS_ACTIVE)) {
-            
+        for (final KLabel label : Iterables.filter(node.getLabels(), isActive(mapping))) {
             createLabel(mapping, label, layoutNode, performSizeEstimation, false);
         }
 
         // process the child as new parent
-        if (isCompoundNode) {
+        if (isCompoundNode && !isBlackBox) {
             processNodes(mapping, node, layoutNode, performSizeEstimation);
         }
 
         // store all the edges to process them later
         final List<KEdge> edges = mapping.getProperty(EDGES);
-        Iterables.addAll(edges,
-                Iterables.filter(node.getOutgoingEdges(), RenderingContextData.IS_ACTIVE));
+        Iterables.addAll(edges, Iterables.filter(node.getOutgoingEdges(), isActive(mapping)));
+    }
+
+    /**
+     * Determines the rendering of the given node that is displayed in its current state.
+     *
+     * @param node
+     *            the node
+     * @param isPopulated
+     *            whether the node is populated, i.e. expanded
+     * @return the displayed rendering, or <code>null</code> if the node has no rendering
+     */
+    private static KRendering displayedRendering(final KNode node, final boolean isPopulated) {
+        // if none fits the node's state, just take the first KRendering in the 'data' list
+        final KRendering rendering = RenderingContextData.getRendering(node, isPopulated);
+        return rendering != null ? rendering : node.getData(KRendering.class);
+    }
+
+    /**
+     * Checks whether the given node is laid out as a compound node, i.e. whether it is populated
+     * and has active children.
+     *
+     * @param node
+     *            the node
+     * @param isPopulated
+     *            whether the node is populated, i.e. expanded
+     * @param isActive
+     *            the predicate determining the active elements
+     * @return <code>true</code> if the node's children are added to the layout graph
+     */
+    private static boolean isCompoundNode(final KNode node, final boolean isPopulated,
+            final Predicate<KGraphElement> isActive) {
+        return isPopulated && Iterables.any(node.getChildren(), isActive);
+    }
+
+    /**
+     * Returns the predicate determining the elements to be added to the layout graph. While laying
+     * out a collapsed region in advance, the elements are predicted to be active once the region
+     * is expanded, if they are to be shown at all.
+     *
+     * @param mapping
+     *            the layout mapping
+     * @return the predicate
+     */
+    private static Predicate<KGraphElement> isActive(final LayoutMapping mapping) {
+        return mapping.getProperty(SPECULATIVE_REGION) == null
+                ? RenderingContextData.IS_ACTIVE : SPECULATIVELY_ACTIVE;
+    }
+
+    /**
+     * Checks whether the children of the given node are to be added to the layout graph. While
+     * laying out a collapsed region in advance, the region itself is considered expanded, and
+     * nested compound nodes that haven't been shown yet are predicted to be expanded as
+     * configured by {@link KlighdProperties#EXPAND}.
+     *
+     * @param mapping
+     *            the layout mapping
+     * @param node
+     *            the node
+     * @return <code>true</code> if the node is populated, i.e. expanded
+     */
+    private static boolean isPopulated(final LayoutMapping mapping, final KNode node) {
+        final KNode region = mapping.getProperty(SPECULATIVE_REGION);
+        if (region == null) {
+            return RenderingContextData.IS_POPULATED.apply(node);
+        } else if (node == region) {
+            return true;
+        }
+        final RenderingContextData data = RenderingContextData.basicGet(node);
+        return data != null && data.containsPoperty(KlighdInternalProperties.POPULATED)
+                ? data.getProperty(KlighdInternalProperties.POPULATED)
+                : node.getProperty(KlighdProperties.EXPAND);
+    }
+
+    /**
+     * Determines the minimal size of the given node, which is used as a basis for the size
+     * estimation.
+     *
+     * @param node
+     *            the node
+     * @param isCompoundNode
+     *            whether the node is laid out as a compound node
+     * @return the minimal size
+     */
+    private static Bounds minimalNodeSize(final KNode node, final boolean isCompoundNode) {
+        // We start with standard minimal bounds given in the related constant.
+        Bounds minSize = Bounds.of(KlighdConstants.MINIMAL_NODE_BOUNDS);
+        // check the definition of the minimal size property
+        final boolean minNodeSizeIsSet = node.getProperties().containsKey(
+                KlighdProperties.MINIMAL_NODE_SIZE);
+
+        if (minNodeSizeIsSet) {
+            // if the minimal node size is given in terms of the dedicated property, use its values
+            minSize = Bounds.of(node.getProperty(KlighdProperties.MINIMAL_NODE_SIZE));
+        } else if (!isCompoundNode || node.getProperty(INITIAL_NODE_SIZE)) {
+            // otherwise, if the node is a non-compound one or the size is not yet modified by ELK
+            //  take the component-wise maximum of the standard bounds and 'nodelayout's values
+            minSize = Bounds.max(minSize, Bounds.of(node.getWidth(), node.getHeight()));
+        }
+        return minSize;
+    }
+
+    /**
+     * Checks whether the layout of the given compound node's children computed by a previous
+     * layout run can be kept.
+     *
+     * @param changeTracker
+     *            the tracker of the view model's changes
+     * @param node
+     *            the compound node
+     * @return <code>true</code> if neither the node nor its descendants changed and no edge
+     *         connects them to other nodes
+     */
+    private static boolean keepsLayout(final LayoutChangeTracker changeTracker, final KNode node) {
+        // edges leaving the node are laid out along with its ancestors, which requires their inner
+        //  ends to be part of the layout graph
+        return !changeTracker.isDirty(node) && !hasExternalEdges(node);
+    }
+
+    /**
+     * Checks whether an edge connects a descendant of the given node with a node outside of it.
+     *
+     * @param node
+     *            the compound node
+     * @return <code>true</code> if such an edge exists
+     */
+    private static boolean hasExternalEdges(final KNode node) {
+        final Iterator<KNode> descendants = ModelingUtil.eAllContentsOfType2(node, KNode.class);
+        while (descendants.hasNext()) {
+            final KNode descendant = descendants.next();
+            for (final KEdge edge : descendant.getOutgoingEdges()) {
+                if (!isSelfOrDescendant(edge.getTarget(), node)) {
+                    return true;
+                }
+            }
+            for (final KEdge edge : descendant.getIncomingEdges()) {
+                if (!isSelfOrDescendant(edge.getSource(), node)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSelfOrDescendant(final KNode node, final KNode ancestor) {
+        return node == ancestor || KGraphUtil.isDescendant(node, ancestor);
+    }
+
+    /**
+     * Returns the size of the given node or label that has been estimated in advance, if any.
+     *
+     * @param mapping
+     *            the layout mapping
+     * @param element
+     *            the node or label
+     * @return the estimated size, or <code>null</code> if it has not been estimated in advance
+     */
+    private static Bounds estimatedSize(final LayoutMapping mapping, final KGraphElement element) {
+        final Map<KGraphElement, Bounds> estimatedSizes = mapping.getProperty(ESTIMATED_SIZES);
+        return estimatedSizes != null ? estimatedSizes.get(element) : null;
+    }
+
+    /**
+     * Estimates the sizes of the active nodes and labels of a subtree of the view model in advance,
+     * as done by {@link KlighdDiagramLayoutConnector#createNode(LayoutMapping, KNode, ElkNode,
+     * boolean) createNode} and {@link KlighdDiagramLayoutConnector#createLabel(LayoutMapping,
+     * KLabel, ElkGraphElement, boolean, boolean) createLabel}. The subtrees of the node's children
+     * are estimated in parallel.<br>
+     * <br>
+     * The size estimation only reads the view model, except for the calculated text bounds
+     * persisted on the estimated {@link KText KTexts}. Each task does so for the texts of its own
+     * node only, shared renderings are guarded by the size estimation itself.
+     */
+    private static final class SizeEstimation extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final KNode node;
+        private final boolean isRoot;
+        private final LayoutChangeTracker changeTracker;
+        private final Map<KGraphElement, Bounds> estimatedSizes;
+
+        SizeEstimation(final KNode root, final LayoutChangeTracker changeTracker,
+                final Map<KGraphElement, Bounds> estimatedSizes) {
+            this(root, true, changeTracker, estimatedSizes);
+        }
+
+        private SizeEstimation(final KNode node, final boolean isRoot,
+                final LayoutChangeTracker changeTracker,
+                final Map<KGraphElement, Bounds> estimatedSizes) {
+            this.node = node;
+            this.isRoot = isRoot;
+            this.changeTracker = changeTracker;
+            this.estimatedSizes = estimatedSizes;
+        }
+
+        @Override
+        protected void compute() {
+            final boolean isPopulated = RenderingContextData.IS_POPULATED.apply(node);
+            final boolean isCompoundNode = isRoot
+                    || isCompoundNode(node, isPopulated, RenderingContextData.IS_ACTIVE);
+
+            if (!isRoot) {
+                final KRendering displayedRendering = displayedRendering(node, isPopulated);
+                if (displayedRendering != null) {
+                    final Bounds minSize = minimalNodeSize(node, isCompoundNode);
+                    estimatedSizes.put(node, Bounds.max(minSize,
+                            PlacementUtil.estimateSize(displayedRendering, minSize)));
+                }
+
+                for (final KLabel label
+                        : Iterables.filter(node.getLabels(), RenderingContextData.IS_ACTIVE)) {
+                    estimate(label);
+                }
+                for (final KPort port
+                        : Iterables.filter(node.getPorts(), RenderingContextData.IS_ACTIVE)) {
+                    for (final KLabel label : port.getLabels()) {
+                        estimate(label);
+                    }
+                }
+                for (final KEdge edge : Iterables.filter(
+                        node.getOutgoingEdges(), RenderingContextData.IS_ACTIVE)) {
+                    for (final KLabel label
+                            : Iterables.filter(edge.getLabels(), RenderingContextData.IS_ACTIVE)) {
+                        estimate(label);
+                    }
+                }
+            }
+
+            // the children of unchanged nodes are likely to keep their layout, so they are skipped
+            //  here and estimated on demand while building the layout graph
+            if (isCompoundNode && (changeTracker == null || changeTracker.isDirty(node))) {
+                final List<SizeEstimation> children = Lists.newArrayList();
+                for (final KNode child : Iterables.filter(node.getChildren(), NODE_FILTER)) {
+                    children.add(new SizeEstimation(child, false, changeTracker, estimatedSizes));
+                }
+                invokeAll(children);
+            }
+        }
+
+        private void estimate(final KLabel label) {
+            final KRendering rootRendering = label.getData(KRendering.class);
+            if (rootRendering != null) {
+                estimatedSizes.put(label,
+                        PlacementUtil.estimateSize(rootRendering, new Bounds(0, 0)));
+            }
+        }
     }
 
     /**
@@ -556,9 +921,7 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         mapping.getGraphMap().put(layoutEdge, edge);
 
         // process labels
-        for (final KLabel label
-                : Iterables.filter(edge.getLabels(), RenderingContextData.IS_ACTIVE)) {
-            
+        for (final KLabel label : Iterables.filter(edge.getLabels(), isActive(mapping))) {
             createLabel(mapping, label, layoutEdge, estimateLabelSizes, true);
         }
     }
@@ -611,7 +974,9 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         if (rootRendering != null) {
             if (estimateSize) {
                 // calculate the minimal size need for the rendering ...
-                final Bounds minSize = PlacementUtil.estimateSize(rootRendering, new Bounds(0, 0));
+                final Bounds estimatedSize = estimatedSize(mapping, label);
+                final Bounds minSize = estimatedSize != null ? estimatedSize
+                        : PlacementUtil.estimateSize(rootRendering, new Bounds(0, 0));
                 
                 final double minWidth = minSize.getWidth() > layoutLabel.getWidth()
                         ? minSize.getWidth()
@@ -639,6 +1004,263 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
     }
     
     
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Layout of Collapsed Regions in Advance
+
+    /**
+     * Schedules the layout of the children of collapsed compound nodes in the background, as far
+     * as the budget configured by {@link KlighdSynthesisProperties#PRE_LAYOUT_BUDGET} permits. The
+     * regions are copied here, along with the library renderings they reference, building the
+     * layout graphs from these copies, which includes the size estimation, is done in the
+     * background. Building a layout graph annotates the view model, e.g. with minimal sizes,
+     * insets, and text bounds, and the layout algorithms read the renderings, so neither must act
+     * on the view model shown. Regions with edges leaving them are omitted, as these edges are
+     * laid out along with the region's ancestors.
+     *
+     * @param mapping
+     *            the layout mapping whose layout has just been applied
+     */
+    private void schedulePreLayouts(final LayoutMapping mapping) {
+        final LayoutChangeTracker changeTracker = mapping.getProperty(CHANGE_TRACKER);
+        final int budget = mapping.getProperty(PRE_LAYOUT_BUDGET);
+        if (changeTracker == null || budget <= 0 || configManager == null) {
+            return;
+        }
+
+        final SpeculativeLayoutService speculativeLayouts = changeTracker.getSpeculativeLayouts();
+        for (final Object element : mapping.getGraphMap().values()) {
+            if (!(element instanceof KNode)) {
+                continue;
+            }
+            final KNode region = (KNode) element;
+            if (region.getChildren().isEmpty() || !RenderingContextData.IS_ACTIVE.apply(region)
+                    || isPopulated(region) || speculativeLayouts.isScheduled(region)) {
+                continue;
+            }
+
+            // the size is remembered until the region changes, which also skips regions exceeding
+            //  the budget quickly, regions with external edges are remembered as exceeding it
+            final int size = speculativeLayouts.sizeOf(region,
+                    node -> hasExternalEdges(node) ? Integer.MAX_VALUE : countElements(node));
+            if (size > budget - speculativeLayouts.getUsedBudget()) {
+                continue;
+            }
+
+            final Copier copier = copyRegion(region);
+            final IWorkbenchPart workbenchPart = mapping.getWorkbenchPart();
+            final boolean performSizeEstimation = mapping.getProperty(SIZE_ESTIMATION);
+            speculativeLayouts.schedule(region, monitor -> layoutRegion(workbenchPart,
+                    performSizeEstimation, (KNode) copier.get(region), copier, monitor), size);
+        }
+    }
+
+    /**
+     * Counts the layout graph elements of the given node and its descendants.
+     */
+    private static int countElements(final KNode node) {
+        return 1 + Iterators.size(ModelingUtil.eAllContentsOfType2(
+                node, KNode.class, KPort.class, KLabel.class, KEdge.class));
+    }
+
+    /**
+     * Checks whether the given node is really populated, i.e. whether it has been expanded.
+     * {@link RenderingContextData#IS_POPULATED} considers nodes without
+     * {@link RenderingContextData} populated, which is not the case for collapsed regions.
+     */
+    private static boolean isPopulated(final KNode node) {
+        final RenderingContextData data = RenderingContextData.basicGet(node);
+        return data == null || !data.containsPoperty(KlighdInternalProperties.POPULATED)
+                || data.getProperty(KlighdInternalProperties.POPULATED);
+    }
+
+    /**
+     * Copies the given collapsed compound node and its contents as well as the library renderings
+     * referenced by them, directly or by other referenced renderings.
+     *
+     * @param region
+     *            the collapsed compound node
+     * @return the copier mapping the original objects to their copies
+     */
+    private static Copier copyRegion(final KNode region) {
+        final Copier copier = new Copier();
+        final List<EObject> roots = Lists.newArrayList(region);
+        for (int i = 0; i < roots.size(); i++) {
+            final EObject root = roots.get(i);
+            if (!copier.containsKey(root)) {
+                copier.copy(root);
+            }
+            final Iterator<EObject> contents = Iterators.concat(
+                    Iterators.singletonIterator(root), root.eAllContents());
+            while (contents.hasNext()) {
+                final EObject content = contents.next();
+                if (content instanceof KRenderingRef) {
+                    final KRendering rendering = ((KRenderingRef) content).getRendering();
+                    if (rendering != null && !copier.containsKey(rendering)
+                            && !roots.contains(rendering)) {
+                        roots.add(rendering);
+                    }
+                }
+            }
+        }
+        copier.copyReferences();
+        return copier;
+    }
+
+    /**
+     * Builds, configures, and lays out the layout graph of the given copy of a collapsed compound
+     * node and its children as they are shown once the node is expanded. Runs in the background.
+     *
+     * @param workbenchPart
+     *            the workbench part showing the view model, may be <code>null</code>
+     * @param performSizeEstimation
+     *            whether the sizes of nodes and labels are estimated
+     * @param region
+     *            the copy of the collapsed compound node
+     * @param copier
+     *            the copier having copied the region
+     * @param monitor
+     *            the progress monitor reporting cancelation
+     * @return the layout mapping of the region, mapping the layout elements to the original view
+     *         model elements, or <code>null</code> if the region doesn't contain any element to be
+     *         shown or the layout has been canceled
+     */
+    private LayoutMapping layoutRegion(final IWorkbenchPart workbenchPart,
+            final boolean performSizeEstimation, final KNode region, final Copier copier,
+            final IElkProgressMonitor monitor) {
+        final LayoutMapping preLayout = new LayoutMapping(workbenchPart);
+        preLayout.setProperty(EDGES, new LinkedList<KEdge>());
+        preLayout.setProperty(WORKBENCH_PART, workbenchPart);
+        preLayout.setProperty(SPECULATIVE_REGION, region);
+        preLayout.setParentElement(region);
+
+        final ElkNode layoutGraph = ElkGraphUtil.createGraph();
+        preLayout.setLayoutGraph(layoutGraph);
+        createNode(preLayout, region, layoutGraph, performSizeEstimation);
+        processConnections(preLayout, performSizeEstimation);
+        if (layoutGraph.getChildren().get(0).getChildren().isEmpty() || monitor.isCanceled()) {
+            return null;
+        }
+        ElkUtil.applyVisitors(layoutGraph, configManager.createConfigurator(preLayout));
+        new KlighdGraphLayoutEngine().layout(layoutGraph, monitor);
+        if (monitor.isCanceled()) {
+            return null;
+        }
+
+        // refer to the original view model elements and renderings, the copies are dropped
+        final Map<EObject, EObject> originals = new HashMap<>();
+        copier.forEach((original, copy) -> originals.put(copy, original));
+        final BiMap<ElkGraphElement, Object> graphMap = preLayout.getGraphMap();
+        for (final ElkGraphElement layoutElement : Lists.newArrayList(graphMap.keySet())) {
+            final EObject original = originals.get(graphMap.get(layoutElement));
+            if (original != null) {
+                graphMap.put(layoutElement, original);
+            } else {
+                graphMap.remove(layoutElement);
+            }
+            final KRenderingRef renderingRef =
+                    layoutElement.getProperty(KRenderingOptions.K_RENDERING);
+            if (renderingRef != null && renderingRef.getRendering() != null) {
+                renderingRef.setRendering(
+                        (KRendering) originals.get(renderingRef.getRendering()));
+            }
+        }
+        preLayout.setProperty(SPECULATIVE_REGION, null);
+        preLayout.setParentElement(originals.get(region));
+        return preLayout;
+    }
+
+    /**
+     * Transfers the layout of an expanded node's children computed in advance to the given
+     * layout node, whose children are kept in place by the {@link KlighdGraphLayoutEngine} then.
+     * The layout is discarded if the layout graph of the node differs from the one laid out in
+     * advance, e.g. since nested nodes are shown in a state other than the predicted one.
+     *
+     * @param mapping
+     *            the layout mapping
+     * @param layoutNode
+     *            the layout node of the expanded node
+     * @param preLayout
+     *            the layout mapping of the node computed in advance
+     */
+    private static void adoptPreLayout(final LayoutMapping mapping, final ElkNode layoutNode,
+            final LayoutMapping preLayout) {
+        final BiMap<Object, ElkGraphElement> preGraphMap = preLayout.getGraphMap().inverse();
+        final ElkGraphElement preLayoutNode =
+                preGraphMap.get(mapping.getGraphMap().get(layoutNode));
+        if (!(preLayoutNode instanceof ElkNode)) {
+            return;
+        }
+
+        final List<ElkGraphElement> region = Lists.newArrayList();
+        collectRegion(layoutNode, region);
+        final List<ElkGraphElement> preRegion = Lists.newArrayList();
+        collectRegion((ElkNode) preLayoutNode, preRegion);
+        if (region.size() != preRegion.size()) {
+            return;
+        }
+
+        final Map<ElkGraphElement, ElkGraphElement> counterparts = new LinkedHashMap<>();
+        final Set<ElkGraphElement> preElements = Sets.newHashSet(preRegion);
+        for (final ElkGraphElement element : region) {
+            final ElkGraphElement preElement = preGraphMap.get(mapping.getGraphMap().get(element));
+            if (preElement == null || !preElements.contains(preElement)
+                    || preElement.eClass() != element.eClass()) {
+                return;
+            }
+            counterparts.put(element, preElement);
+        }
+
+        counterparts.forEach((element, preElement) -> {
+            element.copyProperties(preElement);
+            if (element instanceof ElkShape) {
+                final ElkShape shape = (ElkShape) element;
+                final ElkShape preShape = (ElkShape) preElement;
+                shape.setDimensions(preShape.getWidth(), preShape.getHeight());
+                if (element != layoutNode) {
+                    shape.setLocation(preShape.getX(), preShape.getY());
+                }
+            }
+            if (element instanceof ElkLabel) {
+                ((ElkLabel) element).setText(((ElkLabel) preElement).getText());
+            } else if (element instanceof ElkEdge) {
+                final ElkEdge edge = (ElkEdge) element;
+                edge.getSections().clear();
+                for (final ElkEdgeSection preSection : ((ElkEdge) preElement).getSections()) {
+                    final ElkEdgeSection section = ElkGraphUtil.createEdgeSection(edge);
+                    section.setStartLocation(preSection.getStartX(), preSection.getStartY());
+                    section.setEndLocation(preSection.getEndX(), preSection.getEndY());
+                    for (final ElkBendPoint bendPoint : preSection.getBendPoints()) {
+                        ElkGraphUtil.createBendPoint(section, bendPoint.getX(), bendPoint.getY());
+                    }
+                }
+            }
+        });
+
+        layoutNode.setProperty(KlighdGraphLayoutEngine.PRE_LAID_OUT, true);
+    }
+
+    /**
+     * Collects the given layout node, its labels, ports, and contained edges, their labels, and
+     * the same elements of the node's descendants.
+     */
+    private static void collectRegion(final ElkNode layoutNode,
+            final List<ElkGraphElement> region) {
+        region.add(layoutNode);
+        region.addAll(layoutNode.getLabels());
+        for (final ElkPort layoutPort : layoutNode.getPorts()) {
+            region.add(layoutPort);
+            region.addAll(layoutPort.getLabels());
+        }
+        for (final ElkEdge layoutEdge : layoutNode.getContainedEdges()) {
+            region.add(layoutEdge);
+            region.addAll(layoutEdge.getLabels());
+        }
+        for (final ElkNode child : layoutNode.getChildren()) {
+            collectRegion(child, region);
+        }
+    }
+    
+    
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // Layout Application
 
@@ -664,6 +1286,14 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         } else {
             applyLayout(mapping, false);
         }
+
+        // the view model's layout is complete now, so subsequent changes are tracked again;
+        //  the collapsed regions are laid out in advance before, as this annotates the view model
+        final LayoutChangeTracker changeTracker = mapping.getProperty(CHANGE_TRACKER);
+        if (changeTracker != null) {
+            schedulePreLayouts(mapping);
+            changeTracker.endLayout();
+        }
     }
     
     /**
@@ -676,74 +1306,22 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
      *            edge adjustment will be done
      */
     private void applyLayout(final LayoutMapping mapping, final boolean suppressEdgeAdjustment) {
-        final Set<Entry<ElkGraphElement, Object>> elementMappings =
-                mapping.getGraphMap().entrySet();
-        
         // We need to process labels after the edges because during edge handling
         // the insets are handled and the source data adjusted accordingly.
-        // We store the labels here to have them ready after the main switch.
-        List<ElkLabel> graphLabels = Lists.newArrayList();
+        // We store the labels here to have them ready after the main pass.
+        final List<ElkLabel> graphLabels = Lists.newArrayList();
+        final List<ElkGraphElement> graphElements = Lists.newArrayList();
+        for (final ElkGraphElement layoutElement : mapping.getGraphMap().keySet()) {
+            if (layoutElement instanceof ElkLabel) {
+                graphLabels.add((ElkLabel) layoutElement);
+            } else {
+                graphElements.add(layoutElement);
+            }
+        }
         
         // apply the layout of all mapped layout elements back to the associated element
-        for (final Entry<ElkGraphElement, Object> elementMapping : elementMappings) {
-            final ElkGraphElement layoutElement = elementMapping.getKey();
-            
-            // Since we built the layout graph, we know that this must be a KGraphElement
-            final KGraphElement element = (KGraphElement) elementMapping.getValue();
-
-            new ElkGraphSwitch<Boolean>() {
-                @Override
-                public Boolean caseElkNode(final ElkNode layoutNode) {
-                    final KNode node = (KNode) element;
-                    
-                    // Get properties that shall be preserved from ElkGraph to KGraph
-                    List<IProperty<?>> propertiesToPreserve = KlighdDataManager.getInstance().getPreservedProperties();
-                    
-                    // Preserve properties
-                    for (IProperty<?> property : propertiesToPreserve) {
-                        if (layoutNode.hasProperty(property)) {
-                            node.setProperty((IProperty<Object>) property, (Object) layoutNode.getProperty(property));
-                        }
-                    }                  
-                    
-                    shapeToViewModel(mapping, layoutNode, node, true, true);
-                    node.setProperty(INITIAL_NODE_SIZE, false);
-
-                    // transfer the scale factor value since ELK might have reset it
-                    //  to 1f in case scaling was not supported in the particular configuration
-                    // and the figure scaling will be set according this property setting
-                    node.setProperty(CoreOptions.SCALE_FACTOR,
-                            layoutNode.getProperty(CoreOptions.SCALE_FACTOR));
-                                        
-                    return true;
-                }
-
-                @Override
-                public Boolean caseElkEdge(final ElkEdge layoutEdge) {
-                    KEdge edge = (KEdge) element;
-                    edgeToViewModel(layoutEdge, edge, mapping, !suppressEdgeAdjustment);
-                    
-                    return true;
-                }
-
-                @Override
-                public Boolean caseElkPort(final ElkPort layoutPort) {
-                    final KPort port = (KPort) element;
-                    
-                    shapeToViewModel(mapping, layoutPort, port, false, true);
-                    port.setProperty(KlighdProperties.LAYOUT_PORT_SIDE,
-                            layoutPort.getProperty(CoreOptions.PORT_SIDE));
-                    return true;
-                }
-
-                @Override
-                public Boolean caseElkLabel(final ElkLabel layoutLabel) {
-                    // Store the label for later use
-                    graphLabels.add(layoutLabel);
-                    return true;
-                }
-            } /**/.doSwitch(layoutElement);
-        }
+        forEachLayoutElement(mapping, graphElements, layoutElement ->
+                elementToViewModel(mapping, layoutElement, suppressEdgeAdjustment));
 
         // process the edges that have been excluded from layout
         final List<KEdge> excludedEdges = mapping.getProperty(EXCLUDED_EDGES);
@@ -755,29 +1333,132 @@ public class KlighdDiagramLayoutConnector implements IDiagramLayoutConnector {
         }
 
         // Handle all the stored labels now, after edges have already been applied
-        for (ElkLabel layoutLabel : graphLabels) {
-            final KLabel label = (KLabel) mapping.getGraphMap().get(layoutLabel);
-            
-            shapeToViewModel(mapping, layoutLabel, label, false, true);
-            
-            // if the label's text was changed during layout, remember the new text in a
-            // special property
-            LabelManagementResult managementResult =
-                    layoutLabel.getProperty(KlighdOptions.LABELS_MANAGEMENT_RESULT);
-            if (managementResult != LabelManagementResult.UNMANAGED) {
-                // TODO: This may in the future set the KText's text instead.
-                // However, doing so now doesn't do anything yet...
-                label.setProperty(KlighdOptions.LABELS_TEXT_OVERRIDE,
-                        layoutLabel.getText());
-                String origLabelText = label.getText();
-                
-                if (origLabelText != null && origLabelText.equals(layoutLabel.getText())) {
-                    label.setProperty(KlighdProperties.TOOLTIP, null);
-                } else {
-                    label.setProperty(KlighdProperties.TOOLTIP, origLabelText);
-                }
-            }            
+        forEachLayoutElement(mapping, graphLabels,
+                layoutLabel -> labelToViewModel(mapping, layoutLabel));
+    }
+
+    /**
+     * Performs the given action for each of the given layout elements. If the layout is applied in
+     * parallel, elements whose view model counterparts are not observed by any adapter are handled
+     * concurrently. The remaining ones are handled afterwards in the calling thread, so their
+     * adapters are notified as in sequential mode.
+     *
+     * @param mapping
+     *            the layout mapping that was created by this manager
+     * @param layoutElements
+     *            the layout elements
+     * @param action
+     *            the action transferring the layout of an element to the view model
+     */
+    private static <T extends ElkGraphElement> void forEachLayoutElement(
+            final LayoutMapping mapping, final List<T> layoutElements, final Consumer<T> action) {
+        if (!mapping.getProperty(PARALLEL)) {
+            layoutElements.forEach(action);
+            return;
         }
+
+        final Map<Boolean, List<T>> unobservedElements = layoutElements.stream().collect(
+                Collectors.partitioningBy(layoutElement -> ((KGraphElement) mapping
+                        .getGraphMap().get(layoutElement)).eAdapters().isEmpty()));
+
+        unobservedElements.get(true).parallelStream().forEach(action);
+        unobservedElements.get(false).forEach(action);
+    }
+
+    /**
+     * Applies the computed layout of the given node, port, or edge back to the graph.
+     *
+     * @param mapping
+     *            the layout mapping that was created by this manager
+     * @param layoutElement
+     *            the layout element
+     * @param suppressEdgeAdjustment
+     *            if true edge adjustment will be suppressed, if no
+     *            edge adjustment will be done
+     */
+    private void elementToViewModel(final LayoutMapping mapping,
+            final ElkGraphElement layoutElement, final boolean suppressEdgeAdjustment) {
+        
+        // Since we built the layout graph, we know that this must be a KGraphElement
+        final KGraphElement element = (KGraphElement) mapping.getGraphMap().get(layoutElement);
+
+        new ElkGraphSwitch<Boolean>() {
+            @Override
+            public Boolean caseElkNode(final ElkNode layoutNode) {
+                final KNode node = (KNode) element;
+                
+                // Get properties that shall be preserved from ElkGraph to KGraph
+                List<IProperty<?>> propertiesToPreserve = KlighdDataManager.getInstance().getPreservedProperties();
+                
+                // Preserve properties
+                for (IProperty<?> property : propertiesToPreserve) {
+                    if (layoutNode.hasProperty(property)) {
+                        node.setProperty((IProperty<Object>) property, (Object) layoutNode.getProperty(property));
+                    }
+                }                  
+                
+                shapeToViewModel(mapping, layoutNode, node, true, true);
+                node.setProperty(INITIAL_NODE_SIZE, false);
+
+                // transfer the scale factor value since ELK might have reset it
+                //  to 1f in case scaling was not supported in the particular configuration
+                // and the figure scaling will be set according this property setting
+                node.setProperty(CoreOptions.SCALE_FACTOR,
+                        layoutNode.getProperty(CoreOptions.SCALE_FACTOR));
+                                    
+                return true;
+            }
+
+            @Override
+            public Boolean caseElkEdge(final ElkEdge layoutEdge) {
+                KEdge edge = (KEdge) element;
+                edgeToViewModel(layoutEdge, edge, mapping, !suppressEdgeAdjustment);
+                
+                return true;
+            }
+
+            @Override
+            public Boolean caseElkPort(final ElkPort layoutPort) {
+                final KPort port = (KPort) element;
+                
+                shapeToViewModel(mapping, layoutPort, port, false, true);
+                port.setProperty(KlighdProperties.LAYOUT_PORT_SIDE,
+                        layoutPort.getProperty(CoreOptions.PORT_SIDE));
+                return true;
+            }
+        } /**/.doSwitch(layoutElement);
+    }
+
+    /**
+     * Applies the computed layout of the given label back to the graph.
+     *
+     * @param mapping
+     *            the layout mapping that was created by this manager
+     * @param layoutLabel
+     *            the layout label
+     */
+    private void labelToViewModel(final LayoutMapping mapping, final ElkLabel layoutLabel) {
+        final KLabel label = (KLabel) mapping.getGraphMap().get(layoutLabel);
+        
+        shapeToViewModel(mapping, layoutLabel, label, false, true);
+        
+        // if the label's text was changed during layout, remember the new text in a
+        // special property
+        LabelManagementResult managementResult =
+                layoutLabel.getProperty(KlighdOptions.LABELS_MANAGEMENT_RESULT);
+        if (managementResult != LabelManagementResult.UNMANAGED) {
+            // TODO: This may in the future set the KText's text instead.
+            // However, doing so now doesn't do anything yet...
+            label.setProperty(KlighdOptions.LABELS_TEXT_OVERRIDE,
+                    layoutLabel.getText());
+            String origLabelText = label.getText();
+            
+            if (origLabelText != null && origLabelText.equals(layoutLabel.getText())) {
+                label.setProperty(KlighdProperties.TOOLTIP, null);
+            } else {
+                label.setProperty(KlighdProperties.TOOLTIP, origLabelText);
+            }
+        }            
     }
     
     
@@ -0,0 +1,94 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.internal.macrolayout;
+
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.HierarchyHandling;
+import org.eclipse.elk.core.options.NodeLabelPlacement;
+import org.eclipse.elk.core.options.PortConstraints;
+import org.eclipse.elk.core.options.SizeConstraint;
+import org.eclipse.elk.core.util.FixedLayouterOptions;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.Property;
+
+/**
+ * A {@link RecursiveGraphLayoutEngine} that keeps the layout of black box nodes, i.e. of compound
+ * nodes whose children have been omitted from the layout graph by the
+ * {@link KlighdDiagramLayoutConnector} since their previous layout is still valid. Such nodes are
+ * laid out as leaves of fixed size, and their ports and labels keep their positions, as the edges
+ * and children inside them are attached accordingly.<br>
+ * <br>
+ * Pre-laid out nodes, i.e. compound nodes whose children's layout has been computed in advance
+ * by the {@link SpeculativeLayoutService}, are treated alike, except that their children are part
+ * of the layout graph. They keep their positions by means of the fixed layout algorithm.
+ */
+public class KlighdGraphLayoutEngine extends RecursiveGraphLayoutEngine {
+
+    /** Marks layout nodes whose size and attached elements must not be changed. */
+    static final IProperty<Boolean> BLACK_BOX = new Property<Boolean>(
+            "klighd.layout.blackBox", false);
+
+    /** Marks layout nodes whose size, attached elements, and descendants must not be changed. */
+    static final IProperty<Boolean> PRE_LAID_OUT = new Property<Boolean>(
+            "klighd.layout.preLaidOut", false);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void layout(final ElkNode layoutGraph, final IElkProgressMonitor progressMonitor) {
+        // the layout options have been configured by now, so they can be overridden here
+        fixBlackBoxes(layoutGraph);
+        super.layout(layoutGraph, progressMonitor);
+    }
+
+    private static void fixBlackBoxes(final ElkNode layoutParent) {
+        for (final ElkNode layoutNode : layoutParent.getChildren()) {
+            if (layoutNode.getProperty(BLACK_BOX)) {
+                fixShape(layoutNode);
+            } else if (layoutNode.getProperty(PRE_LAID_OUT)) {
+                fixShape(layoutNode);
+                fixChildren(layoutNode);
+            } else {
+                fixBlackBoxes(layoutNode);
+            }
+        }
+    }
+
+    private static void fixShape(final ElkNode layoutNode) {
+        layoutNode.setProperty(CoreOptions.NODE_SIZE_CONSTRAINTS, SizeConstraint.fixed());
+        layoutNode.setProperty(CoreOptions.NODE_LABELS_PLACEMENT, NodeLabelPlacement.fixed());
+        layoutNode.setProperty(CoreOptions.PORT_CONSTRAINTS, PortConstraints.FIXED_POS);
+    }
+
+    private static void fixChildren(final ElkNode layoutNode) {
+        if (layoutNode.getChildren().isEmpty()) {
+            return;
+        }
+        layoutNode.setProperty(CoreOptions.ALGORITHM, FixedLayouterOptions.ALGORITHM_ID);
+        layoutNode.setProperty(CoreOptions.RESOLVED_ALGORITHM, null);
+        layoutNode.setProperty(CoreOptions.HIERARCHY_HANDLING,
+                HierarchyHandling.SEPARATE_CHILDREN);
+        layoutNode.setProperty(CoreOptions.NODE_SIZE_FIXED_GRAPH_SIZE, true);
+        for (final ElkNode child : layoutNode.getChildren()) {
+            fixChildren(child);
+        }
+    }
+}
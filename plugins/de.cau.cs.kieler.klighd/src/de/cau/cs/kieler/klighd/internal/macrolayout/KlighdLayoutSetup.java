@@ -17,7 +17,6 @@
 package de.cau.cs.kieler.klighd.internal.macrolayout;
 
 import org.eclipse.elk.core.IGraphLayoutEngine;
-import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
 import org.eclipse.elk.core.service.DiagramLayoutEngine;
 import org.eclipse.elk.core.service.IDiagramLayoutConnector;
 import org.eclipse.elk.core.service.ILayoutConfigurationStore;
@@ -92,7 +91,7 @@ public final class KlighdLayoutSetup implements ILayoutSetup {
             // TODO extend "org.eclipse.elk.core.service.internal.DefaultModule()"
             //  and replace the first line by "super.configure(binder);"
 //            binder.bind(IGraphLayoutEngine.class).to(ConfigurableGraphLayoutEngine.class);
-            binder.bind(IGraphLayoutEngine.class).to(RecursiveGraphLayoutEngine.class);
+            binder.bind(IGraphLayoutEngine.class).to(KlighdGraphLayoutEngine.class);
             binder.bind(IDiagramLayoutConnector.class).to(KlighdDiagramLayoutConnector.class);
             binder.bind(ILayoutConfigurationStore.Provider.class)
                     .to(KlighdLayoutConfigurationStore.Provider.class);
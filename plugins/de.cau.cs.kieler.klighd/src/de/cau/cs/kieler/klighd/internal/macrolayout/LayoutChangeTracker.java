@@ -0,0 +1,249 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.internal.macrolayout;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KGraphElement;
+import de.cau.cs.kieler.klighd.kgraph.KLabel;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.KPort;
+import de.cau.cs.kieler.klighd.krendering.KRenderingLibrary;
+import de.cau.cs.kieler.klighd.util.ModelingUtil;
+import de.cau.cs.kieler.klighd.util.RenderingContextData;
+
+/**
+ * Records the changes of a view model between two layout runs, which allows to lay out only the
+ * hierarchy levels affected by them, see
+ * {@link de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties#INCREMENTAL_LAYOUT}.<br>
+ * <br>
+ * A node is considered dirty if it, its ports, labels, renderings, or properties, one of its
+ * descendants, or one of its attached edges changed since the last layout run. As the layout of
+ * the children of a clean node depends on these elements only, it is still valid, and the node can
+ * be handed over to ELK as a black box of its previous size. The ancestors of a dirty node are
+ * dirty, too. Changes performed by a layout run itself, e.g. the persisted size estimations or the
+ * application of the computed layout, are not recorded.<br>
+ * <br>
+ * In addition, the tracker discards the layouts of collapsed regions computed in advance by its
+ * {@link SpeculativeLayoutService} if the regions change. Changes of the
+ * {@link RenderingContextData}, e.g. the expansion of a region, don't affect these layouts.
+ */
+final class LayoutChangeTracker extends EContentAdapter {
+
+    /** The nodes whose children must be laid out again. */
+    private final Set<KNode> dirtyNodes = ConcurrentHashMap.newKeySet();
+
+    /** Whether the layout of the whole view model has been computed while being tracked. */
+    private volatile boolean laidOut = false;
+
+    /** Whether a layout run is in progress, whose changes are not recorded. */
+    private volatile boolean layoutRunning = false;
+
+    /** The layouts of collapsed regions computed in advance. */
+    private final SpeculativeLayoutService speculativeLayouts = new SpeculativeLayoutService();
+
+    /**
+     * Returns the tracker attached to the given view model, if any.
+     *
+     * @param viewModel
+     *            the view model
+     * @return the tracker, or <code>null</code> if the changes of <code>viewModel</code> are not
+     *         tracked
+     */
+    static LayoutChangeTracker get(final KNode viewModel) {
+        for (final Adapter adapter : viewModel.eAdapters()) {
+            if (adapter instanceof LayoutChangeTracker) {
+                return (LayoutChangeTracker) adapter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts tracking the changes of the given view model, if not done yet.
+     *
+     * @param viewModel
+     *            the view model
+     */
+    static void install(final KNode viewModel) {
+        if (get(viewModel) == null) {
+            viewModel.eAdapters().add(new LayoutChangeTracker());
+        }
+    }
+
+    /**
+     * Stops tracking the changes of the given view model, if done so far.
+     *
+     * @param viewModel
+     *            the view model
+     */
+    static void uninstall(final KNode viewModel) {
+        final LayoutChangeTracker tracker = get(viewModel);
+        if (tracker != null) {
+            viewModel.eAdapters().remove(tracker);
+            tracker.speculativeLayouts.invalidateAll();
+        }
+    }
+
+    /**
+     * Announces a layout run, whose changes are not recorded until {@link #endLayout()} is
+     * called.
+     *
+     * @return <code>true</code> if the previous layout of clean nodes may be reused,
+     *         <code>false</code> if the whole view model must be laid out, e.g. on the first run or
+     *         if the previous run didn't complete
+     */
+    boolean beginLayout() {
+        final boolean incremental = laidOut && !layoutRunning;
+        layoutRunning = true;
+        return incremental;
+    }
+
+    /**
+     * Announces the completion of a layout run, i.e. the application of its results. All nodes
+     * are clean afterwards.
+     */
+    void endLayout() {
+        dirtyNodes.clear();
+        laidOut = true;
+        layoutRunning = false;
+    }
+
+    /**
+     * Checks whether the given node or its ancestors, descendants, or attached elements changed
+     * since the last layout run.
+     *
+     * @param node
+     *            the node
+     * @return <code>true</code> if the children of <code>node</code> must be laid out again
+     */
+    boolean isDirty(final KNode node) {
+        return dirtyNodes.contains(node);
+    }
+
+    /**
+     * Returns the layouts of collapsed regions of the view model computed in advance.
+     *
+     * @return the {@link SpeculativeLayoutService} of the view model
+     */
+    SpeculativeLayoutService getSpeculativeLayouts() {
+        return speculativeLayouts;
+    }
+
+    @Override
+    public void notifyChanged(final Notification notification) {
+        super.notifyChanged(notification);
+
+        if (layoutRunning || notification.isTouch()
+                || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+            return;
+        }
+
+        final boolean renderingStateChange = isRenderingStateChange(notification.getNotifier());
+        markDirty(notification.getNotifier(), !renderingStateChange);
+
+        // referenced elements are affected as well, e.g. the previous and new targets of an edge;
+        //  added nodes have not been laid out at all, so their descendants are dirty, too
+        final boolean containment = notification.getFeature() instanceof EReference
+                && ((EReference) notification.getFeature()).isContainment();
+        markReferencedDirty(notification.getOldValue(), false, !renderingStateChange);
+        markReferencedDirty(notification.getNewValue(), containment, !renderingStateChange);
+    }
+
+    private static boolean isRenderingStateChange(final Object notifier) {
+        Object element = notifier;
+        while (element instanceof EObject && !(element instanceof KGraphElement)) {
+            if (element instanceof RenderingContextData) {
+                return true;
+            }
+            element = ((EObject) element).eContainer();
+        }
+        return false;
+    }
+
+    private void markReferencedDirty(final Object value, final boolean added,
+            final boolean invalidate) {
+        final Collection<?> values = value instanceof Collection
+                ? (Collection<?>) value : Collections.singleton(value);
+        for (final Object element : values) {
+            if (added && element instanceof KNode) {
+                final Iterator<KNode> nodes =
+                        ModelingUtil.selfAndEAllContentsOfType2((KNode) element, KNode.class);
+                while (nodes.hasNext()) {
+                    markNodeDirty(nodes.next(), invalidate);
+                }
+            } else if (element instanceof KGraphElement) {
+                markDirty(element, invalidate);
+            }
+        }
+    }
+
+    /**
+     * Marks the nodes affected by a change of the given object dirty, and discards the layouts of
+     * the affected collapsed regions if requested.
+     */
+    private void markDirty(final Object object, final boolean invalidate) {
+        Object element = object;
+        while (element instanceof EObject && !(element instanceof KNode
+                || element instanceof KEdge || element instanceof KPort
+                || element instanceof KLabel)) {
+            if (element instanceof KRenderingLibrary) {
+                // library renderings may be referenced by any element
+                laidOut = false;
+                speculativeLayouts.invalidateAll();
+                return;
+            }
+            element = ((EObject) element).eContainer();
+        }
+
+        if (element instanceof KLabel) {
+            element = ((KLabel) element).getParent();
+        }
+
+        if (element instanceof KNode) {
+            markNodeDirty((KNode) element, invalidate);
+        } else if (element instanceof KPort) {
+            markNodeDirty(((KPort) element).getNode(), invalidate);
+        } else if (element instanceof KEdge) {
+            markNodeDirty(((KEdge) element).getSource(), invalidate);
+            markNodeDirty(((KEdge) element).getTarget(), invalidate);
+        }
+    }
+
+    private void markNodeDirty(final KNode node, final boolean invalidate) {
+        if (invalidate) {
+            speculativeLayouts.invalidate(node);
+        }
+
+        // the ancestors of a dirty node are dirty, too, so stop at the first dirty one
+        KNode current = node;
+        while (current != null && dirtyNodes.add(current)) {
+            current = current.getParent();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.internal.macrolayout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.elk.core.service.LayoutMapping;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.core.util.NullElkProgressMonitor;
+
+import de.cau.cs.kieler.klighd.Klighd;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+
+/**
+ * Lays out collapsed regions of a view model in the background, i.e. the children of collapsed
+ * compound nodes, in order to apply their layout immediately once they are expanded, see
+ * {@link de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties#PRE_LAYOUT_BUDGET}.<br>
+ * <br>
+ * The thread applying the layout of the view model only copies the regions, building, configuring,
+ * and laying out their layout graphs is done by the {@link KlighdDiagramLayoutConnector} in the
+ * background. The {@link LayoutChangeTracker} of the view model cancels the layout of a region as
+ * soon as the region changes. The total number of layout graph elements kept by an instance is
+ * bounded by a budget. The sizes of the regions are remembered until they change, so regions
+ * exceeding the budget aren't counted again on every layout run.
+ */
+final class SpeculativeLayoutService {
+
+    /** Runs the layouts on all but one of the available cores with low priority. */
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            "KLighD speculative layout " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        EXECUTOR = executor;
+    }
+
+    /** The scheduled and completed layouts per collapsed compound node. */
+    private final Map<KNode, PreLayout> preLayouts = new ConcurrentHashMap<>();
+
+    /** The number of layout graph elements kept in {@link #preLayouts}. */
+    private final AtomicInteger usedBudget = new AtomicInteger();
+
+    /** The numbers of layout graph elements of the collapsed compound nodes counted so far. */
+    private final Map<KNode, Integer> regionSizes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the number of layout graph elements kept by the scheduled and completed layouts.
+     *
+     * @return the used budget
+     */
+    int getUsedBudget() {
+        return usedBudget.get();
+    }
+
+    /**
+     * Returns the number of layout graph elements of the given node's children, which is counted
+     * once until the node changes.
+     *
+     * @param node
+     *            the collapsed compound node
+     * @param counter
+     *            the function counting the elements of the node
+     * @return the number of elements
+     */
+    int sizeOf(final KNode node, final ToIntFunction<KNode> counter) {
+        return regionSizes.computeIfAbsent(node, counter::applyAsInt);
+    }
+
+    /**
+     * Checks whether the layout of the given node's children has been scheduled already.
+     *
+     * @param node
+     *            the collapsed compound node
+     * @return <code>true</code> if the layout is scheduled or completed
+     */
+    boolean isScheduled(final KNode node) {
+        return preLayouts.containsKey(node);
+    }
+
+    /**
+     * Schedules the layout of the given node's children in the background.
+     *
+     * @param node
+     *            the collapsed compound node whose children are laid out
+     * @param layout
+     *            the function building and laying out the layout graph of <code>node</code> and
+     *            its children, observing the given progress monitor for cancelation; returns
+     *            <code>null</code> if there is nothing to lay out
+     * @param size
+     *            the number of elements of the layout graph
+     */
+    void schedule(final KNode node, final Function<IElkProgressMonitor, LayoutMapping> layout,
+            final int size) {
+        final PreLayout preLayout = new PreLayout(layout, size);
+        usedBudget.addAndGet(size);
+        final PreLayout replaced = preLayouts.put(node, preLayout);
+        if (replaced != null) {
+            release(replaced);
+        }
+        EXECUTOR.execute(preLayout);
+    }
+
+    /**
+     * Removes the layout of the given node's children, if any.
+     *
+     * @param node
+     *            the formerly collapsed compound node
+     * @return the laid out layout graph, or <code>null</code> if no layout has been scheduled or
+     *         it didn't complete (yet)
+     */
+    LayoutMapping take(final KNode node) {
+        final PreLayout preLayout = preLayouts.remove(node);
+        if (preLayout == null) {
+            return null;
+        }
+        release(preLayout);
+        return preLayout.completed ? preLayout.mapping : null;
+    }
+
+    /**
+     * Discards the layouts of the regions the given node belongs to, i.e. of the node itself and
+     * its ancestors.
+     *
+     * @param node
+     *            the changed node
+     */
+    void invalidate(final KNode node) {
+        if (preLayouts.isEmpty() && regionSizes.isEmpty()) {
+            return;
+        }
+        for (KNode current = node; current != null; current = current.getParent()) {
+            regionSizes.remove(current);
+            final PreLayout preLayout = preLayouts.remove(current);
+            if (preLayout != null) {
+                release(preLayout);
+            }
+        }
+    }
+
+    /**
+     * Discards all layouts.
+     */
+    void invalidateAll() {
+        regionSizes.clear();
+        for (final KNode node : preLayouts.keySet()) {
+            final PreLayout preLayout = preLayouts.remove(node);
+            if (preLayout != null) {
+                release(preLayout);
+            }
+        }
+    }
+
+    private void release(final PreLayout preLayout) {
+        preLayout.canceled = true;
+        usedBudget.addAndGet(-preLayout.size);
+    }
+
+    /**
+     * The layout of a collapsed region, which is also the progress monitor reporting its
+     * cancelation to the layout algorithms.
+     */
+    private static final class PreLayout extends NullElkProgressMonitor implements Runnable {
+
+        private final Function<IElkProgressMonitor, LayoutMapping> layout;
+        private final int size;
+        private LayoutMapping mapping;
+        private volatile boolean canceled = false;
+        private volatile boolean completed = false;
+
+        PreLayout(final Function<IElkProgressMonitor, LayoutMapping> layout, final int size) {
+            this.layout = layout;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            if (canceled) {
+                return;
+            }
+            try {
+                mapping = layout.apply(this);
+                completed = mapping != null && !canceled;
+            } catch (final RuntimeException e) {
+                // the region is laid out along with the diagram once expanded, as usual
+                if (!canceled) {
+                    Klighd.log(new Status(IStatus.WARNING, Klighd.PLUGIN_ID,
+                            "KLighD: Speculative layout of a collapsed region failed.", e));
+                }
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+    }
+}
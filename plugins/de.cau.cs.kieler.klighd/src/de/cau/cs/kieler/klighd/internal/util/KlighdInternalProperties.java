@@ -115,6 +115,14 @@ public final class KlighdInternalProperties {
      */
     public static final IProperty<KVector> PREVIOUS_POSITION = new Property<KVector>(
             "klighd.zoom.previousPosition");
+
+    /**
+     * Whether the upcoming diagram layout shall estimate the sizes of nodes and labels and apply
+     * the computed layout in parallel, see
+     * {@link de.cau.cs.kieler.klighd.LightDiagramLayoutConfig#parallel(Boolean)}.
+     */
+    public static final IProperty<Boolean> PARALLEL_LAYOUT_CONNECTION = new Property<Boolean>(
+            "klighd.layout.parallelConnection", false);
     
     /**
      * Property to be attached to the {@link de.cau.cs.kieler.klighd.kgraph.KShapeLayout
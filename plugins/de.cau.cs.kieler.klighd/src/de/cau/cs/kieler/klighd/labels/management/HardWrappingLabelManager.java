@@ -3,7 +3,7 @@
  *
  * http://www.informatik.uni-kiel.de/rtsys/kieler/
  * 
- * Copyright 2015, 2017 by
+ * Copyright 2015, 2017, 2026 by
  * + Christian-Albrechts-University of Kiel
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -41,29 +41,37 @@ public class HardWrappingLabelManager extends AbstractKlighdLabelManager {
         final FontData font = LabelManagementUtil.fontDataFor(label);
 
         if (PlacementUtil.estimateTextSize(font, label.getText()).getWidth() > targetWidth) {
-            String textWithoutLineBreaks = label.getText().replace("\n", " ");
-            String restText = textWithoutLineBreaks;
-            StringBuilder resultText = new StringBuilder(label.getText().length());
+            final TextPrefixWidths widths =
+                    new TextPrefixWidths(font, label.getText().replace("\n", " "));
+            final String text = widths.getText();
+            StringBuilder resultText = new StringBuilder(text.length());
 
-            while (restText.length() != 0) {
-                // Delete surrounding whitespace
-                restText = restText.trim();
+            int lineBegin = 0;
+            while (true) {
+                // Skip surrounding whitespace
+                while (lineBegin < text.length() && text.charAt(lineBegin) <= ' ') {
+                    lineBegin++;
+                }
+                if (lineBegin == text.length()) {
+                    break;
+                }
                 
                 // Find the part of the rest of the string which fits the line
-                String fittingString = LabelManagementUtil.findFittingString(
-                        restText, font, targetWidth);
+                int lineEnd = widths.getFittingEnd(lineBegin, targetWidth);
 
                 // Break if the targetWidth is too small to find something
-                if (fittingString.equals("")) {
+                if (lineEnd == lineBegin) {
                     return Result.modified("");
                 }
                 
-                resultText.append(fittingString).append("\n");
-                restText = restText.substring(fittingString.length());
+                if (resultText.length() > 0) {
+                    resultText.append("\n");
+                }
+                resultText.append(text, lineBegin, lineEnd);
+                lineBegin = lineEnd;
             }
             
-            // Delete last \n
-            return Result.modified(resultText.substring(0, resultText.length() - 1));
+            return Result.modified(resultText.toString());
             
         } else {
             // We label wasn't too long
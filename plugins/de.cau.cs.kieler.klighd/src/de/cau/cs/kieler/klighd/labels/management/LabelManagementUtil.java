@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2015 by
+ * Copyright 2015-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -28,7 +28,6 @@ import de.cau.cs.kieler.klighd.krendering.KRendering;
 import de.cau.cs.kieler.klighd.krendering.KRenderingOptions;
 import de.cau.cs.kieler.klighd.krendering.KRenderingUtil;
 import de.cau.cs.kieler.klighd.krendering.KText;
-import de.cau.cs.kieler.klighd.microlayout.Bounds;
 import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
 
 /**
@@ -38,6 +37,12 @@ import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
  */
 public final class LabelManagementUtil {
     
+    /**
+     * The relative tolerance below the biggest estimated word width within which
+     * {@link #getWidthOfBiggestWord(TextPrefixWidths, int[])} measures words.
+     */
+    static final float BIGGEST_WORD_TOLERANCE = 0.1f;
+    
     /**
      * This class is not supposed to be instantiated.
      */
@@ -78,6 +83,7 @@ public final class LabelManagementUtil {
 
     /**
      * Determines the first part of the String which fits in a certain width depending on the font.
+     * Line breaks are replaced by spaces.
      * 
      * @param text
      *            the text which is supposed to be shortened.
@@ -85,47 +91,14 @@ public final class LabelManagementUtil {
      *            the font the text will be rendered with.
      * @param targetWidth
      *            the width the text is supposed to fit in.
-     * @return the part of the text which fits in the target width.
+     * @return the part of the text which fits in the target width, empty if not even a single
+     *         character fits.
      */
     public static String findFittingString(final String text, final FontData fontData,
             final double targetWidth) {
         
-        String textWithoutWraps = text.replace("\n", " ");
-        Bounds newSize = PlacementUtil.estimateTextSize(fontData, textWithoutWraps);
-        String newText = "";
-
-        // Guess how many characters will fit into the target width (and make sure it's not more
-        // than the number of characters we actually have)
-        int newTextLength = (int) (targetWidth / (newSize.getWidth() / textWithoutWraps.length()));
-        newTextLength = Math.min(newTextLength, textWithoutWraps.length());
-
-        // Shorten the text accordingly and calculate its bounds
-        newText = textWithoutWraps.substring(0, newTextLength);
-        newSize = PlacementUtil.estimateTextSize(fontData, newText);
-
-        if (newSize.getWidth() > targetWidth) {
-            // Text is still to long and some more characters have to go
-            while (newSize.getWidth() > targetWidth && newTextLength > 1) {
-                newTextLength--;
-                newText = textWithoutWraps.substring(0, newTextLength);
-                newSize = PlacementUtil.estimateTextSize(fontData, newText);
-            }
-        } else {
-            // There is some space for more characters
-            while (newSize.getWidth() < targetWidth
-                    && newTextLength < textWithoutWraps.length() - 1) {
-                
-                newTextLength++;
-                String newTextCandidate = textWithoutWraps.substring(0, newTextLength);
-                newSize = PlacementUtil.estimateTextSize(fontData, newTextCandidate);
-                
-                if (newSize.getWidth() <= targetWidth) {
-                    newText = newTextCandidate;
-                }
-            }
-        }
-        
-        return newText;
+        final TextPrefixWidths widths = new TextPrefixWidths(fontData, text.replace("\n", " "));
+        return widths.getText().substring(0, widths.getFittingEnd(0, targetWidth));
     }
 
     /**
@@ -138,17 +111,47 @@ public final class LabelManagementUtil {
      * @return biggest word.
      */
     public static float getWidthOfBiggestWord(final FontData font, final String[] words) {
-        Bounds bWSize = PlacementUtil.estimateTextSize(font, "");
-        Bounds textPartSize;
+        final TextPrefixWidths widths = new TextPrefixWidths(font, String.join(" ", words));
+        final int[] wordEnds = new int[words.length];
+        int end = -1;
+        for (int i = 0; i < words.length; i++) {
+            end += words[i].length() + 1;
+            wordEnds[i] = end;
+        }
+        return getWidthOfBiggestWord(widths, wordEnds);
+    }
+
+    /**
+     * Find the width of the biggest word of a text whose words are separated by single characters.
+     * Only the words whose estimated widths are within {@link #BIGGEST_WORD_TOLERANCE} of the
+     * biggest estimated width are measured, since the estimates ignore kerning. The result is thus
+     * only too small if kerning changes the width of a word by more than that.
+     * 
+     * @param widths
+     *            the prefix widths of the text.
+     * @param wordEnds
+     *            the ascending indices after the last characters of the words.
+     * @return the width of the biggest word.
+     */
+    static float getWidthOfBiggestWord(final TextPrefixWidths widths, final int[] wordEnds) {
+        float biggestEstimate = 0;
+        int begin = 0;
+        for (int end : wordEnds) {
+            biggestEstimate = Math.max(biggestEstimate, widths.getEstimatedWidth(begin, end));
+            begin = end + 1;
+        }
 
-        for (String textpart : words) {
-            textPartSize = PlacementUtil.estimateTextSize(font, textpart);
-            if (bWSize.getWidth() < textPartSize.getWidth()) {
-                bWSize = textPartSize;
+        final float threshold = biggestEstimate * (1 - BIGGEST_WORD_TOLERANCE);
+        float biggestWidth = widths.getWidth(0, 0);
+        begin = 0;
+        for (int end : wordEnds) {
+            if (widths.getEstimatedWidth(begin, end) >= threshold) {
+                biggestWidth = Math.max(biggestWidth, widths.getWidth(begin, end));
             }
+            begin = end + 1;
         }
         
-        return bWSize.getWidth();
+        return biggestWidth;
     }
     
 }
@@ -3,7 +3,7 @@
  *
  * http://www.informatik.uni-kiel.de/rtsys/kieler/
  * 
- * Copyright 2015, 2017 by
+ * Copyright 2015, 2017, 2026 by
  * + Christian-Albrechts-University of Kiel
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -41,41 +41,34 @@ public class SoftWrappingLabelManager extends AbstractKlighdLabelManager {
         final FontData font = LabelManagementUtil.fontDataFor(label);
         
         if (PlacementUtil.estimateTextSize(font, label.getText()).getWidth() > targetWidth) {
-            String textWithoutLineBreaks = label.getText().replace("\n", " ");
-
-            // Divide the text into "words"
-            String[] words = textWithoutLineBreaks.split(" ");
-            StringBuilder resultText = new StringBuilder(label.getText().length());
-            String currentLineText;
-            double effectiveTargetWidth =
-                    Math.max(LabelManagementUtil.getWidthOfBiggestWord(font, words), targetWidth);
+            // Divide the text into "words", dropping trailing spaces just like String.split(" ")
+            String text = label.getText().replace("\n", " ");
+            int textLength = text.length();
+            while (textLength > 0 && text.charAt(textLength - 1) == ' ') {
+                textLength--;
+            }
+            final TextPrefixWidths widths =
+                    new TextPrefixWidths(font, text.substring(0, textLength));
+            text = widths.getText();
+            
+            final int[] wordEnds = wordEnds(text);
+            StringBuilder resultText = new StringBuilder(text.length());
+            double effectiveTargetWidth = Math.max(
+                    LabelManagementUtil.getWidthOfBiggestWord(widths, wordEnds), targetWidth);
 
-            // iterate over the lines
+            // iterate over the lines, each line holds at least one word and further words as long
+            // as the line stays narrower than the target width
             int currWordIndex = 0;
-            while (currWordIndex < words.length) {
-                currentLineText = words[currWordIndex];
-                String testText = currentLineText;
+            while (currWordIndex < wordEnds.length) {
+                final int lineBegin = currWordIndex == 0 ? 0 : wordEnds[currWordIndex - 1] + 1;
+                final int lastWordIndex = Math.max(currWordIndex, widths.getFittingEnd(lineBegin,
+                        wordEnds, currWordIndex + 1, Math.nextDown(effectiveTargetWidth)));
 
-                // Test if another word fits into this line
-                double lineWidth = 0;
-                do {
-                    currentLineText = testText;
-                    if (currWordIndex < words.length - 1) {
-                        testText = currentLineText + " " + words[++currWordIndex];
-                    } else {
-                        testText = " ";
-                        currWordIndex++;
-                    }
-                    lineWidth = PlacementUtil.estimateTextSize(font, testText).getWidth();
-                } while (lineWidth < effectiveTargetWidth && currWordIndex < words.length);
-
-                // No more words fit so the line is added to the result
-                if (currWordIndex < words.length) {
-                    resultText.append(currentLineText).append("\n");
-                } else {
-                    resultText.append(currentLineText);
-                    break;
+                if (resultText.length() > 0) {
+                    resultText.append("\n");
                 }
+                resultText.append(text, lineBegin, wordEnds[lastWordIndex]);
+                currWordIndex = lastWordIndex + 1;
             }
             
             return Result.modified(resultText.toString());
@@ -84,9 +77,33 @@ public class SoftWrappingLabelManager extends AbstractKlighdLabelManager {
             // We label wasn't too long
             return Result.unmodified();
         }
+    }
+    
+    /**
+     * Returns the indices after the last characters of the words of the given text, which are
+     * separated by single spaces.
+     */
+    private static int[] wordEnds(final String text) {
+        if (text.isEmpty()) {
+            return new int[0];
+        }
         
+        int wordCount = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ' ') {
+                wordCount++;
+            }
+        }
         
-        
+        final int[] wordEnds = new int[wordCount];
+        int word = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ' ') {
+                wordEnds[word++] = i;
+            }
+        }
+        wordEnds[word] = text.length();
+        return wordEnds;
     }
 
 }
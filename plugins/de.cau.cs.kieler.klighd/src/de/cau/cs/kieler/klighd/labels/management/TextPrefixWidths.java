@@ -0,0 +1,171 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.labels.management;
+
+import org.eclipse.swt.graphics.FontData;
+
+import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
+
+/**
+ * The widths of all prefixes of a label text, used to find the parts of the text fitting a certain
+ * width without measuring the text once per character.<br>
+ * <br>
+ * The prefix widths are computed once per text by summing up the widths of its characters. They are
+ * estimates since they ignore kerning and the like, but they grow with the prefix length just like
+ * the measured widths. Fitting parts are therefore found by binary searching the estimates, and the
+ * result is then corrected by measuring the text, usually requiring only one or two measurements.
+ */
+public final class TextPrefixWidths {
+
+    /** The text whose prefix widths are stored. */
+    private final String text;
+
+    /** The font the text will be rendered with. */
+    private final FontData fontData;
+
+    /** The estimated width of the first {@code i} characters of the text at index {@code i}. */
+    private final float[] prefixWidths;
+
+    /**
+     * Computes the prefix widths of the given text.
+     *
+     * @param fontData
+     *            the font the text will be rendered with.
+     * @param text
+     *            the text.
+     */
+    public TextPrefixWidths(final FontData fontData, final String text) {
+        this.text = text;
+        this.fontData = fontData;
+        this.prefixWidths = new float[text.length() + 1];
+
+        for (int i = 0; i < text.length(); i++) {
+            // estimateTextSize caches its results, so each character is measured once per font
+            prefixWidths[i + 1] = prefixWidths[i] + PlacementUtil.estimateTextSize(
+                    fontData, String.valueOf(text.charAt(i))).getWidth();
+        }
+    }
+
+    /**
+     * Returns the text whose prefix widths are stored.
+     *
+     * @return the text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the estimated width of the given part of the text.
+     *
+     * @param begin
+     *            the index of the first character of the part.
+     * @param end
+     *            the index after the last character of the part.
+     * @return the estimated width.
+     */
+    public float getEstimatedWidth(final int begin, final int end) {
+        return prefixWidths[end] - prefixWidths[begin];
+    }
+
+    /**
+     * Measures the width of the given part of the text.
+     *
+     * @param begin
+     *            the index of the first character of the part.
+     * @param end
+     *            the index after the last character of the part.
+     * @return the width.
+     */
+    public float getWidth(final int begin, final int end) {
+        return PlacementUtil.estimateTextSize(fontData, text.substring(begin, end)).getWidth();
+    }
+
+    /**
+     * Determines the longest part of the text starting at the given index that fits the given
+     * width.
+     *
+     * @param begin
+     *            the index of the first character of the part.
+     * @param maxWidth
+     *            the width the part is supposed to fit in.
+     * @return the index after the last character of the part, {@code begin} if not even a single
+     *         character fits.
+     */
+    public int getFittingEnd(final int begin, final double maxWidth) {
+        return Math.max(begin, fit(begin, null, begin + 1, text.length() + 1, maxWidth));
+    }
+
+    /**
+     * Determines the longest part of the text starting at the given index and ending at one of the
+     * given indices that fits the given width.
+     *
+     * @param begin
+     *            the index of the first character of the part.
+     * @param ends
+     *            the ascending indices the part may end at, e.g. the ends of words.
+     * @param from
+     *            the position of the first index in {@code ends} to consider.
+     * @param maxWidth
+     *            the width the part is supposed to fit in.
+     * @return the position of the end of the part in {@code ends}, {@code from - 1} if no part
+     *         fits.
+     */
+    public int getFittingEnd(final int begin, final int[] ends, final int from,
+            final double maxWidth) {
+        return fit(begin, ends, from, ends.length, maxWidth);
+    }
+
+    /**
+     * Finds the greatest position in {@code [from, to)} whose end yields a part fitting the given
+     * width, or {@code from - 1}. {@code ends} maps positions to ends, {@code null} means identity.
+     */
+    private int fit(final int begin, final int[] ends, final int from, final int to,
+            final double maxWidth) {
+
+        // Binary search the estimated widths
+        int fitting = from - 1;
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (getEstimatedWidth(begin, endAt(ends, mid)) <= maxWidth) {
+                fitting = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // Correct the estimate by measuring the text
+        if (fitting >= from && getWidth(begin, endAt(ends, fitting)) > maxWidth) {
+            do {
+                fitting--;
+            } while (fitting >= from && getWidth(begin, endAt(ends, fitting)) > maxWidth);
+        } else {
+            while (fitting + 1 < to && getWidth(begin, endAt(ends, fitting + 1)) <= maxWidth) {
+                fitting++;
+            }
+        }
+
+        return fitting;
+    }
+
+    private static int endAt(final int[] ends, final int position) {
+        return ends == null ? position : ends[position];
+    }
+}
@@ -3,7 +3,7 @@
  *
  * http://www.informatik.uni-kiel.de/rtsys/kieler/
  * 
- * Copyright 2015, 2017 by
+ * Copyright 2015, 2017, 2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -33,6 +33,11 @@ import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
  * configured as to whether it should append an ellipsis to the truncated text to indicate
  * truncation (by default it does).
  * 
+ * <p>
+ * When truncating to the target width, a label whose first character does not fit next to the
+ * ellipsis is truncated to the ellipsis alone. Without an ellipsis, its text becomes empty.
+ * </p>
+ * 
  * @author ybl
  * @author cds
  */
@@ -214,7 +219,7 @@ public class TruncatingLabelManager extends AbstractKlighdLabelManager {
         // If there is enough space for some text and ellipses, calculate the fitting text
         if (targetWidth > ellipseWidth) {
             calculatedText = LabelManagementUtil.findFittingString(label.getText(),
-                    LabelManagementUtil.fontDataFor(label), targetWidth - ellipseWidth);
+                    labelFontData, targetWidth - ellipseWidth);
 
             // Delete whitespaces
             calculatedText = calculatedText.trim();                
@@ -3,7 +3,7 @@
  *
  * http://www.informatik.uni-kiel.de/rtsys/kieler/
  * 
- * Copyright 2012 by
+ * Copyright 2012-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -26,6 +26,7 @@ import static de.cau.cs.kieler.klighd.krendering.KRenderingUtil.toNonNullTopPosi
 
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
@@ -33,6 +34,8 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.options.CoreOptions;
@@ -46,10 +49,12 @@ import org.eclipse.swt.widgets.Display;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 import de.cau.cs.kieler.klighd.Klighd;
 import de.cau.cs.kieler.klighd.KlighdConstants;
@@ -626,8 +631,10 @@ public final class PlacementUtil {
             return new Bounds(0, 0);
 
         case KRenderingPackage.KRENDERING_REF:
-            // calculate the size of the referenced Rendering instead
-            return basicEstimateSize(((KRenderingRef) rendering).getRendering(), givenBounds);
+            // calculate the size of the referenced Rendering instead; as referenced renderings
+            //  are typically shared by many elements, their sizes are cached
+            return SharedRenderingSizeCache.basicEstimateSize(
+                    ((KRenderingRef) rendering).getRendering(), givenBounds);
 
         case KRenderingPackage.KCONTAINER_RENDERING:
 
@@ -1017,27 +1024,51 @@ public final class PlacementUtil {
      * A font cache preserving requested font configurations in order to avoid re-instantiation of
      * {@link Font}, which is assumed to be much more expensive than {@link FontData}.
      */
-    private static final Map<FontData, Font> FONT_CACHE = Maps.newHashMap();
+    private static final Map<FontData, Font> FONT_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The maximal number of text sizes kept in the {@link #TEXT_SIZE_CACHE}.
+     */
+    public static final int TEXT_SIZE_CACHE_SIZE = 10000;
+
+    /**
+     * A cache of estimated text sizes preserving the results of the expensive text measurement.
+     * Diagrams typically contain many identical texts like port names or keywords, whose size is
+     * thereby measured only once. The least recently used sizes are evicted if the cache is full.
+     */
+    private static final Cache<TextSizeKey, Bounds> TEXT_SIZE_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(TEXT_SIZE_CACHE_SIZE).recordStats().build();
 
     /**
      * Two instances of {@link GC} that the text size estimation is delegated to.
      * We use two instances here because label management uses size estimation in another thread
      * and SWT is not exactly thread-safe.
      * It is unclear if this solves the issue completely, but it should at least circumvent
-     * the most common case.
+     * the most common case. Each instance is additionally locked while measuring, as several
+     * threads may share the asynchronous one.
      */
-    private static GC gc = null;
-    private static GC asyncGC = null;
-    private static Point displayScale = null;
+    private static volatile GC gc = null;
+    private static volatile GC asyncGC = null;
+    private static volatile Point displayScale = null;
+    private static volatile boolean displayScaleOutdated = false;
+    private static final Object GC_LOCK = new Object();
 
     private static BufferedImage bi = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
     private static Graphics2D fmg = bi.createGraphics();
 
+    /**
+     * The render context AWT measures texts with, the {@link AdvanceWidthTable AdvanceWidthTables}
+     * are built for.
+     */
+    private static final FontRenderContext AWT_RENDER_CONTEXT = fmg.getFontRenderContext();
+
     /**
      * Returns the minimal bounds required by a drawing of the string <code>text</code> while
      * respecting the given <code>fontData</code>. While being in an Eclipse context and having a
      * {@link Display}, the method uses SWT's {@link GC} to perform estimations. Otherwise it falls
-     * back to AWT's {@link FontMetrics}.
+     * back to AWT's {@link FontMetrics}.<br>
+     * The results are cached per font configuration and text, see
+     * {@link #invalidateTextSizeCache()}.
      * 
      * @param fontData
      *            an SWT {@link FontData} record describing font name, size, and style
@@ -1055,12 +1086,56 @@ public final class PlacementUtil {
         }
         
         // if a GC has been instantiated before or a display is available.
-        if (gc != null || display != null) {
-            return estimateTextSizeSWT(fontData, text, display);
+        final boolean useSWT = gc != null || display != null;
+        final boolean scaled = useSWT ? !Klighd.isSuppressDisplayScaleCompensationWhileHandlingText()
+                : Klighd.simulateSwtFontSizeInAwt();
+        final TextSizeKey key = new TextSizeKey(fontData, text, useSWT, scaled);
+        final Bounds cachedBounds = TEXT_SIZE_CACHE.getIfPresent(key);
+        if (cachedBounds != null) {
+            // hand out a copy, as callers may modify the returned bounds
+            return new Bounds(cachedBounds);
+        }
+
+        final Bounds textBounds;
+        if (useSWT) {
+            textBounds = estimateTextSizeSWT(fontData, text, display);
         } else {
             // if no display is available fallback to awt metrics
-            return estimateTextSizeAWT(fontData, text);
+            textBounds = estimateTextSizeAWT(fontData, text);
         }
+        TEXT_SIZE_CACHE.put(key, new Bounds(textBounds));
+        return textBounds;
+    }
+
+    /**
+     * Clears the cache of estimated text sizes and the cache of estimated sizes of referenced
+     * renderings depending on them. Must be called if the results of the text size estimation
+     * change, e.g. if the display scale or the installed fonts changed. The display scale is
+     * determined again on the next estimation in the UI thread.
+     */
+    public static void invalidateTextSizeCache() {
+        displayScaleOutdated = true;
+        TEXT_SIZE_CACHE.invalidateAll();
+        SharedRenderingSizeCache.invalidate();
+    }
+
+    /**
+     * Returns the statistics of the cache of estimated text sizes, e.g. its hit and miss counts.
+     * 
+     * @return the current statistics of the text size cache
+     */
+    public static CacheStats getTextSizeCacheStats() {
+        return TEXT_SIZE_CACHE.stats();
+    }
+
+    /**
+     * Returns the statistics of the cache of estimated sizes of renderings referenced by
+     * {@link KRenderingRef KRenderingRefs}, e.g. its hit and miss counts.
+     * 
+     * @return the current statistics of the referenced rendering size cache
+     */
+    public static CacheStats getReferencedRenderingSizeCacheStats() {
+        return SharedRenderingSizeCache.stats();
     }
 
     private static Bounds estimateTextSizeSWT(final FontData fontData,
@@ -1069,19 +1144,22 @@ public final class PlacementUtil {
         // In order to estimate the required size of a given string according to the determined
         // font, style, and size GCs are instantiated, configured, and queried.
         if (gc == null) {
-            // Create GC for the main thread
-            gc = new GC(display);
-            gc.setAntialias(SWT.OFF);
-            // Create (identical) GC for asynchronous threads
-            asyncGC = new GC(display);
-            asyncGC.setAntialias(SWT.OFF);
-
-            // determine the current display scale, used below for compensating the text bounds
-            //  see 
-            org.eclipse.swt.graphics.Point dpi = display.getDPI();
-            displayScale = new Point(
-                KlighdConstants.DEFAULT_DISPLAY_DPI / dpi.x,
-                KlighdConstants.DEFAULT_DISPLAY_DPI / dpi.y);
+            synchronized (GC_LOCK) {
+                if (gc == null) {
+                    // Create (identical) GC for asynchronous threads
+                    asyncGC = new GC(display);
+                    asyncGC.setAntialias(SWT.OFF);
+                    displayScale = determineDisplayScale(display);
+                    // Create GC for the main thread, published last as it marks the GCs ready
+                    final GC mainGC = new GC(display);
+                    mainGC.setAntialias(SWT.OFF);
+                    gc = mainGC;
+                }
+            }
+        } else if (displayScaleOutdated && display != null) {
+            // the display scale can only be determined in the UI thread
+            displayScaleOutdated = false;
+            displayScale = determineDisplayScale(display);
         }
 
         // Find the GC suitable for this thread.
@@ -1090,45 +1168,55 @@ public final class PlacementUtil {
         // between the main thread and the other stuff
         final GC myGC = Display.getCurrent() != null ? gc : asyncGC;        
 
-        Font font = FONT_CACHE.get(fontData);
-        if (font == null) {
-            font = new Font(display, fontData);
-            FONT_CACHE.put(fontData, font);
-        }
-        myGC.setFont(font);
+        final Font font = FONT_CACHE.computeIfAbsent(fontData, fd -> new Font(display, fd));
 
         final Bounds textBounds;
-        if (Strings.isNullOrEmpty(text)) {
-            // if no text string is given, take the bounds of a space character to get a proper
-            // value for the height
-            textBounds = new Bounds(myGC.textExtent(" "));
-            textBounds.width = 0f; // omit the width in this case
-        } else {
-            textBounds = new Bounds(myGC.textExtent(text));
+        synchronized (myGC) {
+            myGC.setFont(font);
+            if (Strings.isNullOrEmpty(text)) {
+                // if no text string is given, take the bounds of a space character to get a proper
+                // value for the height
+                textBounds = new Bounds(myGC.textExtent(" "));
+                textBounds.width = 0f; // omit the width in this case
+            } else {
+                textBounds = new Bounds(myGC.textExtent(text));
+            }
         }
 
         if (!Klighd.isSuppressDisplayScaleCompensationWhileHandlingText()) {
-            textBounds.width  *= displayScale.x;
-            textBounds.height *= displayScale.y;
+            final Point scale = displayScale;
+            textBounds.width  *= scale.x;
+            textBounds.height *= scale.y;
         }
 
         return textBounds;
     }
 
+    /**
+     * Determines the current display scale, used for compensating the text bounds.
+     */
+    private static Point determineDisplayScale(final Display display) {
+        org.eclipse.swt.graphics.Point dpi = display.getDPI();
+        return new Point(
+            KlighdConstants.DEFAULT_DISPLAY_DPI / dpi.x,
+            KlighdConstants.DEFAULT_DISPLAY_DPI / dpi.y);
+    }
+
     private static Bounds estimateTextSizeAWT(final FontData fontData, final String text) {
-        fmg.setFont(new java.awt.Font(fontData.getName(), 
-                KTextUtil.swtFontStyle2Awt(fontData.getStyle()), 
-                fontData.getHeight()));
-        final FontMetrics fm = fmg.getFontMetrics();
+        // The advances of the characters are looked up in tables built once per font instead of
+        // instantiating and querying the font for each text, see AdvanceWidthTable for the accuracy.
+        final AdvanceWidthTable table = AdvanceWidthTable.of(fontData.getName(),
+                KTextUtil.swtFontStyle2Awt(fontData.getStyle()), fontData.getHeight(),
+                AWT_RENDER_CONTEXT);
 
         final Bounds textBounds;
         if (Strings.isNullOrEmpty(text)) {
             // if no text string is given, take the bounds of a space character to get a proper
             // value for the height
-            textBounds = new Bounds(fm.getStringBounds(" ", fmg));
+            textBounds = new Bounds(table.getStringBounds(" "));
             textBounds.width = 0f; // omit the width in this case
         } else {
-            textBounds = new Bounds(fm.getStringBounds(text, fmg));
+            textBounds = new Bounds(table.getStringBounds(text));
         }
         
         if (Klighd.simulateSwtFontSizeInAwt()) {
@@ -1138,6 +1226,53 @@ public final class PlacementUtil {
         
         return textBounds;
     }
+
+    /**
+     * The key of the {@link #TEXT_SIZE_CACHE}: the text together with the normalized font
+     * configuration and the way it is measured.
+     */
+    private static final class TextSizeKey {
+
+        private final String fontName;
+        private final int fontHeight;
+        private final int fontStyle;
+        private final String text;
+        private final boolean useSWT;
+        private final boolean scaled;
+        private final int hashCode;
+
+        TextSizeKey(final FontData fontData, final String text, final boolean useSWT,
+                final boolean scaled) {
+            this.fontName = fontData.getName();
+            this.fontHeight = fontData.getHeight();
+            this.fontStyle = fontData.getStyle();
+            // null and empty texts are measured the same way
+            this.text = Strings.nullToEmpty(text);
+            this.useSWT = useSWT;
+            this.scaled = scaled;
+            this.hashCode = Objects.hash(fontName, fontHeight, fontStyle, this.text, useSWT, scaled);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TextSizeKey)) {
+                return false;
+            }
+            final TextSizeKey other = (TextSizeKey) obj;
+            return hashCode == other.hashCode && fontHeight == other.fontHeight
+                    && fontStyle == other.fontStyle && useSWT == other.useSWT
+                    && scaled == other.scaled && Objects.equals(fontName, other.fontName)
+                    && text.equals(other.text);
+        }
+    }
     
     /**
      * Returns the required minimal size of a {@link KRendering} width attached
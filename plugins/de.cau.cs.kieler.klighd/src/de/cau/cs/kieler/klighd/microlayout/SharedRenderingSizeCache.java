@@ -0,0 +1,238 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.microlayout;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import de.cau.cs.kieler.klighd.KlighdOptions;
+import de.cau.cs.kieler.klighd.kgraph.KGraphPackage;
+import de.cau.cs.kieler.klighd.kgraph.KLabel;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+
+/**
+ * A cache of the estimated sizes of renderings referenced by {@link
+ * de.cau.cs.kieler.klighd.krendering.KRenderingRef KRenderingRefs}, e.g. renderings of a
+ * {@link de.cau.cs.kieler.klighd.krendering.KRenderingLibrary KRenderingLibrary}. Such renderings
+ * are typically shared by many elements, whose size estimation thereby evaluates the rendering tree
+ * only once per given bounds.<br>
+ * <br>
+ * The renderings are identified by their identity. Each cached rendering is observed by an
+ * {@link EContentAdapter}, and any change of its tree clears the whole cache, as the sizes of
+ * renderings referencing the changed one depend on it as well. Changes of properties other than
+ * {@link KlighdOptions#LABELS_TEXT_OVERRIDE} are ignored, since they don't influence the size
+ * estimation but are written by it, e.g. the calculated text bounds.
+ */
+final class SharedRenderingSizeCache {
+
+    /** The maximal number of different given bounds whose sizes are kept per rendering. */
+    private static final int MAX_SIZES_PER_RENDERING = 64;
+
+    /** The estimated sizes per rendering and given bounds. */
+    private static final Cache<KRendering, ConcurrentMap<BoundsKey, Bounds>> SIZES =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    /** The number of sizes taken from the cache. */
+    private static final AtomicLong HITS = new AtomicLong();
+
+    /** The number of sizes estimated as they were not cached. */
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    /**
+     * This class is not supposed to be instantiated.
+     */
+    private SharedRenderingSizeCache() {
+    }
+
+    /**
+     * Returns the size of the given referenced rendering as
+     * {@link PlacementUtil#basicEstimateSize(KRendering, Bounds)} does, taking it from the cache if
+     * possible.
+     *
+     * @param rendering
+     *            the referenced rendering, maybe <code>null</code>
+     * @param givenBounds
+     *            the size that is currently assigned to the referencing rendering's container
+     * @return the minimal size
+     */
+    static Bounds basicEstimateSize(final KRendering rendering, final Bounds givenBounds) {
+        if (!isCacheable(rendering)) {
+            return PlacementUtil.basicEstimateSize(rendering, givenBounds);
+        }
+
+        ConcurrentMap<BoundsKey, Bounds> sizes = SIZES.getIfPresent(rendering);
+        if (sizes == null) {
+            sizes = observe(rendering);
+        }
+
+        final BoundsKey key = new BoundsKey(givenBounds);
+        final Bounds cachedSize = sizes.get(key);
+        if (cachedSize != null) {
+            HITS.incrementAndGet();
+            // hand out a copy, as callers may modify the returned bounds
+            return new Bounds(cachedSize);
+        }
+
+        // the estimation persists the calculated text bounds on the rendering's texts, so a shared
+        //  rendering must not be estimated by several threads at once
+        synchronized (rendering) {
+            final Bounds concurrentSize = sizes.get(key);
+            if (concurrentSize != null) {
+                HITS.incrementAndGet();
+                return new Bounds(concurrentSize);
+            }
+
+            MISSES.incrementAndGet();
+            final Bounds size = PlacementUtil.basicEstimateSize(rendering, givenBounds);
+            if (sizes.size() >= MAX_SIZES_PER_RENDERING) {
+                sizes.clear();
+            }
+            sizes.put(key, new Bounds(size));
+            return size;
+        }
+    }
+
+    /**
+     * Clears the cache, e.g. if the results of the text size estimation changed.
+     */
+    static void invalidate() {
+        SIZES.invalidateAll();
+    }
+
+    /**
+     * Returns the statistics of the cache, i.e. its hit and miss counts.
+     *
+     * @return the current statistics
+     */
+    static CacheStats stats() {
+        return new CacheStats(HITS.get(), MISSES.get(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Renderings within {@link KLabel KLabels} are not cached, as their {@link
+     * de.cau.cs.kieler.klighd.krendering.KText KTexts} may show the label's text, whose changes
+     * are not observed.
+     */
+    private static boolean isCacheable(final KRendering rendering) {
+        if (rendering == null) {
+            return false;
+        }
+        EObject container = rendering.eContainer();
+        while (container instanceof KRendering) {
+            container = container.eContainer();
+        }
+        return !(container instanceof KLabel);
+    }
+
+    /**
+     * Starts observing the given rendering, if not done yet, and returns its cache entry.
+     */
+    private static ConcurrentMap<BoundsKey, Bounds> observe(final KRendering rendering) {
+        // the adapters must not be attached concurrently
+        synchronized (rendering) {
+            ConcurrentMap<BoundsKey, Bounds> sizes = SIZES.getIfPresent(rendering);
+            if (sizes == null) {
+                if (rendering.eAdapters().stream()
+                        .noneMatch(InvalidatingAdapter.class::isInstance)) {
+                    rendering.eAdapters().add(new InvalidatingAdapter());
+                }
+                sizes = new ConcurrentHashMap<>();
+                SIZES.put(rendering, sizes);
+            }
+            return sizes;
+        }
+    }
+
+    /**
+     * The key of the cached sizes of a rendering, the values of the given bounds. The given bounds
+     * themselves are mutable.
+     */
+    private static final class BoundsKey {
+
+        private final float x;
+        private final float y;
+        private final float width;
+        private final float height;
+
+        BoundsKey(final Bounds bounds) {
+            this.x = bounds.x;
+            this.y = bounds.y;
+            this.width = bounds.width;
+            this.height = bounds.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(x, y, width, height);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof BoundsKey)) {
+                return false;
+            }
+            final BoundsKey other = (BoundsKey) obj;
+            return Float.compare(x, other.x) == 0 && Float.compare(y, other.y) == 0
+                    && Float.compare(width, other.width) == 0
+                    && Float.compare(height, other.height) == 0;
+        }
+    }
+
+    /**
+     * Clears the cache on relevant changes of the observed rendering trees.
+     */
+    private static final class InvalidatingAdapter extends EContentAdapter {
+
+        @Override
+        public void notifyChanged(final Notification notification) {
+            super.notifyChanged(notification);
+
+            if (!notification.isTouch()
+                    && notification.getEventType() != Notification.REMOVING_ADAPTER
+                    && !isIrrelevantPropertyChange(notification)) {
+                invalidate();
+            }
+        }
+
+        private static boolean isIrrelevantPropertyChange(final Notification notification) {
+            final Object entry;
+            if (notification.getNotifier() instanceof Map.Entry) {
+                // the value of an existing property changed
+                entry = notification.getNotifier();
+            } else if (notification.getFeature()
+                    == KGraphPackage.Literals.EMAP_PROPERTY_HOLDER__PROPERTIES) {
+                entry = notification.getNewValue() != null
+                        ? notification.getNewValue() : notification.getOldValue();
+            } else {
+                return false;
+            }
+            return entry instanceof Map.Entry
+                    && ((Map.Entry<?, ?>) entry).getKey() != KlighdOptions.LABELS_TEXT_OVERRIDE;
+        }
+    }
+}
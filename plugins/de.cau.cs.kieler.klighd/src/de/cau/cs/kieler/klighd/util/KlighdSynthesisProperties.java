@@ -18,6 +18,7 @@ package de.cau.cs.kieler.klighd.util;
 
 import java.util.Map;
 
+import org.eclipse.elk.core.util.IElkCancelIndicator;
 import org.eclipse.elk.graph.properties.IProperty;
 import org.eclipse.elk.graph.properties.IPropertyHolder;
 import org.eclipse.elk.graph.properties.MapPropertyHolder;
@@ -89,6 +90,38 @@ public class KlighdSynthesisProperties extends MapPropertyHolder {
     public static final IProperty<Boolean> SUPPRESS_EDGE_ADJUSTMENT = new Property<Boolean>(
             "klighd.suppressEdgeAdjustment", false);
 
+    /**
+     * Whether to lay out only the hierarchy levels of the diagram that changed since its previous
+     * layout. If activated, the changes of the view model are tracked, and the children of
+     * compound nodes that are unchanged, including their attached edges and the nested elements,
+     * keep their previous layout while their parents are laid out again. Layout options that are
+     * not configured by means of the view model's properties, e.g. by
+     * {@link de.cau.cs.kieler.klighd.LightDiagramLayoutConfig#options(java.util.List)}, are
+     * expected to stay the same across the layout runs.
+     */
+    public static final IProperty<Boolean> INCREMENTAL_LAYOUT = new Property<Boolean>(
+            "klighd.incrementalLayout", false);
+
+    /**
+     * The maximal number of layout graph elements, i.e. nodes, ports, labels, and edges, whose
+     * layout is computed in advance while being collapsed. If positive and if the diagram is laid
+     * out incrementally, see {@link #INCREMENTAL_LAYOUT}, the children of collapsed compound nodes
+     * are laid out in the background after each layout run, and their layout is applied
+     * immediately once the compound nodes are expanded. The number bounds the memory occupied by
+     * these layouts. Defaults to <code>0</code>, i.e. no layouts are computed in advance.
+     */
+    public static final IProperty<Integer> PRE_LAYOUT_BUDGET = new Property<Integer>(
+            "klighd.preLayoutBudget", 0);
+
+    /**
+     * Indicator telling whether the current diagram update has been superseded and its result is
+     * not needed anymore. If configured on a {@link de.cau.cs.kieler.klighd.ViewContext
+     * ViewContext}, a canceled update does not apply the synthesized view model and the layout
+     * is canceled as soon as the layout algorithms check for it.
+     */
+    public static final IProperty<IElkCancelIndicator> CANCEL_INDICATOR =
+            new Property<IElkCancelIndicator>("klighd.cancelIndicator");
+
     /**
      * Defines the possible diagram side bar initialization options.
      */
@@ -346,6 +379,31 @@ public class KlighdSynthesisProperties extends MapPropertyHolder {
         return this;
     }
 
+    /**
+     * Configures the diagram to be laid out incrementally, i.e. to lay out only the hierarchy
+     * levels that changed since the previous layout, see {@link #INCREMENTAL_LAYOUT}.
+     *
+     * @return <code>this</code> {@link KlighdSynthesisProperties} object.
+     */
+    public KlighdSynthesisProperties incrementalLayout() {
+        this.setProperty(INCREMENTAL_LAYOUT, true);
+        return this;
+    }
+
+    /**
+     * Configures the diagram to be laid out incrementally, and the children of collapsed compound
+     * nodes to be laid out in advance, see {@link #PRE_LAYOUT_BUDGET}.
+     *
+     * @param budget
+     *            the maximal number of layout graph elements whose layout is computed in advance
+     * @return <code>this</code> {@link KlighdSynthesisProperties} object.
+     */
+    public KlighdSynthesisProperties preLayoutCollapsedRegions(final int budget) {
+        this.setProperty(INCREMENTAL_LAYOUT, true);
+        this.setProperty(PRE_LAYOUT_BUDGET, budget);
+        return this;
+    }
+
     /**
      * Configures diagram {@link SynthesisOption} values beyond the default value definitions.
      *
@@ -0,0 +1,156 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.elk.graph.properties.IProperty;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Immutable index deciding which properties are kept when sending a view model to a remote client.
+ * Properties with an id starting with one of the {@link #DEFAULT_PREFIXES} or being whitelisted are
+ * kept unless they are blacklisted.<br>
+ * The black- and whitelisted ids are stored in hash sets, the default prefixes in a character trie,
+ * and the decision for each property id is cached, so the per-property cost is constant in the
+ * number of registered properties.<br>
+ * Instances are obtained via
+ * {@link de.cau.cs.kieler.klighd.KlighdDataManager#getPropertyFilterIndex()
+ * KlighdDataManager#getPropertyFilterIndex()}, which creates a new index with an increased
+ * {@link #getVersion() version} whenever black- or whitelisted properties are registered.
+ */
+public final class PropertyFilterIndex {
+
+    /** The id prefixes of properties that are kept by default. */
+    public static final String[] DEFAULT_PREFIXES =
+            { "de.cau.cs.kieler.klighd", "klighd", "org.eclipse.elk" };
+
+    /** The ids of the blacklisted properties. */
+    private final Set<String> blacklistedIds;
+
+    /** The ids of the whitelisted properties. */
+    private final Set<String> whitelistedIds;
+
+    /** The root of the trie of {@link #DEFAULT_PREFIXES}. */
+    private final TrieNode prefixes = new TrieNode();
+
+    /** The cached decisions, keyed by property id. */
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    /** The version of this index. */
+    private final int version;
+
+    /**
+     * Constructor.
+     *
+     * @param blacklist
+     *            the properties that must not be kept
+     * @param whitelist
+     *            the properties that are kept in addition to the ones matching the
+     *            {@link #DEFAULT_PREFIXES}
+     * @param version
+     *            the version of this index
+     */
+    public PropertyFilterIndex(final Iterable<IProperty<?>> blacklist,
+            final Iterable<IProperty<?>> whitelist, final int version) {
+        this.blacklistedIds = collectIds(blacklist);
+        this.whitelistedIds = collectIds(whitelist);
+        this.version = version;
+
+        for (final String prefix : DEFAULT_PREFIXES) {
+            TrieNode node = prefixes;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+            }
+            node.terminal = true;
+        }
+    }
+
+    private static Set<String> collectIds(final Iterable<IProperty<?>> properties) {
+        final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (final IProperty<?> property : properties) {
+            builder.add(property.getId());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the version of this index. Indices created later on have a higher version.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the given property shall be kept.
+     *
+     * @param property
+     *            the property to check
+     * @return <code>true</code> if the property shall be kept, <code>false</code> otherwise
+     */
+    public boolean keep(final IProperty<?> property) {
+        return keep(property.getId());
+    }
+
+    /**
+     * Checks whether the property with the given id shall be kept.
+     *
+     * @param id
+     *            the id of the property to check
+     * @return <code>true</code> if the property shall be kept, <code>false</code> otherwise
+     */
+    public boolean keep(final String id) {
+        final Boolean decision = decisions.get(id);
+        if (decision != null) {
+            return decision.booleanValue();
+        }
+        final boolean keep = !blacklistedIds.contains(id)
+                && (hasDefaultPrefix(id) || whitelistedIds.contains(id));
+        decisions.put(id, keep);
+        return keep;
+    }
+
+    /**
+     * Checks whether the given id starts with one of the {@link #DEFAULT_PREFIXES}.
+     */
+    private boolean hasDefaultPrefix(final String id) {
+        TrieNode node = prefixes;
+        for (int i = 0; i < id.length(); i++) {
+            node = node.children.get(id.charAt(i));
+            if (node == null) {
+                return false;
+            } else if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A node of the prefix trie.
+     */
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private boolean terminal = false;
+    }
+}
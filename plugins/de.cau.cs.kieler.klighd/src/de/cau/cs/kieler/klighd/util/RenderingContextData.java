@@ -22,9 +22,12 @@ import org.eclipse.emf.ecore.EObject;
 import com.google.common.base.Predicate;
 
 import de.cau.cs.kieler.klighd.internal.util.KlighdInternalProperties;
+import de.cau.cs.kieler.klighd.kgraph.KGraphData;
 import de.cau.cs.kieler.klighd.kgraph.KGraphElement;
 import de.cau.cs.kieler.klighd.kgraph.KNode;
 import de.cau.cs.kieler.klighd.kgraph.impl.KGraphDataImpl;
+import de.cau.cs.kieler.klighd.kgraph.impl.KGraphElementImpl;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
 
 /**
  * A graph data implementation for storing context information about elements in a
@@ -35,6 +38,15 @@ import de.cau.cs.kieler.klighd.kgraph.impl.KGraphDataImpl;
  */
 public class RenderingContextData extends KGraphDataImpl {
 
+    /** The version of the container's data list the cached renderings have been selected for. */
+    private int renderingsVersion = -1;
+
+    /** The cached rendering of the container in its expanded state. */
+    private KRendering expandedRendering;
+
+    /** The cached rendering of the container in its collapsed state. */
+    private KRendering collapsedRendering;
+
     /**
      * Adds an instance of {@code RenderingContextData} to the given diagram element if it has no such
      * data added. In any case returns the data instance.
@@ -129,7 +141,81 @@ public class RenderingContextData extends KGraphDataImpl {
      * @return true if <code>property</code> is set, false otherwise.
      */
     public boolean containsPoperty(final IProperty<?> property) {
-        return this.getProperties().keySet().contains(property);
+        return this.hasProperty(property);
+    }
+
+    /**
+     * Returns the rendering of the given node that is shown in its current state, i.e. depending
+     * on whether it is {@link KlighdInternalProperties#POPULATED populated}.
+     *
+     * @param node
+     *            the node
+     * @return the shown rendering, or <code>null</code> if none of the node's renderings fits its
+     *         state
+     * @see #getRendering(KNode, boolean)
+     */
+    public static KRendering getCurrentRendering(final KNode node) {
+        final RenderingContextData data = get(node);
+        return data.getRendering(data.getProperty(KlighdInternalProperties.POPULATED));
+    }
+
+    /**
+     * Returns the rendering of the given node that is shown in the given state. That is the first
+     * rendering tagged as {@link KlighdPredicates#isExpandedRendering() expanded} or
+     * {@link KlighdPredicates#isCollapsedRendering() collapsed} one, respectively, or the first
+     * one that is not tagged for the other state. The result is cached by the node's
+     * {@link RenderingContextData}, if any, until its data list changes. Changes of the tags of
+     * attached renderings are not observed.
+     *
+     * @param node
+     *            the node
+     * @param populated
+     *            <code>true</code> for the rendering shown while the node is expanded, i.e. its
+     *            children are visible
+     * @return the rendering, or <code>null</code> if none of the node's renderings fits the state
+     */
+    public static KRendering getRendering(final KNode node, final boolean populated) {
+        final RenderingContextData data = basicGet(node);
+        return data != null ? data.getRendering(populated) : selectRendering(node, populated);
+    }
+
+    /**
+     * Returns the rendering of the {@link KNode} this instance is attached to that is shown in the
+     * given state, see {@link #getRendering(KNode, boolean)}.
+     */
+    private synchronized KRendering getRendering(final boolean populated) {
+        final EObject container = this.eContainer();
+        if (!(container instanceof KNode)) {
+            return null;
+        }
+
+        final KNode node = (KNode) container;
+        final int version = node instanceof KGraphElementImpl
+                ? ((KGraphElementImpl) node).getDataVersion() : -1;
+        if (version != renderingsVersion || version == -1) {
+            expandedRendering = selectRendering(node, true);
+            collapsedRendering = selectRendering(node, false);
+            renderingsVersion = version;
+        }
+        return populated ? expandedRendering : collapsedRendering;
+    }
+
+    private static KRendering selectRendering(final KNode node, final boolean populated) {
+        KRendering untagged = null;
+        for (final KGraphData data : node.getData()) {
+            if (data instanceof KRendering) {
+                final KRendering rendering = (KRendering) data;
+                if (populated ? KlighdPredicates.isExpandedRendering().apply(rendering)
+                        : KlighdPredicates.isCollapsedRendering().apply(rendering)) {
+                    return rendering;
+                } else if (untagged == null && !(populated
+                        ? KlighdPredicates.isCollapsedRendering().apply(rendering)
+                        : KlighdPredicates.isExpandedRendering().apply(rendering))) {
+                    untagged = rendering;
+                }
+            }
+        }
+        return untagged;
     }
 
     /**
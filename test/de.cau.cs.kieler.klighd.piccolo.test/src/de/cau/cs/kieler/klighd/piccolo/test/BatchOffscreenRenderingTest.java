@@ -0,0 +1,174 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.piccolo.export.BatchOffscreenRenderer;
+import de.cau.cs.kieler.klighd.piccolo.export.BatchOffscreenRenderer.Result;
+
+/**
+ * Tests the {@link BatchOffscreenRenderer}.
+ */
+public class BatchOffscreenRenderingTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int MODELS = 48;
+
+    private static final int NODES_PER_MODEL = 30;
+
+    private static final String EXTENSION = "kgx";
+
+    private static File folder;
+
+    private static final List<URI> SOURCES = Lists.newArrayList();
+
+    @BeforeClass
+    public static void createModels() throws IOException {
+        folder = Files.createTempDirectory("klighd-batch").toFile();
+
+        final ResourceSet set = createResourceSet();
+        for (int i = 0; i < MODELS; i++) {
+            final URI uri = URI.createFileURI(new File(folder, "model" + i + "." + EXTENSION)
+                    .getAbsolutePath());
+            final Resource resource = set.createResource(uri);
+            resource.getContents().add(createModel());
+            resource.save(null);
+            SOURCES.add(uri);
+        }
+    }
+
+    @AfterClass
+    public static void deleteModels() {
+        for (final File file : folder.listFiles()) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    private static ResourceSet createResourceSet() {
+        final ResourceSet set = new ResourceSetImpl();
+        set.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
+                EXTENSION, new XMIResourceFactoryImpl());
+        return set;
+    }
+
+    private static KNode createModel() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        KNode previous = null;
+        for (int i = 0; i < NODES_PER_MODEL; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            node.getData().add(KRenderingFactory.eINSTANCE.createKRectangle());
+            root.getChildren().add(node);
+            if (previous != null) {
+                final KEdge edge = KGraphUtil.createInitializedEdge();
+                edge.getData().add(KRenderingFactory.eINSTANCE.createKPolyline());
+                edge.setSource(previous);
+                edge.setTarget(node);
+            }
+            previous = node;
+        }
+        return root;
+    }
+
+    private static File targetOf(final URI source, final String suffix) {
+        return new File(source.toFileString().replace("." + EXTENSION, suffix + ".svg"));
+    }
+
+    private static List<Result> render(final int workers, final List<URI> sources)
+            throws InterruptedException {
+        return render(workers, sources, "");
+    }
+
+    private static List<Result> render(final int workers, final List<URI> sources,
+            final String suffix) throws InterruptedException {
+        try (BatchOffscreenRenderer renderer = new BatchOffscreenRenderer(workers, workers,
+                null, BatchOffscreenRenderingTest::createResourceSet)) {
+            return renderer.renderAll(sources, source -> targetOf(source, suffix));
+        }
+    }
+
+    private static String read(final Result result) throws IOException {
+        final String svg = new String(Files.readAllBytes(result.getTarget().toPath()));
+        return svg.replaceFirst(" Date: [^\\r\\n]*", "");
+    }
+
+    @Test
+    public void allModelsAreRendered() throws Exception {
+        final List<Result> results = render(2, SOURCES);
+
+        Assert.assertEquals(MODELS, results.size());
+        for (int i = 0; i < MODELS; i++) {
+            final Result result = results.get(i);
+            Assert.assertTrue(result.toString(), result.isOK());
+            Assert.assertEquals(SOURCES.get(i), result.getSource());
+            Assert.assertTrue(new String(Files.readAllBytes(result.getTarget().toPath()))
+                    .contains("<svg"));
+        }
+    }
+
+    @Test
+    public void failuresAreReportedPerModel() throws Exception {
+        final URI missing = URI.createFileURI(new File(folder, "missing." + EXTENSION)
+                .getAbsolutePath());
+        final List<Result> results = render(2, Lists.newArrayList(SOURCES.get(0), missing));
+
+        Assert.assertTrue(results.get(0).isOK());
+        Assert.assertFalse(results.get(1).isOK());
+        Assert.assertNotNull(results.get(1).getStatus().getException());
+        Assert.assertFalse(results.get(1).getTarget().exists());
+    }
+
+    @Test
+    public void concurrentAndSequentialRenderingAreEqual() throws Exception {
+        final List<Result> sequential = render(1, SOURCES, "-sequential");
+        final List<Result> concurrent = render(4, SOURCES, "-concurrent");
+
+        for (int i = 0; i < MODELS; i++) {
+            Assert.assertTrue(concurrent.get(i).toString(), concurrent.get(i).isOK());
+            Assert.assertEquals(read(sequential.get(i)), read(concurrent.get(i)));
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void closedRendererRejectsModels() {
+        final BatchOffscreenRenderer renderer = new BatchOffscreenRenderer(1, null);
+        renderer.close();
+        renderer.submit(SOURCES.get(0), targetOf(SOURCES.get(0), "-closed"));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.test;
+
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayOutputStream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.IOffscreenRenderer;
+import de.cau.cs.kieler.klighd.LightDiagramServices;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.piccolo.export.SVGOffscreenRenderer;
+import de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties;
+
+/**
+ * Tests the SVG export omitting diagram elements outside of a requested area, see
+ * {@link IOffscreenRenderer#CLIP}, and those below a minimum size, see
+ * {@link IOffscreenRenderer#MINIMUM_FIGURE_SIZE}.
+ */
+public class CulledSVGExportTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int NODES = 20;
+
+    private static final int SIZE = 30;
+
+    private static final int TINY_SIZE = 2;
+
+    private static KNode createModel() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        for (int i = 0; i < NODES; i++) {
+            root.getChildren().add(createNode(i * 2 * SIZE, 0, SIZE));
+            root.getChildren().add(createNode(i * 2 * SIZE, 2 * SIZE, TINY_SIZE));
+        }
+        return root;
+    }
+
+    private static KNode createNode(final float x, final float y, final float size) {
+        final KNode node = KGraphUtil.createInitializedNode();
+        node.setPos(x, y);
+        node.setSize(size, size);
+        node.getData().add(KRenderingFactory.eINSTANCE.createKRoundedRectangle());
+        return node;
+    }
+
+    private static IStatus export(final KNode model, final Rectangle2D clip,
+            final double minimumFigureSize, final ByteArrayOutputStream output) {
+        final KlighdSynthesisProperties properties = KlighdSynthesisProperties.create();
+        properties.setProperty(SVGOffscreenRenderer.GENERATOR,
+                SVGOffscreenRenderer.GENERATOR_SVG_FREEHEP_EXTENDED);
+        properties.setProperty(IOffscreenRenderer.NO_LAYOUT, true);
+        properties.setProperty(IOffscreenRenderer.TRANSPARENT_BACKGROUND, true);
+        properties.setProperty(IOffscreenRenderer.CLIP, clip);
+        properties.setProperty(IOffscreenRenderer.MINIMUM_FIGURE_SIZE, minimumFigureSize);
+
+        return LightDiagramServices.renderOffScreen(
+                model, IOffscreenRenderer.SVG, output, properties);
+    }
+
+    private static String export(final KNode model, final Rectangle2D clip,
+            final double minimumFigureSize) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final IStatus status = export(model, clip, minimumFigureSize, output);
+        if (status.getException() != null) {
+            throw new AssertionError(status.getMessage(), status.getException());
+        }
+        Assert.assertTrue(status.getMessage(), status.isOK());
+        return output.toString();
+    }
+
+    private static int count(final String svg, final String tag) {
+        int count = 0;
+        for (int i = svg.indexOf(tag); i >= 0; i = svg.indexOf(tag, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void allElementsAreExportedByDefault() {
+        final String svg = export(createModel(), null, 0d);
+
+        // each node is drawn by means of a single path
+        Assert.assertEquals(2 * NODES, count(svg, "<path "));
+    }
+
+    @Test
+    public void elementsBelowTheMinimumSizeAreOmitted() {
+        final KNode model = createModel();
+        final String all = export(model, null, 0d);
+        final String reduced = export(model, null, TINY_SIZE + 1);
+
+        Assert.assertEquals(NODES, count(reduced, "<path "));
+        Assert.assertTrue(reduced.length() < all.length());
+    }
+
+    @Test
+    public void elementsOutsideOfTheClipAreOmitted() {
+        final KNode model = createModel();
+        final String all = export(model, null, 0d);
+
+        // covers the first three columns of nodes
+        final String clipped = export(model, new Rectangle2D.Double(0, 0, 5 * SIZE, 3 * SIZE), 0d);
+
+        Assert.assertEquals(2 * 3, count(clipped, "<path "));
+        Assert.assertTrue(clipped.length() < all.length());
+    }
+
+    @Test
+    public void clipOutsideOfTheDiagramIsRejected() {
+        final IStatus status = export(createModel(),
+                new Rectangle2D.Double(-10 * SIZE, -10 * SIZE, SIZE, SIZE), 0d,
+                new ByteArrayOutputStream());
+
+        Assert.assertEquals(IStatus.ERROR, status.getSeverity());
+    }
+}
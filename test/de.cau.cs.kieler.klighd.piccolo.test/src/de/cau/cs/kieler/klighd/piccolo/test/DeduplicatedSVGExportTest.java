@@ -0,0 +1,162 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.core.runtime.IStatus;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import de.cau.cs.kieler.klighd.IOffscreenRenderer;
+import de.cau.cs.kieler.klighd.LightDiagramServices;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KRoundedRectangle;
+import de.cau.cs.kieler.klighd.piccolo.export.SVGOffscreenRenderer;
+import de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties;
+
+/**
+ * Tests the SVG export collecting style properties in style classes and reusing repeated path
+ * geometry, see {@link IOffscreenRenderer#DEDUPLICATE}.
+ */
+public class DeduplicatedSVGExportTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int NODES = 50;
+
+    private static final int SIZE = 30;
+
+    private static final Pattern STYLE_CLASS = Pattern.compile("\\.(ks\\w+) \\{");
+
+    private static KNode createModel() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        for (int i = 0; i < NODES; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            node.setPos(i * 2 * SIZE, 0);
+            node.setSize(SIZE, SIZE);
+            final KRoundedRectangle rectangle =
+                    KRenderingFactory.eINSTANCE.createKRoundedRectangle();
+            rectangle.setCornerWidth(5);
+            rectangle.setCornerHeight(5);
+            node.getData().add(rectangle);
+            root.getChildren().add(node);
+        }
+        return root;
+    }
+
+    private static String export(final KNode model, final boolean deduplicate) {
+        return export(model, deduplicate, null);
+    }
+
+    private static String export(final KNode model, final boolean deduplicate, final String css) {
+        final KlighdSynthesisProperties properties = KlighdSynthesisProperties.create();
+        properties.setProperty(IOffscreenRenderer.CSS, css);
+        properties.setProperty(SVGOffscreenRenderer.GENERATOR,
+                SVGOffscreenRenderer.GENERATOR_SVG_FREEHEP_EXTENDED);
+        properties.setProperty(IOffscreenRenderer.NO_LAYOUT, true);
+        properties.setProperty(IOffscreenRenderer.TRANSPARENT_BACKGROUND, true);
+        properties.setProperty(IOffscreenRenderer.DEDUPLICATE, deduplicate);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final IStatus status = LightDiagramServices.renderOffScreen(
+                model, IOffscreenRenderer.SVG, output, properties);
+        if (status.getException() != null) {
+            throw new AssertionError(status.getMessage(), status.getException());
+        }
+        Assert.assertTrue(status.getMessage(), status.isOK());
+        return output.toString();
+    }
+
+    private static int count(final String svg, final String tag) {
+        int count = 0;
+        for (int i = svg.indexOf(tag); i >= 0; i = svg.indexOf(tag, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static Document parse(final String svg) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature(
+                "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(svg.getBytes()));
+    }
+
+    @Test
+    public void deduplicationIsDisabledByDefault() {
+        final String svg = export(createModel(), false);
+
+        Assert.assertFalse(svg.contains("<style"));
+        Assert.assertFalse(svg.contains("<use"));
+        Assert.assertFalse(svg.contains("class=\"ks"));
+    }
+
+    @Test
+    public void repeatedStylesAndPathsAreWrittenOnce() throws Exception {
+        final KNode model = createModel();
+        final String plain = export(model, false);
+        final String deduplicated = export(model, true);
+
+        // each node is drawn by means of a single path
+        Assert.assertEquals(NODES, count(plain, "<path "));
+        Assert.assertEquals(1, count(deduplicated, "<path "));
+        Assert.assertEquals(NODES - 1, count(deduplicated, "<use xlink:href=\"#kp0\"/>"));
+
+        // each style class is defined exactly once and used
+        final Matcher matcher = STYLE_CLASS.matcher(deduplicated);
+        int classes = 0;
+        while (matcher.find()) {
+            classes++;
+            Assert.assertEquals(1, count(deduplicated, "." + matcher.group(1) + " {"));
+            Assert.assertTrue(deduplicated.contains("class=\"" + matcher.group(1) + "\""));
+        }
+        Assert.assertTrue(classes > 0);
+
+        Assert.assertTrue("The deduplicated document has " + deduplicated.length()
+                + " characters, the plain one has " + plain.length() + " characters.",
+                deduplicated.length() < plain.length());
+
+        // the document must still be well-formed, e.g. not contain duplicate class attributes
+        Assert.assertNotNull(parse(deduplicated).getDocumentElement());
+    }
+
+    @Test
+    public void givenStyleSheetsKeepTheirPrecedence() {
+        final KNode model = createModel();
+        final String plain = export(model, false, "diagram.css");
+        final String deduplicated = export(model, true, "diagram.css");
+
+        // element selectors of the style sheet override presentation attributes but not classes,
+        //  so the presentation attributes are kept and only the geometry is reused
+        Assert.assertTrue(deduplicated.contains("<?xml-stylesheet href=\"diagram.css\""));
+        Assert.assertFalse(deduplicated.contains("<style"));
+        Assert.assertFalse(deduplicated.contains("class=\"ks"));
+        Assert.assertTrue(count(plain, "fill=\"") >= NODES);
+        Assert.assertEquals(count(plain, "fill=\""), count(deduplicated, "fill=\""));
+        Assert.assertEquals(1, count(deduplicated, "<path "));
+    }
+}
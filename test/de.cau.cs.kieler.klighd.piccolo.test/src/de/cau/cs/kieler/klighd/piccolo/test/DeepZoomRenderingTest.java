@@ -0,0 +1,224 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.core.runtime.IStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+import de.cau.cs.kieler.klighd.IOffscreenRenderer;
+import de.cau.cs.kieler.klighd.LightDiagramServices;
+import de.cau.cs.kieler.klighd.ViewContext;
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KText;
+import de.cau.cs.kieler.klighd.piccolo.export.DeepZoomOffscreenRenderer;
+import de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties;
+
+/**
+ * Tests the {@link DeepZoomOffscreenRenderer} producing a tiled image pyramid.
+ */
+public class DeepZoomRenderingTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int COLUMNS = 12;
+
+    private static final int ROWS = 8;
+
+    private static final int SIZE = 30;
+
+    private static final int SCALE = 4;
+
+    private static final int TILE_SIZE = 256;
+
+    private static final Pattern SIZE_ELEMENT =
+            Pattern.compile("<Size Width=\"(\\d+)\" Height=\"(\\d+)\"/>");
+
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("klighd-deepzoom").toFile();
+    }
+
+    @After
+    public void deleteFolder() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            paths.sorted((p1, p2) -> p2.compareTo(p1)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static KNode createModel() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        KNode previous = null;
+        for (int i = 0; i < COLUMNS * ROWS; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            node.setPos((i % COLUMNS) * 2 * SIZE, (i / COLUMNS) * 2 * SIZE);
+            node.setSize(SIZE, SIZE);
+            node.getData().add(KRenderingFactory.eINSTANCE.createKRoundedRectangle());
+            final KText text = KRenderingFactory.eINSTANCE.createKText();
+            text.setText(Integer.toString(i));
+            node.getData().add(text);
+            root.getChildren().add(node);
+            if (previous != null) {
+                final KEdge edge = KGraphUtil.createInitializedEdge();
+                edge.getData().add(KRenderingFactory.eINSTANCE.createKPolyline());
+                edge.setSource(previous);
+                edge.setTarget(node);
+            }
+            previous = node;
+        }
+        return root;
+    }
+
+    private static KlighdSynthesisProperties createProperties(final int workers) {
+        final KlighdSynthesisProperties properties = KlighdSynthesisProperties.create();
+        properties.setProperty(IOffscreenRenderer.NO_LAYOUT, true);
+        properties.setProperty(IOffscreenRenderer.IMAGE_SCALE, SCALE);
+        properties.setProperty(DeepZoomOffscreenRenderer.TILE_SIZE, TILE_SIZE);
+        properties.setProperty(DeepZoomOffscreenRenderer.WORKERS, workers);
+        return properties;
+    }
+
+    private static void assertOK(final IStatus status) {
+        if (status.getException() != null) {
+            throw new AssertionError(status.getMessage(), status.getException());
+        }
+        Assert.assertTrue(status.getMessage(), status.isOK());
+    }
+
+    private static Map<String, byte[]> render(final KNode model, final File target,
+            final int workers) throws IOException {
+        final KlighdSynthesisProperties properties = createProperties(workers);
+        final ViewContext viewContext =
+                LightDiagramServices.translateModel2(model, null, properties);
+        assertOK(new DeepZoomOffscreenRenderer().render(viewContext, target, properties));
+
+        final Map<String, byte[]> files = Maps.newTreeMap();
+        try (Stream<Path> paths = Files.walk(target.toPath())) {
+            for (final Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                files.put(target.toPath().relativize(path).toString().replace(File.separatorChar,
+                        '/'), Files.readAllBytes(path));
+            }
+        }
+        return files;
+    }
+
+    private static BufferedImage read(final byte[] data) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+
+    @Test
+    public void pyramidConsistsOfTilesOfAllLevels() throws IOException {
+        final Map<String, byte[]> files = render(createModel(), folder, 2);
+
+        final Matcher matcher = SIZE_ELEMENT.matcher(new String(files.get("diagram.dzi")));
+        Assert.assertTrue(matcher.find());
+        final int width = Integer.parseInt(matcher.group(1));
+        final int height = Integer.parseInt(matcher.group(2));
+        Assert.assertTrue(width >= (2 * COLUMNS - 1) * SIZE * SCALE);
+        Assert.assertTrue(height >= (2 * ROWS - 1) * SIZE * SCALE);
+
+        // the highest level has the full size ...
+        final int maxLevel =
+                Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(width, height) - 1);
+        final int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        final int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        for (int column = 0; column < columns; column++) {
+            for (int row = 0; row < rows; row++) {
+                final BufferedImage tile = read(files.get(
+                        "diagram_files/" + maxLevel + "/" + column + "_" + row + ".png"));
+                Assert.assertEquals(Math.min(TILE_SIZE, width - column * TILE_SIZE),
+                        tile.getWidth());
+                Assert.assertEquals(Math.min(TILE_SIZE, height - row * TILE_SIZE),
+                        tile.getHeight());
+            }
+        }
+        Assert.assertNull(files.get("diagram_files/" + (maxLevel + 1) + "/0_0.png"));
+
+        // ... and level 0 a single pixel
+        final BufferedImage pixel = read(files.get("diagram_files/0/0_0.png"));
+        Assert.assertEquals(1, pixel.getWidth());
+        Assert.assertEquals(1, pixel.getHeight());
+
+        // the tiles show the diagram, i.e. not just a single color
+        final BufferedImage first = read(files.get("diagram_files/" + maxLevel + "/0_0.png"));
+        final int background = first.getRGB(0, 0);
+        boolean drawn = false;
+        for (int x = 0; x < first.getWidth() && !drawn; x++) {
+            for (int y = 0; y < first.getHeight() && !drawn; y++) {
+                drawn = first.getRGB(x, y) != background;
+            }
+        }
+        Assert.assertTrue(drawn);
+    }
+
+    @Test
+    public void concurrentAndSequentialRenderingAreEqual() throws IOException {
+        final KNode model = createModel();
+        final Map<String, byte[]> sequential = render(model, new File(folder, "sequential"), 1);
+        final Map<String, byte[]> concurrent = render(model, new File(folder, "concurrent"), 4);
+
+        Assert.assertEquals(sequential.keySet(), concurrent.keySet());
+        for (final String path : sequential.keySet()) {
+            Assert.assertArrayEquals(path, sequential.get(path), concurrent.get(path));
+        }
+    }
+
+    @Test
+    public void offscreenRenderingWritesZipArchive() throws IOException {
+        final KNode model = createModel();
+        final Map<String, byte[]> files = render(model, folder, 2);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertOK(LightDiagramServices.renderOffScreen(
+                model, IOffscreenRenderer.DZI, output, createProperties(2)));
+
+        int entries = 0;
+        try (ZipInputStream zip =
+                new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                Assert.assertTrue(entry.getName(), files.containsKey(entry.getName()));
+                entries++;
+            }
+        }
+        Assert.assertEquals(files.size(), entries);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.piccolo.test;
+
+import java.io.ByteArrayOutputStream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.IOffscreenRenderer;
+import de.cau.cs.kieler.klighd.LightDiagramServices;
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.piccolo.export.SVGOffscreenRenderer;
+import de.cau.cs.kieler.klighd.util.KlighdSynthesisProperties;
+
+/**
+ * Tests the SVG export writing the document into the output stream while drawing, see
+ * {@link IOffscreenRenderer#STREAM_OUTPUT}, and compares its time to the first byte with that of
+ * the buffered export.
+ */
+public class StreamingSVGExportTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int COLUMNS = 60;
+
+    private static final int ROWS = 60;
+
+    private static final int SIZE = 20;
+
+    private static KNode createModel() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        KNode previous = null;
+        for (int i = 0; i < COLUMNS * ROWS; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            node.setPos((i % COLUMNS) * 2 * SIZE, (i / COLUMNS) * 2 * SIZE);
+            node.setSize(SIZE, SIZE);
+            node.getData().add(KRenderingFactory.eINSTANCE.createKRoundedRectangle());
+            root.getChildren().add(node);
+            if (previous != null) {
+                final KEdge edge = KGraphUtil.createInitializedEdge();
+                edge.getData().add(KRenderingFactory.eINSTANCE.createKPolyline());
+                edge.setSource(previous);
+                edge.setTarget(node);
+            }
+            previous = node;
+        }
+        return root;
+    }
+
+    private static Measurement export(final KNode model, final boolean stream) {
+        final KlighdSynthesisProperties properties = KlighdSynthesisProperties.create();
+        properties.setProperty(SVGOffscreenRenderer.GENERATOR,
+                SVGOffscreenRenderer.GENERATOR_SVG_FREEHEP_EXTENDED);
+        properties.setProperty(IOffscreenRenderer.NO_LAYOUT, true);
+        properties.setProperty(IOffscreenRenderer.STREAM_OUTPUT, stream);
+
+        final RecordingOutputStream output = new RecordingOutputStream();
+        final long start = System.nanoTime();
+        final IStatus status = LightDiagramServices.renderOffScreen(
+                model, IOffscreenRenderer.SVG, output, properties);
+
+        if (status.getException() != null) {
+            throw new AssertionError(status.getMessage(), status.getException());
+        }
+        Assert.assertTrue(status.getMessage(), status.isOK());
+        return new Measurement(output, output.firstByte - start);
+    }
+
+    private static String withoutDate(final String svg) {
+        return svg.replaceFirst(" Date: [^\\r\\n]*", "");
+    }
+
+    @Test
+    public void streamedAndBufferedDocumentsAreEqual() {
+        final KNode model = createModel();
+        final Measurement buffered = export(model, false);
+        final Measurement streamed = export(model, true);
+
+        Assert.assertTrue(streamed.output.closed);
+        Assert.assertEquals(withoutDate(buffered.output.toString()),
+                withoutDate(streamed.output.toString()));
+    }
+
+    @Test
+    public void streamingExportDeliversTheFirstBytesEarlier() {
+        final KNode model = createModel();
+
+        // warm up
+        export(model, false);
+        export(model, true);
+
+        final Measurement buffered = export(model, false);
+        final Measurement streamed = export(model, true);
+
+        Assert.assertTrue(streamed.firstByte < buffered.firstByte);
+    }
+
+    private static final class Measurement {
+
+        private final RecordingOutputStream output;
+        private final long firstByte;
+
+        private Measurement(final RecordingOutputStream output, final long firstByte) {
+            this.output = output;
+            this.firstByte = firstByte;
+        }
+    }
+
+    /**
+     * Records the time of the first write access.
+     */
+    private static final class RecordingOutputStream extends ByteArrayOutputStream {
+
+        private long firstByte = -1;
+        private boolean closed = false;
+
+        private void record() {
+            if (firstByte < 0) {
+                firstByte = System.nanoTime();
+            }
+        }
+
+        @Override
+        public synchronized void write(final int b) {
+            record();
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(final byte[] b, final int off, final int len) {
+            record();
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.KlighdConstants;
+import de.cau.cs.kieler.klighd.microlayout.AdvanceWidthTable;
+
+/**
+ * Tests that the {@link AdvanceWidthTable} measures texts like AWT's {@link FontMetrics}.
+ */
+public class AdvanceWidthTableTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    /** The tolerance documented by {@link AdvanceWidthTable}. */
+    private static final double TOLERANCE = 0.01;
+
+    private static final String[] FONT_NAMES = {
+        KlighdConstants.DEFAULT_FONT_NAME, Font.DIALOG, Font.SERIF, Font.MONOSPACED
+    };
+
+    private static final int[] STYLES = { Font.PLAIN, Font.BOLD, Font.ITALIC, Font.BOLD | Font.ITALIC };
+
+    private static final int[] SIZES = { 6, 10, 13, 24 };
+
+    private static final String[] TEXTS = {
+        " ",
+        "x",
+        "hello world",
+        "Port_0 -> in",
+        "WAVE AVATAR ff fi fl",
+        "state S0 { entry / x = 1; }",
+        "\u00C4\u00D6\u00DC \u00E4\u00F6\u00FC \u00DF \u00E9\u00E8",
+        "\u041F\u0440\u0438\u0432\u0435\u0442",
+        // texts requiring a complex layout, measured by the font itself
+        "a\u0301b",
+        "\u0645\u0631\u062D\u0628\u0627",
+        "\uD83D\uDE00 smile",
+    };
+
+    private final Graphics2D graphics =
+            new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+    @Test
+    public void conformsToFontMetrics() {
+        for (String name : FONT_NAMES) {
+            for (int style : STYLES) {
+                for (int size : SIZES) {
+                    graphics.setFont(new Font(name, style, size));
+                    final FontMetrics metrics = graphics.getFontMetrics();
+                    final AdvanceWidthTable table = AdvanceWidthTable.of(name, style, size,
+                            graphics.getFontRenderContext());
+                    for (String text : TEXTS) {
+                        final Rectangle2D expected = metrics.getStringBounds(text, graphics);
+                        final Rectangle2D actual = table.getStringBounds(text);
+                        final String message = name + " " + style + " " + size + " '" + text + "'";
+                        Assert.assertEquals(message, expected.getX(), actual.getX(), TOLERANCE);
+                        Assert.assertEquals(message, expected.getY(), actual.getY(), TOLERANCE);
+                        Assert.assertEquals(message, expected.getWidth(), actual.getWidth(), TOLERANCE);
+                        Assert.assertEquals(message, expected.getHeight(), actual.getHeight(), TOLERANCE);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tablesAreSharedPerFont() {
+        Assert.assertSame(
+                AdvanceWidthTable.of(Font.DIALOG, Font.PLAIN, 10, graphics.getFontRenderContext()),
+                AdvanceWidthTable.of(Font.DIALOG, Font.PLAIN, 10, graphics.getFontRenderContext()));
+    }
+}
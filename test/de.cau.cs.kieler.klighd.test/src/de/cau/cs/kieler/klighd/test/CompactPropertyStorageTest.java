@@ -0,0 +1,171 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.Property;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
+import de.cau.cs.kieler.klighd.kgraph.KGraphPackage;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.impl.EMapPropertyHolderImpl;
+import de.cau.cs.kieler.klighd.kgraph.util.CompactPropertyStorage;
+
+/**
+ * Tests the compact storage of properties, see {@link CompactPropertyStorage}.
+ */
+public class CompactPropertyStorageTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final List<IProperty<Integer>> PROPERTIES = Lists.newArrayList();
+
+    static {
+        for (int i = 0; i <= EMapPropertyHolderImpl.MAX_COMPACT_PROPERTIES; i++) {
+            PROPERTIES.add(new Property<Integer>("klighd.test.compact" + i, -1));
+        }
+    }
+
+    @After
+    public void disable() {
+        CompactPropertyStorage.setEnabled(false);
+    }
+
+    private static KNode createNode(final int properties) {
+        final KNode node = KGraphFactory.eINSTANCE.createKNode();
+        for (int i = 0; i < properties; i++) {
+            node.setProperty(PROPERTIES.get(i), i);
+        }
+        return node;
+    }
+
+    private static int entries(final KNode node) {
+        return Iterables.size(Iterables.filter(node.eContents(), Map.Entry.class));
+    }
+
+    private static void assertProperties(final KNode node, final int properties) {
+        for (int i = 0; i < PROPERTIES.size(); i++) {
+            Assert.assertEquals(i < properties, node.hasProperty(PROPERTIES.get(i)));
+            Assert.assertEquals(i < properties ? i : -1,
+                    node.getProperty(PROPERTIES.get(i)).intValue());
+        }
+        Assert.assertEquals(properties, node.getAllProperties().size());
+    }
+
+    @Test
+    public void compactPropertiesBehaveAsUsual() {
+        CompactPropertyStorage.setEnabled(true);
+        final KNode node = createNode(3);
+        assertProperties(node, 3);
+
+        node.setProperty(PROPERTIES.get(1), null);
+        Assert.assertFalse(node.hasProperty(PROPERTIES.get(1)));
+        Assert.assertEquals(2, node.getAllProperties().size());
+
+        node.getAllProperties().put(PROPERTIES.get(1), 1);
+        assertProperties(node, 3);
+    }
+
+    @Test
+    public void manyPropertiesAreMaterialized() {
+        CompactPropertyStorage.setEnabled(true);
+        final KNode node = createNode(PROPERTIES.size());
+        assertProperties(node, PROPERTIES.size());
+    }
+
+    @Test
+    public void reflectiveAccessMaterializesTheProperties() {
+        CompactPropertyStorage.setEnabled(true);
+        final KNode node = createNode(3);
+        Assert.assertEquals(0, entries(node));
+        Assert.assertTrue(node.eIsSet(KGraphPackage.Literals.EMAP_PROPERTY_HOLDER__PROPERTIES));
+
+        Assert.assertEquals(3, node.getProperties().size());
+        Assert.assertEquals(3, entries(node));
+        assertProperties(node, 3);
+
+        final KNode copy = EcoreUtil.copy(createNode(3));
+        assertProperties(copy, 3);
+    }
+
+    @Test
+    public void changesOfObservedHoldersAreNotified() {
+        CompactPropertyStorage.setEnabled(true);
+        final KNode node = createNode(2);
+        final List<Notification> notifications = Lists.newArrayList();
+        node.eAdapters().add(new AdapterImpl() {
+            @Override
+            public void notifyChanged(final Notification notification) {
+                notifications.add(notification);
+            }
+        });
+
+        node.setProperty(PROPERTIES.get(2), 2);
+        Assert.assertEquals(1, notifications.size());
+        assertProperties(node, 3);
+    }
+
+    @Test
+    public void existingPropertiesAreCompacted() {
+        final KNode root = createNode(2);
+        final KNode child = createNode(3);
+        root.getChildren().add(child);
+        Assert.assertEquals(3, entries(child));
+
+        CompactPropertyStorage.compact(root);
+        Assert.assertEquals(0, entries(child));
+        assertProperties(root, 2);
+        assertProperties(child, 3);
+    }
+
+    @Test
+    public void onlyDisabledStorageCreatesMapEntries() {
+        // the heap footprint of both storages is compared by the CompactPropertyStorageBenchmark
+        CompactPropertyStorage.setEnabled(false);
+        final KNode mapNode = createNode(3);
+        CompactPropertyStorage.setEnabled(true);
+        final KNode compactNode = createNode(3);
+
+        Assert.assertEquals(3, entries(mapNode));
+        Assert.assertEquals(0, entries(compactNode));
+        assertProperties(mapNode, 3);
+        assertProperties(compactNode, 3);
+    }
+
+    @Test
+    public void allPropertiesAreAMapView() {
+        CompactPropertyStorage.setEnabled(true);
+        final KNode node = createNode(2);
+        final Map<IProperty<?>, Object> properties = node.getAllProperties();
+        node.setProperty(PROPERTIES.get(2), 2);
+
+        Assert.assertEquals(3, properties.size());
+        Assert.assertEquals(2, properties.get(PROPERTIES.get(2)));
+    }
+}
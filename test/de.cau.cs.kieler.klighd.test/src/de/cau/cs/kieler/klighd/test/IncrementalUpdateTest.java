@@ -3,7 +3,7 @@
  *
  * http://rtsys.informatik.uni-kiel.de/kieler
  * 
- * Copyright 2020-2023 by
+ * Copyright 2020-2026 by
  * + Kiel University
  *   + Department of Computer Science
  *     + Real-Time and Embedded Systems Group
@@ -17,6 +17,7 @@
 package de.cau.cs.kieler.klighd.test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.impl.EObjectImpl;
@@ -969,4 +970,47 @@ public class IncrementalUpdateTest {
         Assert.assertTrue(baseNewNode2 instanceof KNode);
     }
     
+    /**
+     * Tests updating the positions of several nodes in a large flat graph with a small change. Checks if the order of
+     * all nodes in the updated base model matches the new model.
+     */
+    @Test
+    public void testUpdateNodePositionsInLargeGraph() {
+        final int nodeCount = 10000;
+        final KNode baseGraph = KGraphUtil.createInitializedNode();
+        final KNode newGraph = KGraphUtil.createInitializedNode();
+        for (int i = 0; i < nodeCount; i++) {
+            final KNode baseNode = KGraphUtil.createInitializedNode();
+            addIdentifier(baseNode, "node" + i);
+            baseNode.setParent(baseGraph);
+            final KNode newNode = KGraphUtil.createInitializedNode();
+            addIdentifier(newNode, "node" + i);
+            newNode.setParent(newGraph);
+        }
+        // Move some nodes around and add a new one.
+        newGraph.getChildren().move(nodeCount - 1, 0);
+        newGraph.getChildren().move(0, nodeCount / 2);
+        newGraph.getChildren().move(nodeCount / 4, nodeCount / 3);
+        final KNode addedNode = KGraphUtil.createInitializedNode();
+        addIdentifier(addedNode, "added");
+        newGraph.getChildren().add(nodeCount / 5, addedNode);
+        final List<String> expectedIds = new ArrayList<>();
+        for (KNode newNode : newGraph.getChildren()) {
+            expectedIds.add(newNode.getData(KIdentifier.class).getId());
+        }
+        
+        final ViewContext viewContext = createViewContext();
+        // Initialize the view context with the base graph.
+        INCREMENTAL_UPDATE_STRATEGY.update(viewContext.getViewModel(), baseGraph, viewContext);
+        // Update with the new graph.
+        INCREMENTAL_UPDATE_STRATEGY.update(viewContext.getViewModel(), newGraph, viewContext);
+        
+        // Assert the nodes of the updated base model are in the same order as in the new graph.
+        final List<KNode> baseChildren = viewContext.getViewModel().getChildren();
+        Assert.assertEquals(expectedIds.size(), baseChildren.size());
+        for (int i = 0; i < expectedIds.size(); i++) {
+            Assert.assertEquals(expectedIds.get(i), baseChildren.get(i).getData(KIdentifier.class).getId());
+        }
+    }
+    
 }
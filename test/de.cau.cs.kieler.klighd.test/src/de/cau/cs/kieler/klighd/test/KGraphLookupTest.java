@@ -0,0 +1,218 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.elk.core.math.KVector;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.Property;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
+import de.cau.cs.kieler.klighd.kgraph.KIdentifier;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.impl.EMapPropertyHolderImpl;
+import de.cau.cs.kieler.klighd.kgraph.impl.KGraphElementImpl;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRectangle;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KText;
+import de.cau.cs.kieler.klighd.util.KlighdProperties;
+import de.cau.cs.kieler.klighd.util.RenderingContextData;
+
+/**
+ * Tests the fast paths of {@link KNode#getData(Class)} and {@link KNode#getProperty(IProperty)},
+ * as well as the selection of nodes' renderings by
+ * {@link RenderingContextData#getRendering(KNode, boolean)}.
+ */
+public class KGraphLookupTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int NODES = 2;
+
+    private static final int CHANGES = 20000;
+
+    private static final IProperty<String> NAME = new Property<>("klighd.test.name", "unnamed");
+
+    private static final IProperty<KVector> OFFSET = new Property<>("klighd.test.offset",
+            new KVector());
+
+    private final List<KNode> nodes = Lists.newArrayList();
+
+    @Before
+    public void createGraph() {
+        final KNode root = KGraphUtil.createInitializedNode();
+        for (int i = 0; i < NODES; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            node.getData().add(KRenderingFactory.eINSTANCE.createKRectangle());
+            if (i % 2 == 0) {
+                node.setProperty(NAME, "node" + i);
+            }
+            root.getChildren().add(node);
+            nodes.add(node);
+        }
+    }
+
+    private static Object fieldValue(final Class<?> declaringClass, final String field,
+            final Object object) throws ReflectiveOperationException {
+        final Field declaredField = declaringClass.getDeclaredField(field);
+        declaredField.setAccessible(true);
+        return declaredField.get(object);
+    }
+
+    @Test
+    public void lookupsDoNotCreateTheDataList() throws ReflectiveOperationException {
+        final KNode node = KGraphFactory.eINSTANCE.createKNode();
+
+        Assert.assertNull(node.getData(KRendering.class));
+        Assert.assertNull(node.getData(KText.class));
+        Assert.assertNull(fieldValue(KGraphElementImpl.class, "data", node));
+    }
+
+    @Test
+    public void readingUnsetPropertiesDoesNotCreateThePropertyMap()
+            throws ReflectiveOperationException {
+        final KRectangle rendering = KRenderingFactory.eINSTANCE.createKRectangle();
+
+        Assert.assertEquals("unnamed", rendering.getProperty(NAME));
+        Assert.assertFalse(rendering.hasProperty(NAME));
+        Assert.assertNull(fieldValue(EMapPropertyHolderImpl.class, "properties", rendering));
+    }
+
+    @Test
+    public void dataLookupsAreIndexedPerVersion() throws InterruptedException {
+        final KNode node = nodes.get(0);
+        final KText text = KRenderingFactory.eINSTANCE.createKText();
+        final AtomicBoolean done = new AtomicBoolean();
+
+        // another thread keeps looking up the data while they change, so its results may be
+        //  outdated as soon as they are computed and must not be served afterwards
+        final Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                try {
+                    node.getData(KText.class);
+                } catch (final RuntimeException e) {
+                    // the data list is not meant to be read while it changes, just try again
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < CHANGES; i++) {
+                if (i % 2 == 0) {
+                    node.getData().add(text);
+                    Assert.assertSame(text, node.getData(KText.class));
+                } else {
+                    node.getData().remove(text);
+                    Assert.assertNull(node.getData(KText.class));
+                }
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+    }
+
+    @Test
+    public void dataLookupsReflectChanges() {
+        final KNode node = nodes.get(0);
+        Assert.assertNull(node.getData(KText.class));
+
+        final KText text = KRenderingFactory.eINSTANCE.createKText();
+        node.getData().add(0, text);
+        Assert.assertSame(text, node.getData(KText.class));
+        Assert.assertSame(text, node.getData(KRendering.class));
+
+        node.getData().remove(text);
+        Assert.assertNull(node.getData(KText.class));
+        Assert.assertTrue(node.getData(KRendering.class) instanceof KRectangle);
+    }
+
+    @Test
+    public void dataLookupsReflectSilentChanges() {
+        final KNode node = nodes.get(0);
+        Assert.assertNull(node.getData(KIdentifier.class));
+
+        node.eSetDeliver(false);
+        final KIdentifier id = KGraphFactory.eINSTANCE.createKIdentifier();
+        id.setId("silent");
+        node.getData().add(id);
+        node.eSetDeliver(true);
+        Assert.assertSame(id, node.getData(KIdentifier.class));
+
+        node.eSetDeliver(false);
+        node.getData().clear();
+        node.eSetDeliver(true);
+        Assert.assertNull(node.getData(KIdentifier.class));
+        Assert.assertNull(node.getData(KRendering.class));
+    }
+
+    @Test
+    public void cloneableDefaultsAreStillRetained() {
+        final KNode node = nodes.get(1);
+        final KVector offset = node.getProperty(OFFSET);
+        offset.x = 1;
+
+        Assert.assertTrue(node.hasProperty(OFFSET));
+        Assert.assertSame(offset, node.getProperty(OFFSET));
+    }
+
+    @Test
+    public void renderingsAreSelectedByState() {
+        final KNode node = nodes.get(0);
+        final KRectangle untagged = (KRectangle) node.getData(KRendering.class);
+        Assert.assertSame(untagged, RenderingContextData.getRendering(node, true));
+        Assert.assertSame(untagged, RenderingContextData.getRendering(node, false));
+
+        final KRectangle collapsed = KRenderingFactory.eINSTANCE.createKRectangle();
+        collapsed.setProperty(KlighdProperties.COLLAPSED_RENDERING, true);
+        final KRectangle expanded = KRenderingFactory.eINSTANCE.createKRectangle();
+        expanded.setProperty(KlighdProperties.EXPANDED_RENDERING, true);
+        node.getData().add(collapsed);
+        node.getData().add(0, expanded);
+        Assert.assertSame(expanded, RenderingContextData.getRendering(node, true));
+        Assert.assertSame(collapsed, RenderingContextData.getRendering(node, false));
+
+        node.getData().remove(collapsed);
+        Assert.assertSame(untagged, RenderingContextData.getRendering(node, false));
+    }
+
+    @Test
+    public void cachedRenderingsReflectChanges() {
+        final KNode node = nodes.get(0);
+        final KRectangle untagged = (KRectangle) node.getData(KRendering.class);
+        Assert.assertSame(untagged, RenderingContextData.getCurrentRendering(node));
+
+        final KText text = KRenderingFactory.eINSTANCE.createKText();
+        node.getData().add(0, text);
+        Assert.assertSame(text, RenderingContextData.getCurrentRendering(node));
+
+        node.eSetDeliver(false);
+        node.getData().remove(text);
+        node.eSetDeliver(true);
+        Assert.assertSame(untagged, RenderingContextData.getCurrentRendering(node));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import org.eclipse.elk.graph.ElkGraphFactory;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.FontData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.KlighdConstants;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KRenderingOptions;
+import de.cau.cs.kieler.klighd.labels.management.LabelManagementUtil;
+import de.cau.cs.kieler.klighd.labels.management.TruncatingLabelManager;
+import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
+
+/**
+ * Tests that the label fitting of {@link LabelManagementUtil} finds the same parts of label texts
+ * as measuring each candidate would do.
+ */
+public class LabelFittingTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final String[] TEXTS = {
+        "x",
+        "hello world",
+        "WAVE AVATAR ff fi fl",
+        "a rather long label text\nwith a line break and   some spaces",
+        "state S0 { entry / x = 1; during / y++; exit / z = x + y; }",
+    };
+
+    private static final double[] TARGET_WIDTHS = { 0, 1, 5, 17.5, 40, 100, 1000 };
+
+    private final FontData fontData = new FontData(
+            KlighdConstants.DEFAULT_FONT_NAME, KlighdConstants.DEFAULT_FONT_SIZE, SWT.NORMAL);
+
+    @Test
+    public void fittingStringIsLongestFittingPrefix() {
+        for (String text : TEXTS) {
+            final String textWithoutWraps = text.replace("\n", " ");
+            for (double targetWidth : TARGET_WIDTHS) {
+                final String fitting =
+                        LabelManagementUtil.findFittingString(text, fontData, targetWidth);
+                final String message = "'" + text + "' in " + targetWidth;
+
+                Assert.assertTrue(message, textWithoutWraps.startsWith(fitting));
+                if (!fitting.isEmpty()) {
+                    Assert.assertTrue(message, width(fitting) <= targetWidth);
+                }
+                if (fitting.length() < textWithoutWraps.length()) {
+                    Assert.assertTrue(message, width(
+                            textWithoutWraps.substring(0, fitting.length() + 1)) > targetWidth);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void biggestWordIsMeasured() {
+        for (String text : TEXTS) {
+            final String[] words = text.replace("\n", " ").split(" ");
+            float expected = width("");
+            for (String word : words) {
+                expected = Math.max(expected, width(word));
+            }
+
+            Assert.assertEquals(text, expected,
+                    LabelManagementUtil.getWidthOfBiggestWord(fontData, words), 0.5f);
+        }
+    }
+
+    @Test
+    public void truncationKeepsOnlyTheEllipsisIfNoCharacterFits() {
+        final ElkLabel label = ElkGraphFactory.eINSTANCE.createElkLabel();
+        label.setText("WAVE AVATAR");
+        label.setProperty(KRenderingOptions.K_RENDERING,
+                KRenderingFactory.eINSTANCE.createKText());
+        final double targetWidth = width("...") + width("W") / 2;
+
+        Assert.assertEquals("...", new TruncatingLabelManager()
+                .doResizeLabel(label, targetWidth).getNewText());
+        Assert.assertEquals("", new TruncatingLabelManager().appendEllipsisToTruncatedText(false)
+                .doResizeLabel(label, width("W") / 2).getNewText());
+    }
+
+    private float width(final String text) {
+        return PlacementUtil.estimateTextSize(fontData, text).getWidth();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.cau.cs.kieler.klighd.KlighdDataManager;
+import de.cau.cs.kieler.klighd.util.PropertyFilterIndex;
+
+/**
+ * Tests of the decisions taken by {@link PropertyFilterIndex} and of its maintenance by the
+ * {@link KlighdDataManager}.
+ */
+public class PropertyFilterIndexTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final IProperty<String> KLIGHD_PROPERTY =
+            new Property<>("de.cau.cs.kieler.klighd.test.kept");
+
+    private static final IProperty<String> SHORT_KLIGHD_PROPERTY = new Property<>("klighd.kept");
+
+    private static final IProperty<String> ELK_PROPERTY = new Property<>("org.eclipse.elk.kept");
+
+    private static final IProperty<String> BLACKLISTED_PROPERTY =
+            new Property<>("org.eclipse.elk.blacklisted");
+
+    private static final IProperty<String> WHITELISTED_PROPERTY = new Property<>("foo.whitelisted");
+
+    private static final IProperty<String> FOREIGN_PROPERTY = new Property<>("foo.dropped");
+
+    private final PropertyFilterIndex index = new PropertyFilterIndex(
+            ImmutableList.of(BLACKLISTED_PROPERTY), ImmutableList.of(WHITELISTED_PROPERTY), 1);
+
+    @Test
+    public void defaultPrefixesAreKept() {
+        Assert.assertTrue(index.keep(KLIGHD_PROPERTY));
+        Assert.assertTrue(index.keep(SHORT_KLIGHD_PROPERTY));
+        Assert.assertTrue(index.keep(ELK_PROPERTY));
+    }
+
+    @Test
+    public void prefixesAreMatchedCompletely() {
+        Assert.assertFalse(index.keep("klig"));
+        Assert.assertFalse(index.keep("org.eclipse.el"));
+        Assert.assertFalse(index.keep(""));
+    }
+
+    @Test
+    public void blacklistOverridesPrefixes() {
+        Assert.assertFalse(index.keep(BLACKLISTED_PROPERTY));
+        // ask twice to also check the cached decision
+        Assert.assertFalse(index.keep(BLACKLISTED_PROPERTY));
+    }
+
+    @Test
+    public void whitelistExtendsPrefixes() {
+        Assert.assertTrue(index.keep(WHITELISTED_PROPERTY));
+        Assert.assertFalse(index.keep(FOREIGN_PROPERTY));
+    }
+
+    @Test
+    public void registeredPropertiesCannotBeChangedBehindTheIndex() {
+        // only reads the global manager, registering properties would leak into other tests
+        final KlighdDataManager manager = KlighdDataManager.getInstance();
+        final IProperty<String> property = new Property<>("foo.unregistered");
+        final PropertyFilterIndex previous = manager.getPropertyFilterIndex();
+
+        try {
+            manager.getWhitelistedProperties().add(property);
+            Assert.fail("the whitelist must only be changed by registering properties");
+        } catch (final UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            manager.getBlacklistedProperties().add(property);
+            Assert.fail("the blacklist must only be changed by registering properties");
+        } catch (final UnsupportedOperationException e) {
+            // expected
+        }
+        Assert.assertFalse(manager.getWhitelistedProperties().contains(property));
+        Assert.assertSame(previous, manager.getPropertyFilterIndex());
+    }
+
+    @Test
+    public void newerIndicesDoNotChangeOlderOnes() {
+        final IProperty<String> property = new Property<>("foo.registered");
+        final PropertyFilterIndex newer = new PropertyFilterIndex(
+                ImmutableList.of(BLACKLISTED_PROPERTY),
+                ImmutableList.of(WHITELISTED_PROPERTY, property), index.getVersion() + 1);
+
+        Assert.assertTrue(newer.keep(property));
+        Assert.assertFalse(index.keep(property));
+    }
+}
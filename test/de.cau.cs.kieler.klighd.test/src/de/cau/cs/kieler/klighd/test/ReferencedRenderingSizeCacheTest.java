@@ -0,0 +1,114 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRectangle;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KRenderingLibrary;
+import de.cau.cs.kieler.klighd.krendering.KRenderingRef;
+import de.cau.cs.kieler.klighd.krendering.KText;
+import de.cau.cs.kieler.klighd.microlayout.Bounds;
+import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
+import de.cau.cs.kieler.klighd.util.KlighdProperties;
+
+/**
+ * Tests the caching of the estimated sizes of renderings referenced by many nodes via
+ * {@link KRenderingRef KRenderingRefs}.
+ */
+public class ReferencedRenderingSizeCacheTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private static final int NODES = 10000;
+
+    private static final KRenderingFactory FACTORY = KRenderingFactory.eINSTANCE;
+
+    private final List<KNode> nodes = Lists.newArrayList();
+
+    private KText libraryText;
+
+    @Before
+    public void createGraph() {
+        PlacementUtil.invalidateTextSizeCache();
+
+        final KNode root = KGraphUtil.createInitializedNode();
+        final KRenderingLibrary library = FACTORY.createKRenderingLibrary();
+        root.getData().add(library);
+
+        final KRectangle libraryRendering = FACTORY.createKRectangle();
+        libraryText = FACTORY.createKText();
+        libraryText.setText("shared library text");
+        libraryRendering.getChildren().add(libraryText);
+        library.getRenderings().add(libraryRendering);
+
+        for (int i = 0; i < NODES; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            final KRenderingRef ref = FACTORY.createKRenderingRef();
+            ref.setRendering(libraryRendering);
+            node.getData().add(ref);
+            root.getChildren().add(node);
+            nodes.add(node);
+        }
+    }
+
+    @Test
+    public void sharedRenderingIsEstimatedOnce() {
+        final long hits = PlacementUtil.getReferencedRenderingSizeCacheStats().hitCount();
+        final long misses = PlacementUtil.getReferencedRenderingSizeCacheStats().missCount();
+
+        final Bounds first = PlacementUtil.estimateSize(nodes.get(0));
+        for (KNode node : nodes) {
+            final Bounds size = PlacementUtil.estimateSize(node);
+            Assert.assertEquals(first.getWidth(), size.getWidth(), 0f);
+            Assert.assertEquals(first.getHeight(), size.getHeight(), 0f);
+        }
+
+        Assert.assertEquals(misses + 1,
+                PlacementUtil.getReferencedRenderingSizeCacheStats().missCount());
+        Assert.assertEquals(hits + NODES,
+                PlacementUtil.getReferencedRenderingSizeCacheStats().hitCount());
+    }
+
+    @Test
+    public void changedTextsInvalidateTheCache() {
+        final float width = PlacementUtil.estimateSize(nodes.get(0)).getWidth();
+        libraryText.setText("a considerably longer shared library text");
+
+        Assert.assertTrue(PlacementUtil.estimateSize(nodes.get(1)).getWidth() > width);
+    }
+
+    @Test
+    public void calculatedPropertiesDoNotInvalidateTheCache() {
+        PlacementUtil.estimateSize(nodes.get(0));
+        final long misses = PlacementUtil.getReferencedRenderingSizeCacheStats().missCount();
+        libraryText.setProperty(KlighdProperties.CALCULATED_TEXT_BOUNDS, new Bounds(1, 1));
+
+        PlacementUtil.estimateSize(nodes.get(1));
+        Assert.assertEquals(misses,
+                PlacementUtil.getReferencedRenderingSizeCacheStats().missCount());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.FontData;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.cau.cs.kieler.klighd.KlighdConstants;
+import de.cau.cs.kieler.klighd.microlayout.Bounds;
+import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
+
+/**
+ * Tests the caching of text sizes estimated by
+ * {@link PlacementUtil#estimateTextSize(FontData, String)}.
+ */
+public class TextSizeCacheTest {
+
+    // CHECKSTYLEOFF Javadoc
+
+    private final FontData fontData =
+            new FontData(KlighdConstants.DEFAULT_FONT_NAME, KlighdConstants.DEFAULT_FONT_SIZE, SWT.NORMAL);
+
+    @Before
+    public void invalidateCache() {
+        PlacementUtil.invalidateTextSizeCache();
+    }
+
+    @Test
+    public void repeatedEstimationsHitTheCache() {
+        final long hits = PlacementUtil.getTextSizeCacheStats().hitCount();
+        final Bounds first = PlacementUtil.estimateTextSize(fontData, "cached text");
+        final Bounds second = PlacementUtil.estimateTextSize(fontData, "cached text");
+
+        Assert.assertEquals(first.getWidth(), second.getWidth(), 0f);
+        Assert.assertEquals(first.getHeight(), second.getHeight(), 0f);
+        Assert.assertEquals(hits + 1, PlacementUtil.getTextSizeCacheStats().hitCount());
+    }
+
+    @Test
+    public void fontStyleIsPartOfTheKey() {
+        final FontData boldFontData = new FontData(KlighdConstants.DEFAULT_FONT_NAME,
+                KlighdConstants.DEFAULT_FONT_SIZE, SWT.BOLD);
+        PlacementUtil.estimateTextSize(fontData, "styled text");
+        final long misses = PlacementUtil.getTextSizeCacheStats().missCount();
+        PlacementUtil.estimateTextSize(boldFontData, "styled text");
+
+        Assert.assertEquals(misses + 1, PlacementUtil.getTextSizeCacheStats().missCount());
+    }
+
+    @Test
+    public void invalidationClearsTheCache() {
+        PlacementUtil.estimateTextSize(fontData, "invalidated text");
+        PlacementUtil.invalidateTextSizeCache();
+        final long misses = PlacementUtil.getTextSizeCacheStats().missCount();
+        PlacementUtil.estimateTextSize(fontData, "invalidated text");
+
+        Assert.assertEquals(misses + 1, PlacementUtil.getTextSizeCacheStats().missCount());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.Property;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.CompactPropertyStorage;
+
+/**
+ * Measures the heap occupied by graphs whose nodes carry a few properties, stored in EMaps and in
+ * the {@link CompactPropertyStorage}. This is no test and is not run by the build, run its
+ * {@link #main(String[])} method as a Java application to get the median footprint of each
+ * storage. The used heap is measured after requesting garbage collections, so the results are
+ * meaningless if explicit garbage collections are disabled, e.g. by
+ * {@code -XX:+DisableExplicitGC}.
+ */
+public final class CompactPropertyStorageBenchmark {
+
+    private static final int[] SIZES = { 10000, 50000, 200000 };
+
+    /** The number of properties of each node. */
+    private static final int PROPERTIES_PER_NODE = 3;
+
+    private static final int GC_REQUESTS = 3;
+
+    private static final int RUNS = 5;
+
+    private static final List<IProperty<Integer>> PROPERTIES = Lists.newArrayList();
+
+    static {
+        for (int i = 0; i < PROPERTIES_PER_NODE; i++) {
+            PROPERTIES.add(new Property<Integer>("klighd.test.compact" + i, -1));
+        }
+    }
+
+    private CompactPropertyStorageBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(final String[] args) {
+        try {
+            for (final int size : SIZES) {
+                final long maps = medianFootprint(size, false);
+                final long compact = medianFootprint(size, true);
+                System.out.println(String.format(
+                        "%7d nodes: EMaps %6d bytes/node, compact %6d bytes/node (%5.1f %%)",
+                        size, maps / size, compact / size, 100.0 * compact / maps));
+            }
+        } finally {
+            CompactPropertyStorage.setEnabled(false);
+        }
+    }
+
+    private static long medianFootprint(final int size, final boolean compact) {
+        final long[] footprints = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            footprints[run] = footprint(size, compact);
+        }
+        Arrays.sort(footprints);
+        return footprints[RUNS / 2];
+    }
+
+    private static long footprint(final int size, final boolean compact) {
+        CompactPropertyStorage.setEnabled(compact);
+        final long before = usedHeap();
+        final KNode root = KGraphFactory.eINSTANCE.createKNode();
+        for (int i = 0; i < size; i++) {
+            final KNode node = KGraphFactory.eINSTANCE.createKNode();
+            for (int p = 0; p < PROPERTIES_PER_NODE; p++) {
+                node.setProperty(PROPERTIES.get(p), p);
+            }
+            root.getChildren().add(node);
+        }
+        final long after = usedHeap();
+
+        // keep the graph reachable until here
+        if (root.getChildren().size() != size) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_REQUESTS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.Property;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KText;
+
+/**
+ * Measures repeated lookups of data and properties on many nodes, as done while building layout
+ * graphs. This is no test and is not run by the build, run its {@link #main(String[])} method as
+ * a Java application to get the median time of each lookup.
+ */
+public final class KGraphLookupBenchmark {
+
+    private static final int NODES = 100000;
+
+    private static final int ROUNDS = 10;
+
+    private static final int WARMUP_RUNS = 5;
+
+    private static final int RUNS = 11;
+
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private static final IProperty<String> NAME = new Property<>("klighd.test.name", "unnamed");
+
+    private KGraphLookupBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(final String[] args) {
+        final List<KNode> nodes = Lists.newArrayListWithCapacity(NODES);
+        for (int i = 0; i < NODES; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            node.getData().add(KRenderingFactory.eINSTANCE.createKRectangle());
+            if (i % 2 == 0) {
+                node.setProperty(NAME, "node" + i);
+            }
+            nodes.add(node);
+        }
+
+        run("getData(KRendering)", nodes, node -> node.getData(KRendering.class) != null ? 1 : 0);
+        run("getData(KText)", nodes, node -> node.getData(KText.class) != null ? 1 : 0);
+        run("getProperty", nodes, node -> node.getProperty(NAME).length());
+        run("hasProperty", nodes, node -> node.hasProperty(NAME) ? 1 : 0);
+    }
+
+    private static void run(final String lookup, final List<KNode> nodes,
+            final ToIntFunction<KNode> function) {
+        final long[] times = new long[RUNS];
+        // keeps the lookups from being optimized away
+        int sink = 0;
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (final KNode node : nodes) {
+                    sink += function.applyAsInt(node);
+                }
+            }
+            if (run >= 0) {
+                times[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-20s %d x %d nodes: %8.2f ms (%d)", lookup, ROUNDS,
+                nodes.size(), (double) times[RUNS / 2] / NANOS_PER_MILLI, sink));
+    }
+}
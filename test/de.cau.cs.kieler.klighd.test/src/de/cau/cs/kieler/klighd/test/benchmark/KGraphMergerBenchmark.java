@@ -0,0 +1,100 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import de.cau.cs.kieler.klighd.IDiagramWorkbenchPart;
+import de.cau.cs.kieler.klighd.ViewContext;
+import de.cau.cs.kieler.klighd.incremental.IncrementalUpdateStrategy;
+import de.cau.cs.kieler.klighd.kgraph.KGraphFactory;
+import de.cau.cs.kieler.klighd.kgraph.KIdentifier;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+
+/**
+ * Measures incremental updates of flat graphs whose children are reordered, which exercises the
+ * reordering of the {@code KGraphMerger}. This is no test and is not run by the build, run its
+ * {@link #main(String[])} method as a Java application to get the median time of each scenario.
+ */
+public final class KGraphMergerBenchmark {
+
+    private static final int[] SIZES = { 1000, 10000, 100000 };
+
+    private static final int WARMUP_RUNS = 3;
+
+    private static final int RUNS = 7;
+
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private KGraphMergerBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(final String[] args) {
+        for (final int size : SIZES) {
+            run("reversed", size, graph -> Collections.reverse(graph.getChildren()));
+            run("shuffled", size,
+                    graph -> Collections.shuffle(graph.getChildren(), new Random(size)));
+            run("few moves", size, graph -> {
+                graph.getChildren().move(size - 1, 0);
+                graph.getChildren().move(0, size / 2);
+                graph.getChildren().move(size / 4, size / 3);
+            });
+        }
+    }
+
+    private static void run(final String scenario, final int size, final Consumer<KNode> reorder) {
+        final IncrementalUpdateStrategy strategy = new IncrementalUpdateStrategy();
+        final long[] times = new long[RUNS];
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            final ViewContext viewContext = new ViewContext((IDiagramWorkbenchPart) null, null);
+            strategy.update(viewContext.getViewModel(), createGraph(size), viewContext);
+            final KNode newGraph = createGraph(size);
+            reorder.accept(newGraph);
+
+            final long start = System.nanoTime();
+            strategy.update(viewContext.getViewModel(), newGraph, viewContext);
+            if (run >= 0) {
+                times[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-10s %7d nodes: %9.2f ms", scenario, size,
+                (double) times[RUNS / 2] / NANOS_PER_MILLI));
+    }
+
+    private static KNode createGraph(final int size) {
+        final KNode graph = KGraphUtil.createInitializedNode();
+        for (int i = 0; i < size; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            final KIdentifier identifier = KGraphFactory.eINSTANCE.createKIdentifier();
+            identifier.setId("node" + i);
+            node.getData().add(identifier);
+            graph.getChildren().add(node);
+        }
+        return graph;
+    }
+}
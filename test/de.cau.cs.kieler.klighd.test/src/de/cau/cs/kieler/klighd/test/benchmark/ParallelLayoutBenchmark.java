@@ -0,0 +1,137 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test.benchmark;
+
+import java.util.Arrays;
+
+import de.cau.cs.kieler.klighd.IDiagramWorkbenchPart;
+import de.cau.cs.kieler.klighd.Klighd;
+import de.cau.cs.kieler.klighd.LightDiagramLayoutConfig;
+import de.cau.cs.kieler.klighd.ViewContext;
+import de.cau.cs.kieler.klighd.kgraph.KEdge;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRectangle;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KText;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+
+/**
+ * Measures the layout of hierarchical diagrams in
+ * {@link LightDiagramLayoutConfig#parallel(Boolean) parallel} mode against the sequential layout.
+ * This is no test and is not run by the build, run its {@link #main(String[])} method as a Java
+ * application to get the median time of each mode. The parallelism is that of the common fork/join
+ * pool, configured by the system property
+ * {@code java.util.concurrent.ForkJoinPool.common.parallelism}.<br>
+ * The diagrams are laid out as view models of a {@link ViewContext}, like displayed diagrams. All
+ * their elements are observed by the source model tracking adapter of the view context, so the
+ * layout is applied in the calling thread in both modes, and the difference stems from the parallel
+ * size estimation.
+ */
+public final class ParallelLayoutBenchmark {
+
+    /** The number of child nodes of each group node. */
+    private static final int NODES_PER_GROUP = 50;
+
+    /** The numbers of group nodes. */
+    private static final int[] GROUPS = { 20, 200 };
+
+    private static final int WARMUP_RUNS = 3;
+
+    private static final int RUNS = 7;
+
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private static final KRenderingFactory FACTORY = KRenderingFactory.eINSTANCE;
+
+    private ParallelLayoutBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(final String[] args) {
+        if (!Klighd.IS_PLATFORM_RUNNING) {
+            KlighdStandaloneSetup.initialize();
+        }
+        System.out.println("Processors: " + Runtime.getRuntime().availableProcessors());
+        for (final int groups : GROUPS) {
+            final double sequential = run(groups, false);
+            final double parallel = run(groups, true);
+            System.out.println(String.format(
+                    "%6d nodes: sequential %9.2f ms, parallel %9.2f ms, speedup %5.2f",
+                    groups * (NODES_PER_GROUP + 1), sequential, parallel, sequential / parallel));
+        }
+    }
+
+    /**
+     * Lays out fresh diagrams of the given size and returns the median time in milliseconds.
+     */
+    private static double run(final int groups, final boolean parallel) {
+        final long[] times = new long[RUNS];
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            // the view model of a view context, as laid out for a displayed diagram
+            final ViewContext viewContext = new ViewContext((IDiagramWorkbenchPart) null, null);
+            addGraph(viewContext.getViewModel(), groups);
+            final LightDiagramLayoutConfig config =
+                    new LightDiagramLayoutConfig(viewContext).animate(false).parallel(parallel);
+
+            final long start = System.nanoTime();
+            config.performLayout();
+            if (run >= 0) {
+                times[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(times);
+        return (double) times[RUNS / 2] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Adds the given number of group nodes, each containing a chain of labeled child nodes.
+     */
+    private static void addGraph(final KNode root, final int groups) {
+        for (int g = 0; g < groups; g++) {
+            final KNode group = createNode("group " + g);
+            root.getChildren().add(group);
+            KNode previous = null;
+            for (int i = 0; i < NODES_PER_GROUP; i++) {
+                final KNode node = createNode("node " + g + "." + i);
+                group.getChildren().add(node);
+                if (previous != null) {
+                    final KEdge edge = KGraphUtil.createInitializedEdge();
+                    edge.getData().add(FACTORY.createKPolyline());
+                    edge.setSource(previous);
+                    edge.setTarget(node);
+                }
+                previous = node;
+            }
+        }
+    }
+
+    private static KNode createNode(final String text) {
+        final KNode node = KGraphUtil.createInitializedNode();
+        final KRectangle rectangle = FACTORY.createKRectangle();
+        final KText kText = FACTORY.createKText();
+        kText.setText(text);
+        rectangle.getChildren().add(kText);
+        node.getData().add(rectangle);
+        return node;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://rtsys.informatik.uni-kiel.de/kieler
+ *
+ * Copyright 2026 by
+ * + Kiel University
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package de.cau.cs.kieler.klighd.test.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.klighd.Klighd;
+import de.cau.cs.kieler.klighd.kgraph.KNode;
+import de.cau.cs.kieler.klighd.kgraph.util.KGraphUtil;
+import de.cau.cs.kieler.klighd.krendering.KRectangle;
+import de.cau.cs.kieler.klighd.krendering.KRendering;
+import de.cau.cs.kieler.klighd.krendering.KRenderingFactory;
+import de.cau.cs.kieler.klighd.krendering.KRenderingLibrary;
+import de.cau.cs.kieler.klighd.krendering.KRenderingRef;
+import de.cau.cs.kieler.klighd.krendering.KText;
+import de.cau.cs.kieler.klighd.microlayout.PlacementUtil;
+import de.cau.cs.kieler.klighd.setup.KlighdStandaloneSetup;
+
+/**
+ * Measures the size estimation of many nodes showing the same rendering, once referenced from a
+ * rendering library, whose estimated size is cached, and once as a copy per node, which is
+ * estimated for each node. This is no test and is not run by the build, run its
+ * {@link #main(String[])} method as a Java application to get the median time of each variant.
+ * Each run starts with empty caches.
+ */
+public final class ReferencedRenderingSizeBenchmark {
+
+    private static final int NODES = 10000;
+
+    /** The number of texts within the shared rendering. */
+    private static final int TEXTS = 5;
+
+    private static final int WARMUP_RUNS = 5;
+
+    private static final int RUNS = 11;
+
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private static final KRenderingFactory FACTORY = KRenderingFactory.eINSTANCE;
+
+    private ReferencedRenderingSizeBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(final String[] args) {
+        if (!Klighd.IS_PLATFORM_RUNNING) {
+            KlighdStandaloneSetup.initialize();
+        }
+        run("referenced", true);
+        run("copied", false);
+    }
+
+    private static void run(final String variant, final boolean referenced) {
+        final CacheStats before = PlacementUtil.getReferencedRenderingSizeCacheStats();
+        final long[] times = new long[RUNS];
+        // keeps the estimations from being optimized away
+        float sink = 0;
+        for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+            final List<KNode> nodes = createNodes(referenced);
+            PlacementUtil.invalidateTextSizeCache();
+
+            final long start = System.nanoTime();
+            for (final KNode node : nodes) {
+                sink += PlacementUtil.estimateSize(node).getWidth();
+            }
+            if (run >= 0) {
+                times[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(times);
+        // the cache statistics of all runs of this variant
+        final CacheStats stats =
+                PlacementUtil.getReferencedRenderingSizeCacheStats().minus(before);
+        System.out.println(String.format("%-10s %d nodes: %8.2f ms (cache hits %d, misses %d, %s)",
+                variant, NODES, (double) times[RUNS / 2] / NANOS_PER_MILLI, stats.hitCount(),
+                stats.missCount(), sink));
+    }
+
+    private static List<KNode> createNodes(final boolean referenced) {
+        final KNode root = KGraphUtil.createInitializedNode();
+        final KRectangle rendering = createRendering();
+        final KRenderingLibrary library = FACTORY.createKRenderingLibrary();
+        library.getRenderings().add(rendering);
+        root.getData().add(library);
+
+        final List<KNode> nodes = Lists.newArrayListWithCapacity(NODES);
+        for (int i = 0; i < NODES; i++) {
+            final KNode node = KGraphUtil.createInitializedNode();
+            final KRendering nodeRendering;
+            if (referenced) {
+                final KRenderingRef ref = FACTORY.createKRenderingRef();
+                ref.setRendering(rendering);
+                nodeRendering = ref;
+            } else {
+                nodeRendering = EcoreUtil.copy(rendering);
+            }
+            node.getData().add(nodeRendering);
+            root.getChildren().add(node);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static KRectangle createRendering() {
+        final KRectangle rectangle = FACTORY.createKRectangle();
+        rectangle.setChildPlacement(FACTORY.createKGridPlacement());
+        for (int i = 0; i < TEXTS; i++) {
+            final KText text = FACTORY.createKText();
+            text.setText("shared text " + i);
+            rectangle.getChildren().add(text);
+        }
+        return rectangle;
+    }
+}